@@ -1,8 +1,6 @@
 package config;
 
-import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
-import java.util.Locale;
 
 /**
  * Konfiguration für Anwendungseinstellungen.
@@ -37,6 +35,41 @@ public final class ApplicationConfig {
      */
     public static final String DEFAULT_ENCODING = "UTF-8";
 
+    /**
+     * Anzahl Zeilen pro Block beim gestreamten Laden von Abfrageergebnissen in die Tabelle.
+     */
+    public static final int STREAM_BATCH_SIZE = 2_000;
+
+    /**
+     * Ab dieser (geschätzten) Anzahl Gruppen warnt der Gruppierungsdialog vor dem Anwenden.
+     */
+    public static final int GROUPING_WARN_GROUPS = 5_000;
+
+    /**
+     * Gemeinsames Speicherbudget (MB) aller Daten-Caches, anteilig auf die Cache-Regionen verteilt.
+     * Überschreibbar per {@code -Dvias.cache.budgetMb=...}.
+     */
+    public static final int CACHE_MEMORY_BUDGET_MB = Integer.getInteger("vias.cache.budgetMb", 256);
+
+    /**
+     * Anzahl Verbindungen mit eigenem Statement-Cache für parametrisierte Abfragen – so viele, wie
+     * Lader gleichzeitig abfragen können (Tabellen-Pool, Dashboard, Cover-Seiten).
+     * Überschreibbar per {@code -Dvias.db.statementConnections=...}.
+     */
+    public static final int DB_STATEMENT_CACHE_CONNECTIONS = Integer.getInteger("vias.db.statementConnections",
+            Math.max(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Anzahl paralleler Kopier-Threads für den Audit-Dokumentenexport.
+     * Ausgelegt auf Netzwerk-I/O (SMB-Freigabe), nicht auf CPU-Kerne.
+     */
+    public static final int AUDIT_COPY_THREADS = 8;
+
+    /**
+     * Maximale Editierdistanz für den unscharfen SB-Abgleich (Tippfehler in der Audit-Excel).
+     */
+    public static final int AUDIT_FUZZY_MAX_DISTANCE = 2;
+
     /**
      * Der Ordner für E-Mail-Anhänge.
      */
@@ -66,18 +99,6 @@ public final class ApplicationConfig {
      */
     public static final DateTimeFormatter DATE_OUTPUT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
 
-    /**
-     * Zahlenformat für deutsche Geldbeträge mit zwei Nachkommastellen.
-     * Verwendet die {@link Locale#GERMANY} für länderspezifische Formatierung.
-     */
-    public static final NumberFormat MONEY_FORMAT = NumberFormat.getNumberInstance(Locale.GERMANY);
-
-    static {
-        // Konfiguriert das MONEY_FORMAT, um immer genau zwei Nachkommastellen anzuzeigen.
-        MONEY_FORMAT.setMinimumFractionDigits(2);
-        MONEY_FORMAT.setMaximumFractionDigits(2);
-    }
-
     /**
      * Privater Konstruktor, um die Instanziierung dieser Utility-Klasse zu verhindern.
      * Da alle Felder und Methoden statisch sind, ist keine Objektinstanz erforderlich.
@@ -1,11 +1,14 @@
 package file.handler;
 
+import config.ApplicationConfig;
 import file.pivot.PivotProcessor;
 import file.reader.XlsxReader;
+import file.writer.SplitXlsxWriter;
 import file.writer.XlsxWriter;
 import model.PivotConfig;
 import model.RowData;
 import model.enums.ExportFormat;
+import model.op.OpInvoice;
 
 import java.util.List;
 
@@ -39,6 +42,8 @@ public class XlsxFileHandler implements FileHandler {
     /**
      * Schreibt eine Liste von {@link RowData}-Objekten in eine XLSX-Datei.
      * Die Daten werden zusammen mit den angegebenen Headern in die Ausgabedatei geschrieben.
+     * Mehr als {@link ApplicationConfig#MAX_ROWS_PER_FILE} Zeilen werden auf mehrere Blätter
+     * verteilt, die parallel geschrieben werden (siehe {@link SplitXlsxWriter}).
      *
      * @param data       Die Liste der {@link RowData}-Objekte, die geschrieben werden sollen.
      * @param headers    Eine Liste von Strings, die die Header der XLSX-Datei darstellen.
@@ -47,6 +52,14 @@ public class XlsxFileHandler implements FileHandler {
      */
     @Override
     public void write(List<RowData> data, List<String> headers, String outputPath) {
+        if (data != null && data.size() > ApplicationConfig.MAX_ROWS_PER_FILE) {
+            try {
+                new SplitXlsxWriter(SplitXlsxWriter.Mode.SHEETS).write(data, headers, outputPath);
+                return;
+            } catch (Exception e) {
+                throw new RuntimeException("Excel Schreibfehler: " + outputPath, e);
+            }
+        }
         try (XlsxWriter writer = new XlsxWriter(outputPath)) {
             writer.writeCustomData(data, headers);
         } catch (Exception e) {
@@ -125,4 +138,15 @@ public class XlsxFileHandler implements FileHandler {
             throw new RuntimeException("Excel Schreibfehler: " + outputPath, e);
         }
     }
+
+    /**
+     * Schreibt verdichtete OP-Rechnungen in eine XLSX-Datei (Beträge und Daten als typisierte Zellen).
+     */
+    public void writeOpInvoices(List<OpInvoice> invoices, List<String> headers, String outputPath) {
+        try (XlsxWriter writer = new XlsxWriter(outputPath)) {
+            writer.writeOpInvoices(invoices, headers);
+        } catch (Exception e) {
+            throw new RuntimeException("Excel Schreibfehler: " + outputPath, e);
+        }
+    }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package file.pivot;
 
 import config.ApplicationConfig;
+import model.ColumnProfile;
+import model.ColumnProfiler;
 import model.PivotConfig;
 import model.RowData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * High-Level Prozessor für Pivot-Operationen.
@@ -21,6 +24,11 @@ public class PivotProcessor {
 
     private static final Logger logger = LoggerFactory.getLogger(PivotProcessor.class);
 
+    /**
+     * Ab dieser (geschätzten) Anzahl Gruppen wird vor Performance-Problemen gewarnt.
+     */
+    public static final long MAX_GROUPS_WITHOUT_WARNING = ApplicationConfig.MAX_ROWS_PER_FILE / 10;
+
     /**
      * Erstellt eine Standard-{@link PivotConfig} speziell für Dokumentdaten.
      *
@@ -136,20 +144,36 @@ public class PivotProcessor {
         }
 
         String statistics = PivotTransformer.getPivotStatistics(data, config.getGroupByColumn());
+        Map<String, ColumnProfile> profiles = profileColumns(data, config);
 
         return String.format(
                 "%s\n" +
                         "Konfiguration:\n" +
-                        "- Gruppierung: %s\n" +
-                        "- Pivot-Spalte: %s\n" +
+                        "- Gruppierung: %s (%s)\n" +
+                        "- Pivot-Spalte: %s (%s)\n" +
                         "- Beibehaltene Spalten: %s",
                 statistics,
                 config.getGroupByColumn(),
+                profiles.get(config.getGroupByColumn()).summary(),
                 config.getPivotColumn(),
+                profiles.get(config.getPivotColumn()).summary(),
                 String.join(", ", config.getKeepColumns())
         );
     }
 
+    /**
+     * Profiliert GroupBy- und Pivot-Spalte in einem Durchlauf (geschätzte Kardinalität,
+     * häufigste Werte, Leeranteil), z. B. um vor einem Pivot mit zu vielen Gruppen zu warnen.
+     *
+     * @param data   Die Originaldaten.
+     * @param config Die {@link PivotConfig}.
+     * @return Spalte → Profil für GroupBy- und Pivot-Spalte.
+     */
+    public Map<String, ColumnProfile> profileColumns(List<RowData> data, PivotConfig config) {
+        return ColumnProfiler.profile(data, List.of(config.getGroupByColumn(), config.getPivotColumn()).stream()
+                .distinct().toList());
+    }
+
     /**
      * Validiert die gegebene {@link PivotConfig} gegen die bereitgestellten Daten.
      * Diese Methode überprüft, ob die für die Pivot-Operation erforderlichen Spalten
@@ -195,13 +219,10 @@ public class PivotProcessor {
             }
         }
 
-        // Prüfen auf zu viele Pivot-Einträge (Performance-Schutz)
-        long distinctGroups = data.stream()
-                .map(row -> row.getValues().get(groupBy))
-                .distinct()
-                .count();
+        // Prüfen auf zu viele Pivot-Einträge (Performance-Schutz) – geschätzt statt distinct() über alle Werte
+        long distinctGroups = ColumnProfiler.profile(data, groupBy).distinctEstimate();
 
-        if (distinctGroups > ApplicationConfig.MAX_ROWS_PER_FILE / 10) {
+        if (distinctGroups > MAX_GROUPS_WITHOUT_WARNING) {
             logger.warn("⚠️ Warnung: Sehr viele Gruppen ({}) - Performance könnte leiden", distinctGroups);
         }
     }
@@ -1,10 +1,12 @@
 package file.writer;
 
+import formatter.ColumnFormatPlan;
+import formatter.ColumnValueFormatter;
 import model.RowData;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Schnittstelle für schreibende Dateiformate (CSV/XLSX, etc.).
@@ -37,10 +39,8 @@ public interface DataWriter extends AutoCloseable {
      * @throws IOException bei I/O-Fehlern
      */
     default void writeFormattedRow(RowData row) throws IOException {
-        List<String> formatted = row.getValues().keySet().stream()
-                .map(col -> formatter.ColumnValueFormatter.format(row, col))
-                .collect(Collectors.toList());
-        writeFormattedRecord(formatted);
+        ColumnFormatPlan plan = ColumnValueFormatter.plan(row.getValues().keySet());
+        writeFormattedRecord(Arrays.asList(plan.formatRow(row)));
     }
 
     /**
@@ -0,0 +1,134 @@
+package file.writer;
+
+import model.RowData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Gruppenwechsel-Erkennung ("Control Break") für bereits nach den Gruppierungsspalten
+ * sortierte Zeilen.
+ * <p>
+ * Hält nur den Pfad der aktuellen Gruppe; {@link #next(RowData)} meldet, ab welcher Ebene
+ * sich der Pfad gegenüber der Vorzeile ändert. Damit können die gruppierten Writer Gruppen
+ * öffnen und schließen, ohne das Ergebnis vorher komplett zu sammeln.
+ * </p>
+ */
+final class GroupBreaks {
+
+    /**
+     * Mapping der UI-Gruppierlabels auf die tatsächlichen Keys in RowData.getValues()
+     */
+    private static final Map<String, String> UI_TO_DATA_KEY_MAP;
+
+    static {
+        Map<String, String> map = new HashMap<>();
+        // Komponierte Keys
+        map.put("Gesellschaft", "Gesellschaft_Name");
+        map.put("Versicherungsart", "Versicherungsart_Text");
+        map.put("Versicherungssparte", "Vertragsparte_Text"); // LU_ART_Text, s. GroupingUtil
+        map.put("Beteiligungsform", "Beteiligungsform_Text");
+        map.put("Cover Art", "Vertragsparte_Text");
+        map.put("Sachbearbeiter (Vertrag)", "SB_Vertr");
+        map.put("Sachbearbeiter (Schaden)", "SB_Schad");
+        map.put("Versicherungsschein Nr", "Versicherungsschein_Nr");
+        map.put("Versicherungsnehmer", "Versicherungsnehmer_Name");
+        // Identische UI/Data Keys
+        map.put("Makler", "Makler");
+        UI_TO_DATA_KEY_MAP = Collections.unmodifiableMap(map);
+    }
+
+    private final List<String> dataKeys;
+    private final String[] current;
+    private boolean started;
+
+    GroupBreaks(List<String> groupByKeys) {
+        this.dataKeys = dataKeys(groupByKeys);
+        this.current = new String[dataKeys.size()];
+    }
+
+    /**
+     * UI-Label → Key in RowData (unbekannte Labels werden unverändert übernommen).
+     */
+    static String dataKey(String uiKey) {
+        return UI_TO_DATA_KEY_MAP.getOrDefault(uiKey, uiKey);
+    }
+
+    static List<String> dataKeys(List<String> groupByKeys) {
+        if (groupByKeys == null) return List.of();
+        List<String> out = new ArrayList<>(groupByKeys.size());
+        for (String k : groupByKeys) out.add(dataKey(k));
+        return List.copyOf(out);
+    }
+
+    /**
+     * Übernimmt den Pfad der Zeile.
+     *
+     * @return erste geänderte Ebene: 0 für die erste Zeile, {@link #depth()} wenn die Zeile
+     * zur selben Gruppe gehört wie die vorherige
+     */
+    int next(RowData row) {
+        int change = changeLevel(row);
+        advance(row, change);
+        return change;
+    }
+
+    /**
+     * Wie {@link #next(RowData)}, ohne den Pfad zu übernehmen – die Werte der endenden Gruppen
+     * bleiben über {@link #value(int)} lesbar, bis {@link #advance(RowData, int)} folgt.
+     */
+    int changeLevel(RowData row) {
+        if (!started) return 0;
+        Map<String, String> values = row.getValues();
+        for (int level = 0; level < current.length; level++) {
+            if (!Objects.equals(current[level], valueOf(values, level))) return level;
+        }
+        return current.length;
+    }
+
+    /**
+     * Übernimmt die Werte der Zeile ab Ebene {@code from}.
+     */
+    void advance(RowData row, int from) {
+        Map<String, String> values = row.getValues();
+        for (int level = from; level < current.length; level++) {
+            current[level] = valueOf(values, level);
+        }
+        started = true;
+    }
+
+    private String valueOf(Map<String, String> values, int level) {
+        String value = values.get(dataKeys.get(level));
+        return value == null ? "" : value;
+    }
+
+    int depth() {
+        return current.length;
+    }
+
+    boolean started() {
+        return started;
+    }
+
+    /**
+     * Wert der aktuellen Gruppe auf der Ebene.
+     */
+    String value(int level) {
+        return current[level];
+    }
+
+    /**
+     * Werte der aktuellen Gruppe über alle Ebenen, mit {@code separator} verbunden.
+     */
+    String joined(String separator) {
+        return String.join(separator, current);
+    }
+
+    List<String> dataKeys() {
+        return dataKeys;
+    }
+}
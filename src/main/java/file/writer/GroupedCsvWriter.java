@@ -6,7 +6,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -26,6 +29,10 @@ import java.util.*;
  * <p>
  * # Gruppe: Wert3 / Wert4
  * Daten1,Daten2,Daten3,...
+ * <p>
+ * Kommen die Zeilen bereits nach den Gruppierungsspalten sortiert (ORDER BY in der Abfrage),
+ * schreibt {@link #openSorted(String, List)} dasselbe Format zeilenweise per Gruppenwechsel,
+ * ohne das Ergebnis im Speicher zu sammeln.
  *
  * @author Ihr Team
  * @version 3.0 - Hierarchische Darstellung
@@ -76,6 +83,110 @@ public class GroupedCsvWriter {
         }
     }
 
+    /**
+     * Öffnet einen Export für Zeilen, die bereits nach {@code groupByKeys} sortiert ankommen.
+     * <p>
+     * Ein Gruppen-Header wird geschrieben, sobald sich der Gruppenschlüssel gegenüber der
+     * Vorzeile ändert; gehalten wird nur die aktuelle Gruppe. Für sortierte Eingabe ist die
+     * Ausgabe identisch mit {@link #writeGrouped(List, List, String)}.
+     * </p>
+     *
+     * @param outputPath  Ausgabepfad der CSV-Datei
+     * @param groupByKeys Gruppierungs-Labels bzw. -Keys (null/leer = flach)
+     */
+    public SortedWriter openSorted(String outputPath, List<String> groupByKeys) throws IOException {
+        logger.info("Starte sortierten CSV-Export nach: {} (Gruppierung: {})", outputPath,
+                groupByKeys != null && !groupByKeys.isEmpty() ? "Ja" : "Nein");
+        return new SortedWriter(outputPath, new BufferedWriter(new FileWriter(outputPath, StandardCharsets.UTF_8)),
+                new GroupBreaks(groupByKeys));
+    }
+
+    /**
+     * Zeilenweiser CSV-Export mit Gruppenwechsel, siehe {@link #openSorted(String, List)}.
+     */
+    public final class SortedWriter implements AutoCloseable {
+        private final String outputPath;
+        private final BufferedWriter writer;
+        private final GroupBreaks breaks;
+        private List<String> headers;
+        private int groups;
+        private long rows;
+        private boolean failed;
+
+        private SortedWriter(String outputPath, BufferedWriter writer, GroupBreaks breaks) {
+            this.outputPath = outputPath;
+            this.writer = writer;
+            this.breaks = breaks;
+        }
+
+        public void write(RowData row) throws IOException {
+            if (failed) {
+                throw new IllegalStateException("CSV-Export nach Fehler abgebrochen");
+            }
+            try {
+                writeRow(row);
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        /**
+         * Verwirft den Export: {@link #close()} schließt dann nur die Datei und löscht sie wieder.
+         */
+        public void abort() {
+            failed = true;
+        }
+
+        private void writeRow(RowData row) throws IOException {
+            if (headers == null) {
+                // Header aus der ersten Zeile
+                headers = new ArrayList<>(row.getValues().keySet());
+                writeLine(writer, headers);
+            }
+            if (breaks.depth() > 0 && breaks.next(row) < breaks.depth()) {
+                if (groups++ > 0) {
+                    writer.newLine();
+                }
+                writer.write(GRUPPE_PREFIX + breaks.joined(" / ") + " /");
+                writer.newLine();
+            }
+            writeLine(writer, extractValues(row, headers));
+            rows++;
+        }
+
+        public void writeAll(List<RowData> batch) throws IOException {
+            for (RowData row : batch) write(row);
+        }
+
+        public int groups() {
+            return groups;
+        }
+
+        /**
+         * RowData-Keys, nach denen die Zeilen sortiert ankommen müssen (in Ebenenreihenfolge).
+         */
+        public List<String> sortKeys() {
+            return breaks.dataKeys();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (failed) {
+                // keine unvollständige Datei hinterlassen
+                try {
+                    writer.close();
+                } finally {
+                    Files.deleteIfExists(Path.of(outputPath));
+                }
+                logger.warn("⚠️ Sortierter CSV-Export abgebrochen, Datei verworfen: {}", outputPath);
+                return;
+            }
+            writer.close();
+            logger.info("Sortierter CSV-Export abgeschlossen: {} Zeilen, {} Gruppen", rows, groups);
+        }
+    }
+
     /**
      * Schreibt flache CSV ohne Gruppierung.
      */
@@ -157,7 +268,7 @@ public class GroupedCsvWriter {
 
     /**
      * Erstellt einen Gruppenschlüssel aus den Werten der angegebenen Keys.
-     * Mehrere Keys werden mit " / " verbunden.
+     * Mehrere Keys werden mit " / " verbunden; UI-Labels werden auf die Data-Keys gemappt.
      */
     private String buildGroupKey(RowData row, List<String> keys) {
         StringBuilder sb = new StringBuilder();
@@ -165,7 +276,7 @@ public class GroupedCsvWriter {
             if (i > 0) {
                 sb.append(" / ");
             }
-            String value = row.getValues().get(keys.get(i));
+            String value = row.getValues().get(GroupBreaks.dataKey(keys.get(i)));
             sb.append(safe(value));
         }
         return sb.toString();
@@ -186,7 +297,7 @@ public class GroupedCsvWriter {
     /**
      * Schreibt eine Zeile mit korrektem CSV-Escaping.
      */
-    private void writeLine(BufferedWriter writer, List<String> columns) throws Exception {
+    private void writeLine(BufferedWriter writer, List<String> columns) throws IOException {
         StringBuilder sb = new StringBuilder();
         boolean first = true;
 
@@ -1,12 +1,20 @@
 package file.writer;
 
+import formatter.FormatEngine;
+import gui.controller.service.FormatterService;
+import model.KahanSum;
 import model.RowData;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -15,9 +23,19 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * <p>
  * - Jede Gruppierungsebene bekommt eine Gruppen-Zeile in der passenden Spalte.
  * - Datenzeilen folgen mit optionaler Einrückung (über Indention) und Excel-Gruppierung (+/-).
+ * <p>
+ * Gruppen werden per Gruppenwechsel erkannt: Die Zeilen müssen nach den Gruppierungsspalten
+ * sortiert ankommen (z. B. per ORDER BY). Geschrieben wird über {@link SXSSFWorkbook} mit
+ * festem Zeilenfenster; {@link #openSorted(String, List)} nimmt die Zeilen einzeln bzw.
+ * blockweise entgegen, sodass auch sehr große Exporte nicht komplett im Speicher liegen.
+ * <p>
+ * Geldspalten ({@link FormatterService#isMoneyField(String)}) werden im selben Durchlauf je
+ * Ebene kompensiert summiert ({@link KahanSum}); beim Schließen einer Gruppe folgt eine
+ * Zwischensummen-Zeile, am Ende die Gesamtsumme – als feste Werte, nicht als Formeln, damit
+ * Excel bei großen Blättern nichts nachrechnen muss.
  *
  * @author Team
- * @version 3.2 — Fix: Spaltenzuordnung über UI->Data-Key Mapping
+ * @version 4.1 — Zwischensummen je Gruppenebene
  */
 public class GroupedXlsxWriter {
 
@@ -26,31 +44,36 @@ public class GroupedXlsxWriter {
     // Nur einmal die verfügbaren Keys loggen (sonst sehr viel Output)
     private static final AtomicBoolean LOGGED_KEYS = new AtomicBoolean(false);
     private static final boolean COLLAPSE_GROUPS_BY_DEFAULT = true;
+    // Zeilen, die SXSSF im Speicher hält; ältere werden in die Temp-Datei geschrieben
+    private static final int ROW_WINDOW = 200;
+    private static final String SUBTOTAL_PREFIX = "Summe ";
+    private static final String GRAND_TOTAL_LABEL = "Gesamtsumme";
+
+    private boolean subtotals = true;
+    private boolean outline = true;
+
+    /**
+     * Zwischen- und Gesamtsummen der Geldspalten schreiben (Standard: ja).
+     */
+    public GroupedXlsxWriter withSubtotals(boolean subtotals) {
+        this.subtotals = subtotals;
+        return this;
+    }
 
     /**
-     * Mapping der UI-Gruppierlabels auf die tatsächlichen Keys in RowData.getValues()
+     * Excel-Gliederung (+/-) über die Gruppenebenen setzen (Standard: ja).
      */
-    private static final Map<String, String> UI_TO_DATA_KEY_MAP;
-
-    static {
-        Map<String, String> map = new HashMap<>();
-        // Komponierte Keys
-        map.put("Gesellschaft", "Gesellschaft_Name");
-        map.put("Versicherungsart", "Versicherungsart_Text");
-        map.put("Versicherungssparte", "Versicherungssparte_Text");
-        map.put("Beteiligungsform", "Beteiligungsform_Text");
-        map.put("Cover Art", "Vertragsparte_Text");
-        map.put("Sachbearbeiter (Vertrag)", "SB_Vertr");
-        map.put("Sachbearbeiter (Schaden)", "SB_Schad");
-        map.put("Versicherungsschein Nr", "Versicherungsschein_Nr");
-        map.put("Versicherungsnehmer", "Versicherungsnehmer_Name");
-        // Identische UI/Data Keys
-        map.put("Makler", "Makler");
-        UI_TO_DATA_KEY_MAP = Collections.unmodifiableMap(map);
+    public GroupedXlsxWriter withOutline(boolean outline) {
+        this.outline = outline;
+        return this;
     }
 
     /**
      * Hauptmethode: schreibt XLSX gruppiert oder flach.
+     * <p>
+     * Gruppen entstehen in der Reihenfolge der Liste (Gruppenwechsel); für zusammenhängende
+     * Gruppen muss die Liste nach {@code groupByKeys} sortiert sein.
+     * </p>
      *
      * @param rows        Datenzeilen (RowData.values() = Map<String,String>)
      * @param groupByKeys UI-Labels der Gruppierung (null/leer -> flach)
@@ -63,267 +86,318 @@ public class GroupedXlsxWriter {
             rows = Collections.emptyList();
         }
 
+        try (SortedWriter writer = openSorted(outputPath, groupByKeys)) {
+            writer.writeAll(rows);
+        }
+    }
+
+    /**
+     * Öffnet einen XLSX-Export für Zeilen, die bereits nach {@code groupByKeys} sortiert ankommen.
+     * Die Datei wird beim {@link SortedWriter#close()} geschrieben.
+     *
+     * @param outputPath  Zielpfad
+     * @param groupByKeys UI-Labels der Gruppierung (null/leer -> flach)
+     */
+    public SortedWriter openSorted(String outputPath, List<String> groupByKeys) {
         logger.info("Starte hierarchischen XLSX-Export nach: {} (Gruppierung: {})",
                 outputPath, (groupByKeys != null && !groupByKeys.isEmpty()) ? "Ja" : "Nein");
+        return new SortedWriter(outputPath, groupByKeys == null ? List.of() : List.copyOf(groupByKeys));
+    }
 
-        // Header aus der ersten Zeile ableiten (Reihenfolge = Reihenfolge der Map im RowData)
-        final List<String> headers = rows.isEmpty()
-                ? Collections.emptyList()
-                : new ArrayList<>(rows.get(0).getValues().keySet());
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Export");
+    /**
+     * Zeilenweiser XLSX-Export mit Gruppenwechsel, siehe {@link #openSorted(String, List)}.
+     */
+    public final class SortedWriter implements AutoCloseable {
+        private final String outputPath;
+        private final List<String> groupByKeys;
+        private final GroupBreaks breaks;
+        private final SXSSFWorkbook workbook;
+        private final SXSSFSheet sheet;
+
+        // Styles: einmal je Ebene statt je Zeile
+        private final CellStyle headerStyle;
+        private final CellStyle dataStyle;
+        private final CellStyle[] groupStyles;
+        private final CellStyle[] indentedDataStyles;
+        private final CellStyle[] totalLabelStyles;
+        private final CellStyle totalMoneyStyle;
+
+        private List<String> headers;
+        private int[] groupColumns;
+        // Geldspalten und ihre Summen: totals[0] = gesamt, totals[level + 1] = offene Gruppe der Ebene
+        private int[] moneyColumns;
+        private KahanSum[][] totals;
+        private int rowIndex;
+        private int groups;
+        private boolean failed;
+
+        private SortedWriter(String outputPath, List<String> groupByKeys) {
+            this.outputPath = outputPath;
+            this.groupByKeys = groupByKeys;
+            this.breaks = new GroupBreaks(groupByKeys);
+            this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+            this.sheet = workbook.createSheet("Export");
             sheet.setRowSumsBelow(false);   // summary au-dessus
             sheet.setRowSumsRight(false);   // (optionnel) outline à gauche
+            sheet.trackAllColumnsForAutoSizing();
 
-            // Styles
-            CellStyle headerStyle = createHeaderStyle(workbook);
-            CellStyle dataStyle = createDataStyle(workbook);
+            this.headerStyle = createHeaderStyle(workbook);
+            this.dataStyle = createDataStyle(workbook);
             CellStyle groupStyle = createGroupHeaderStyle(workbook);
 
-            int rowIndex;
-
-            if (groupByKeys == null || groupByKeys.isEmpty()) {
-                // Flach
-                rowIndex = writeFlatXlsx(sheet, headers, rows, headerStyle, dataStyle);
-                logger.info("Flacher XLSX-Export abgeschlossen: {} Zeilen", rows.size());
-            } else {
-                // Sicherheit: prüfen, ob alle UI-Keys auf existierende header-Keys mappen
-                validateGroupByKeys(headers, groupByKeys);
-
-                // Hierarchisch
-                rowIndex = writeHierarchicalXlsx(sheet, headers, rows, groupByKeys,
-                        headerStyle, groupStyle, dataStyle);
-                logger.info("Hierarchischer XLSX-Export abgeschlossen");
+            int depth = breaks.depth();
+            this.groupStyles = new CellStyle[depth];
+            this.indentedDataStyles = new CellStyle[depth + 1];
+            for (int level = 0; level < depth; level++) {
+                groupStyles[level] = indented(groupStyle, level);
             }
-
-            // AutoSize + Freeze
-            autoSizeColumns(sheet, headers.size());
-            if (rowIndex > 1) {
-                sheet.createFreezePane(0, 1);
+            indentedDataStyles[0] = dataStyle;
+            for (int level = 1; level <= depth; level++) {
+                indentedDataStyles[level] = indented(dataStyle, level);
             }
-
-            try (FileOutputStream fos = new FileOutputStream(outputPath)) {
-                workbook.write(fos);
+            CellStyle totalStyle = createTotalStyle(workbook);
+            this.totalLabelStyles = new CellStyle[Math.max(1, depth)];
+            for (int level = 0; level < totalLabelStyles.length; level++) {
+                totalLabelStyles[level] = indented(totalStyle, level);
             }
+            this.totalMoneyStyle = workbook.createCellStyle();
+            totalMoneyStyle.cloneStyleFrom(totalStyle);
+            totalMoneyStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
         }
 
-        logger.info("XLSX-Datei erfolgreich gespeichert: {}", outputPath);
-    }
-
-    /* --------------------- Flat --------------------- */
+        private CellStyle indented(CellStyle base, int level) {
+            if (level == 0) return base;
+            CellStyle style = workbook.createCellStyle();
+            style.cloneStyleFrom(base);
+            style.setIndention((short) level);
+            return style;
+        }
 
-    private int writeFlatXlsx(Sheet sheet, List<String> headers, List<RowData> rows,
-                              CellStyle headerStyle, CellStyle dataStyle) {
-        int rowIndex = 0;
+        public void write(RowData rowData) {
+            if (failed) {
+                throw new IllegalStateException("XLSX-Export nach Fehler abgebrochen");
+            }
+            try {
+                writeRow(rowData);
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
 
-        // Spalten-Header
-        Row headerRow = sheet.createRow(rowIndex++);
-        for (int c = 0; c < headers.size(); c++) {
-            Cell cell = headerRow.createCell(c);
-            cell.setCellValue(headers.get(c));
-            cell.setCellStyle(headerStyle);
+        /**
+         * Verwirft den Export: {@link #close()} gibt dann nur die Arbeitsmappe frei und löscht
+         * die Zieldatei, statt ein unvollständiges Ergebnis (samt Gesamtsumme) zu speichern.
+         */
+        public void abort() {
+            failed = true;
         }
 
-        // Daten
-        for (RowData rowData : rows) {
-            Row excelRow = sheet.createRow(rowIndex++);
-            Map<String, String> vals = rowData.getValues();
+        private void writeRow(RowData rowData) {
+            Map<String, String> values = rowData.getValues();
+            if (headers == null) {
+                start(values);
+            }
 
-            if (LOGGED_KEYS.compareAndSet(false, true)) {
-                logger.warn("VERFÜGBARE RowData Keys: {}", vals.keySet());
+            int depth = breaks.depth();
+            if (depth > 0) {
+                int change = breaks.changeLevel(rowData);
+                if (change < depth) {
+                    // Endende Gruppen schließen (Zwischensummen), dann die neuen öffnen
+                    closeGroups(change);
+                    breaks.advance(rowData, change);
+                    for (int level = change; level < depth; level++) {
+                        writeGroupRow(level);
+                    }
+                }
             }
 
+            // Datenzeile
+            Row dataRow = createRow(depth);
             for (int c = 0; c < headers.size(); c++) {
-                Cell cell = excelRow.createCell(c);
-                String value = safe(vals.get(headers.get(c)));
-                cell.setCellValue(value);
-                cell.setCellStyle(dataStyle);
+                Cell cell = dataRow.createCell(c);
+                cell.setCellValue(safe(values.get(headers.get(c))));
+                cell.setCellStyle(c == 0 ? indentedDataStyles[depth] : dataStyle);
+            }
+            for (int k = 0; k < moneyColumns.length; k++) {
+                double v = FormatEngine.parseDecimal(values.get(headers.get(moneyColumns[k])));
+                if (Double.isNaN(v)) continue;
+                for (KahanSum[] level : totals) level[k].add(v);
             }
         }
 
-        return rowIndex;
-    }
-
-    /* --------------------- Hierarchical (Typ 2) --------------------- */
-
-    private int writeHierarchicalXlsx(Sheet sheet,
-                                      List<String> headers,
-                                      List<RowData> rows,
-                                      List<String> groupByKeys,
-                                      CellStyle headerStyle,
-                                      CellStyle groupStyle,
-                                      CellStyle dataStyle) {
-
-        int rowIndex = 0;
+        public void writeAll(List<RowData> batch) {
+            for (RowData row : batch) write(row);
+        }
 
-        // Globale Spalten-Header-Zeile
-        Row mainHeaderRow = sheet.createRow(rowIndex++);
-        for (int c = 0; c < headers.size(); c++) {
-            Cell cell = mainHeaderRow.createCell(c);
-            cell.setCellValue(headers.get(c));
-            cell.setCellStyle(headerStyle);
+        public int groups() {
+            return groups;
         }
 
-        List<String> lastPathSegments = new ArrayList<>();
-        Map<String, Integer> groupStartRows = new LinkedHashMap<>(); // PfadKey -> Startzeile
+        /**
+         * RowData-Keys, nach denen die Zeilen sortiert ankommen müssen (in Ebenenreihenfolge).
+         */
+        public List<String> sortKeys() {
+            return breaks.dataKeys();
+        }
 
-        for (RowData rowData : rows) {
-            Map<String, String> values = rowData.getValues();
+        /**
+         * Header aus der ersten Zeile ableiten (Reihenfolge = Reihenfolge der Map im RowData).
+         */
+        private void start(Map<String, String> values) {
+            List<String> keys = new ArrayList<>(values.keySet());
             if (LOGGED_KEYS.compareAndSet(false, true)) {
                 logger.warn("VERFÜGBARE RowData Keys: {}", values.keySet());
             }
-
-            List<String> currentPath = buildPathFromKeys(rowData, groupByKeys);
-
-            // Level finden, ab dem sich der Pfad ändert
-            int changeLevel = findChangeLevel(lastPathSegments, currentPath);
-
-            // Vorherige Gruppen schließen
-            if (changeLevel < lastPathSegments.size()) {
-                closeGroupsFromLevel(sheet, groupStartRows, lastPathSegments, changeLevel, rowIndex - 1);
+            if (breaks.depth() > 0) {
+                // Sicherheit: prüfen, ob alle UI-Keys auf existierende header-Keys mappen
+                validateGroupByKeys(keys, groupByKeys);
+            }
+            headers = keys;
+            groupColumns = new int[breaks.depth()];
+            for (int level = 0; level < groupColumns.length; level++) {
+                groupColumns[level] = headers.indexOf(breaks.dataKeys().get(level));
+            }
+            List<Integer> money = new ArrayList<>();
+            for (int c = 0; subtotals && c < headers.size(); c++) {
+                if (FormatterService.isMoneyField(headers.get(c))) money.add(c);
+            }
+            moneyColumns = money.stream().mapToInt(Integer::intValue).toArray();
+            totals = new KahanSum[breaks.depth() + 1][moneyColumns.length];
+            for (KahanSum[] level : totals) {
+                for (int k = 0; k < level.length; k++) level[k] = new KahanSum();
             }
 
-            // Neue Gruppenzeilen für die geänderten Ebenen schreiben
-            for (int level = changeLevel; level < currentPath.size(); level++) {
-                String segmentValue = currentPath.get(level);
-                String uiKey = groupByKeys.get(level);
-                String dataKey = UI_TO_DATA_KEY_MAP.getOrDefault(uiKey, uiKey);
-
-                int columnIndex = headers.indexOf(dataKey); // <<— FIX: nutze dataKey
-                Row groupRow = sheet.createRow(rowIndex);
-
-                if (columnIndex != -1) {
-                    Cell groupCell = groupRow.createCell(columnIndex);
-
-                    CellStyle levelStyle = sheet.getWorkbook().createCellStyle();
-                    levelStyle.cloneStyleFrom(groupStyle);
-                    levelStyle.setIndention((short) level);
+            Row headerRow = sheet.createRow(rowIndex++);
+            for (int c = 0; c < headers.size(); c++) {
+                Cell cell = headerRow.createCell(c);
+                cell.setCellValue(headers.get(c));
+                cell.setCellStyle(headerStyle);
+            }
+        }
 
-                    groupCell.setCellValue(segmentValue);
-                    groupCell.setCellStyle(levelStyle);
+        private void writeGroupRow(int level) {
+            String segmentValue = breaks.value(level);
+            int columnIndex = groupColumns[level];
+            Row groupRow = createRow(level);
+            if (outline) {
+                // Gruppenkopf trägt das +/- der darunterliegenden Zeilen (Summary oberhalb)
+                ((SXSSFRow) groupRow).setCollapsed(COLLAPSE_GROUPS_BY_DEFAULT);
+            }
 
-                    // Optionale Ästhetik: andere Zellen "leeren"
-                    for (int c = 0; c < headers.size(); c++) {
-                        if (c != columnIndex) {
-                            Cell emptyCell = groupRow.createCell(c);
-                            emptyCell.setCellValue("");
-                            emptyCell.setCellStyle(dataStyle);
-                        }
+            if (columnIndex != -1) {
+                for (int c = 0; c < headers.size(); c++) {
+                    Cell cell = groupRow.createCell(c);
+                    if (c == columnIndex) {
+                        cell.setCellValue(segmentValue);
+                        cell.setCellStyle(groupStyles[level]);
+                    } else {
+                        // Optionale Ästhetik: andere Zellen "leeren"
+                        cell.setCellValue("");
+                        cell.setCellStyle(dataStyle);
                     }
-                } else {
-                    // Fallback: wenn die Spalte fehlt, schreibe in Spalte 0 mit Label
-                    Cell fallback = groupRow.createCell(0);
-                    CellStyle levelStyle = sheet.getWorkbook().createCellStyle();
-                    levelStyle.cloneStyleFrom(groupStyle);
-                    levelStyle.setIndention((short) level);
-                    fallback.setCellValue(uiKey + ": " + segmentValue);
-                    fallback.setCellStyle(levelStyle);
                 }
-
-                String pathKey = String.join("\u001F", currentPath.subList(0, level + 1));
-                groupStartRows.put(pathKey, rowIndex);
-                rowIndex++;
+            } else {
+                // Fallback: wenn die Spalte fehlt, schreibe in Spalte 0 mit Label
+                Cell fallback = groupRow.createCell(0);
+                fallback.setCellValue(groupByKeys.get(level) + ": " + segmentValue);
+                fallback.setCellStyle(groupStyles[level]);
             }
+            groups++;
+        }
 
-            // Datenzeile
-            Row dataRow = sheet.createRow(rowIndex);
-            int dataLevel = currentPath.size();
-
-            for (int c = 0; c < headers.size(); c++) {
-                Cell cell = dataRow.createCell(c);
-                String value = safe(values.get(headers.get(c)));
-                cell.setCellValue(value);
-
-                if (c == 0 && dataLevel > 0) {
-                    CellStyle indented = sheet.getWorkbook().createCellStyle();
-                    indented.cloneStyleFrom(dataStyle);
-                    indented.setIndention((short) dataLevel);
-                    cell.setCellStyle(indented);
-                } else {
-                    cell.setCellStyle(dataStyle);
+        /**
+         * Schließt die offenen Gruppen ab {@code fromLevel} (innerste zuerst) mit ihrer
+         * Zwischensumme und setzt deren Summen zurück.
+         */
+        private void closeGroups(int fromLevel) {
+            if (!breaks.started()) return;
+            for (int level = breaks.depth() - 1; level >= fromLevel; level--) {
+                if (moneyColumns.length > 0) {
+                    writeTotalRow(level, SUBTOTAL_PREFIX + breaks.value(level), totals[level + 1],
+                            labelColumn(groupColumns[level]), totalLabelStyles[level]);
                 }
+                for (KahanSum sum : totals[level + 1]) sum.reset();
             }
-
-            rowIndex++;
-            lastPathSegments = currentPath;
         }
 
-        // Letzte offenen Gruppen schließen
-        if (!lastPathSegments.isEmpty()) {
-            closeGroupsFromLevel(sheet, groupStartRows, lastPathSegments, 0, rowIndex - 1);
-        }
-
-        return rowIndex;
-    }
-
-    /**
-     * Mappt UI-Labels auf Werte aus RowData und baut den Pfad (ein Segment pro Ebene).
-     */
-    private List<String> buildPathFromKeys(RowData row, List<String> keys) {
-        List<String> path = new ArrayList<>();
-        Map<String, String> rowValues = row.getValues();
-
-        if (rowValues == null || rowValues.isEmpty()) {
-            logger.error("RowData ist leer. Kann keine Pfade erstellen.");
-            return path;
+        /**
+         * Summenzeile auf der Ebene der Gruppe (sichtbar, solange die Gruppe zugeklappt ist).
+         */
+        private void writeTotalRow(int level, String label, KahanSum[] sums, int labelColumn, CellStyle labelStyle) {
+            Row row = createRow(level);
+            Cell labelCell = row.createCell(labelColumn);
+            labelCell.setCellValue(label);
+            labelCell.setCellStyle(labelStyle);
+            for (int k = 0; k < moneyColumns.length; k++) {
+                Cell cell = row.createCell(moneyColumns[k]);
+                cell.setCellValue(sums[k].sum());
+                cell.setCellStyle(totalMoneyStyle);
+            }
         }
 
-        for (String uiKey : keys) {
-            String dataKey = UI_TO_DATA_KEY_MAP.getOrDefault(uiKey, uiKey);
-            String value = rowValues.getOrDefault(dataKey, "");
-            if (value.isEmpty() && !rowValues.containsKey(dataKey)) {
-                logger.warn("Mapping-FEHLER: UI-Schlüssel '{}' -> Data-Key '{}' existiert nicht in RowData.", uiKey, dataKey);
+        /**
+         * Spalte für die Beschriftung einer Summenzeile: bevorzugt die Gruppenspalte, sonst die
+         * erste Spalte, die keine Geldspalte ist.
+         */
+        private int labelColumn(int preferred) {
+            if (preferred >= 0 && Arrays.binarySearch(moneyColumns, preferred) < 0) return preferred;
+            for (int c = 0; c < headers.size(); c++) {
+                if (Arrays.binarySearch(moneyColumns, c) < 0) return c;
             }
-            path.add(safe(value));
+            return 0;
         }
 
-        return path;
-    }
-
-    /**
-     * Erste Ebene ab der sich Pfade unterscheiden.
-     */
-    private int findChangeLevel(List<String> oldPath, List<String> newPath) {
-        int min = Math.min(oldPath.size(), newPath.size());
-        for (int i = 0; i < min; i++) {
-            if (!Objects.equals(oldPath.get(i), newPath.get(i))) return i;
+        /**
+         * Neue Zeile auf der Gliederungsebene {@code level}; unterhalb der obersten Ebene
+         * zugeklappt. Die Gliederung wird direkt gesetzt, da bereits ausgelagerte Zeilen
+         * nachträglich nicht mehr gruppiert werden können.
+         */
+        private Row createRow(int level) {
+            int index = rowIndex++;
+            Row row = sheet.createRow(index);
+            if (outline && level > 0) {
+                sheet.setRowOutlineLevel(index, level);
+                if (COLLAPSE_GROUPS_BY_DEFAULT) row.setZeroHeight(true);
+            }
+            return row;
         }
-        return min;
-    }
 
-    /**
-     * Schließt Excel-Gruppen ab fromLevel (inkl.) bis Ende.
-     */
-    private void closeGroupsFromLevel(Sheet sheet,
-                                      Map<String, Integer> groupStartRows,
-                                      List<String> path,
-                                      int fromLevel,
-                                      int endRow) {
-
-        for (int level = path.size() - 1; level >= fromLevel; level--) {
-            String pathKey = String.join("\u001F", path.subList(0, level + 1));
-            Integer startRow = groupStartRows.get(pathKey);
-            if (startRow == null) continue;
-
-            // on groupe uniquement les lignes de détail, pas l’entête (startRow+1 … endRow)
-            int firstDetail = startRow + 1;
-            if (firstDetail <= endRow) {
+        @Override
+        public void close() throws IOException {
+            if (failed) {
                 try {
-                    sheet.groupRow(firstDetail, endRow);
-                    // force l’apparition du bouton au dernier groupe aussi
-                    sheet.setRowGroupCollapsed(firstDetail, COLLAPSE_GROUPS_BY_DEFAULT);
-                } catch (Exception e) {
-                    logger.warn("Konnte Gruppe nicht erstellen: Level={}, Start={}, Ende={}",
-                            level, firstDetail, endRow, e);
+                    workbook.close();
+                } finally {
+                    Files.deleteIfExists(Path.of(outputPath));
                 }
-            } else {
-                // aucun détail pour ce header — rien à regrouper
-                logger.debug("Übersprungen: keine Details für Gruppe ab Zeile {}", startRow);
+                logger.warn("⚠️ XLSX-Export abgebrochen, Datei verworfen: {}", outputPath);
+                return;
+            }
+            try {
+                if (headers == null) {
+                    logger.warn("Keine Daten zum Exportieren vorhanden");
+                    headers = List.of();
+                } else if (moneyColumns.length > 0) {
+                    closeGroups(0);
+                    writeTotalRow(0, GRAND_TOTAL_LABEL, totals[0], labelColumn(-1), totalLabelStyles[0]);
+                }
+                // AutoSize + Freeze
+                autoSizeColumns(sheet, headers.size());
+                if (rowIndex > 1) {
+                    sheet.createFreezePane(0, 1);
+                }
+                try (FileOutputStream fos = new FileOutputStream(outputPath)) {
+                    workbook.write(fos);
+                }
+                logger.info("XLSX-Datei erfolgreich gespeichert: {} ({} Zeilen, {} Gruppen)",
+                        outputPath, rowIndex, groups);
+            } finally {
+                workbook.close();
             }
-            groupStartRows.remove(pathKey);
         }
     }
+
     /* --------------------- Styles / Utils --------------------- */
 
     private CellStyle createHeaderStyle(Workbook wb) {
@@ -359,6 +433,20 @@ public class GroupedXlsxWriter {
         return style;
     }
 
+    private CellStyle createTotalStyle(Workbook wb) {
+        CellStyle style = wb.createCellStyle();
+        Font font = wb.createFont();
+        font.setBold(true);
+        font.setFontHeightInPoints((short) 11);
+        style.setFont(font);
+        style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        style.setBorderTop(BorderStyle.THIN);
+        style.setBorderBottom(BorderStyle.DOUBLE);
+        style.setVerticalAlignment(VerticalAlignment.CENTER);
+        return style;
+    }
+
     private CellStyle createDataStyle(Workbook wb) {
         CellStyle style = wb.createCellStyle();
         style.setBorderBottom(BorderStyle.HAIR);
@@ -394,7 +482,7 @@ public class GroupedXlsxWriter {
     private void validateGroupByKeys(List<String> headers, List<String> groupByKeys) {
         List<String> missing = new ArrayList<>();
         for (String uiKey : groupByKeys) {
-            String dataKey = UI_TO_DATA_KEY_MAP.getOrDefault(uiKey, uiKey);
+            String dataKey = GroupBreaks.dataKey(uiKey);
             if (!headers.contains(dataKey)) {
                 missing.add(uiKey + " -> " + dataKey);
             }
@@ -0,0 +1,78 @@
+package file.writer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import service.cache.CacheRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Prozessweiter Cache für Textbreiten der PDF-Exporte.
+ * <p>
+ * Die Breite eines Strings hängt nur von Schrift und Text ab, nicht vom Dokument – Zellwerte wie
+ * Währung, Jahr oder Policen-Nr wiederholen sich über alle Policen-PDFs einer OP-Listen-Erstellung.
+ * Gemessen wird deshalb einmal pro (Schriftname, Text) in Glyph-Einheiten (1/1000 em); die
+ * Umrechnung auf die Schriftgröße erfolgt beim Aufrufer.
+ * </p>
+ * <p>
+ * Für Zellen, die gekürzt werden müssen, liefert {@link #prefixWidths(PDFont, String)} die
+ * Breiten aller Präfixe in einem Durchlauf. Bei einfachen Schriften (Type1/Standard 14) ist die
+ * Stringbreite die Summe der Zeichenbreiten in Leserichtung – die Präfixsummen sind also
+ * bitgleich mit {@link PDFont#getStringWidth(String)} des jeweiligen Teilstrings.
+ * </p>
+ */
+public final class PdfTextMetrics {
+
+    private static final int MAX_ENTRIES = 50_000;
+
+    private static final Cache<Key, Float> WIDTHS = CacheRegistry.register("PDF-Textbreiten",
+            Caffeine.newBuilder()
+                    .maximumSize(MAX_ENTRIES)
+                    .recordStats()
+                    .build());
+
+    private record Key(String font, String text) {
+    }
+
+    private PdfTextMetrics() {
+    }
+
+    /**
+     * Breite des Textes in Glyph-Einheiten (wie {@link PDFont#getStringWidth(String)}).
+     */
+    public static float width(PDFont font, String text) throws IOException {
+        try {
+            return WIDTHS.get(new Key(font.getName(), text), k -> measure(font, k.text()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Breite des Textes in Punkt bei der angegebenen Schriftgröße.
+     */
+    public static float width(PDFont font, String text, float fontSize) throws IOException {
+        return width(font, text) / 1000f * fontSize;
+    }
+
+    /**
+     * Breiten aller Präfixe: {@code result[i]} = Breite von {@code text.substring(0, i)} in Glyph-Einheiten.
+     */
+    public static float[] prefixWidths(PDFont font, String text) throws IOException {
+        float[] prefix = new float[text.length() + 1];
+        for (int i = 0; i < text.length(); i++) {
+            prefix[i + 1] = prefix[i] + width(font, String.valueOf(text.charAt(i)));
+        }
+        return prefix;
+    }
+
+    private static float measure(PDFont font, String text) {
+        try {
+            return font.getStringWidth(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package file.writer;
 
 import model.RowData;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
@@ -16,22 +17,62 @@ import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Basis der tabellarischen PDF-Exporte (Querformat A4, Logo-Kopf, Fußtext, Seitenzahlen).
+ * <p>
+ * Seiten werden nacheinander gefüllt und geschlossen; der Inhalt abgeschlossener Seiten liegt
+ * über {@link #openDocument()} in einer temporären Datei statt im Heap. Schriften werden einmal
+ * pro Dokument angelegt, Textbreiten prozessweit über {@link PdfTextMetrics} gecacht.
+ * Kopf-Logo und umbrochener Fußtext werden nur einmal gelesen bzw. berechnet.
+ * </p>
+ */
 public abstract class PdfWriter implements DataWriter {
 
     protected static final float MARGIN = 50;
+    private static final String HEADER_IMAGE = "images/header.png";
+    private static final String FOOTER_TEXT =
+            "Carl Schröter GmbH & Co. KG\\Johann-Reiners-Platz 3\\D-28217 Bremen\\Postadresse: Postfach 101606\\D-28016 Bremen\\Telefon: +49 (0) 421 369 09-0 Telefax: +49 (0) 421 369 09-99 91\\E-Mail: mail@carlschroeter.de\\Amtsgericht Bremen HRA 27162PHG: Carl Schröter Verwaltungs-GmbH\\Amtsgericht Bremen HRB 30323\\GF: Sabine Blume, Moritz Dimter, Stefan Rogge, Markus Willmann Ust-IdNr.: DE 313999930\\Oldenburgische Landesbank AG\\IBAN: DE97 28020050 4669 9823 01\\BIC: OLBODEH2XXX";
+
+    /**
+     * Umbrochene Fußzeilen je nutzbarer Breite (in der Praxis genau ein Eintrag).
+     */
+    private static final Map<Float, List<String>> FOOTER_LINES = new ConcurrentHashMap<>();
+
     protected PDDocument document;
     protected PDPageContentStream contentStream;
     protected float yPosition;
     protected float tableWidth;
     protected PDPage currentPage;
     protected int pageIndex;
+    protected PDType1Font regularFont;
+    protected PDType1Font boldFont;
+    private PDImageXObject headerImage;
+    private boolean headerImageLoaded;
 
     public PdfWriter() {
     }
 
+    /**
+     * Legt ein neues Dokument an, dessen Seiteninhalte in eine temporäre Datei ausgelagert werden.
+     * Bei großen Exporten bleibt der Heap damit unabhängig von der Seitenzahl.
+     */
+    protected void openDocument() {
+        document = new PDDocument(IOUtils.createTempFileOnlyStreamCache());
+        pageIndex = 0;
+        currentPage = null;
+        headerImage = null;
+        headerImageLoaded = false;
+        // Standard-14-Schriften: Metriken hält PDFBox prozessweit, das Font-Objekt gehört zum Dokument
+        regularFont = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        boldFont = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+    }
+
     protected void startNewPage() throws IOException {
         PDRectangle a4 = PDRectangle.A4;
         currentPage = new PDPage(new PDRectangle(a4.getHeight(), a4.getWidth()));
@@ -43,38 +84,59 @@ public abstract class PdfWriter implements DataWriter {
         float pageWidth = currentPage.getMediaBox().getWidth();
         tableWidth = pageWidth - 2 * MARGIN;
 
-        yPosition = addHeaderWithSmallLogoLeft(currentPage, "images/header.png");
+        yPosition = addHeaderWithSmallLogoLeft(currentPage);
     }
 
-    private float addHeaderWithSmallLogoLeft(PDPage page, String imagePath) throws IOException {
+    private float addHeaderWithSmallLogoLeft(PDPage page) throws IOException {
         float pageHeight = page.getMediaBox().getHeight();
         float topY = pageHeight - MARGIN;
 
-        try (InputStream is = getClass().getResourceAsStream("/" + imagePath)) {
-            if (is == null) {
-                return topY;
-            }
+        PDImageXObject pdImage = headerImage();
+        if (pdImage == null) {
+            return topY;
+        }
 
-            PDImageXObject pdImage = PDImageXObject.createFromByteArray(document, is.readAllBytes(), imagePath);
+        float maxHeaderHeight = 35f;
+        float maxHeaderWidth = 120f;
 
-            float maxHeaderHeight = 35f;
-            float maxHeaderWidth = 120f;
+        float imageRatio = (float) pdImage.getHeight() / pdImage.getWidth();
+        float headerWidth = maxHeaderWidth;
+        float headerHeight = headerWidth * imageRatio;
 
-            float imageRatio = (float) pdImage.getHeight() / pdImage.getWidth();
-            float headerWidth = maxHeaderWidth;
-            float headerHeight = headerWidth * imageRatio;
+        if (headerHeight > maxHeaderHeight) {
+            headerHeight = maxHeaderHeight;
+            headerWidth = headerHeight / imageRatio;
+        }
 
-            if (headerHeight > maxHeaderHeight) {
-                headerHeight = maxHeaderHeight;
-                headerWidth = headerHeight / imageRatio;
-            }
+        float xPosition = MARGIN;
+        float yPositionHeader = topY - headerHeight;
 
-            float xPosition = MARGIN;
-            float yPositionHeader = topY - headerHeight;
+        contentStream.drawImage(pdImage, xPosition, yPositionHeader, headerWidth, headerHeight);
 
-            contentStream.drawImage(pdImage, xPosition, yPositionHeader, headerWidth, headerHeight);
+        return yPositionHeader - 15f;
+    }
 
-            return yPositionHeader - 15f;
+    /**
+     * Logo als ein XObject pro Dokument – alle Seiten verweisen auf dasselbe Bild.
+     */
+    private PDImageXObject headerImage() throws IOException {
+        if (!headerImageLoaded) {
+            byte[] bytes = HeaderImageHolder.BYTES;
+            headerImage = bytes == null ? null : PDImageXObject.createFromByteArray(document, bytes, HEADER_IMAGE);
+            headerImageLoaded = true;
+        }
+        return headerImage;
+    }
+
+    private static final class HeaderImageHolder {
+        static final byte[] BYTES = load();
+
+        private static byte[] load() {
+            try (InputStream is = PdfWriter.class.getResourceAsStream("/" + HEADER_IMAGE)) {
+                return is == null ? null : is.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
     }
 
@@ -86,20 +148,13 @@ public abstract class PdfWriter implements DataWriter {
         float pageWidth = currentPage.getMediaBox().getWidth();
         float usableWidth = pageWidth - 2 * MARGIN;
 
-        final String footerText =
-                "Carl Schröter GmbH & Co. KG\\Johann-Reiners-Platz 3\\D-28217 Bremen\\Postadresse: Postfach 101606\\D-28016 Bremen\\Telefon: +49 (0) 421 369 09-0 Telefax: +49 (0) 421 369 09-99 91\\E-Mail: mail@carlschroeter.de\\Amtsgericht Bremen HRA 27162PHG: Carl Schröter Verwaltungs-GmbH\\Amtsgericht Bremen HRB 30323\\GF: Sabine Blume, Moritz Dimter, Stefan Rogge, Markus Willmann Ust-IdNr.: DE 313999930\\Oldenburgische Landesbank AG\\IBAN: DE97 28020050 4669 9823 01\\BIC: OLBODEH2XXX";
-
-        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        PDType1Font font = regularFont;
         float fontSize = 6f;
         float leading = fontSize * 1.30f;
         float textY = MARGIN;
         float textX = MARGIN;
 
-        List<String> wrappedLines = new ArrayList<>();
-        String[] paragraphs = footerText.split("\\r?\\n", -1);
-        for (String paragraph : paragraphs) {
-            wrappedLines.addAll(wrapText(paragraph, font, fontSize, usableWidth));
-        }
+        List<String> wrappedLines = footerLines(font, fontSize, usableWidth);
 
         float ascent = font.getFontDescriptor().getAscent() / 1000f * fontSize;
         float ruleY = textY + ascent + 3f;
@@ -129,13 +184,28 @@ public abstract class PdfWriter implements DataWriter {
         contentStream.setNonStrokingColor(0, 0, 0);
     }
 
+    private List<String> footerLines(PDType1Font font, float fontSize, float usableWidth) throws IOException {
+        List<String> cached = FOOTER_LINES.get(usableWidth);
+        if (cached != null) {
+            return cached;
+        }
+        List<String> wrappedLines = new ArrayList<>();
+        String[] paragraphs = FOOTER_TEXT.split("\\r?\\n", -1);
+        for (String paragraph : paragraphs) {
+            wrappedLines.addAll(wrapText(paragraph, font, fontSize, usableWidth));
+        }
+        List<String> lines = List.copyOf(wrappedLines);
+        FOOTER_LINES.putIfAbsent(usableWidth, lines);
+        return lines;
+    }
+
     protected void addPageNumbers() throws IOException {
         int totalPages = document.getNumberOfPages();
         if (totalPages == 0) {
             return;
         }
 
-        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        PDType1Font font = regularFont;
         float fontSize = 8f;
 
         for (int i = 0; i < totalPages; i++) {
@@ -143,7 +213,7 @@ public abstract class PdfWriter implements DataWriter {
             float pageWidth = page.getMediaBox().getWidth();
 
             String label = "Seite " + (i + 1) + " / " + totalPages;
-            float textWidth = font.getStringWidth(label) / 1000f * fontSize;
+            float textWidth = PdfTextMetrics.width(font, label, fontSize);
 
             float x = pageWidth - MARGIN - textWidth;
             float footerLineY = MARGIN + 10f;
@@ -191,7 +261,7 @@ public abstract class PdfWriter implements DataWriter {
 
         for (String word : words) {
             String testLine = currentLine.length() == 0 ? word : currentLine + " " + word;
-            float width = font.getStringWidth(testLine) / 1000f * fontSize;
+            float width = PdfTextMetrics.width(font, testLine, fontSize);
             if (width > maxWidth) {
                 lines.add(currentLine.toString());
                 currentLine = new StringBuilder(word);
@@ -215,19 +285,24 @@ public abstract class PdfWriter implements DataWriter {
         }
 
         float maxWidth = cellWidth - 2f;
-        String candidate = original;
+        if (PdfTextMetrics.width(font, original) / 1000f * fontSize <= maxWidth) {
+            return original; // Regelfall: passt ohne Kürzung
+        }
 
-        while (!candidate.isEmpty()) {
-            float w = font.getStringWidth(candidate) / 1000f * fontSize;
-            if (w <= maxWidth) {
+        // Kürzen in 2er-Schritten wie bisher, aber über Präfixbreiten statt je einer Messung pro Versuch
+        float[] prefix = PdfTextMetrics.prefixWidths(font, original);
+        int length = original.length();
+        while (length > 0) {
+            if (prefix[length] / 1000f * fontSize <= maxWidth) {
                 break;
             }
-            if (candidate.length() <= 4) {
-                candidate = candidate.substring(0, 1);
+            if (length <= 4) {
+                length = 1;
                 break;
             }
-            candidate = candidate.substring(0, candidate.length() - 2);
+            length -= 2;
         }
+        String candidate = original.substring(0, length);
 
         if (!candidate.equals(original) && candidate.length() >= 3) {
             candidate = candidate.substring(0, candidate.length() - 3) + "...";
@@ -0,0 +1,365 @@
+package file.writer;
+
+import config.ApplicationConfig;
+import formatter.op.OpListeFormatter;
+import model.RowData;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * XLSX-Export großer Ergebnisse, aufgeteilt in mehrere Blätter einer Datei ({@link Mode#SHEETS})
+ * oder in mehrere Dateien ({@link Mode#FILES}).
+ * <p>
+ * Jeder Teil hat höchstens {@code maxRowsPerPart} Datenzeilen (Standard:
+ * {@link ApplicationConfig#MAX_ROWS_PER_FILE}, nie mehr als ein Excel-Blatt fasst). Mit einer
+ * Teilungsspalte beginnt zusätzlich bei jedem Wechsel ihres Werts ein neuer Teil – die Zeilen
+ * sollten dann nach dieser Spalte sortiert sein.
+ * </p>
+ * <p>
+ * Die Teile werden parallel geschrieben, jeder über ein eigenes SXSSF-Zeilenfenster: bei
+ * {@link Mode#FILES} mit eigener Arbeitsmappe, bei {@link Mode#SHEETS} als eigenes Blatt derselben
+ * Mappe, die am Ende einmal zusammengesetzt wird. Blätter und Formate werden vorab angelegt; ein
+ * Worker fasst danach nur noch sein eigenes Blatt an.
+ * </p>
+ * <p>
+ * Zellinhalte wie {@link XlsxWriter#writeCustomData}: Datum und Beträge typisiert, offene Posten
+ * aus alten Jahren rot.
+ * </p>
+ */
+public class SplitXlsxWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SplitXlsxWriter.class);
+
+    /**
+     * Datenzeilen je Blatt laut Excel (ohne die Header-Zeile).
+     */
+    public static final int EXCEL_MAX_DATA_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows() - 1;
+
+    // Zeilen, die SXSSF je Teil im Speicher hält
+    private static final int ROW_WINDOW = 100;
+
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors()), r -> {
+                Thread t = new Thread(r, "xlsx-part");
+                t.setDaemon(true);
+                return t;
+            });
+
+    public enum Mode {
+        /** Ein Blatt je Teil, eine Datei */
+        SHEETS,
+        /** Eine Datei je Teil ({@code name_Teil1.xlsx}, … bzw. {@code name_<Wert>.xlsx}) */
+        FILES
+    }
+
+    /**
+     * Zusammenhängender Zeilenbereich {@code [from, to)} mit seinem Namen (Blatt- bzw. Dateizusatz).
+     */
+    public record Part(String name, int from, int to) {
+        public int size() {
+            return to - from;
+        }
+    }
+
+    private final Mode mode;
+    private final int maxRowsPerPart;
+    private final String splitColumn;
+
+    public SplitXlsxWriter(Mode mode) {
+        this(mode, ApplicationConfig.MAX_ROWS_PER_FILE, null);
+    }
+
+    /**
+     * @param maxRowsPerPart höchstens so viele Datenzeilen je Teil (gekappt auf {@link #EXCEL_MAX_DATA_ROWS})
+     * @param splitColumn    Spalte, bei deren Wertwechsel ein neuer Teil beginnt, oder {@code null}
+     */
+    public SplitXlsxWriter(Mode mode, int maxRowsPerPart, String splitColumn) {
+        this.mode = Objects.requireNonNull(mode, "mode");
+        this.maxRowsPerPart = Math.max(1, Math.min(maxRowsPerPart, EXCEL_MAX_DATA_ROWS));
+        this.splitColumn = splitColumn;
+    }
+
+    /**
+     * Teilt die Zeilen nach Anzahl und ggf. Teilungsspalte auf.
+     */
+    public static List<Part> partition(List<RowData> data, int maxRowsPerPart, String splitColumn) {
+        int max = Math.max(1, Math.min(maxRowsPerPart, EXCEL_MAX_DATA_ROWS));
+        List<Part> parts = new ArrayList<>();
+        int n = data.size();
+        if (splitColumn == null) {
+            int count = Math.max(1, (n + max - 1) / max);
+            for (int i = 0; i < count; i++) {
+                parts.add(new Part(count == 1 ? "Export" : "Teil" + (i + 1), i * max, Math.min(n, (i + 1) * max)));
+            }
+            return parts;
+        }
+        int start = 0;
+        while (start < n) {
+            String key = keyOf(data.get(start), splitColumn);
+            int end = start + 1;
+            while (end < n && key.equals(keyOf(data.get(end), splitColumn))) end++;
+            // zu große Gruppen weiter aufteilen
+            int chunks = (end - start + max - 1) / max;
+            for (int i = 0; i < chunks; i++) {
+                String name = key.isBlank() ? "(leer)" : key;
+                parts.add(new Part(chunks == 1 ? name : name + " (" + (i + 1) + ")",
+                        start + i * max, Math.min(end, start + (i + 1) * max)));
+            }
+            start = end;
+        }
+        if (parts.isEmpty()) parts.add(new Part("Export", 0, 0));
+        return parts;
+    }
+
+    private static String keyOf(RowData row, String column) {
+        String v = row.getValues().get(column);
+        return v == null ? "" : v.trim();
+    }
+
+    /**
+     * Schreibt die Zeilen aufgeteilt.
+     *
+     * @return die geschriebenen Dateien (bei {@link Mode#SHEETS} genau eine)
+     */
+    public List<Path> write(List<RowData> data, List<String> headers, String outputPath) throws IOException {
+        List<RowData> rows = (data == null) ? List.of() : data;
+        List<Part> parts = partition(rows, maxRowsPerPart, splitColumn);
+        logger.info("Starte geteilten XLSX-Export nach: {} ({} Zeilen, {} Teile als {})",
+                outputPath, rows.size(), parts.size(), mode);
+
+        List<Path> files = (mode == Mode.SHEETS)
+                ? writeSheets(rows, headers, Path.of(outputPath), parts)
+                : writeFiles(rows, headers, Path.of(outputPath), parts);
+
+        logger.info("Geteilter XLSX-Export abgeschlossen: {}", files);
+        return files;
+    }
+
+    private List<Path> writeSheets(List<RowData> rows, List<String> headers, Path target, List<Part> parts)
+            throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        try {
+            Styles styles = new Styles(workbook);
+            Set<String> used = new HashSet<>();
+            List<SXSSFSheet> sheets = new ArrayList<>(parts.size());
+            for (Part part : parts) {
+                sheets.add(workbook.createSheet(uniqueSheetName(part.name(), used)));
+            }
+
+            List<Future<?>> futures = new ArrayList<>(parts.size());
+            for (int i = 0; i < parts.size(); i++) {
+                SXSSFSheet sheet = sheets.get(i);
+                Part part = parts.get(i);
+                futures.add(WORKERS.submit(() -> {
+                    fillSheet(sheet, styles, rows.subList(part.from(), part.to()), headers);
+                    return null;
+                }));
+            }
+            await(futures);
+
+            try (OutputStream out = new FileOutputStream(target.toFile())) {
+                workbook.write(out);
+            }
+            return List.of(target);
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private List<Path> writeFiles(List<RowData> rows, List<String> headers, Path target, List<Part> parts)
+            throws IOException {
+        List<Path> files = new ArrayList<>(parts.size());
+        Set<String> used = new HashSet<>();
+        for (Part part : parts) {
+            files.add(parts.size() == 1 ? target : partFile(target, part.name(), used));
+        }
+
+        List<Future<?>> futures = new ArrayList<>(parts.size());
+        for (int i = 0; i < parts.size(); i++) {
+            Part part = parts.get(i);
+            Path file = files.get(i);
+            futures.add(WORKERS.submit(() -> {
+                writeWorkbook(file, rows.subList(part.from(), part.to()), headers);
+                return null;
+            }));
+        }
+        try {
+            await(futures);
+        } catch (IOException e) {
+            // keine halben Exporte liegen lassen
+            for (Path f : files) Files.deleteIfExists(f);
+            throw e;
+        }
+        return files;
+    }
+
+    private void writeWorkbook(Path file, List<RowData> rows, List<String> headers) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        try {
+            fillSheet(workbook.createSheet("Export"), new Styles(workbook), rows, headers);
+            try (OutputStream out = new FileOutputStream(file.toFile())) {
+                workbook.write(out);
+            }
+        } finally {
+            workbook.close();
+        }
+    }
+
+    /**
+     * Wartet auf alle Teile; beim ersten Fehler werden die übrigen abgebrochen.
+     */
+    private static void await(List<Future<?>> futures) throws IOException {
+        try {
+            for (Future<?> f : futures) f.get();
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            throw new IOException("XLSX-Teil konnte nicht geschrieben werden", cause);
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("XLSX-Export abgebrochen", e);
+        }
+    }
+
+    /**
+     * Schreibt Header und Zeilen eines Teils. Läuft im Worker; nutzt nur das eigene Blatt und
+     * die vorab angelegten Formate.
+     */
+    private static void fillSheet(SXSSFSheet sheet, Styles styles, List<RowData> rows, List<String> headers) {
+        sheet.trackAllColumnsForAutoSizing();
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.size(); i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers.get(i));
+            cell.setCellStyle(styles.header);
+        }
+        sheet.createFreezePane(0, 1);
+
+        Map<String, String> headerToKeyMap = OpListeFormatter.createHeaderToKeyMap(headers);
+        String[] keys = new String[headers.size()];
+        boolean[] redColumn = new boolean[headers.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = headerToKeyMap.getOrDefault(headers.get(i), headers.get(i)); // map EN->DE si besoin
+            redColumn[i] = XlsxWriter.RED_COLUMNS.contains(headers.get(i));
+        }
+
+        int rowIndex = 1;
+        for (RowData rd : rows) {
+            Map<String, String> values = rd.getValues();
+            boolean red = XlsxWriter.shouldHighlightRow(values);
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < keys.length; i++) {
+                writeCell(row.createCell(i), values.getOrDefault(keys[i], ""), headers.get(i), styles,
+                        red && redColumn[i]);
+            }
+        }
+
+        for (int i = 0; i < headers.size(); i++) {
+            sheet.autoSizeColumn(i);
+        }
+    }
+
+    /**
+     * Typisierung wie {@code XlsxWriter.writeCell}, mit einmal angelegten Formaten.
+     */
+    private static void writeCell(Cell cell, String value, String header, Styles styles, boolean red) {
+        if (value == null || value.trim().isEmpty()) {
+            cell.setCellValue("");
+            return;
+        }
+        if (XlsxWriter.DATE_HEADERS.contains(header)) {
+            LocalDate date = XlsxWriter.parseAnyDate(value);
+            if (date != null) {
+                cell.setCellValue(date);
+                cell.setCellStyle(red ? styles.redDate : styles.date);
+                return;
+            }
+        } else if (XlsxWriter.MONEY_HEADERS.contains(header)) {
+            cell.setCellValue(OpListeFormatter.parseDouble(value));
+            cell.setCellStyle(red ? styles.redMoney : styles.money);
+            return;
+        }
+        cell.setCellValue(value);
+        if (red) cell.setCellStyle(styles.redText);
+    }
+
+    private static String uniqueSheetName(String name, Set<String> used) {
+        String base = WorkbookUtil.createSafeSheetName(name);
+        String candidate = base;
+        for (int i = 2; !used.add(candidate.toLowerCase(Locale.ROOT)); i++) {
+            String suffix = " (" + i + ")";
+            candidate = base.substring(0, Math.min(base.length(), 31 - suffix.length())) + suffix;
+        }
+        return candidate;
+    }
+
+    private static Path partFile(Path target, String partName, Set<String> used) {
+        String fileName = target.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String stem = dot > 0 ? fileName.substring(0, dot) : fileName;
+        String ext = dot > 0 ? fileName.substring(dot) : ".xlsx";
+        String safe = partName.replaceAll("[\\\\/:*?\"<>|]", "_");
+        String candidate = stem + "_" + safe;
+        for (int i = 2; !used.add(candidate.toLowerCase(Locale.ROOT)); i++) {
+            candidate = stem + "_" + safe + "_" + i;
+        }
+        return target.resolveSibling(candidate + ext);
+    }
+
+    /**
+     * Formate einer Arbeitsmappe, vorab angelegt und danach nur gelesen.
+     */
+    private static final class Styles {
+        final CellStyle header;
+        final CellStyle date;
+        final CellStyle money;
+        final CellStyle redText;
+        final CellStyle redDate;
+        final CellStyle redMoney;
+
+        Styles(Workbook wb) {
+            header = wb.createCellStyle();
+            Font bold = wb.createFont();
+            bold.setBold(true);
+            header.setFont(bold);
+            header.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            header.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+            DataFormat fmt = wb.createDataFormat();
+            date = wb.createCellStyle();
+            date.setDataFormat(fmt.getFormat("dd.MM.yyyy"));
+            money = wb.createCellStyle();
+            money.setDataFormat(fmt.getFormat("#,##0.00"));
+
+            Font redFont = wb.createFont();
+            redFont.setColor(IndexedColors.RED.getIndex());
+            redText = wb.createCellStyle();
+            redText.setFont(redFont);
+            redDate = wb.createCellStyle();
+            redDate.cloneStyleFrom(date);
+            redDate.setFont(redFont);
+            redMoney = wb.createCellStyle();
+            redMoney.cloneStyleFrom(money);
+            redMoney.setFont(redFont);
+        }
+    }
+}
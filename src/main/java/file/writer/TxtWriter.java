@@ -56,11 +56,9 @@ public class TxtWriter implements DataWriter {
         // Header schreiben
         writeHeader(headers);
 
+        formatter.ColumnFormatPlan plan = formatter.ColumnValueFormatter.plan(headers);
         for (RowData row : data) {
-            List<String> values = headers.stream()
-                    .map(header -> formatter.ColumnValueFormatter.format(row, header))
-                    .toList();
-            writer.write(String.join(" | ", values));
+            writer.write(String.join(" | ", plan.formatRow(row)));
             writer.newLine();
         }
     }
@@ -2,6 +2,7 @@ package file.writer;
 
 import formatter.op.OpListeFormatter;
 import model.RowData;
+import model.op.OpInvoice;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
@@ -14,21 +15,23 @@ import java.util.*;
 public class XlsxWriter implements DataWriter {
 
     // Colonnes dont on colore les VALEURS (EN + DE)
-    private static final Set<String> RED_COLUMNS = new HashSet<>(List.of(
+    static final Set<String> RED_COLUMNS = new HashSet<>(List.of(
             "Invoice No.", "Policy No.", "Year", "Policy holder", "Invoice date", "Due date", "Currency",
             "Settlement amount", "Payment amount/Partial payment", "Balance",
             "Rg-NR", "Policen-Nr", "Zeichnungsjahr", "Versicherungsnehmer", "Rg-Datum", "Fälligkeit", "Währung",
             "Abrechnungsbetrag", "Zahlbetrag/Teilzahlungen", "SALDO"
     ));
     // Colonnes dates (EN + DE)
-    private static final Set<String> DATE_HEADERS = new HashSet<>(List.of(
+    static final Set<String> DATE_HEADERS = new HashSet<>(List.of(
             "Rg-Datum", "Invoice date", "Fälligkeit", "Due date"
     ));
     // Colonnes montants (EN + DE)
-    private static final Set<String> MONEY_HEADERS = new HashSet<>(List.of(
+    static final Set<String> MONEY_HEADERS = new HashSet<>(List.of(
             "Abrechnungsbetrag", "Zahlbetrag/Teilzahlungen", "SALDO",
             "Settlement amount", "Payment amount/Partial payment", "Balance"
     ));
+    private static final DateTimeFormatter DATE_DE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter DATE_DB = DateTimeFormatter.ofPattern("yyyyMMdd");
     private final Workbook workbook;
     private final Sheet sheet;
     private final String outputPath;
@@ -43,22 +46,22 @@ public class XlsxWriter implements DataWriter {
     }
 
     // ---------- Utils ----------
-    private LocalDate parseAnyDate(String s) {
+    static LocalDate parseAnyDate(String s) {
         if (s == null || s.isBlank()) return null;
         // 1) essai sur dd.MM.yyyy (c’est ce que tu produis)
         try {
-            return LocalDate.parse(s, DateTimeFormatter.ofPattern("dd.MM.yyyy"));
+            return LocalDate.parse(s, DATE_DE);
         } catch (Exception ignore) {
         }
         // 2) fallback sur yyyyMMdd (format brut DB)
         try {
-            return LocalDate.parse(s, DateTimeFormatter.ofPattern("yyyyMMdd"));
+            return LocalDate.parse(s, DATE_DB);
         } catch (Exception ignore) {
         }
         return null;
     }
 
-    private boolean shouldHighlightRow(Map<String, String> v) {
+    static boolean shouldHighlightRow(Map<String, String> v) {
         String inv = v.getOrDefault("Rg-Datum", v.getOrDefault("Invoice date", ""));
         String due = v.getOrDefault("Fälligkeit", v.getOrDefault("Due date", ""));
 
@@ -268,6 +271,88 @@ public class XlsxWriter implements DataWriter {
         writeTotals(data, headers, headerToKeyMap);
     }
 
+    /**
+     * Schreibt verdichtete OP-Rechnungen direkt aus den numerischen Werten (ohne Text-Umweg)
+     * samt Summenzeile. Die Header werden wie bei {@link #writeOpList} auf die deutschen Spalten abgebildet.
+     */
+    public void writeOpInvoices(List<OpInvoice> invoices, List<String> headers) throws IOException {
+        writeHeader(headers);
+        if (invoices == null || invoices.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> headerToKeyMap = OpListeFormatter.createHeaderToKeyMap(headers);
+        var redIdx = targetColumnIndexes(headers);
+        CreationHelper ch = workbook.getCreationHelper();
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(ch.createDataFormat().getFormat("dd.MM.yyyy"));
+        CellStyle moneyStyle = workbook.createCellStyle();
+        moneyStyle.setDataFormat(ch.createDataFormat().getFormat("#,##0.00"));
+
+        double[] totals = new double[headers.size()];
+        for (OpInvoice inv : invoices) {
+            Row newRow = sheet.createRow(rowIndex++);
+            for (int i = 0; i < headers.size(); i++) {
+                Cell cell = newRow.createCell(i);
+                String key = headerToKeyMap.getOrDefault(headers.get(i), headers.get(i));
+                switch (key) {
+                    case "Rg-NR" -> cell.setCellValue(inv.rgNr());
+                    case "Policen-Nr" -> cell.setCellValue(inv.policenNr());
+                    case "Zeichnungsjahr" -> cell.setCellValue(inv.zeichnungsjahr());
+                    case "Versicherungsnehmer" -> cell.setCellValue(inv.versicherungsnehmer());
+                    case "Rg-Datum" -> writeDate(cell, inv.rgDatum(), inv.rgDatumRaw(), dateStyle);
+                    case "Fälligkeit" -> writeDate(cell, inv.faelligkeit(), inv.faelligkeitRaw(), dateStyle);
+                    case "Währung" -> cell.setCellValue(inv.waehrung());
+                    case "Abrechnungsbetrag" -> totals[i] += writeMoney(cell, inv.abrechnungsbetrag(), moneyStyle);
+                    case "Zahlbetrag/Teilzahlungen" -> totals[i] += writeMoney(cell, inv.zahlbetrag(), moneyStyle);
+                    case "SALDO" -> totals[i] += writeMoney(cell, inv.saldo(), moneyStyle);
+                    default -> cell.setCellValue("");
+                }
+            }
+            if (inv.isHighlighted()) {
+                paintCellsRed(newRow, redIdx);
+            }
+        }
+        writeTotals(totals, headers);
+    }
+
+    private void writeDate(Cell cell, LocalDate date, String raw, CellStyle dateStyle) {
+        if (date != null) {
+            cell.setCellValue(date);
+            cell.setCellStyle(dateStyle);
+        } else {
+            cell.setCellValue(raw == null ? "" : raw);
+        }
+    }
+
+    private double writeMoney(Cell cell, double value, CellStyle moneyStyle) {
+        cell.setCellValue(value);
+        cell.setCellStyle(moneyStyle);
+        return value;
+    }
+
+    private void writeTotals(double[] totals, List<String> headers) {
+        Row totalRow = sheet.createRow(rowIndex++);
+        CellStyle label = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        label.setFont(font);
+        CellStyle money = workbook.createCellStyle();
+        money.setFont(font);
+        money.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("#,##0.00 €"));
+
+        for (int i = 0; i < headers.size(); i++) {
+            Cell cell = totalRow.createCell(i);
+            if (MONEY_HEADERS.contains(headers.get(i))) {
+                cell.setCellValue(totals[i]);
+                cell.setCellStyle(money);
+            } else if (i == 0) {
+                cell.setCellValue("Total:");
+                cell.setCellStyle(label);
+            }
+        }
+    }
+
     @Override
     public void close() throws IOException {
         for (int i = 0; i < sheet.getRow(0).getLastCellNum(); i++) {
@@ -3,12 +3,11 @@ package file.writer.op;
 import file.writer.PdfWriter;
 
 import formatter.op.OpListeFormatter;
+import model.KahanSum;
 import model.RowData;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 
 import java.io.IOException;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -22,156 +21,242 @@ public class OpListePdfWriter extends PdfWriter {
             "Abrechnungsbetrag", "Zahlbetrag/Teilzahlungen", "SALDO"
     ));
 
+    private static final DateTimeFormatter DATE_DE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter DATE_DB = DateTimeFormatter.ofPattern("yyyyMMdd");
+
     public OpListePdfWriter() {
         super();
     }
 
     public void writeCustomData(List<RowData> data, List<String> headers, String outputPath) throws IOException {
-        document = new PDDocument();
-        pageIndex = 0;
-
-        Map<String, String> headerToKeyMap = OpListeFormatter.createHeaderToKeyMap(headers);
-
-        startNewPage();
-        addTable(data, headers, headerToKeyMap);
-        addFooterWithText();
-        contentStream.close();
-        addPageNumbers();
-        protectWithEncryption();
-
-        document.save(outputPath);
-        document.close();
+        try (RowSink sink = open(outputPath, headers)) {
+            sink.writeAll(data);
+        }
     }
 
-    private java.time.LocalDate parseAnyDate(String s) {
-        if (s == null || s.isBlank()) return null;
-        try {
-            return java.time.LocalDate.parse(s, java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy"));
-        } catch (Exception ignore) {
+    /**
+     * Öffnet einen zeilenweisen Export: Zeilen werden beim Eintreffen auf die aktuelle Seite
+     * gesetzt, volle Seiten abgeschlossen und die Summen laufend mitgeführt. Gespeichert
+     * (inkl. Seitenzahlen und Verschlüsselung) wird in {@link RowSink#close()}.
+     *
+     * @param outputPath Ziel-PDF
+     * @param headers    Spaltenüberschriften in Ausgabereihenfolge
+     */
+    public RowSink open(String outputPath, List<String> headers) throws IOException {
+        if (document != null) {
+            throw new IllegalStateException("PDF-Export bereits geöffnet");
         }
+        openDocument();
         try {
-            return java.time.LocalDate.parse(s, java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"));
-        } catch (Exception ignore) {
+            RowSink sink = new RowSink(outputPath, headers);
+            startNewPage();
+            sink.startTable();
+            return sink;
+        } catch (IOException | RuntimeException e) {
+            document.close();
+            document = null;
+            throw e;
         }
-        return null;
-    }
-
-    private boolean shouldHighlightRow(Map<String, String> v) {
-        String inv = v.getOrDefault("Rg-Datum", v.getOrDefault("Invoice date", ""));
-        String due = v.getOrDefault("Fälligkeit", v.getOrDefault("Due date", ""));
-        var d1 = parseAnyDate(inv);
-        var d2 = parseAnyDate(due);
-
-        boolean old =
-                (d1 != null && d1.getYear() <= 2024) ||
-                        (d2 != null && d2.getYear() <= 2024) ||
-                        (d1 == null && d2 == null &&
-                                (v.getOrDefault("Year", v.getOrDefault("Zeichnungsjahr", "")).matches("\\d{4}") &&
-                                        Integer.parseInt(v.getOrDefault("Year", v.getOrDefault("Zeichnungsjahr", "9999"))) <= 2024));
-
-        double saldo = OpListeFormatter.parseDouble(v.getOrDefault("SALDO", v.getOrDefault("Balance", "0")));
-        return old && (saldo > 0.0);
     }
 
-    private void addTable(List<RowData> data, List<String> headers, Map<String, String> headerToKeyMap) throws IOException {
-        if (currentPage == null) {
-            throw new IllegalStateException("Keine aktuelle Seite initialisiert");
+    /**
+     * Zeilenweiser OP-Listen-Export, siehe {@link #open(String, List)}.
+     */
+    public final class RowSink implements AutoCloseable {
+        private static final float CELL_HEIGHT = 12f;
+        private static final float HEADER_FONT_SIZE = 5.5f;
+        private static final float CELL_FONT_SIZE = 5.5f;
+
+        private final String outputPath;
+        private final List<String> headers;
+        private final String[] keys;
+        private final KahanSum[] totals; // null für Spalten ohne Summe
+        private float cellWidth;
+        private float tableY;
+        private long rows;
+        private boolean failed;
+
+        private RowSink(String outputPath, List<String> headers) {
+            this.outputPath = outputPath;
+            this.headers = List.copyOf(headers);
+            Map<String, String> headerToKeyMap = OpListeFormatter.createHeaderToKeyMap(headers);
+            this.keys = new String[headers.size()];
+            this.totals = new KahanSum[headers.size()];
+            for (int i = 0; i < headers.size(); i++) {
+                String header = headers.get(i);
+                keys[i] = headerToKeyMap.getOrDefault(header, header);
+                if (isMoneyColumn(header)) {
+                    totals[i] = new KahanSum();
+                }
+            }
         }
 
-        float pageWidth = currentPage.getMediaBox().getWidth();
-        tableWidth = pageWidth - 2 * MARGIN;
-        float cellHeight = 12f;
-        float headerFontSize = 5.5f;
-        float cellFontSize = 5.5f;
-        PDType1Font headerFont = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
-        PDType1Font cellFont = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
-
-        float cellWidth = tableWidth / Math.max(headers.size(), 1);
-        float tableY = yPosition - 30;
-
-        contentStream.setFont(headerFont, headerFontSize);
-
-        for (int i = 0; i < headers.size(); i++) {
-            String rawHeaderText = headers.get(i);
-            String headerText = fitTextToCell(rawHeaderText, headerFont, headerFontSize, cellWidth);
-
-            contentStream.beginText();
-            contentStream.newLineAtOffset(MARGIN + i * cellWidth, tableY);
-            contentStream.showText(headerText);
-            contentStream.endText();
+        public void write(RowData row) throws IOException {
+            if (failed) {
+                throw new IllegalStateException("PDF-Export nach Fehler abgebrochen");
+            }
+            try {
+                writeRow(row);
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                throw e;
+            }
         }
 
-        float lineY = tableY - 2f;
-        contentStream.setStrokingColor(0f, 0f, 0f);
-        contentStream.setLineWidth(0.3f);
-        contentStream.moveTo(MARGIN, lineY);
-        contentStream.lineTo(pageWidth - MARGIN, lineY);
-        contentStream.stroke();
-
-        tableY -= cellHeight;
-        contentStream.setFont(cellFont, cellFontSize);
+        /**
+         * Verwirft den Export: {@link #close()} gibt dann nur das Dokument frei, ohne zu speichern.
+         */
+        public void abort() {
+            failed = true;
+        }
 
-        for (RowData row : data) {
-            boolean highlight = shouldHighlightRow(row.getValues());
+        private void writeRow(RowData row) throws IOException {
+            Map<String, String> values = row.getValues();
+            boolean highlight = shouldHighlightRow(values);
 
-            if (tableY < MARGIN + cellHeight + 30) {
+            if (tableY < MARGIN + CELL_HEIGHT + 30) {
                 addFooterWithText();
                 contentStream.close();
                 startNewPage();
-
-                pageWidth = currentPage.getMediaBox().getWidth();
-                tableWidth = pageWidth - 2 * MARGIN;
-                cellWidth = tableWidth / Math.max(headers.size(), 1);
-                tableY = yPosition - 30;
-
-                contentStream.setFont(headerFont, headerFontSize);
-                for (int i = 0; i < headers.size(); i++) {
-                    String rawHeaderText = headers.get(i);
-                    String headerText = fitTextToCell(rawHeaderText, headerFont, headerFontSize, cellWidth);
-
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(MARGIN + i * cellWidth, tableY);
-                    contentStream.showText(headerText);
-                    contentStream.endText();
-                }
-
-                float lineY2 = tableY - 2f;
-                contentStream.setStrokingColor(0f, 0f, 0f);
-                contentStream.setLineWidth(0.3f);
-                contentStream.moveTo(MARGIN, lineY2);
-                contentStream.lineTo(pageWidth - MARGIN, lineY2);
-                contentStream.stroke();
-
-                tableY -= cellHeight;
-                contentStream.setFont(cellFont, cellFontSize);
+                startTable();
             }
 
-            for (int i = 0; i < headers.size(); i++) {
-                String header = headers.get(i);
-                String key = headerToKeyMap.getOrDefault(header, header);
-                String value = row.getValues().getOrDefault(key, "");
+            for (int i = 0; i < keys.length; i++) {
+                String value = values.getOrDefault(keys[i], "");
 
-                if (highlight && RED_COLUMNS.contains(header)) {
+                if (highlight && RED_COLUMNS.contains(headers.get(i))) {
                     contentStream.setNonStrokingColor(1f, 0f, 0f);
                 } else {
                     contentStream.setNonStrokingColor(0f, 0f, 0f);
                 }
 
-                String cellText = fitTextToCell(value, cellFont, cellFontSize, cellWidth);
+                String cellText = fitTextToCell(value, regularFont, CELL_FONT_SIZE, cellWidth);
 
                 contentStream.beginText();
                 contentStream.newLineAtOffset(MARGIN + i * cellWidth, tableY);
                 contentStream.showText(cellText);
                 contentStream.endText();
+
+                if (totals[i] != null) {
+                    totals[i].add(parseAmount(values.get(keys[i])));
+                }
+            }
+            tableY -= CELL_HEIGHT;
+            rows++;
+        }
+
+        public void writeAll(List<RowData> batch) throws IOException {
+            for (RowData row : batch) write(row);
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        /**
+         * Zeichnet die Spaltenüberschriften auf die aktuelle Seite.
+         */
+        private void startTable() throws IOException {
+            if (currentPage == null) {
+                throw new IllegalStateException("Keine aktuelle Seite initialisiert");
+            }
+
+            float pageWidth = currentPage.getMediaBox().getWidth();
+            tableWidth = pageWidth - 2 * MARGIN;
+            cellWidth = tableWidth / Math.max(headers.size(), 1);
+            tableY = yPosition - 30;
+
+            contentStream.setFont(boldFont, HEADER_FONT_SIZE);
+            for (int i = 0; i < headers.size(); i++) {
+                String headerText = fitTextToCell(headers.get(i), boldFont, HEADER_FONT_SIZE, cellWidth);
+
+                contentStream.beginText();
+                contentStream.newLineAtOffset(MARGIN + i * cellWidth, tableY);
+                contentStream.showText(headerText);
+                contentStream.endText();
+            }
+
+            float lineY = tableY - 2f;
+            contentStream.setStrokingColor(0f, 0f, 0f);
+            contentStream.setLineWidth(0.3f);
+            contentStream.moveTo(MARGIN, lineY);
+            contentStream.lineTo(pageWidth - MARGIN, lineY);
+            contentStream.stroke();
+
+            tableY -= CELL_HEIGHT;
+            contentStream.setFont(regularFont, CELL_FONT_SIZE);
+        }
+
+        /**
+         * Schließt Tabelle und Dokument ab und speichert. Nach einem Fehler in {@link #write(RowData)}
+         * oder {@link #abort()} wird nichts gespeichert – keine gekürzte OP-Liste mit falschen Summen.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                if (failed) {
+                    contentStream.close();
+                    return;
+                }
+                yPosition = tableY;
+                writeTotals(headers, totals);
+                addFooterWithText();
+                contentStream.close();
+                addPageNumbers();
+                protectWithEncryption();
+
+                document.save(outputPath);
+            } finally {
+                document.close();
+                document = null;
             }
-            tableY -= cellHeight;
         }
+    }
+
+    private static boolean isMoneyColumn(String header) {
+        return header.contains("Abrechnungsbetrag") || header.contains("Zahlbetrag") || header.contains("SALDO") ||
+                header.contains("Settlement amount") || header.contains("Payment amount") || header.contains("Balance");
+    }
+
+    private static double parseAmount(String value) {
+        try {
+            return OpListeFormatter.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    private java.time.LocalDate parseAnyDate(String s) {
+        if (s == null || s.isBlank()) return null;
+        try {
+            return java.time.LocalDate.parse(s, DATE_DE);
+        } catch (Exception ignore) {
+        }
+        try {
+            return java.time.LocalDate.parse(s, DATE_DB);
+        } catch (Exception ignore) {
+        }
+        return null;
+    }
+
+    private boolean shouldHighlightRow(Map<String, String> v) {
+        String inv = v.getOrDefault("Rg-Datum", v.getOrDefault("Invoice date", ""));
+        String due = v.getOrDefault("Fälligkeit", v.getOrDefault("Due date", ""));
+        var d1 = parseAnyDate(inv);
+        var d2 = parseAnyDate(due);
+
+        boolean old =
+                (d1 != null && d1.getYear() <= 2024) ||
+                        (d2 != null && d2.getYear() <= 2024) ||
+                        (d1 == null && d2 == null &&
+                                (v.getOrDefault("Year", v.getOrDefault("Zeichnungsjahr", "")).matches("\\d{4}") &&
+                                        Integer.parseInt(v.getOrDefault("Year", v.getOrDefault("Zeichnungsjahr", "9999"))) <= 2024));
 
-        yPosition = tableY;
-        writeTotals(data, headers, headerToKeyMap);
+        double saldo = OpListeFormatter.parseDouble(v.getOrDefault("SALDO", v.getOrDefault("Balance", "0")));
+        return old && (saldo > 0.0);
     }
 
-    private void writeTotals(List<RowData> data, List<String> headers, Map<String, String> headerToKeyMap) throws IOException {
+    private void writeTotals(List<String> headers, KahanSum[] totals) throws IOException {
         contentStream.setStrokingColor(0, 0, 0);
         contentStream.setLineWidth(1);
         contentStream.moveTo(MARGIN, yPosition + 5);
@@ -180,32 +265,18 @@ public class OpListePdfWriter extends PdfWriter {
         yPosition -= 15;
 
         contentStream.beginText();
-        contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 10);
+        contentStream.setFont(boldFont, 10);
         contentStream.newLineAtOffset(MARGIN, yPosition);
         contentStream.showText("Total:");
         contentStream.endText();
 
         float cellWidth = tableWidth / headers.size();
         for (int i = 0; i < headers.size(); i++) {
-            String header = headers.get(i);
-
-            if (header.contains("Abrechnungsbetrag") || header.contains("Zahlbetrag") || header.contains("SALDO") ||
-                    header.contains("Settlement amount") || header.contains("Payment amount") || header.contains("Balance")) {
-
-                double total = data.stream()
-                        .mapToDouble(row -> {
-                            try {
-                                return OpListeFormatter.parseDouble(row.getValues().get(headerToKeyMap.get(header)));
-                            } catch (NumberFormatException e) {
-                                return 0.0;
-                            }
-                        })
-                        .sum();
-
-                String formattedTotal = String.format(Locale.GERMAN, "%,.2f €", total);
+            if (totals[i] != null) {
+                String formattedTotal = String.format(Locale.GERMAN, "%,.2f €", totals[i].sum());
 
                 contentStream.beginText();
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 10);
+                contentStream.setFont(boldFont, 10);
                 contentStream.newLineAtOffset(MARGIN + i * cellWidth, yPosition);
                 contentStream.showText(formattedTotal);
                 contentStream.endText();
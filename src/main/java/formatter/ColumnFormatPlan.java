@@ -0,0 +1,137 @@
+package formatter;
+
+import gui.controller.service.FormatterService;
+import model.RowData;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vorab aufgelöste Formatierung für eine feste Spaltenliste.
+ * <p>
+ * {@link ColumnValueFormatter#format(RowData, String)} prüft pro Zelle Vollname-Modus,
+ * SB-Spalten sowie Datums- und Geldfelder (je eine Hash-Suche). Der Plan erledigt das einmal pro
+ * Ergebnis: Für jede Spalte wird die anzuwendende Formatierung als Bitmaske abgelegt und danach
+ * nur noch per Index ausgewertet.
+ * </p>
+ * <p>
+ * Ein Plan ist unveränderlich und thread-sicher. Er veraltet, sobald sich die Formatkonfiguration
+ * ({@link FormatterService#setColumnFormat}, {@link FormatterService#reloadRuntimeConfig()}),
+ * der Vollname-Modus oder das SB-Dictionary ändert ({@link #isStale()}); Aufrufer holen sich dann
+ * über {@link ColumnValueFormatter#plan(Collection)} einen neuen.
+ * </p>
+ */
+public final class ColumnFormatPlan {
+
+    private static final int DATE = 1;
+    private static final int MONEY = 2;
+    private static final int NO_CURRENCY = 4;
+    private static final int SB_NAME = 8;
+
+    private final Collection<String> source;
+    private final String[] columns;
+    private final int[] flags;
+    private final Map<String, String> sbDict;
+    private final boolean fullNameMode;
+    private final long version;
+
+    private ColumnFormatPlan(Collection<String> source, String[] columns, int[] flags,
+                             Map<String, String> sbDict, boolean fullNameMode, long version) {
+        this.source = source;
+        this.columns = columns;
+        this.flags = flags;
+        this.sbDict = sbDict;
+        this.fullNameMode = fullNameMode;
+        this.version = version;
+    }
+
+    static ColumnFormatPlan compile(Collection<String> columns, boolean fullNameMode,
+                                    Map<String, String> sbDict, long version) {
+        String[] cols = columns.toArray(new String[0]);
+        int[] flags = new int[cols.length];
+        for (int i = 0; i < cols.length; i++) {
+            String c = cols[i];
+            if (c == null) continue;
+            if (fullNameMode && ColumnValueFormatter.isSbHeader(c)) {
+                flags[i] = SB_NAME;
+                continue;
+            }
+            if (FormatterService.isDateField(c)) flags[i] |= DATE;
+            if (FormatterService.isMoneyField(c)) {
+                flags[i] |= MONEY;
+                if (MoneyFieldFormatter.isWithoutCurrency(c)) flags[i] |= NO_CURRENCY;
+            }
+        }
+        return new ColumnFormatPlan(columns, cols, flags, sbDict, fullNameMode, version);
+    }
+
+    public int size() {
+        return columns.length;
+    }
+
+    public List<String> columns() {
+        return List.of(columns);
+    }
+
+    /**
+     * {@code true}, wenn sich seit dem Kompilieren die Formatkonfiguration geändert hat.
+     */
+    public boolean isStale() {
+        return version != ColumnValueFormatter.configVersion();
+    }
+
+    /**
+     * Passt der Plan (noch) zu dieser Spaltenliste? Gleiche Instanz wird ohne Vergleich akzeptiert.
+     */
+    boolean isFor(Collection<String> columns, boolean fullNameMode) {
+        if (isStale() || fullNameMode != this.fullNameMode) return false;
+        if (columns == source) return true;
+        if (columns.size() != this.columns.length) return false;
+        int i = 0;
+        for (String c : columns) {
+            String own = this.columns[i++];
+            if (c != own && (c == null || !c.equals(own))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Formatiert den Rohwert der Spalte {@code index} (nie {@code null}).
+     */
+    public String format(int index, String raw) {
+        String value = raw == null ? "" : raw;
+        int f = flags[index];
+        if (f == 0) return value.trim();
+        if ((f & SB_NAME) != 0) {
+            String code = value.trim();
+            if (!code.isEmpty()) {
+                String full = sbDict.get(code);
+                if (full != null && !full.isBlank()) return full;
+            }
+            return code;
+        }
+        if ((f & DATE) != 0) value = FormatEngine.formatDate(value);
+        if ((f & MONEY) == 0) return value.trim();
+        return MoneyFieldFormatter.formatMoney(value, (f & NO_CURRENCY) == 0);
+    }
+
+    /**
+     * Formatiert die Zelle {@code index} einer Zeile.
+     */
+    public String format(RowData row, int index) {
+        return format(index, row.getValues().get(columns[index]));
+    }
+
+    /**
+     * Formatiert alle Spalten einer Zeile in Plan-Reihenfolge.
+     */
+    public String[] formatRow(RowData row) {
+        Map<String, String> values = row.getValues();
+        String[] out = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            out[i] = format(i, values.get(columns[i]));
+        }
+        return out;
+    }
+}
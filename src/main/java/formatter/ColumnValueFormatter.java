@@ -1,11 +1,14 @@
 package formatter;
 
+import gui.controller.service.FormatterService;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import model.RowData;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Zentraler Formatter für Tabellen-/TreeTable-Zellwerte.
@@ -57,6 +60,16 @@ public class ColumnValueFormatter {
     private static Map<String, String> SB_DICT = Map.of();
     private static Set<String> ADDITIONAL_SB_HEADERS = Set.of();
 
+    /**
+     * Wird bei jeder Änderung erhöht, die kompilierte {@link ColumnFormatPlan}s ungültig macht.
+     */
+    private static final AtomicLong LOCAL_VERSION = new AtomicLong();
+    private static volatile ColumnFormatPlan lastPlan;
+
+    static {
+        FULL_NAME_MODE.addListener((obs, oldV, newV) -> LOCAL_VERSION.incrementAndGet());
+    }
+
     // Utility-Konstruktor verhindern
     private ColumnValueFormatter() {
     }
@@ -76,9 +89,10 @@ public class ColumnValueFormatter {
 
     public static void setAdditionalSbHeaders(Set<String> more) {
         ADDITIONAL_SB_HEADERS = (more == null) ? Set.of() : Set.copyOf(more);
+        LOCAL_VERSION.incrementAndGet();
     }
 
-    private static boolean isSbHeader(String column) {
+    static boolean isSbHeader(String column) {
         return SB_HEADERS.contains(column) || ADDITIONAL_SB_HEADERS.contains(column);
     }
 
@@ -91,6 +105,39 @@ public class ColumnValueFormatter {
      */
     public static void setSbDictionary(Map<String, String> dict) {
         SB_DICT = (dict == null) ? Map.of() : dict;
+        LOCAL_VERSION.incrementAndGet();
+    }
+
+    /**
+     * Stand der Formatkonfiguration (Spaltentypen, Vollname-Modus, SB-Dictionary).
+     */
+    static long configVersion() {
+        return LOCAL_VERSION.get() + FormatterService.configVersion();
+    }
+
+    /**
+     * Liefert einen Formatierungsplan für die Spaltenliste. Der zuletzt erzeugte Plan wird
+     * wiederverwendet, solange Spalten und Konfiguration gleich bleiben; so können auch Aufrufer,
+     * die pro Zeile fragen (z. B. {@code DataWriter#writeFormattedRow}), ohne eigenen Zustand planen.
+     *
+     * @param columns Spalten in Ausgabereihenfolge
+     */
+    public static ColumnFormatPlan plan(Collection<String> columns) {
+        return plan(columns, true);
+    }
+
+    /**
+     * Wie {@link #plan(Collection)}; mit {@code allowFullName = false} bleiben SB-Codes auch im
+     * Vollname-Modus unaufgelöst (z. B. Export ohne "Voll. Name").
+     */
+    public static ColumnFormatPlan plan(Collection<String> columns, boolean allowFullName) {
+        boolean fullName = allowFullName && FULL_NAME_MODE.get();
+        ColumnFormatPlan p = lastPlan;
+        if (p != null && p.isFor(columns, fullName)) return p;
+        long version = configVersion();
+        p = ColumnFormatPlan.compile(columns, fullName, SB_DICT, version);
+        lastPlan = p;
+        return p;
     }
 
     /**
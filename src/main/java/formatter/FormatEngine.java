@@ -0,0 +1,341 @@
+package formatter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Gemeinsame Formatierung für Geldbeträge, Prozentwerte und DB-Datumswerte.
+ * <p>
+ * Ersetzt die geteilten {@link java.text.DecimalFormat}/{@link java.text.NumberFormat}-Instanzen,
+ * die nicht thread-sicher sind. Alle Formatierer hier sind unveränderlich und schreiben direkt in
+ * einen {@link StringBuilder}; pro Zelle wird nichts angelegt außer dem Ergebnis-String
+ * (und auch der entfällt mit {@code appendTo}). Für die Rückgabe als String wird ein
+ * wiederverwendbarer Puffer pro Thread genutzt ({@link #buffer()}).
+ * </p>
+ * <p>
+ * Rundung wie {@code DecimalFormat}: HALF_EVEN. Datumswerte der DB ({@code yyyyMMdd}) werden
+ * ohne {@link java.time.LocalDate} und ohne Exceptions geprüft und umgestellt.
+ * </p>
+ */
+public final class FormatEngine {
+
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(64));
+
+    /**
+     * Deutscher Geldbetrag: {@code 1.234,56}.
+     */
+    public static final Decimal MONEY_DE = decimal('.', ',', 2, 2);
+
+    private FormatEngine() {
+    }
+
+    /**
+     * Formatierer mit festen Trennzeichen.
+     *
+     * @param grouping    Tausendertrennzeichen ({@code 0} = keine Gruppierung)
+     * @param decimalSep  Dezimaltrennzeichen
+     * @param minFraction Mindestanzahl Nachkommastellen
+     * @param maxFraction Höchstanzahl Nachkommastellen (0..9)
+     */
+    public static Decimal decimal(char grouping, char decimalSep, int minFraction, int maxFraction) {
+        return new Decimal(grouping, decimalSep, minFraction, maxFraction);
+    }
+
+    /**
+     * Formatierer mit den Trennzeichen einer Locale (entspricht {@code new DecimalFormat("#,##0.00")}
+     * in dieser Locale).
+     */
+    public static Decimal decimal(Locale locale, int minFraction, int maxFraction) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        return new Decimal(symbols.getGroupingSeparator(), symbols.getDecimalSeparator(), minFraction, maxFraction);
+    }
+
+    /**
+     * Leerer, wiederverwendbarer Puffer des aktuellen Threads. Das Ergebnis muss vor dem nächsten
+     * Aufruf (im selben Thread) verbraucht sein.
+     */
+    public static StringBuilder buffer() {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        return sb;
+    }
+
+    // ---------- Datum ----------
+
+    /**
+     * Prüft, ob der Wert ein gültiges DB-Datum {@code yyyyMMdd} ist (genau 8 Ziffern, existierender Tag).
+     */
+    public static boolean isDbDate(CharSequence s) {
+        if (s == null || s.length() != 8) return false;
+        int year = 0, month = 0, day = 0;
+        for (int i = 0; i < 8; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) return false;
+            if (i < 4) year = year * 10 + d;
+            else if (i < 6) month = month * 10 + d;
+            else day = day * 10 + d;
+        }
+        if (year == 0 || month < 1 || month > 12 || day < 1) return false;
+        int max = DAYS_IN_MONTH[month - 1];
+        if (month == 2 && isLeapYear(year)) max = 29;
+        return day <= max;
+    }
+
+    /**
+     * Hängt {@code yyyyMMdd} als {@code dd.MM.yyyy} an.
+     *
+     * @return {@code false} (und nichts angehängt), wenn der Wert kein gültiges DB-Datum ist
+     */
+    public static boolean appendDate(StringBuilder sb, CharSequence yyyyMMdd) {
+        if (!isDbDate(yyyyMMdd)) return false;
+        sb.append(yyyyMMdd, 6, 8).append('.')
+                .append(yyyyMMdd, 4, 6).append('.')
+                .append(yyyyMMdd, 0, 4);
+        return true;
+    }
+
+    /**
+     * {@code yyyyMMdd} als {@code dd.MM.yyyy}; andere Werte unverändert.
+     */
+    public static String formatDate(String yyyyMMdd) {
+        StringBuilder sb = buffer();
+        return appendDate(sb, yyyyMMdd) ? sb.toString() : yyyyMMdd;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // ---------- Zahlen ----------
+
+    /**
+     * Liest eine Dezimalzahl ohne Regex und ohne {@link BigDecimal} und hängt sie formatiert an.
+     * <p>
+     * Wie bisher in {@link MoneyFieldFormatter}: Komma gilt als Dezimalpunkt, alle Zeichen außer
+     * Ziffern, Punkt und Minus werden ignoriert; mehr als ein Dezimaltrenner oder ein Minus
+     * mitten in der Zahl machen den Wert ungültig.
+     * </p>
+     *
+     * @return {@code false} (und nichts angehängt), wenn der Wert keine Zahl ist
+     */
+    public static boolean appendParsed(StringBuilder sb, CharSequence value, Decimal format) {
+        if (value == null) return false;
+        long unscaled = 0;
+        int scale = 0, digits = 0;
+        boolean negative = false, seenPoint = false, seenAny = false, overflow = false;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits >= 18) {
+                    overflow = true;
+                } else if (unscaled != 0 || c != '0') {
+                    digits++;
+                }
+                if (!overflow) {
+                    unscaled = unscaled * 10 + (c - '0');
+                    if (seenPoint) scale++;
+                }
+                seenAny = true;
+            } else if (c == '.' || c == ',') {
+                if (seenPoint) return false;
+                seenPoint = true;
+            } else if (c == '-') {
+                if (seenAny || seenPoint || negative) return false;
+                negative = true;
+            }
+        }
+        if (!seenAny) return false;
+        if (overflow) {
+            // Sehr lange Zahlen: selten, daher der exakte (allokierende) Weg
+            try {
+                String clean = value.toString().replace(",", ".").replaceAll("[^\\d.\\-]", "");
+                format.appendTo(sb, new BigDecimal(clean));
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        format.appendUnscaled(sb, negative ? -unscaled : unscaled, scale);
+        return true;
+    }
+
+    /**
+     * Liest eine Dezimalzahl nach denselben Regeln wie {@link #appendParsed}.
+     *
+     * @return der Wert, oder {@link Double#NaN}, wenn der Wert keine Zahl ist
+     */
+    public static double parseDecimal(CharSequence value) {
+        if (value == null) return Double.NaN;
+        long unscaled = 0;
+        int scale = 0, digits = 0;
+        boolean negative = false, seenPoint = false, seenAny = false;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits >= 18) {
+                    // Sehr lange Zahlen: selten, daher der allokierende Weg
+                    try {
+                        return Double.parseDouble(value.toString().replace(",", ".").replaceAll("[^\\d.\\-]", ""));
+                    } catch (NumberFormatException e) {
+                        return Double.NaN;
+                    }
+                }
+                if (unscaled != 0 || c != '0') digits++;
+                unscaled = unscaled * 10 + (c - '0');
+                if (seenPoint) scale++;
+                seenAny = true;
+            } else if (c == '.' || c == ',') {
+                if (seenPoint) return Double.NaN;
+                seenPoint = true;
+            } else if (c == '-') {
+                if (seenAny || seenPoint || negative) return Double.NaN;
+                negative = true;
+            }
+        }
+        if (!seenAny) return Double.NaN;
+        double v = scale < POW10.length ? (double) unscaled / POW10[scale] : unscaled / Math.pow(10, scale);
+        return negative ? -v : v;
+    }
+
+    /**
+     * Unveränderlicher, thread-sicherer Zahlenformatierer (Muster {@code #,##0.00} bzw. {@code #,##0.##}).
+     */
+    public static final class Decimal {
+        private final char grouping;
+        private final char decimalSep;
+        private final int minFraction;
+        private final int maxFraction;
+
+        private Decimal(char grouping, char decimalSep, int minFraction, int maxFraction) {
+            if (maxFraction < 0 || maxFraction > 9 || minFraction < 0 || minFraction > maxFraction) {
+                throw new IllegalArgumentException("Ungültige Nachkommastellen: " + minFraction + ".." + maxFraction);
+            }
+            this.grouping = grouping;
+            this.decimalSep = decimalSep;
+            this.minFraction = minFraction;
+            this.maxFraction = maxFraction;
+        }
+
+        /**
+         * Formatiert in den Puffer des aktuellen Threads und liefert den String.
+         */
+        public String format(double value) {
+            return appendTo(buffer(), value).toString();
+        }
+
+        public StringBuilder appendTo(StringBuilder sb, double value) {
+            if (Double.isNaN(value)) return sb.append("NaN");
+            if (Double.isInfinite(value)) return sb.append(value < 0 ? "-∞" : "∞");
+            double scaled = value * POW10[maxFraction];
+            if (Math.abs(scaled) >= 9.0e18) {
+                return appendTo(sb, new BigDecimal(value));
+            }
+            double rounded = Math.rint(scaled); // HALF_EVEN
+            // rint sieht nur den skalierten Wert; echte Hälften prüfen wir am ursprünglichen Wert nach
+            if (Math.abs(scaled - rounded) == 0.5 && maxFraction > 0) {
+                return appendTo(sb, new BigDecimal(value));
+            }
+            return appendUnscaled(sb, (long) rounded, maxFraction);
+        }
+
+        StringBuilder appendTo(StringBuilder sb, BigDecimal value) {
+            BigDecimal r = value.setScale(maxFraction, RoundingMode.HALF_EVEN);
+            if (r.precision() <= 18) {
+                return appendUnscaled(sb, r.unscaledValue().longValue(), maxFraction);
+            }
+            // Außerhalb von long: Ziffern aus der Textdarstellung gruppieren
+            String plain = r.abs().toPlainString();
+            if (r.signum() < 0) sb.append('-');
+            int point = plain.indexOf('.');
+            int intLen = point < 0 ? plain.length() : point;
+            for (int i = 0; i < intLen; i++) {
+                sb.append(plain.charAt(i));
+                int left = intLen - 1 - i;
+                if (grouping != 0 && left > 0 && left % 3 == 0) sb.append(grouping);
+            }
+            if (point >= 0) appendFraction(sb, plain.substring(point + 1));
+            return sb;
+        }
+
+        /**
+         * Hängt {@code unscaled * 10^-scale} an (Rundung HALF_EVEN auf die Höchstzahl Nachkommastellen).
+         */
+        StringBuilder appendUnscaled(StringBuilder sb, long unscaled, int scale) {
+            // auf maxFraction runden
+            while (scale > maxFraction) {
+                int drop = Math.min(scale - maxFraction, 18);
+                long div = POW10[drop];
+                long q = unscaled / div;
+                long rem = Math.abs(unscaled % div);
+                if (rem > div - rem || (rem == div - rem && (q & 1) != 0)) {
+                    q += unscaled < 0 ? -1 : 1;
+                }
+                unscaled = q;
+                scale -= drop;
+            }
+            if (unscaled == 0) {
+                sb.append('0');
+                appendZeros(sb, minFraction);
+                return sb;
+            }
+            if (unscaled < 0) {
+                sb.append('-');
+            }
+            long abs = Math.abs(unscaled);
+            long intPart = abs / POW10[scale];
+            long frac = abs % POW10[scale];
+
+            appendGrouped(sb, intPart);
+
+            // Nachkommastellen: auf maxFraction ausrichten, dann Nullen bis minFraction kürzen
+            int fracDigits = scale;
+            while (fracDigits > minFraction && frac % 10 == 0 && fracDigits > 0) {
+                frac /= 10;
+                fracDigits--;
+            }
+            if (fracDigits < minFraction) {
+                frac *= POW10[minFraction - fracDigits];
+                fracDigits = minFraction;
+            }
+            if (fracDigits > 0) {
+                sb.append(decimalSep);
+                for (int p = fracDigits - 1; p >= 0; p--) {
+                    sb.append((char) ('0' + (frac / POW10[p]) % 10));
+                }
+            }
+            return sb;
+        }
+
+        private void appendGrouped(StringBuilder sb, long value) {
+            int len = 1;
+            while (len < 19 && value >= POW10[len]) len++;
+            for (int p = len - 1; p >= 0; p--) {
+                sb.append((char) ('0' + (value / POW10[p]) % 10));
+                if (grouping != 0 && p > 0 && p % 3 == 0) sb.append(grouping);
+            }
+        }
+
+        private void appendFraction(StringBuilder sb, String digits) {
+            int end = digits.length();
+            while (end > minFraction && digits.charAt(end - 1) == '0') end--;
+            if (end > 0) sb.append(decimalSep).append(digits, 0, end);
+        }
+
+        private void appendZeros(StringBuilder sb, int count) {
+            if (count == 0) return;
+            sb.append(decimalSep);
+            for (int i = 0; i < count; i++) sb.append('0');
+        }
+    }
+}
@@ -1,35 +1,40 @@
 package formatter;
 
-import config.ApplicationConfig;
 import gui.controller.service.FormatterService;
 
-import java.math.BigDecimal;
-import java.text.NumberFormat;
-
 
 /**
- * FieldFormatter für Geldbeträge basierend auf ApplicationConfig-MONEY_FORMAT.
+ * FieldFormatter für Geldbeträge (deutsches Format, zwei Nachkommastellen).
+ * Thread-sicher; liest und formatiert über {@link FormatEngine} ohne Regex und ohne BigDecimal.
  *
  * @author Stephane
  * @since 15/07/2025
  */
 public class MoneyFieldFormatter {
 
-    private static final NumberFormat MONEY_FMT = ApplicationConfig.MONEY_FORMAT;
-
     public static String tryFormat(String column, String value) {
         if (!FormatterService.isMoneyField(column)) return value.trim();
+        return formatMoney(value, !isWithoutCurrency(column));
+    }
 
-        try {
-            String clean = value.replace(",", ".").replaceAll("[^\\d.\\-]", "");
-            BigDecimal amount = new BigDecimal(clean);
-            if (column.equals("Anteil CS")) {
-                return MONEY_FMT.format(amount);
-            }
-            return MONEY_FMT.format(amount) + " €";
-        } catch (Exception e) {
+    /**
+     * Formatiert einen Betrag; nicht lesbare Werte bleiben unverändert.
+     */
+    static String formatMoney(String value, boolean withCurrency) {
+        StringBuilder sb = FormatEngine.buffer();
+        if (!FormatEngine.appendParsed(sb, value, FormatEngine.MONEY_DE)) {
             return value;
         }
+        if (withCurrency) {
+            sb.append(" €");
+        }
+        return sb.toString();
     }
-}
 
+    /**
+     * Geldspalten, die ohne Währungszeichen angezeigt werden.
+     */
+    static boolean isWithoutCurrency(String column) {
+        return column.equals("Anteil CS");
+    }
+}
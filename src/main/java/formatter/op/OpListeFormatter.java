@@ -1,10 +1,13 @@
 package formatter.op;
 
+import formatter.FormatEngine;
 import model.RowData;
+import model.op.OpInvoice;
+import model.op.OpLine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.text.DecimalFormat;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -22,8 +25,11 @@ import java.util.stream.Collectors;
 public class OpListeFormatter {
     private static final Logger logger = LoggerFactory.getLogger(OpListeFormatter.class);
 
-    private static final DecimalFormat DF_MONEY = new DecimalFormat("#,##0.00");
-    private static final DecimalFormat DF_PERCENT = new DecimalFormat("#,##0.##");
+    // Thread-sicher (FormatEngine); Trennzeichen wie bisher aus der Standard-Locale
+    private static final FormatEngine.Decimal DF_MONEY = FormatEngine.decimal(Locale.getDefault(Locale.Category.FORMAT), 2, 2);
+    private static final FormatEngine.Decimal DF_PERCENT = FormatEngine.decimal(Locale.getDefault(Locale.Category.FORMAT), 0, 2);
+    private static final DateTimeFormatter DB_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter EXPORT_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
 
     private static final Map<String, String> GENERAL_HEADERS = Map.ofEntries(
             Map.entry("A.LU_VMT", "Makler"),
@@ -77,17 +83,20 @@ public class OpListeFormatter {
                 .replaceAll("\\s+", " ");
     }
 
-    // Ajoutez ces deux méthodes utilitaires à la classe OpListeFormatter pour la conversion des formats.
-    private static String formatDate(String dateStr) {
-        if (dateStr == null || dateStr.isEmpty()) return "";
+    private static LocalDate parseDbDate(String dateStr) {
+        if (dateStr == null || dateStr.isEmpty()) return null;
         try {
-            LocalDate date = LocalDate.parse(dateStr, DateTimeFormatter.ofPattern("yyyyMMdd"));
-            return date.format(DateTimeFormatter.ofPattern("dd.MM.yyyy"));
+            return LocalDate.parse(dateStr, DB_DATE);
         } catch (DateTimeParseException e) {
-            return dateStr;
+            return null;
         }
     }
 
+    private static String formatDate(LocalDate date, String raw) {
+        if (date != null) return date.format(EXPORT_DATE);
+        return raw == null ? "" : raw;
+    }
+
     private static String get(Map<String, String> map, String... keys) {
         for (String key : keys) {
             String value = map.get(key);
@@ -167,150 +176,206 @@ public class OpListeFormatter {
         }
     }
 
-    public List<RowData> format(List<RowData> rawData) {
-        List<RowData> formattedList = new ArrayList<>();
-        if (rawData == null || rawData.isEmpty()) return formattedList;
+    /**
+     * Liest die DB-Zeilen der OP-Hauptliste einmalig in typisierte {@link OpLine}s.
+     * Nicht lesbare Zeilen werden protokolliert und übersprungen.
+     */
+    public List<OpLine> parse(List<RowData> rawData) {
+        List<OpLine> lines = new ArrayList<>();
+        if (rawData == null || rawData.isEmpty()) return lines;
 
         for (RowData rawRow : rawData) {
-            Map<String, String> values = rawRow.getValues();
-            RowData newRow = new RowData();
-
             try {
-
-                newRow.put("Makler", get(values, "A.LU_VMT", "LU_VMT"));
-                newRow.put("Rg-NR", resolveRgNr(values));
-                newRow.put("Policen-Nr", get(values, "A.LU_VSN", "LU_VSN", "Police Nr.", "Police Nr"));
-                newRow.put("VSN Makler", get(values, "LA.LU_VSN_Makler", "LU_VSN_Makler"));
-                newRow.put("Zeichnungsjahr", get(values, "A.LU_ZJ", "LU_ZJ"));
-                newRow.put("Versicherungsnehmer", get(values, "LMP.LU_NAM", "LU_NAM").replace("(", "").replace(")", "").replace("+", "&"));
-
-                String rdt = get(values, "A.LU_RDT", "LU_RDT");
-                String bdt = get(values, "A.LU_BDT", "LU_BDT");
-                newRow.put("Rg-Datum", !rdt.isEmpty() ? rdt : bdt);
-
-                newRow.put("Fälligkeit", get(values, "A.LU_FLG", "LU_FLG"));
-                newRow.put("LänderKZ", get(values, "A.LU_VSTLD", "LU_VSTLD"));
-                newRow.put("VA", get(values, "A.LU_SD_WART", "LU_SD_WART"));
-                newRow.put("Währung", get(values, "A.LU_Waehrung", "LU_Waehrung"));
-
-                double obt = parseDouble(get(values, "LU_OBT"));
-                double vstBetrag = parseDouble(get(values, "LU_VSTBetrag"));
-                double praemie = parseDouble(get(values, "LU_Praemie"));
-                double spakz = parseDouble(get(values, "LU_SPAKZ"));
-                double restbetrag = parseDouble(get(values, "LU_Restbetrag"));
-                double wProvision = parseDouble(get(values, "LU_WProvision"));
-                double net100 = parseDouble(get(values, "LU_NET_100"));
-                double luVst = parseDouble(get(values, "LU_VST"));
-                double luNet = parseDouble(get(values, "LU_NET"));
-
-                newRow.put("100% - Netto Prämie", DF_MONEY.format(net100));
-                newRow.put("Steuersatz", DF_PERCENT.format(luVst));
-                newRow.put("Steuerbetrag", (obt > 0 && obt < 100 && vstBetrag != 0) ? DF_MONEY.format(vstBetrag / (obt / 100.0)) : DF_MONEY.format(vstBetrag));
-                newRow.put("100% - Brutto Prämie", (obt > 0 && obt < 100 && praemie != 0) ? DF_MONEY.format(praemie / (obt / 100.0)) : DF_MONEY.format(praemie));
-                newRow.put("Anteil in %", DF_PERCENT.format(obt));
-                newRow.put("Anteil als Betrag (Netto)", DF_MONEY.format(luNet));
-                newRow.put("Anteil als Betrag (Brutto)", DF_MONEY.format(praemie));
-                newRow.put("Courtage in %", (spakz == 999.00) ? "0" : DF_PERCENT.format(spakz * 0.1));
-                newRow.put("Courtagebetrag", DF_MONEY.format(wProvision));
-                newRow.put("Abrechnungsbetrag", DF_MONEY.format(praemie));
-                newRow.put("Zahlbetrag/Teilzahlungen", String.valueOf(parseDouble(String.valueOf((praemie - restbetrag)))));
-                newRow.put("SALDO", DF_MONEY.format(restbetrag));
-                newRow.put("Zahlerwartung", DF_MONEY.format(restbetrag - wProvision));
-
-                newRow.put("INK", get(values, "A.LU_INK", "LU_INK"));
-                newRow.put("Mahnstufe", get(values, "LU_MA2", "A.LU_MA2").isEmpty() ? (get(values, "LU_MA1", "A.LU_MA1").isEmpty() ? "" : "ZE") : "QM");
-                newRow.put("Bemerkung", get(values, "LU_MAHN_Bemerkung", "A.LU_MAHN_Bemerkung").replace("\r\n", ""));
-                newRow.put("Statistik Codes", concatStatCodes(
-                        get(values, "STAT_CODE1"), get(values, "STAT_CODE2"), get(values, "STAT_CODE3"),
-                        get(values, "STAT_CODE4"), get(values, "STAT_CODE5"), get(values, "STAT_CODE6")).toUpperCase());
-
-                newRow.put("A.LU_VMT", get(values, "A.LU_VMT", "LU_VMT"));
-                newRow.put("A.LU_RNR", get(values, "A.LU_RNR", "LU_RNR"));
-                newRow.put("A.LU_VSN", get(values, "A.LU_VSN", "LU_VSN"));
-                newRow.put("LA.LU_VSN_Makler", get(values, "LA.LU_VSN_Makler", "LU_VSN_Makler"));
-                newRow.put("A.LU_ZJ", get(values, "A.LU_ZJ", "LU_ZJ"));
-                newRow.put("LMP.LU_NAM", get(values, "LMP.LU_NAM", "LU_NAM"));
-                newRow.put("A.LU_RDT", get(values, "A.LU_RDT", "LU_RDT"));
-                newRow.put("A.LU_BDT", get(values, "A.LU_BDT", "LU_BDT"));
-                newRow.put("A.LU_FLG", get(values, "A.LU_FLG", "LU_FLG"));
-                newRow.put("A.LU_VSTLD", get(values, "A.LU_VSTLD", "LU_VSTLD"));
-                newRow.put("A.LU_SD_WART", get(values, "A.LU_SD_WART", "LU_SD_WART"));
-                newRow.put("A.LU_Waehrung", get(values, "A.LU_Waehrung", "LU_Waehrung"));
-                newRow.put("LU_NET_100", get(values, "LU_NET_100"));
-                newRow.put("LU_VST", get(values, "LU_VST"));
-                newRow.put("LU_VSTBetrag", get(values, "LU_VSTBetrag"));
-                newRow.put("LU_Praemie", get(values, "LU_Praemie"));
-                newRow.put("LU_OBT", get(values, "LU_OBT"));
-                newRow.put("LU_NET", get(values, "LU_NET"));
-                newRow.put("LU_WProvision", get(values, "LU_WProvision"));
-                newRow.put("LU_Restbetrag", get(values, "LU_Restbetrag"));
-                newRow.put("A.LU_INK", get(values, "A.LU_INK", "LU_INK"));
-                newRow.put("LU_MAHN_Bemerkung", get(values, "LU_MAHN_Bemerkung", "A.LU_MAHN_Bemerkung"));
-                newRow.put("STAT_CODE1", get(values, "STAT_CODE1"));
-                newRow.put("STAT_CODE2", get(values, "STAT_CODE2"));
-                newRow.put("STAT_CODE3", get(values, "STAT_CODE3"));
-                newRow.put("STAT_CODE4", get(values, "STAT_CODE4"));
-                newRow.put("STAT_CODE5", get(values, "STAT_CODE5"));
-                newRow.put("STAT_CODE6", get(values, "STAT_CODE6"));
-                newRow.put("A.LU_ABW", get(values, "A.LU_ABW", "LU_ABW"));
-
-                formattedList.add(newRow);
-
+                lines.add(toLine(rawRow.getValues()));
             } catch (Exception ex) {
                 logger.error("Fehler beim Formatieren der OP-Liste: {}", ex.getMessage(), ex);
             }
         }
-        return formattedList;
+        return lines;
     }
 
-    public List<RowData> formatForExport(List<RowData> mainFormattedList, String language) {
-        if (mainFormattedList == null || mainFormattedList.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        Map<String, List<RowData>> groupedByInvoice = mainFormattedList.stream()
-                .collect(Collectors.groupingBy(
-                        row -> row.getValues().get("Rg-NR") + "_" + row.getValues().get("Policen-Nr"),
-                        LinkedHashMap::new,
-                        Collectors.toList()
-                ));
-
-        List<RowData> finalFormattedList = new ArrayList<>();
+    static OpLine toLine(Map<String, String> values) {
+        String rdt = get(values, "A.LU_RDT", "LU_RDT");
+        String bdt = get(values, "A.LU_BDT", "LU_BDT");
+        String flg = get(values, "A.LU_FLG", "LU_FLG");
+        String ma1 = get(values, "LU_MA1", "A.LU_MA1");
+        String ma2 = get(values, "LU_MA2", "A.LU_MA2");
+
+        return new OpLine(
+                get(values, "A.LU_VMT", "LU_VMT"),
+                get(values, "A.LU_RNR", "LU_RNR"),
+                resolveRgNr(values),
+                get(values, "A.LU_VSN", "LU_VSN", "Police Nr.", "Police Nr"),
+                get(values, "LA.LU_VSN_Makler", "LU_VSN_Makler"),
+                get(values, "A.LU_ZJ", "LU_ZJ"),
+                get(values, "LMP.LU_NAM", "LU_NAM"),
+                rdt, bdt, flg,
+                get(values, "A.LU_VSTLD", "LU_VSTLD"),
+                get(values, "A.LU_SD_WART", "LU_SD_WART"),
+                get(values, "A.LU_Waehrung", "LU_Waehrung"),
+                parseDouble(get(values, "LU_NET_100")),
+                parseDouble(get(values, "LU_VST")),
+                parseDouble(get(values, "LU_VSTBetrag")),
+                parseDouble(get(values, "LU_Praemie")),
+                parseDouble(get(values, "LU_OBT")),
+                parseDouble(get(values, "LU_SPAKZ")),
+                parseDouble(get(values, "LU_NET")),
+                parseDouble(get(values, "LU_WProvision")),
+                parseDouble(get(values, "LU_Restbetrag")),
+                parseDbDate(!rdt.isEmpty() ? rdt : bdt),
+                parseDbDate(flg),
+                get(values, "A.LU_INK", "LU_INK"),
+                !ma2.isEmpty() ? "QM" : (!ma1.isEmpty() ? "ZE" : ""),
+                get(values, "LU_MAHN_Bemerkung", "A.LU_MAHN_Bemerkung"),
+                List.of(get(values, "STAT_CODE1"), get(values, "STAT_CODE2"), get(values, "STAT_CODE3"),
+                        get(values, "STAT_CODE4"), get(values, "STAT_CODE5"), get(values, "STAT_CODE6")),
+                get(values, "A.LU_ABW", "LU_ABW"));
+    }
 
-        for (Map.Entry<String, List<RowData>> entry : groupedByInvoice.entrySet()) {
-            List<RowData> group = entry.getValue();
-            RowData firstRow = group.get(0);
+    /**
+     * Anzeigezeilen für die Tabellenansicht (einmal pro Ladevorgang, siehe {@code OpRepository}).
+     */
+    public List<RowData> format(List<RowData> rawData) {
+        return toRows(parse(rawData));
+    }
 
-            RowData newRow = new RowData();
+    public List<RowData> toRows(List<OpLine> lines) {
+        List<RowData> formattedList = new ArrayList<>(lines.size());
+        for (OpLine line : lines) {
+            formattedList.add(toRow(line));
+        }
+        return formattedList;
+    }
 
-            // Copier les champs non-agrégés de la première ligne
-            newRow.put("Rg-NR", firstRow.getValues().get("Rg-NR"));
-            newRow.put("Policen-Nr", firstRow.getValues().get("Policen-Nr"));
-            newRow.put("Zeichnungsjahr", firstRow.getValues().get("Zeichnungsjahr"));
-            newRow.put("Versicherungsnehmer", firstRow.getValues().get("Versicherungsnehmer"));
+    /**
+     * Formatiert eine {@link OpLine} für die Anzeige (deutsche Zahlen, Rohspalten der DB zusätzlich).
+     */
+    public RowData toRow(OpLine l) {
+        RowData newRow = new RowData();
+
+        newRow.put("Makler", l.makler());
+        newRow.put("Rg-NR", l.rgNr());
+        newRow.put("Policen-Nr", l.policenNr());
+        newRow.put("VSN Makler", l.vsnMakler());
+        newRow.put("Zeichnungsjahr", l.zeichnungsjahr());
+        newRow.put("Versicherungsnehmer", l.name().replace("(", "").replace(")", "").replace("+", "&"));
+        newRow.put("Rg-Datum", l.rgDatumRaw());
+        newRow.put("Fälligkeit", l.flg());
+        newRow.put("LänderKZ", l.laenderKz());
+        newRow.put("VA", l.va());
+        newRow.put("Währung", l.waehrung());
+
+        newRow.put("100% - Netto Prämie", DF_MONEY.format(l.net100()));
+        newRow.put("Steuersatz", DF_PERCENT.format(l.vst()));
+        newRow.put("Steuerbetrag", DF_MONEY.format(l.steuerbetrag100()));
+        newRow.put("100% - Brutto Prämie", DF_MONEY.format(l.bruttoPraemie100()));
+        newRow.put("Anteil in %", DF_PERCENT.format(l.obt()));
+        newRow.put("Anteil als Betrag (Netto)", DF_MONEY.format(l.net()));
+        newRow.put("Anteil als Betrag (Brutto)", DF_MONEY.format(l.praemie()));
+        newRow.put("Courtage in %", DF_PERCENT.format(l.courtageProzent()));
+        newRow.put("Courtagebetrag", DF_MONEY.format(l.wProvision()));
+        newRow.put("Abrechnungsbetrag", DF_MONEY.format(l.praemie()));
+        newRow.put("Zahlbetrag/Teilzahlungen", DF_MONEY.format(l.zahlbetrag()));
+        newRow.put("SALDO", DF_MONEY.format(l.restbetrag()));
+        newRow.put("Zahlerwartung", DF_MONEY.format(l.zahlerwartung()));
+
+        newRow.put("INK", l.ink());
+        newRow.put("Mahnstufe", l.mahnstufe());
+        newRow.put("Bemerkung", l.bemerkung().replace("\r\n", ""));
+        newRow.put("Statistik Codes", concatStatCodes(l.statCodes().toArray(new String[0])).toUpperCase());
+
+        newRow.put("A.LU_VMT", l.makler());
+        newRow.put("A.LU_RNR", l.rnr());
+        newRow.put("A.LU_VSN", l.policenNr());
+        newRow.put("LA.LU_VSN_Makler", l.vsnMakler());
+        newRow.put("A.LU_ZJ", l.zeichnungsjahr());
+        newRow.put("LMP.LU_NAM", l.name());
+        newRow.put("A.LU_RDT", l.rdt());
+        newRow.put("A.LU_BDT", l.bdt());
+        newRow.put("A.LU_FLG", l.flg());
+        newRow.put("A.LU_VSTLD", l.laenderKz());
+        newRow.put("A.LU_SD_WART", l.va());
+        newRow.put("A.LU_Waehrung", l.waehrung());
+        newRow.put("LU_NET_100", plain(l.net100()));
+        newRow.put("LU_VST", plain(l.vst()));
+        newRow.put("LU_VSTBetrag", plain(l.vstBetrag()));
+        newRow.put("LU_Praemie", plain(l.praemie()));
+        newRow.put("LU_OBT", plain(l.obt()));
+        newRow.put("LU_NET", plain(l.net()));
+        newRow.put("LU_WProvision", plain(l.wProvision()));
+        newRow.put("LU_Restbetrag", plain(l.restbetrag()));
+        newRow.put("A.LU_INK", l.ink());
+        newRow.put("LU_MAHN_Bemerkung", l.bemerkung());
+        for (int i = 0; i < l.statCodes().size(); i++) {
+            newRow.put("STAT_CODE" + (i + 1), l.statCodes().get(i));
+        }
+        newRow.put("A.LU_ABW", l.abw());
+        return newRow;
+    }
 
-            // Formater les dates
-            String rgDatum = firstRow.getValues().get("Rg-Datum");
-            newRow.put("Rg-Datum", formatDate(rgDatum));
-            String falligkeit = firstRow.getValues().get("Fälligkeit");
-            newRow.put("Fälligkeit", formatDate(falligkeit));
+    /**
+     * Verdichtet die Zeilen einer Police auf Rechnungsebene (Rg-NR + Policen-Nr), direkt auf den
+     * numerischen Werten.
+     *
+     * @param versicherungsnehmer Name für den Export; {@code null} übernimmt den Namen der ersten Zeile
+     */
+    public List<OpInvoice> aggregate(List<OpLine> lines, String versicherungsnehmer) {
+        if (lines == null || lines.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-            newRow.put("Währung", firstRow.getValues().get("Währung"));
+        Map<String, List<OpLine>> groupedByInvoice = new LinkedHashMap<>();
+        for (OpLine line : lines) {
+            groupedByInvoice.computeIfAbsent(line.rgNr() + "_" + line.policenNr(), k -> new ArrayList<>()).add(line);
+        }
 
+        List<OpInvoice> invoices = new ArrayList<>(groupedByInvoice.size());
+        for (List<OpLine> group : groupedByInvoice.values()) {
+            OpLine first = group.get(0);
 
-            double abrechnungsbetragTotal = group.stream().mapToDouble(row -> parseDouble(row.getValues().get("Abrechnungsbetrag"))).sum();
-            double zahlbetragTotal = group.stream().mapToDouble(row -> parseDouble(row.getValues().get("Zahlbetrag/Teilzahlungen"))).sum();
-            double saldoTotal = group.stream().mapToDouble(row -> parseDouble(row.getValues().get("SALDO"))).sum();
+            double abrechnungsbetrag = 0, zahlbetrag = 0, saldo = 0;
+            for (OpLine l : group) {
+                abrechnungsbetrag += l.praemie();
+                zahlbetrag += l.zahlbetrag();
+                saldo += l.restbetrag();
+            }
 
+            // Copier les champs non-agrégés de la première ligne
+            invoices.add(new OpInvoice(first.rgNr(), first.policenNr(), first.zeichnungsjahr(),
+                    versicherungsnehmer != null ? versicherungsnehmer : first.name(),
+                    first.rgDatum(), first.rgDatumRaw(), first.faelligkeit(), first.flg(),
+                    first.waehrung(), abrechnungsbetrag, zahlbetrag, saldo));
+        }
+        return invoices;
+    }
 
-            newRow.put("Abrechnungsbetrag", DF_MONEY.format(abrechnungsbetragTotal));
-            newRow.put("Zahlbetrag/Teilzahlungen", DF_MONEY.format(zahlbetragTotal));
-            newRow.put("SALDO", DF_MONEY.format(saldoTotal));
+    /**
+     * Textdarstellung der Rechnungen für Schreiber ohne typisierte Zellen (PDF).
+     */
+    public List<RowData> formatForExport(List<OpInvoice> invoices) {
+        if (invoices == null || invoices.isEmpty()) {
+            return Collections.emptyList();
+        }
 
+        List<RowData> finalFormattedList = new ArrayList<>(invoices.size());
+        for (OpInvoice inv : invoices) {
+            RowData newRow = new RowData();
+            newRow.put("Rg-NR", inv.rgNr());
+            newRow.put("Policen-Nr", inv.policenNr());
+            newRow.put("Zeichnungsjahr", inv.zeichnungsjahr());
+            newRow.put("Versicherungsnehmer", inv.versicherungsnehmer());
+            newRow.put("Rg-Datum", formatDate(inv.rgDatum(), inv.rgDatumRaw()));
+            newRow.put("Fälligkeit", formatDate(inv.faelligkeit(), inv.faelligkeitRaw()));
+            newRow.put("Währung", inv.waehrung());
+            newRow.put("Abrechnungsbetrag", DF_MONEY.format(inv.abrechnungsbetrag()));
+            newRow.put("Zahlbetrag/Teilzahlungen", DF_MONEY.format(inv.zahlbetrag()));
+            newRow.put("SALDO", DF_MONEY.format(inv.saldo()));
             finalFormattedList.add(newRow);
         }
         return finalFormattedList;
     }
 
-
+    private static String plain(double value) {
+        return value == 0 ? "0" : BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
 }
\ No newline at end of file
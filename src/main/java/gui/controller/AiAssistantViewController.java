@@ -1,5 +1,6 @@
 package gui.controller;
 
+import config.ApplicationConfig;
 import gui.controller.manager.EnhancedTableManager;
 import gui.controller.manager.TableViewBuilder;
 import javafx.application.Platform;
@@ -14,14 +15,19 @@ import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import model.RowData;
 import model.enums.ExportFormat;
+import model.enums.QuerySource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import util.QueryCancelHandle;
 
 import java.io.File;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static gui.controller.dialog.Dialog.showErrorDialog;
 import static gui.controller.dialog.Dialog.showSuccessDialog;
@@ -71,6 +77,8 @@ import static gui.controller.service.FormatterService.exportWithFormat;
 public class AiAssistantViewController implements Initializable {
 
     private static final Logger logger = LoggerFactory.getLogger(AiAssistantViewController.class);
+    // Grenzen (Vorschau, Obergrenze, Timeout) für KI-/Editor-SQL
+    private static final QuerySource QUERY_SOURCE = QuerySource.AI;
 
     // === FXML-Komponenten (bestehend) ===
     @FXML
@@ -84,6 +92,10 @@ public class AiAssistantViewController implements Initializable {
     @FXML
     private Button executeQueryButton;
     @FXML
+    private Button cancelQueryButton;
+    @FXML
+    private Button loadAllButton;
+    @FXML
     private Label statusLabel;
     @FXML
     private VBox resultsContainer;
@@ -99,12 +111,23 @@ public class AiAssistantViewController implements Initializable {
     private service.interfaces.AiService aiService;
     private service.interfaces.DatabaseService databaseService;
     private List<RowData> fullResults = new ArrayList<>();
+    // Zuletzt generierter Plan (SQL + gebundene Parameter)
+    private model.ai.planning.SqlPlan generatedPlan;
+    // Abbruch-Handle der laufenden Abfrage (null, wenn keine läuft)
+    private volatile QueryCancelHandle runningQuery;
+    // Abfrage hinter einer unvollständigen Tabelle (Vorschau/Abbruch); der Export lädt dann neu
+    private ResultQuery incompleteResult;
+    // Tabelle enthält bereits alle Zeilen bis zur Obergrenze der Quelle, das Ergebnis ist aber größer
+    private boolean resultCapped;
 
     // === Neue Tabellenverwaltung ===
     private EnhancedTableManager tableManager;
     private Button exportCsvButton;
     private Button exportXlsxButton;
 
+    private record ResultQuery(String sql, List<String> parameters) {
+    }
+
     /**
      * Initialisiert den Controller und die UI-Komponenten.
      *
@@ -254,16 +277,17 @@ public class AiAssistantViewController implements Initializable {
 
         setProcessing(true, "KI analysiert Anfrage und generiert SQL...");
 
-        Task<String> generateTask = new Task<>() {
+        Task<model.ai.planning.SqlPlan> generateTask = new Task<>() {
             @Override
-            protected String call() {
+            protected model.ai.planning.SqlPlan call() {
                 logger.info("Sende KI-Anfrage: {}", userQuestion.substring(0, Math.min(50, userQuestion.length())));
-                return aiService.generateQuery(userQuestion);
+                return aiService.generatePlan(userQuestion);
             }
         };
 
         generateTask.setOnSucceeded(event -> {
-            String generatedSql = generateTask.getValue();
+            generatedPlan = generateTask.getValue();
+            String generatedSql = generatedPlan != null ? generatedPlan.sql : null;
             sqlTextArea.setText(generatedSql);
 
             if (generatedSql != null && (generatedSql.startsWith("-- KI-Hinweis:") ||
@@ -295,7 +319,7 @@ public class AiAssistantViewController implements Initializable {
      *   <li>SQL-Validierung (keine Kommentare/Hinweise)</li>
      *   <li>Cache-Invalidierung für aktuelle Daten</li>
      *   <li>Asynchrone Datenbankabfrage</li>
-     *   <li>Ergebnisse an EnhancedTableManager übergeben</li>
+     *   <li>Ergebnisse blockweise an EnhancedTableManager übergeben (abbrechbar)</li>
      *   <li>Export-Buttons aktivieren bei erfolgreichen Ergebnissen</li>
      * </ol>
      *
@@ -308,6 +332,18 @@ public class AiAssistantViewController implements Initializable {
      */
     @FXML
     private void executeQuery() {
+        runQuery(false);
+    }
+
+    /**
+     * Lädt nach einer abgeschnittenen Vorschau alle Zeilen (bis zur Obergrenze der Quelle).
+     */
+    @FXML
+    private void loadAllRows() {
+        runQuery(true);
+    }
+
+    private void runQuery(boolean full) {
         String sql = sqlTextArea.getText();
         if (sql == null || sql.trim().isEmpty() || sql.startsWith("--")) {
             showErrorDialog("Ungültige Abfrage",
@@ -320,35 +356,61 @@ public class AiAssistantViewController implements Initializable {
         // Cache invalidieren für aktuelle Daten
         databaseService.invalidateCache();
 
-        Task<List<RowData>> queryTask = new Task<>() {
+        // Unverändertes KI-SQL: mit den gebundenen Parametern des Plans ausführen (PreparedStatement)
+        String[] params = boundParams(sql);
+        List<String> parameters = params != null ? Arrays.asList(params) : List.of();
+
+        // Vorschau: nur die ersten N Zeilen; "Alle laden" bis zur harten Obergrenze
+        int maxRows = full ? QUERY_SOURCE.getMaxRows() : QUERY_SOURCE.getPreviewRows();
+
+        // Ergebnisse blockweise anzeigen, statt auf das vollständige Ergebnis zu warten
+        fullResults = new ArrayList<>();
+        tableManager.populateTableView(fullResults);
+        QueryCancelHandle cancelHandle = new QueryCancelHandle();
+        runningQuery = cancelHandle;
+        showCancelButton(true);
+        showLoadAllButton(false);
+        incompleteResult = null;
+        resultCapped = false;
+
+        Task<Long> queryTask = new Task<>() {
             @Override
-            protected List<RowData> call() throws Exception {
+            protected Long call() throws Exception {
                 logger.info("Führe SQL aus: {}", sql.substring(0, Math.min(100, sql.length())));
-                return databaseService.executeRawQuery(sql);
+                int rows = databaseService.streamRawQuery(sql, parameters, QUERY_SOURCE, maxRows,
+                        ApplicationConfig.STREAM_BATCH_SIZE,
+                        batch -> Platform.runLater(() -> appendBatch(batch)),
+                        cancelHandle);
+                // Nur bei erreichter Grenze zählen (sonst ist das Ergebnis vollständig)
+                if (rows < maxRows || cancelHandle.isCancelled()) {
+                    return (long) rows;
+                }
+                return databaseService.countRawQuery(sql, parameters, QUERY_SOURCE);
             }
 
             @Override
             protected void succeeded() {
-                fullResults = getValue() != null ? getValue() : new ArrayList<>();
-
-                if (!fullResults.isEmpty()) {
-                    // Daten an EnhancedTableManager übergeben
-                    tableManager.populateTableView(fullResults);
-
-                    // Export-Buttons aktivieren
-                    exportCsvButton.setDisable(false);
-                    exportXlsxButton.setDisable(false);
-
-                    logger.info("Query erfolgreich: {} Datensätze geladen", fullResults.size());
-                } else {
-                    logger.info("Query ergab keine Ergebnisse");
-                }
-
-                setProcessing(false, fullResults.size() + " Zeilen gefunden.");
+                long total = getValue();
+                // runLater: erst nach den noch ausstehenden Blöcken abschließen
+                Platform.runLater(() -> {
+                    showCancelButton(false);
+                    if (!fullResults.isEmpty()) {
+                        logger.info("Query erfolgreich: {} Datensätze geladen", fullResults.size());
+                    } else {
+                        logger.info("Query ergab keine Ergebnisse");
+                    }
+                    boolean truncated = fullResults.size() >= maxRows && total != fullResults.size();
+                    boolean cancelled = cancelHandle.isCancelled();
+                    showLoadAllButton(truncated && !full);
+                    incompleteResult = cancelled || (truncated && !full) ? new ResultQuery(sql, parameters) : null;
+                    resultCapped = truncated && full && !cancelled;
+                    setProcessing(false, resultStatus(cancelled, truncated, full, total));
+                });
             }
 
             @Override
             protected void failed() {
+                showCancelButton(false);
                 logger.error("Datenbankabfrage fehlgeschlagen", getException());
                 setProcessing(false, "Fehler bei der Datenbankabfrage.");
                 showErrorDialog("Datenbankfehler",
@@ -359,6 +421,66 @@ public class AiAssistantViewController implements Initializable {
         new Thread(queryTask, "ai-exec-sql").start();
     }
 
+    private String resultStatus(boolean cancelled, boolean truncated, boolean full, long total) {
+        int loaded = fullResults.size();
+        if (cancelled) {
+            return "Abgebrochen – " + loaded + " Zeilen geladen.";
+        }
+        if (!truncated) {
+            return loaded + " Zeilen gefunden.";
+        }
+        String of = total > 0 ? " von " + total : "";
+        return full
+                ? "Obergrenze erreicht: " + loaded + of + " Zeilen geladen."
+                : "Vorschau: erste " + loaded + of + " Zeilen.";
+    }
+
+    /**
+     * Bricht die laufende Datenbankabfrage ab; bereits geladene Zeilen bleiben sichtbar.
+     */
+    @FXML
+    private void cancelQuery() {
+        QueryCancelHandle handle = runningQuery;
+        if (handle != null) {
+            statusLabel.setText("Abfrage wird abgebrochen...");
+            handle.cancel();
+        }
+    }
+
+    private void appendBatch(List<RowData> batch) {
+        fullResults.addAll(batch);
+        tableManager.appendRows(batch);
+        statusLabel.setText(fullResults.size() + " Zeilen geladen...");
+    }
+
+    private void showLoadAllButton(boolean visible) {
+        if (loadAllButton != null) {
+            loadAllButton.setVisible(visible);
+            loadAllButton.setManaged(visible);
+        }
+    }
+
+    private void showCancelButton(boolean running) {
+        if (!running) runningQuery = null;
+        if (cancelQueryButton != null) {
+            cancelQueryButton.setVisible(running);
+            cancelQueryButton.setManaged(running);
+        }
+    }
+
+    /**
+     * Liefert die Parameter des zuletzt generierten Plans, sofern das SQL im Editor
+     * unverändert ist und Platzhalter enthält; sonst {@code null} (Ausführung als rohes SQL).
+     */
+    private String[] boundParams(String sql) {
+        if (generatedPlan == null || generatedPlan.params.isEmpty() || !sql.equals(generatedPlan.sql)) {
+            return null;
+        }
+        return generatedPlan.params.stream()
+                .map(p -> p == null ? null : String.valueOf(p))
+                .toArray(String[]::new);
+    }
+
     /**
      * Exportiert die KI-generierten Ergebnisse im ausgewählten Format.
      *
@@ -368,6 +490,8 @@ public class AiAssistantViewController implements Initializable {
      *   <li>Berücksichtigt benutzerdefinierte Spaltennamen (Umbenennungen)</li>
      *   <li>Formatierung über FormatterService (Datum, Geld, etc.)</li>
      *   <li>Respektiert aktuelle Suchfilter</li>
+     *   <li>Zeigt die Tabelle nur eine Vorschau oder ein abgebrochenes Teilergebnis, wird die
+     *       Abfrage für den Export erneut bis zur Obergrenze der Quelle ausgeführt</li>
      * </ul>
      *
      * @param event ActionEvent vom Export-Button (bestimmt das Format)
@@ -383,7 +507,10 @@ public class AiAssistantViewController implements Initializable {
         // Export-Header aus der aktuellen Tabellenansicht extrahieren
         List<String> displayHeaders = tableManager.getDisplayHeaders();
         List<String> originalKeys = tableManager.getOriginalKeys();
-        List<RowData> exportData = tableManager.getFilteredData(); // Verwende gefilterte Daten
+        List<RowData> tableData = tableManager.getFilteredData(); // Verwende gefilterte Daten
+        Predicate<RowData> filter = tableManager.getClientFilter();
+        ResultQuery reload = incompleteResult;
+        boolean tableCapped = resultCapped;
 
         // Format basierend auf Button bestimmen
         Button sourceButton = (Button) event.getSource();
@@ -404,17 +531,34 @@ public class AiAssistantViewController implements Initializable {
         // Asynchroner Export
         setProcessing(true, "Exportiere " + format.name() + "-Datei...");
 
-        Task<Void> exportTask = new Task<>() {
+        Task<Boolean> exportTask = new Task<>() {
             @Override
-            protected Void call() throws Exception {
+            protected Boolean call() throws Exception {
+                List<RowData> exportData = tableData;
+                boolean capped = tableCapped;
+                if (reload != null) {
+                    Platform.runLater(() -> statusLabel.setText("Lade vollständiges Ergebnis für den Export..."));
+                    List<RowData> rows = loadFullResult(reload);
+                    capped = rows.size() >= QUERY_SOURCE.getMaxRows();
+                    exportData = rows.stream().filter(filter).collect(Collectors.toList());
+                }
                 logger.info("Starte KI-Export: {} Datensätze, {} Spalten, Format: {}",
                         exportData.size(), displayHeaders.size(), format);
                 exportWithFormat(exportData, displayHeaders, originalKeys, file, format);
-                return null;
+                return capped;
             }
 
             @Override
             protected void succeeded() {
+                if (getValue()) {
+                    logger.warn("⚠️ KI-Export auf {} Zeilen begrenzt (Obergrenze der Quelle): {}",
+                            QUERY_SOURCE.getMaxRows(), file.getAbsolutePath());
+                    setProcessing(false, "Export unvollständig: Obergrenze erreicht.");
+                    new Alert(Alert.AlertType.WARNING, "Export auf " + QUERY_SOURCE.getMaxRows()
+                            + " Zeilen begrenzt – das Ergebnis ist möglicherweise unvollständig. "
+                            + "Bitte Abfrage eingrenzen.\n" + file.getName(), ButtonType.OK).showAndWait();
+                    return;
+                }
                 setProcessing(false, "Export erfolgreich abgeschlossen.");
                 showSuccessDialog("Export erfolgreich",
                         "Der KI-Bericht wurde erfolgreich gespeichert:\n" + file.getName());
@@ -433,6 +577,16 @@ public class AiAssistantViewController implements Initializable {
         new Thread(exportTask, "ai-export").start();
     }
 
+    /**
+     * Führt die Abfrage für den Export erneut aus, bis zur Obergrenze der Quelle.
+     */
+    private List<RowData> loadFullResult(ResultQuery query) throws Exception {
+        List<RowData> rows = new ArrayList<>();
+        databaseService.streamRawQuery(query.sql(), query.parameters(), QUERY_SOURCE, QUERY_SOURCE.getMaxRows(),
+                ApplicationConfig.STREAM_BATCH_SIZE, rows::addAll, null);
+        return rows;
+    }
+
     /**
      * Initialisiert das Hilfe-System mit Kontext-ComboBox und Beispiel-Chips.
      * Stellt vorgefertigte Prompts für häufige VIAS-Anwendungsfälle bereit.
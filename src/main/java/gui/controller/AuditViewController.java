@@ -57,6 +57,8 @@ public class AuditViewController implements Initializable {
     private TextArea manualSchadenInput;
     @FXML
     private TextArea manualVertragInput;
+    @FXML
+    private CheckBox fuzzySbMatchCheckBox;
     private Task<ExecutionResult> currentTask;
 
     @Override
@@ -243,15 +245,19 @@ public class AuditViewController implements Initializable {
 
     @FXML
     private void checkSbMismatchVertrag() {
-        SbMismatchVertragTask t = new SbMismatchVertragTask(auditService);
+        SbMismatchVertragTask t = new SbMismatchVertragTask(auditService, isFuzzySbMatch());
         bindAndRunTask(t, "SB-Abgleich (Verträge) gestartet.");
     }
 
     @FXML
     private void checkSbMismatchSchaden() {
-        SbMismatchSchadenTask t = new SbMismatchSchadenTask(auditService);
+        SbMismatchSchadenTask t = new SbMismatchSchadenTask(auditService, isFuzzySbMatch());
         bindAndRunTask(t, "SB-Abgleich (Schaden) gestartet.");
     }
 
+    private boolean isFuzzySbMatch() {
+        return fuzzySbMatchCheckBox != null && fuzzySbMatchCheckBox.isSelected();
+    }
+
 
 }
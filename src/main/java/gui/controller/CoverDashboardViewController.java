@@ -86,6 +86,8 @@ public class CoverDashboardViewController {
             stage.setMinWidth(1100);
             stage.setMinHeight(900);
             stage.setMaximized(true);
+            // Listener am CoverService lösen, sonst bleibt der Controller nach dem Schließen erreichbar
+            stage.setOnHidden(e -> controller.dispose());
             stage.show();
 
         } catch (Exception e) {
@@ -1,7 +1,6 @@
 package gui.controller;
 
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
@@ -9,13 +8,16 @@ import javafx.scene.control.Label;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import service.ServiceFactory;
-import service.interfaces.DatabaseService;
+import service.cache.DashboardStatsService;
 
 import java.net.URL;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.function.Consumer;
 
 import static gui.controller.dialog.Dialog.showErrorDialog;
 
@@ -27,6 +29,7 @@ import static gui.controller.dialog.Dialog.showErrorDialog;
 public class DashboardViewController implements Initializable {
 
     private static final Logger logger = LoggerFactory.getLogger(DashboardViewController.class);
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
 
     // Legacy label refs (fallback if old FXML is used)
     @FXML
@@ -48,58 +51,72 @@ public class DashboardViewController implements Initializable {
     @FXML
     private Label statusLabel;
 
-    private DatabaseService databaseService;
+    private DashboardStatsService statsService;
+    private final Consumer<DashboardStatsService.Snapshot> listener =
+            snapshot -> Platform.runLater(() -> showSnapshot(snapshot));
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        this.databaseService = ServiceFactory.getDatabaseService();
+        this.statsService = ServiceFactory.getDashboardStatsService();
 
         // Titles for new stat cards (if present)
         if (activeContractsCard != null) activeContractsCard.setTitle("Aktive Verträge");
         if (openDamagesCard != null) openDamagesCard.setTitle("Offene Schäden");
         if (brokerCountCard != null) brokerCountCard.setTitle("Anzahl Makler");
 
-        // Lädt die Daten beim ersten Öffnen des Dashboards.
-        refreshDashboard();
+        // Letzten Stand sofort anzeigen (auch nach Kaltstart aus dem Snapshot), dann im Hintergrund aktualisieren
+        DashboardStatsService.Snapshot last = statsService.current();
+        if (last != null) {
+            updateDashboardUI(last.values());
+            statusLabel.setText("Stand vom " + formatTimestamp(last.loadedAt()) + " – wird aktualisiert...");
+        }
+        // Nur abonnieren (und damit periodisch aktualisieren), solange die Ansicht angezeigt wird
+        refreshButton.sceneProperty().addListener((obs, oldScene, newScene) -> onSceneChanged(newScene != null));
+        onSceneChanged(refreshButton.getScene() != null);
+    }
+
+    /**
+     * Die Ansicht wird einmal geladen und beim Navigieren nur ein-/ausgehängt: beim Einhängen
+     * anmelden und aktualisieren, beim Aushängen abmelden.
+     */
+    private void onSceneChanged(boolean shown) {
+        if (shown) {
+            statsService.subscribe(listener);
+            refreshDashboard();
+        } else {
+            statsService.unsubscribe(listener);
+        }
     }
 
     /**
      * Wird aufgerufen, wenn der "Aktualisieren"-Button geklickt wird.
-     * Startet einen Hintergrund-Task, um die Dashboard-Statistiken neu zu laden.
+     * Stößt die Aktualisierung der Dashboard-Statistiken im Hintergrund an.
      */
     @FXML
     private void refreshDashboard() {
-        setProcessing(true, "Daten werden geladen...");
-
-        // Ein Task wird verwendet, um die Datenbankabfrage im Hintergrund auszuführen,
-        // damit die GUI nicht blockiert wird.
-        Task<Map<String, Integer>> statisticsTask = new Task<>() {
-            @Override
-            protected Map<String, Integer> call() throws Exception {
-                // Diese Methode ruft die Daten aus dem DatabaseService ab.
-                return databaseService.getDashboardStatistics();
-            }
-
-            @Override
-            protected void succeeded() {
-                // Diese Methode wird im JavaFX Application Thread ausgeführt, wenn der Task erfolgreich war.
-                Map<String, Integer> stats = getValue();
-                updateDashboardUI(stats);
-                setProcessing(false, "Daten zuletzt aktualisiert am " + getCurrentTimestamp());
-            }
+        setProcessing(true, statsService.current() == null
+                ? "Daten werden geladen..."
+                : "Stand vom " + formatTimestamp(statsService.current().loadedAt()) + " – wird aktualisiert...");
+        statsService.refreshAsync();
+    }
 
-            @Override
-            protected void failed() {
-                // Diese Methode wird im JavaFX Application Thread ausgeführt, wenn der Task fehlgeschlagen ist.
-                Throwable error = getException();
-                logger.error("Fehler beim Laden der Dashboard-Statistiken", error);
+    /**
+     * Zeigt einen neuen Stand an. Muss im JavaFX Application Thread aufgerufen werden.
+     */
+    private void showSnapshot(DashboardStatsService.Snapshot snapshot) {
+        if (snapshot.error() != null) {
+            logger.error("Fehler beim Laden der Dashboard-Statistiken", snapshot.error());
+            if (snapshot.loadedAt() != null) {
+                // Alte Werte bleiben stehen, nur der Status zeigt den Fehler
+                setProcessing(false, "Aktualisierung fehlgeschlagen, Stand vom " + formatTimestamp(snapshot.loadedAt()));
+            } else {
                 setProcessing(false, "Fehler beim Laden der Daten.");
-                showErrorDialog("Datenbankfehler", "Die Statistiken konnten nicht geladen werden:\n" + error.getMessage());
+                showErrorDialog("Datenbankfehler", "Die Statistiken konnten nicht geladen werden:\n" + snapshot.error().getMessage());
             }
-        };
-
-        // Startet den Task in einem neuen Thread.
-        new Thread(statisticsTask).start();
+            return;
+        }
+        updateDashboardUI(snapshot.values());
+        setProcessing(false, "Daten zuletzt aktualisiert am " + formatTimestamp(snapshot.loadedAt()));
     }
 
     /**
@@ -133,10 +150,10 @@ public class DashboardViewController implements Initializable {
     }
 
     /**
-     * Gibt den aktuellen Zeitstempel als formatierten String zurück.
+     * Formatiert einen Zeitstempel für die Statuszeile.
      */
-    private String getCurrentTimestamp() {
-        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"));
+    private static String formatTimestamp(Instant instant) {
+        return TIMESTAMP_FORMAT.format(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()));
     }
 
 }
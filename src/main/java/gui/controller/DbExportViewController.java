@@ -1,5 +1,6 @@
 package gui.controller;
 
+import config.ApplicationConfig;
 import gui.controller.manager.EnhancedTableManager;
 import gui.controller.manager.TableLayoutHelper;
 import gui.controller.manager.TableViewBuilder;
@@ -17,10 +18,12 @@ import javafx.stage.FileChooser;
 import model.RowData;
 import model.enums.ExportFormat;
 import model.enums.QueryRepository;
+import model.enums.QuerySource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import service.ServiceFactory;
 import service.interfaces.DatabaseService;
+import util.QueryCancelHandle;
 
 import java.io.File;
 import java.net.URL;
@@ -66,6 +69,8 @@ import static gui.controller.service.FormatterService.exportWithFormat;
 public class DbExportViewController implements Initializable {
 
     private static final Logger logger = LoggerFactory.getLogger(DbExportViewController.class);
+    // Grenzen (Vorschau, Obergrenze, Timeout) für Berichtsabfragen
+    private static final QuerySource QUERY_SOURCE = QuerySource.DB_EXPORT;
     private final List<TextField> parameterTextFields = new ArrayList<>();
     private final ObservableList<String> listParameters = FXCollections.observableArrayList();
     // === FXML-Komponenten (bestehend) ===
@@ -78,6 +83,10 @@ public class DbExportViewController implements Initializable {
     @FXML
     private Button executeQueryButton;
     @FXML
+    private Button cancelQueryButton;
+    @FXML
+    private Button loadAllButton;
+    @FXML
     private ProgressBar progressBar;
     @FXML
     private Label statusLabel;
@@ -93,11 +102,20 @@ public class DbExportViewController implements Initializable {
     private DatabaseService databaseService;
     private QueryRepository selectedQuery;
     private List<RowData> fullResults = new ArrayList<>();
+    // Abbruch-Handle der laufenden Abfrage (null, wenn keine läuft)
+    private volatile QueryCancelHandle runningQuery;
+    // Abfrage hinter einer unvollständigen Tabelle (Vorschau/Abbruch); der Export lädt dann neu
+    private ResultQuery incompleteResult;
+    // Tabelle enthält bereits alle Zeilen bis zur Obergrenze der Quelle, das Ergebnis ist aber größer
+    private boolean resultCapped;
     // === Neue Tabellenverwaltung ===
     private EnhancedTableManager tableManager;
     private Button exportCsvButton;
     private Button exportXlsxButton;
 
+    private record ResultQuery(String sql, List<String> parameters) {
+    }
+
     /**
      * Initialisiert den Controller und die UI-Komponenten.
      *
@@ -335,12 +353,24 @@ public class DbExportViewController implements Initializable {
      *   <li>Parameter-Validierung</li>
      *   <li>UI in Processing-Modus setzen</li>
      *   <li>Asynchrone Datenbankabfrage über Task</li>
-     *   <li>Ergebnisse in der EnhancedTableManager-Tabelle anzeigen</li>
+     *   <li>Ergebnisse blockweise in der EnhancedTableManager-Tabelle anzeigen (abbrechbar)</li>
      *   <li>Export-Buttons aktivieren bei erfolgreichen Ergebnissen</li>
      * </ol>
      */
     @FXML
     private void executeQuery() {
+        runQuery(false);
+    }
+
+    /**
+     * Lädt nach einer abgeschnittenen Vorschau alle Zeilen (bis zur Obergrenze der Quelle).
+     */
+    @FXML
+    private void loadAllRows() {
+        runQuery(true);
+    }
+
+    private void runQuery(boolean full) {
         List<String> parameters = getParametersFromUi();
         if (parameters == null) return;
 
@@ -349,33 +379,59 @@ public class DbExportViewController implements Initializable {
         // Cache invalidieren für aktuelle Daten
         databaseService.invalidateCache();
 
-        Task<List<RowData>> queryTask = new Task<>() {
+        // Vorschau: nur die ersten N Zeilen; "Alle laden" bis zur harten Obergrenze
+        int maxRows = full ? QUERY_SOURCE.getMaxRows() : QUERY_SOURCE.getPreviewRows();
+
+        // Ergebnisse blockweise anzeigen, statt auf das vollständige Ergebnis zu warten
+        QueryRepository query = selectedQuery;
+        fullResults = new ArrayList<>();
+        tableManager.populateTableView(fullResults);
+        QueryCancelHandle cancelHandle = new QueryCancelHandle();
+        runningQuery = cancelHandle;
+        showCancelButton(true);
+        showLoadAllButton(false);
+        incompleteResult = null;
+        resultCapped = false;
+
+        Task<Long> queryTask = new Task<>() {
             @Override
-            protected List<RowData> call() throws Exception {
-                logger.info("Führe Query aus: {} mit {} Parametern", selectedQuery.getDisplayName(), parameters.size());
-                return databaseService.executeQuery(selectedQuery, parameters);
+            protected Long call() throws Exception {
+                logger.info("Führe Query aus: {} mit {} Parametern", query.getDisplayName(), parameters.size());
+                int rows = databaseService.streamRawQuery(query.getSql(), parameters, QUERY_SOURCE, maxRows,
+                        ApplicationConfig.STREAM_BATCH_SIZE,
+                        batch -> Platform.runLater(() -> appendBatch(batch)),
+                        cancelHandle);
+                // Nur bei erreichter Grenze zählen (sonst ist das Ergebnis vollständig)
+                if (rows < maxRows || cancelHandle.isCancelled()) {
+                    return (long) rows;
+                }
+                return databaseService.countRawQuery(query.getSql(), parameters, QUERY_SOURCE);
             }
 
             @Override
             protected void succeeded() {
-                fullResults = getValue();
-                if (fullResults != null && !fullResults.isEmpty()) {
-                    // Daten an EnhancedTableManager übergeben
-                    tableManager.populateTableView(fullResults);
-
-                    // Export-Buttons aktivieren
-                    exportCsvButton.setDisable(false);
-                    exportXlsxButton.setDisable(false);
-
-                    logger.info("Query erfolgreich: {} Datensätze geladen", fullResults.size());
-                } else {
-                    logger.info("Query ergab keine Ergebnisse");
-                }
-                setProcessingState(false, fullResults.size() + " Zeilen gefunden.");
+                long total = getValue();
+                // runLater: erst nach den noch ausstehenden Blöcken abschließen
+                Platform.runLater(() -> {
+                    showCancelButton(false);
+                    if (!fullResults.isEmpty()) {
+                        logger.info("Query erfolgreich: {} Datensätze geladen", fullResults.size());
+                    } else {
+                        logger.info("Query ergab keine Ergebnisse");
+                    }
+                    boolean truncated = fullResults.size() >= maxRows && total != fullResults.size();
+                    boolean cancelled = cancelHandle.isCancelled();
+                    showLoadAllButton(truncated && !full);
+                    incompleteResult = cancelled || (truncated && !full)
+                            ? new ResultQuery(query.getSql(), parameters) : null;
+                    resultCapped = truncated && full && !cancelled;
+                    setProcessingState(false, resultStatus(cancelled, truncated, full, total));
+                });
             }
 
             @Override
             protected void failed() {
+                showCancelButton(false);
                 logger.error("Query fehlgeschlagen", getException());
                 setProcessingState(false, "Fehler bei der Datenbankabfrage.");
                 showErrorDialog("Datenbankfehler", getException().getMessage());
@@ -385,6 +441,53 @@ public class DbExportViewController implements Initializable {
         new Thread(queryTask, "db-query-thread").start();
     }
 
+    private String resultStatus(boolean cancelled, boolean truncated, boolean full, long total) {
+        int loaded = fullResults.size();
+        if (cancelled) {
+            return "Abgebrochen – " + loaded + " Zeilen geladen.";
+        }
+        if (!truncated) {
+            return loaded + " Zeilen gefunden.";
+        }
+        String of = total > 0 ? " von " + total : "";
+        return full
+                ? "Obergrenze erreicht: " + loaded + of + " Zeilen geladen."
+                : "Vorschau: erste " + loaded + of + " Zeilen.";
+    }
+
+    /**
+     * Bricht die laufende Datenbankabfrage ab; bereits geladene Zeilen bleiben sichtbar.
+     */
+    @FXML
+    private void cancelQuery() {
+        QueryCancelHandle handle = runningQuery;
+        if (handle != null) {
+            statusLabel.setText("Abfrage wird abgebrochen...");
+            handle.cancel();
+        }
+    }
+
+    private void appendBatch(List<RowData> batch) {
+        fullResults.addAll(batch);
+        tableManager.appendRows(batch);
+        statusLabel.setText(fullResults.size() + " Zeilen geladen...");
+    }
+
+    private void showLoadAllButton(boolean visible) {
+        if (loadAllButton != null) {
+            loadAllButton.setVisible(visible);
+            loadAllButton.setManaged(visible);
+        }
+    }
+
+    private void showCancelButton(boolean running) {
+        if (!running) runningQuery = null;
+        if (cancelQueryButton != null) {
+            cancelQueryButton.setVisible(running);
+            cancelQueryButton.setManaged(running);
+        }
+    }
+
     /**
      * Exportiert den vollständigen Bericht im ausgewählten Format.
      *
@@ -394,6 +497,8 @@ public class DbExportViewController implements Initializable {
      *   <li>Berücksichtigt benutzerdefinierte Spaltennamen (Umbenennungen)</li>
      *   <li>Formatierung über FormatterService (Datum, Geld, etc.)</li>
      *   <li>Asynchroner Export mit Fortschrittsanzeige</li>
+     *   <li>Zeigt die Tabelle nur eine Vorschau oder ein abgebrochenes Teilergebnis, wird die
+     *       Abfrage für den Export erneut bis zur Obergrenze der Quelle ausgeführt</li>
      * </ul>
      *
      * @param event ActionEvent vom Export-Button (bestimmt das Format)
@@ -409,7 +514,9 @@ public class DbExportViewController implements Initializable {
         // Export-Header aus der aktuellen Tabellenansicht extrahieren
         List<String> displayHeaders = tableManager.getDisplayHeaders();
         List<String> originalKeys = tableManager.getOriginalKeys();
-        List<RowData> exportData = tableManager.getOriginalData(); // Verwende gefilterte Daten
+        List<RowData> tableData = tableManager.getOriginalData();
+        ResultQuery reload = incompleteResult;
+        boolean tableCapped = resultCapped;
 
         // Format basierend auf Button bestimmen
         Button sourceButton = (Button) event.getSource();
@@ -429,17 +536,33 @@ public class DbExportViewController implements Initializable {
         // Asynchroner Export
         setProcessingState(true, "Exportiere " + format.name() + "-Datei...");
 
-        Task<Void> exportTask = new Task<>() {
+        Task<Boolean> exportTask = new Task<>() {
             @Override
-            protected Void call() throws Exception {
+            protected Boolean call() throws Exception {
+                List<RowData> exportData = tableData;
+                boolean capped = tableCapped;
+                if (reload != null) {
+                    Platform.runLater(() -> statusLabel.setText("Lade vollständiges Ergebnis für den Export..."));
+                    exportData = loadFullResult(reload);
+                    capped = exportData.size() >= QUERY_SOURCE.getMaxRows();
+                }
                 logger.info("Starte Export: {} Datensätze, {} Spalten, Format: {}",
                         exportData.size(), displayHeaders.size(), format);
                 exportWithFormat(exportData, displayHeaders, originalKeys, file, format);
-                return null;
+                return capped;
             }
 
             @Override
             protected void succeeded() {
+                if (getValue()) {
+                    logger.warn("⚠️ Export auf {} Zeilen begrenzt (Obergrenze der Quelle): {}",
+                            QUERY_SOURCE.getMaxRows(), file.getAbsolutePath());
+                    setProcessingState(false, "Export unvollständig: Obergrenze erreicht.");
+                    new Alert(Alert.AlertType.WARNING, "Export auf " + QUERY_SOURCE.getMaxRows()
+                            + " Zeilen begrenzt – das Ergebnis ist möglicherweise unvollständig. "
+                            + "Bitte Parameter eingrenzen.\n" + file.getName(), ButtonType.OK).showAndWait();
+                    return;
+                }
                 setProcessingState(false, "Export erfolgreich abgeschlossen.");
                 showSuccessDialog("Export erfolgreich",
                         "Der Bericht wurde erfolgreich gespeichert:\n" + file.getName());
@@ -458,6 +581,16 @@ public class DbExportViewController implements Initializable {
         new Thread(exportTask, "db-export-thread").start();
     }
 
+    /**
+     * Führt die Abfrage für den Export erneut aus, bis zur Obergrenze der Quelle.
+     */
+    private List<RowData> loadFullResult(ResultQuery query) throws Exception {
+        List<RowData> rows = new ArrayList<>();
+        databaseService.streamRawQuery(query.sql(), query.parameters(), QUERY_SOURCE, QUERY_SOURCE.getMaxRows(),
+                ApplicationConfig.STREAM_BATCH_SIZE, rows::addAll, null);
+        return rows;
+    }
+
     /**
      * Zeigt kontextuelle Hilfe für die ausgewählte Query an.
      * Zeigt Beschreibung, erwartete Parameter und Beispiele in einem Dialog.
@@ -199,7 +199,8 @@ public class OpListViewerController {
             ctrl.init(selectable,
                     cfgHeader,
                     cfgA, cfgB,
-                    cfgEnabled);
+                    cfgEnabled,
+                    cur);
 
             Stage stage = new Stage();
             stage.setTitle("Gruppierung konfigurieren");
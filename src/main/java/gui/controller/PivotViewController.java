@@ -1,5 +1,6 @@
 package gui.controller;
 
+import file.pivot.PivotProcessor;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -9,6 +10,8 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import model.ColumnProfile;
+import model.ColumnProfiler;
 import model.PivotConfig;
 import model.RowData;
 import model.enums.ExportFormat;
@@ -21,10 +24,12 @@ import java.io.File;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 import static gui.controller.dialog.Dialog.showErrorDialog;
 import static gui.controller.dialog.Dialog.showSuccessDialog;
+import static gui.controller.dialog.Dialog.showWarningDialog;
 
 /**
  * Controller zur Erstellung einer Pivot-Tabelle aus geladenen CSV/XLSX-Daten,
@@ -56,6 +61,8 @@ public class PivotViewController implements Initializable {
     private FileService fileService;
     private List<RowData> loadedData;
     private List<String> columnHeaders;
+    // Spaltenprofile der geladenen Datei (geschätzte Kardinalität je Spalte)
+    private volatile Map<String, ColumnProfile> profiles = Map.of();
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -86,7 +93,9 @@ public class PivotViewController implements Initializable {
         Task<List<RowData>> loadTask = new Task<>() {
             @Override
             protected List<RowData> call() {
-                return fileService.readFile(file.getAbsolutePath());
+                List<RowData> data = fileService.readFile(file.getAbsolutePath());
+                profiles = ColumnProfiler.profile(data);
+                return data;
             }
 
             @Override
@@ -117,6 +126,15 @@ public class PivotViewController implements Initializable {
         groupByColumnCombo.setItems(headers);
         pivotColumnCombo.setItems(headers);
         keepColumnsList.setItems(headers);
+        groupByColumnCombo.valueProperty().addListener((obs, o, n) -> showProfile("Gruppieren nach", n));
+        pivotColumnCombo.valueProperty().addListener((obs, o, n) -> showProfile("Pivot-Spalte", n));
+    }
+
+    private void showProfile(String role, String column) {
+        ColumnProfile p = (column == null) ? null : profiles.get(column);
+        if (p != null) {
+            statusLabel.setText(role + " '" + column + "': " + p.summary());
+        }
     }
 
     private void displayPreview() {
@@ -158,6 +176,13 @@ public class PivotViewController implements Initializable {
             return;
         }
 
+        ColumnProfile groupProfile = profiles.get(groupBy);
+        if (groupProfile != null && groupProfile.exceedsGroups(PivotProcessor.MAX_GROUPS_WITHOUT_WARNING)
+                && !showWarningDialog("Pivot", "Die Spalte '" + groupBy + "' ergibt " + groupProfile.summary()
+                + ".\nDie Transformation kann sehr lange dauern. Fortfahren?")) {
+            return;
+        }
+
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Pivot-Export speichern unter...");
         fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Excel-Dateien", "*.xlsx"));
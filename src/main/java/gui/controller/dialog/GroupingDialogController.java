@@ -1,17 +1,29 @@
 package gui.controller.dialog;
 
+import config.ApplicationConfig;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ColorPicker;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
+import model.ColumnProfile;
+import model.ColumnProfiler;
+import model.RowData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Map;
 
 public class GroupingDialogController {
 
+    private static final Logger log = LoggerFactory.getLogger(GroupingDialogController.class);
+
     @FXML
     private ComboBox<String> headerCombo;
     @FXML
@@ -20,8 +32,12 @@ public class GroupingDialogController {
     private ColorPicker colorPickerB;
     @FXML
     private CheckBox enableCheck;
+    @FXML
+    private Label profileLabel;
 
     private Result result = null;
+    // Spaltenprofile der aktuellen Daten (null = noch nicht berechnet / keine Daten übergeben)
+    private Map<String, ColumnProfile> profiles;
 
     public void init(List<String> selectableHeaders, String currentHeader,
                      Color currentA, Color currentB, boolean enabled) {
@@ -35,6 +51,71 @@ public class GroupingDialogController {
         enableCheck.setSelected(enabled);
     }
 
+    /**
+     * Wie {@link #init(List, String, Color, Color, boolean)}, profiliert zusätzlich die wählbaren
+     * Spalten über {@code rows} (im Hintergrund) und zeigt zur gewählten Spalte die geschätzte
+     * Anzahl Gruppen an, damit keine Spalte mit zehntausenden Werten gewählt wird.
+     */
+    public void init(List<String> selectableHeaders, String currentHeader,
+                     Color currentA, Color currentB, boolean enabled, List<RowData> rows) {
+        init(selectableHeaders, currentHeader, currentA, currentB, enabled);
+        headerCombo.getSelectionModel().selectedItemProperty().addListener((obs, o, n) -> showProfile(n));
+        if (rows == null || rows.isEmpty()) return;
+
+        List<RowData> snapshot = List.copyOf(rows);
+        profileLabel.setText("Analysiere Spalten …");
+        Task<Map<String, ColumnProfile>> task = new Task<>() {
+            @Override
+            protected Map<String, ColumnProfile> call() {
+                return ColumnProfiler.profile(snapshot, selectableHeaders);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            profiles = task.getValue();
+            showProfile(headerCombo.getSelectionModel().getSelectedItem());
+        });
+        task.setOnFailed(e -> {
+            log.warn("⚠️ Spaltenprofil fehlgeschlagen", task.getException());
+            profileLabel.setText("");
+        });
+        Thread t = new Thread(task, "grouping-profile");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void showProfile(String header) {
+        ColumnProfile p = (profiles == null || header == null) ? null : profiles.get(header);
+        if (p == null) {
+            if (profiles != null) profileLabel.setText("");
+            return;
+        }
+        String text = p.summary();
+        if (p.exceedsGroups(ApplicationConfig.GROUPING_WARN_GROUPS)) {
+            text += " – sehr viele Gruppen, die Anzeige kann langsam werden";
+        } else if (p.isMostlyUnique()) {
+            text += " – fast jeder Wert ist eindeutig";
+        } else if (!p.topValues().isEmpty()) {
+            ColumnProfile.ValueCount top = p.topValues().get(0);
+            text += " – häufigster: " + top.value() + " (" + top.count() + ")";
+        }
+        profileLabel.setText(text);
+    }
+
+    /**
+     * Fragt nach, wenn die gewählte Spalte laut Profil zu viele bzw. nur Einzelgruppen ergibt.
+     */
+    private boolean confirmCardinality(String header) {
+        ColumnProfile p = (profiles == null) ? null : profiles.get(header);
+        if (p == null || !(p.exceedsGroups(ApplicationConfig.GROUPING_WARN_GROUPS) || p.isMostlyUnique())) {
+            return true;
+        }
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION,
+                "Die Spalte '" + header + "' hat " + p.summary() + ".\n"
+                        + "Fast jede Zeile bildet eine eigene Gruppe. Trotzdem gruppieren?",
+                ButtonType.OK, ButtonType.CANCEL);
+        return alert.showAndWait().filter(ButtonType.OK::equals).isPresent();
+    }
+
     @FXML
     private void onCancel() {
         ((Stage) enableCheck.getScene().getWindow()).close();
@@ -47,6 +128,9 @@ public class GroupingDialogController {
             new Alert(Alert.AlertType.WARNING, "Bitte eine Spalte zum Gruppieren auswählen.").showAndWait();
             return;
         }
+        if (enableCheck.isSelected() && !confirmCardinality(header)) {
+            return;
+        }
         result = new Result(enableCheck.isSelected(), header, colorPickerA.getValue(), colorPickerB.getValue());
         ((Stage) enableCheck.getScene().getWindow()).close();
     }
@@ -3,6 +3,8 @@ package gui.controller.manager;
 import model.RowData;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Einheitliche Schnittstelle für serverseitiges Paging.
@@ -10,4 +12,38 @@ import java.util.List;
 @FunctionalInterface
 public interface DataLoader {
     List<RowData> loadPage(int pageIndex, int pageSize) throws Exception;
+
+    /**
+     * Optional: Anzahl nicht-leerer Werte je Spalte über das gesamte Ergebnis, serverseitig
+     * aggregiert (z. B. für "Global Bereinigen" ohne alle Seiten zu laden).
+     *
+     * @return Spalte → Anzahl, oder {@code null}, wenn der Loader das nicht unterstützt
+     */
+    default Map<String, Integer> nonEmptyCounts() throws Exception {
+        return null;
+    }
+
+    /**
+     * Optional: liefert das gesamte Ergebnis blockweise, zuerst sortiert nach den Spalten
+     * {@code orderBy} (RowData-Keys). Gruppierte Exporte können die Gruppen dann per
+     * Gruppenwechsel schreiben, ohne alle Seiten zu sammeln.
+     *
+     * @return Anzahl gelieferter Zeilen
+     * @throws UnsupportedOperationException wenn {@link #canStreamSorted()} {@code false} ist
+     */
+    default int streamSorted(List<String> orderBy, Consumer<List<RowData>> onBatch) throws Exception {
+        throw new UnsupportedOperationException("Sortiertes Streaming wird nicht unterstützt");
+    }
+
+    default boolean canStreamSorted() {
+        return false;
+    }
+
+    /**
+     * Obergrenze von {@link #streamSorted}: liefert der Loader so viele Zeilen, ist das Ergebnis
+     * möglicherweise abgeschnitten.
+     */
+    default int streamLimit() {
+        return Integer.MAX_VALUE;
+    }
 }
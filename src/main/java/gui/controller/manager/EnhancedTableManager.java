@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -237,6 +238,59 @@ public class EnhancedTableManager extends AbstractTableManager {
         super.populateTableView(data);
     }
 
+    /**
+     * Hängt einen weiteren Block an die Client-Datenbasis an (gestreamte Abfragen).
+     * <p>
+     * Der erste Block baut die Tabelle wie {@link #populateTableView(List)} auf; weitere Blöcke
+     * werden nur gefiltert und angehängt, ohne Spalten neu aufzubauen oder die aktuelle Seite
+     * zu verlassen. Nur die sichtbare Seite wird neu formatiert. Muss im FX-Thread laufen.
+     * </p>
+     */
+    public void appendRows(List<RowData> batch) {
+        if (batch == null || batch.isEmpty()) return;
+        if (serverPaginationEnabled || originalData.isEmpty()) {
+            populateTableView(batch);
+            return;
+        }
+
+        originalData.addAll(batch);
+        String q = currentClientFilter();
+        int before = filteredData.size();
+        for (RowData row : batch) {
+            if (matchesClientFilter(row, q)) filteredData.add(row);
+        }
+        if (filteredData.size() == before) {
+            return;
+        }
+
+        stateModel.setTotalCount(filteredData.size());
+        hasData.set(true);
+        if (before == 0) {
+            // Bisher keine sichtbaren Zeilen (Suche): Spalten erst jetzt aufbauen
+            refreshView();
+            return;
+        }
+
+        if (pagination != null && paginationEnabled) {
+            int rowsPerPage = Math.max(1, stateModel.getRowsPerPage());
+            int current = pagination.getCurrentPageIndex();
+            pagination.setPageCount(Math.max(1, (int) Math.ceil(filteredData.size() / (double) rowsPerPage)));
+            pagination.setVisible(true);
+            // Nur die aktuelle Seite neu aufbauen, falls sie noch nicht voll war
+            if ((current + 1) * rowsPerPage > before) {
+                createClientPage(current);
+            }
+        } else {
+            ObservableList<ObservableList<String>> items = tableView.getItems();
+            for (int i = before; i < filteredData.size(); i++) {
+                items.add(formatRow(filteredData.get(i)));
+            }
+        }
+
+        recomputeGroupStripes();
+        updateResultsCount();
+    }
+
     public void configureGrouping(String headerName, Color colorA, Color colorB) {
         super.configureGrouping(headerName, colorA, colorB);
     }
@@ -296,6 +350,15 @@ public class EnhancedTableManager extends AbstractTableManager {
         return new ArrayList<>(originalData);
     }
 
+    /**
+     * Liefert den aktuellen Client-Filter als Prädikat, z.B. um nachgeladene Zeilen
+     * beim Export genauso zu filtern wie die angezeigten. Muss im FX-Thread aufgerufen werden.
+     */
+    public Predicate<RowData> getClientFilter() {
+        String q = currentClientFilter();
+        return row -> matchesClientFilter(row, q);
+    }
+
     // -------------------------------------------------------------------------
     // Interne Hilfsmethoden (Delete / Context-Menü)
     // -------------------------------------------------------------------------
@@ -570,12 +633,7 @@ public class EnhancedTableManager extends AbstractTableManager {
 
         ObservableList<ObservableList<String>> tableData = FXCollections.observableArrayList();
         for (RowData row : pageData) {
-            ObservableList<String> rowValues = FXCollections.observableArrayList();
-            for (String header : currentHeaders) {
-                String formattedValue = ColumnValueFormatter.format(row, header);
-                rowValues.add(formattedValue);
-            }
-            tableData.add(rowValues);
+            tableData.add(formatRow(row));
         }
 
         tableView.setItems(tableData);
@@ -651,16 +709,16 @@ public class EnhancedTableManager extends AbstractTableManager {
         ObservableList<ObservableList<String>> tableData = FXCollections.observableArrayList();
 
         for (RowData row : data) {
-            ObservableList<String> rowValues = FXCollections.observableArrayList();
-            for (String header : currentHeaders) {
-                String formattedValue = ColumnValueFormatter.format(row, header);
-                rowValues.add(formattedValue);
-            }
-            tableData.add(rowValues);
+            tableData.add(formatRow(row));
         }
         tableView.setItems(tableData);
     }
 
+    private ObservableList<String> formatRow(RowData row) {
+        // Plan wird pro Header-Liste einmal aufgelöst und danach wiederverwendet
+        return FXCollections.observableArrayList(ColumnValueFormatter.plan(currentHeaders).formatRow(row));
+    }
+
     @Override
     protected void updateResultsCount() {
         if (resultsCountLabel == null) return;
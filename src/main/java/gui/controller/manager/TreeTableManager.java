@@ -1,5 +1,6 @@
 package gui.controller.manager;
 
+import formatter.ColumnFormatPlan;
 import formatter.ColumnValueFormatter;
 import gui.controller.dialog.Dialog;
 import gui.controller.manager.base.AbstractTableManager;
@@ -15,6 +16,7 @@ import javafx.collections.ObservableList;
 import javafx.scene.control.*;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
+import model.Grouping;
 import model.RowData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +41,9 @@ import java.util.stream.IntStream;
 public class TreeTableManager extends AbstractTableManager {
 
     private static final Logger log = LoggerFactory.getLogger(TreeTableManager.class);
+    private static final Grouping.Path DEFAULT_PATH = new Grouping.Path(List.of(Grouping.Level.fixed("Alle")));
+    private static final Comparator<Grouping.Group> GROUP_ORDER =
+            Comparator.comparing(g -> g.value() == null ? "" : g.value());
 
     // UI
     private final TreeTableView<ObservableList<String>> treeTableView;
@@ -53,7 +58,10 @@ public class TreeTableManager extends AbstractTableManager {
     private Runnable onExportCsv;
     private Runnable onExportXlsx;
     // Gruppierungspfad: RowData -> Liste von Segmenten (Makler, Gesellschaft, ...)
-    private Function<RowData, List<String>> groupingPathProvider = r -> List.of("Alle");
+    private Function<RowData, List<String>> groupingPathProvider = DEFAULT_PATH;
+    // Letzte Gruppierung und ihre Zeilen: gleiche Zeilen → nur die geänderten Ebenen neu aufteilen
+    private List<RowData> groupedRows;
+    private Grouping grouping;
     private volatile Boolean globalExpand = null;
 
     // Auswahl
@@ -173,10 +181,20 @@ public class TreeTableManager extends AbstractTableManager {
     }
 
     public void loadDataFromServer(int totalCount, DataLoader dataLoader, Function<RowData, List<String>> provider) {
-        this.groupingPathProvider = (provider != null) ? provider : (r -> List.of("Alle"));
+        this.groupingPathProvider = (provider != null) ? provider : DEFAULT_PATH;
         super.loadDataFromServer(totalCount, dataLoader);
     }
 
+    /**
+     * Wechselt die Gruppierung der bereits geladenen Zeilen ohne Nachladen. Bei einem
+     * {@link Grouping.Path} bleiben gemeinsame führende Ebenen erhalten; nur die geänderten
+     * Ebenen werden neu aufgeteilt.
+     */
+    public void regroup(Function<RowData, List<String>> provider) {
+        this.groupingPathProvider = (provider != null) ? provider : DEFAULT_PATH;
+        refreshView();
+    }
+
     public ReadOnlyBooleanProperty hasDataProperty() {
         return super.hasDataProperty();
     }
@@ -418,35 +436,13 @@ public class TreeTableManager extends AbstractTableManager {
         }
 
         // 2) Baumstruktur anhand groupingPathProvider
-        Map<List<String>, List<RowData>> groups = rows.stream()
-                .collect(Collectors.groupingBy(r -> {
-                    try {
-                        return groupingPathProvider.apply(r);
-                    } catch (Exception ex) {
-                        log.error("Fehler beim Ermitteln des Gruppierungspfads", ex);
-                        return List.of("Alle");
-                    }
-                }));
+        Grouping groups = groupingFor(rows);
 
         TreeItem<ObservableList<String>> root = new TreeItem<>(emptyRow());
         root.setExpanded(true);
 
-        List<List<String>> sortedKeys = new ArrayList<>(groups.keySet());
-        sortedKeys.sort(Comparator.comparing(a -> String.join(" / ", a)));
-
-        for (List<String> path : sortedKeys) {
-            TreeItem<ObservableList<String>> groupNode = createGroupPath(root, path, visibleHeaders);
-            List<RowData> groupRows = groups.getOrDefault(path, List.of());
-            for (RowData row : groupRows) {
-                ObservableList<String> rowValues = FXCollections.observableArrayList();
-                for (String header : visibleHeaders) {
-                    String formattedValue = ColumnValueFormatter.format(row, header);
-                    rowValues.add(formattedValue);
-                }
-                TreeItem<ObservableList<String>> rowItem = new TreeItem<>(rowValues);
-                groupNode.getChildren().add(rowItem);
-            }
-        }
+        ColumnFormatPlan plan = ColumnValueFormatter.plan(visibleHeaders);
+        appendGroups(root, groups.root(), 0, visibleHeaders, plan, new IdentityHashMap<>());
 
         return root;
     }
@@ -503,51 +499,105 @@ public class TreeTableManager extends AbstractTableManager {
         applySharedDisplayNames();
     }
 
-    private TreeItem<ObservableList<String>> createGroupPath(TreeItem<ObservableList<String>> root,
-                                                             List<String> path,
-                                                             List<String> visibleHeaders) {
-        TreeItem<ObservableList<String>> current = root;
-        for (int level = 0; level < path.size(); level++) {
-            String segment = path.get(level);
-
-            // ⇩⇩ NEU: niveau → clé (SB_Vertr, SB_Schad, …) → displayOnly
-            String displaySegment;
-            if (level < groupingHeaderKeys.size()) {
-                String key = groupingHeaderKeys.get(level);
-                if (key != null && !key.isBlank()) {
-                    displaySegment = formatter.ColumnValueFormatter.displayOnly(key, segment);
-                } else {
-                    displaySegment = segment;
-                }
-            } else {
-                displaySegment = segment;
-            }
+    /**
+     * Gruppierung für die Zeilen; bei denselben Zeilen wird die letzte Gruppierung weiterverwendet
+     * und nur ab der ersten geänderten Ebene neu aufgeteilt.
+     */
+    private Grouping groupingFor(List<RowData> rows) {
+        List<? extends Function<RowData, String>> levels = (groupingPathProvider instanceof Grouping.Path path)
+                ? path.levels()
+                : pathLevels(rows);
+        Grouping g = (grouping != null && groupedRows == rows) ? grouping.regroup(levels) : Grouping.of(rows, levels);
+        groupedRows = rows;
+        grouping = g;
+        return g;
+    }
 
-            Optional<TreeItem<ObservableList<String>>> existing = current.getChildren().stream()
-                    .filter(child -> isGroupItem(child)
-                            && !child.getChildren().isEmpty()
-                            && Objects.equals(child.getValue().get(0), displaySegment))
-                    .findFirst();
+    /**
+     * Ebenen aus einem beliebigen Pfad-Provider: Pfade einmal je Zeile ermitteln, kürzere Pfade mit "" auffüllen.
+     */
+    private List<Function<RowData, String>> pathLevels(List<RowData> rows) {
+        Map<RowData, List<String>> paths = new IdentityHashMap<>();
+        int depth = 1;
+        for (RowData r : rows) {
+            List<String> path;
+            try {
+                path = groupingPathProvider.apply(r);
+            } catch (Exception ex) {
+                log.error("Fehler beim Ermitteln des Gruppierungspfads", ex);
+                path = List.of("Alle");
+            }
+            paths.put(r, path);
+            depth = Math.max(depth, path.size());
+        }
+        List<Function<RowData, String>> levels = new ArrayList<>(depth);
+        for (int i = 0; i < depth; i++) {
+            final int level = i;
+            levels.add(r -> {
+                List<String> path = paths.get(r);
+                return level < path.size() ? path.get(level) : "";
+            });
+        }
+        return levels;
+    }
 
-            if (existing.isPresent()) {
-                current = existing.get();
-            } else {
-                ObservableList<String> groupRow = FXCollections.observableArrayList();
-                if (!visibleHeaders.isEmpty()) {
-                    groupRow.add(displaySegment);
-                    IntStream.range(1, visibleHeaders.size()).forEach(i -> groupRow.add(""));
+    /**
+     * Hängt die Untergruppen von {@code group} (sortiert) unter {@code parent} an. Gruppen mit gleichem
+     * Anzeigetext (z. B. SB-Kürzel → Name) werden zu einem Knoten zusammengeführt.
+     */
+    private void appendGroups(TreeItem<ObservableList<String>> parent,
+                              Grouping.Group group,
+                              int level,
+                              List<String> visibleHeaders,
+                              ColumnFormatPlan plan,
+                              Map<TreeItem<ObservableList<String>>, Map<String, TreeItem<ObservableList<String>>>> index) {
+        List<Grouping.Group> children = new ArrayList<>(group.children());
+        children.sort(GROUP_ORDER);
+        Map<String, TreeItem<ObservableList<String>>> byDisplay = index.computeIfAbsent(parent, p -> new HashMap<>());
+
+        for (Grouping.Group child : children) {
+            String displaySegment = displaySegment(level, child.value());
+            TreeItem<ObservableList<String>> groupItem = byDisplay.get(displaySegment);
+            if (groupItem == null) {
+                groupItem = createGroupItem(displaySegment, visibleHeaders);
+                byDisplay.put(displaySegment, groupItem);
+                parent.getChildren().add(groupItem);
+            }
+            if (child.isLeaf()) {
+                for (RowData row : child.rows()) {
+                    ObservableList<String> rowValues = FXCollections.observableArrayList(plan.formatRow(row));
+                    groupItem.getChildren().add(new TreeItem<>(rowValues));
                 }
+            } else {
+                appendGroups(groupItem, child, level + 1, visibleHeaders, plan, index);
+            }
+        }
+    }
 
-                TreeItem<ObservableList<String>> groupItem = new TreeItem<>(groupRow);
-                Label marker = new Label();
-                marker.setUserData(Boolean.TRUE);
-                groupItem.setGraphic(marker);
-                groupItem.setExpanded(false);
-                current.getChildren().add(groupItem);
-                current = groupItem;
+    private String displaySegment(int level, String segment) {
+        // ⇩⇩ niveau → clé (SB_Vertr, SB_Schad, …) → displayOnly
+        if (level < groupingHeaderKeys.size()) {
+            String key = groupingHeaderKeys.get(level);
+            if (key != null && !key.isBlank()) {
+                return formatter.ColumnValueFormatter.displayOnly(key, segment);
             }
         }
-        return current;
+        return segment;
+    }
+
+    private TreeItem<ObservableList<String>> createGroupItem(String displaySegment, List<String> visibleHeaders) {
+        ObservableList<String> groupRow = FXCollections.observableArrayList();
+        if (!visibleHeaders.isEmpty()) {
+            groupRow.add(displaySegment);
+            IntStream.range(1, visibleHeaders.size()).forEach(i -> groupRow.add(""));
+        }
+
+        TreeItem<ObservableList<String>> groupItem = new TreeItem<>(groupRow);
+        Label marker = new Label();
+        marker.setUserData(Boolean.TRUE);
+        groupItem.setGraphic(marker);
+        groupItem.setExpanded(false);
+        return groupItem;
     }
 
     private void applyRoot(TreeItem<ObservableList<String>> newRoot) {
@@ -1,6 +1,5 @@
 package gui.controller.manager.base;
 
-import formatter.ColumnValueFormatter;
 import gui.controller.dialog.Dialog;
 import gui.controller.manager.DataLoader;
 import gui.controller.model.ColumnStateModel;
@@ -18,6 +17,7 @@ import javafx.scene.control.TextField;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
 import javafx.util.Duration;
+import model.ColumnStatistics;
 import model.RowData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -334,38 +334,31 @@ public abstract class AbstractTableManager {
 
         EXECUTOR.submit(() -> {
             try {
-                // === AJOUT IMPORTANT : choisir la base de données la plus rapide ===
-                // Si une recherche est active et que filteredData est déjà disponible,
-                // on l’utilise directement (p.ex. 107 lignes) au lieu de recharger toutes les pages.
-                final List<RowData> basis;
+                // === Schnellster Weg zuerst ===
+                // 1) Suche aktiv: filteredData liegt schon vor (p.ex. 107 lignes)
+                // 2) Statistik der geladenen Seiten deckt bereits das ganze Ergebnis ab
+                // 3) Serverseitige Zählung (eine Aggregat-Abfrage)
+                // 4) Fallback: alle Seiten laden (füttert dabei die Statistik)
+                final Set<String> keysToRemove;
+                ColumnStatistics stats = resultModel.getColumnStatistics();
                 if (stateModel.isSearchActive() && filteredData != null && !filteredData.isEmpty()) {
-                    basis = new ArrayList<>(filteredData);
+                    keysToRemove = ColumnStatistics.of(new ArrayList<>(filteredData)).emptyColumns();
+                } else if (stats.isComplete(resultModel.getTotalCount())) {
+                    log.info("Global Bereinigen aus Spaltenstatistik ({} Zeilen, ohne Nachladen)", stats.rowsSeen());
+                    keysToRemove = stats.emptyColumns();
                 } else {
-                    // Chemin existant : tout charger depuis le serveur
-                    basis = loadAllData(); // ta méthode utilitaire existante
-                }
-
-                if (basis.isEmpty()) {
-                    Platform.runLater(() -> Dialog.showInfoDialog("Bereinigen", "Keine Daten zum Bereinigen verfügbar."));
-                    return;
-                }
-
-                // 2. Original-Keys bestimmen
-                Set<String> allKeys = basis.get(0).getValues().keySet();
-                if (allKeys.isEmpty()) return;
-
-                // 3. Spalten identifizieren, die komplett leer sind
-                Set<String> keysToRemove = new HashSet<>();
-                for (String key : allKeys) {
-                    boolean allEmpty = true;
-                    for (RowData row : basis) {
-                        String value = ColumnValueFormatter.format(row, key);
-                        if (value != null && !value.trim().isEmpty()) {
-                            allEmpty = false;
-                            break;
+                    Map<String, Integer> counts = serverNonEmptyCounts();
+                    if (counts != null) {
+                        Set<String> known = stats.columns();
+                        keysToRemove = ColumnStatistics.emptyColumns(counts, known.isEmpty() ? null : known);
+                    } else {
+                        List<RowData> basis = loadAllData();
+                        if (basis.isEmpty()) {
+                            Platform.runLater(() -> Dialog.showInfoDialog("Bereinigen", "Keine Daten zum Bereinigen verfügbar."));
+                            return;
                         }
+                        keysToRemove = resultModel.getColumnStatistics().emptyColumns();
                     }
-                    if (allEmpty) keysToRemove.add(key);
                 }
 
                 // 4. Update des globalen Zustands + Feedback
@@ -395,8 +388,25 @@ public abstract class AbstractTableManager {
 
     // ---------- Gemeinsame interne Logik ----------
 
+    /**
+     * Nicht-leer-Zähler je Spalte vom Loader (serverseitig), oder {@code null}, wenn nicht
+     * verfügbar oder fehlgeschlagen – dann wird wie bisher über alle Seiten gezählt.
+     */
+    private Map<String, Integer> serverNonEmptyCounts() {
+        DataLoader loader = resultModel.getPageLoader();
+        if (loader == null) return null;
+        try {
+            Map<String, Integer> counts = loader.nonEmptyCounts();
+            return (counts == null || counts.isEmpty()) ? null : counts;
+        } catch (Exception ex) {
+            log.warn("⚠️ Serverseitige Spaltenzählung fehlgeschlagen, lade alle Seiten: {}", ex.getMessage());
+            return null;
+        }
+    }
+
     protected List<RowData> loadAllData() throws Exception {
         DataLoader loader = resultModel.getPageLoader();
+        ColumnStatistics stats = resultModel.getColumnStatistics();
         int total = resultModel.getTotalCount();
         if (loader == null || total <= 0) return Collections.emptyList();
 
@@ -407,6 +417,7 @@ public abstract class AbstractTableManager {
         for (int p = 0; p < pages; p++) {
             List<RowData> chunk = loader.loadPage(p, pageSize);
             if (chunk != null && !chunk.isEmpty()) {
+                stats.acceptPage(p * pageSize, chunk);
                 all.addAll(chunk);
             }
         }
@@ -430,14 +441,7 @@ public abstract class AbstractTableManager {
         } else {
             filteredData = new ArrayList<>();
             for (RowData r : originalData) {
-                boolean match = false;
-                for (String v : r.getValues().values()) {
-                    if (v != null && v.toLowerCase(Locale.ROOT).contains(q)) {
-                        match = true;
-                        break;
-                    }
-                }
-                if (match) filteredData.add(r);
+                if (matchesClientFilter(r, q)) filteredData.add(r);
             }
         }
 
@@ -449,6 +453,27 @@ public abstract class AbstractTableManager {
         refreshView();
     }
 
+    /**
+     * Aktueller Suchbegriff des Client-Filters (klein geschrieben, getrimmt), leer wenn keine Suche aktiv.
+     */
+    protected String currentClientFilter() {
+        if (!searchEnabled || searchField == null || searchField.getText() == null) return "";
+        return searchField.getText().toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Prüft eine Zeile gegen den (bereits normalisierten) Suchbegriff des Client-Filters.
+     */
+    protected static boolean matchesClientFilter(RowData row, String q) {
+        if (q == null || q.isEmpty()) return true;
+        for (String v : row.getValues().values()) {
+            if (v != null && v.toLowerCase(Locale.ROOT).contains(q)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected Node createServerPage(int pageIndex) {
         loadServerPageData(pageIndex);
         return new Label();
@@ -461,10 +486,13 @@ public abstract class AbstractTableManager {
             return;
         }
 
+        ColumnStatistics stats = resultModel.getColumnStatistics();
+        int rowsPerPage = stateModel.getRowsPerPage();
         EXECUTOR.submit(() -> {
             try {
-                List<RowData> page = loader.loadPage(pageIndex, stateModel.getRowsPerPage());
+                List<RowData> page = loader.loadPage(pageIndex, rowsPerPage);
                 final List<RowData> finalPage = (page == null) ? Collections.emptyList() : page;
+                stats.acceptPage(pageIndex * rowsPerPage, finalPage);
                 Platform.runLater(() -> {
                     stateModel.setCurrentPageIndex(pageIndex);
                     filteredData = finalPage;
@@ -2,6 +2,7 @@ package gui.controller.model;
 
 import gui.controller.manager.DataLoader;
 import javafx.beans.property.*;
+import model.ColumnStatistics;
 import model.contract.filters.CoverFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +35,10 @@ public class ResultContextModel {
      * Wird beim Export seitenweise aufgerufen.
      */
     private DataLoader pageLoader;
+    /**
+     * Spaltenstatistik der bisher geladenen Seiten dieses Ergebnisses; wird mit jedem neuen Loader verworfen.
+     */
+    private volatile ColumnStatistics columnStatistics = new ColumnStatistics();
 
     public ResultContextModel() {
         // Ajout de listeners pour mettre à jour canExportProperty
@@ -131,10 +136,15 @@ public class ResultContextModel {
      */
     public void setPageLoader(DataLoader loader) {
         this.pageLoader = loader;
+        this.columnStatistics = new ColumnStatistics();
         log.debug("ResultContextModel: pageLoader gesetzt ({})", loader != null ? "OK" : "null");
         updateCanExport();
     }
 
+    public ColumnStatistics getColumnStatistics() {
+        return columnStatistics;
+    }
+
     public BooleanProperty treeViewActiveProperty() {
         return treeViewActive;
     }
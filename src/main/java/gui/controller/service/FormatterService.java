@@ -1,15 +1,15 @@
 package gui.controller.service;
 
 import com.google.gson.Gson;
+import formatter.ColumnFormatPlan;
 import formatter.ColumnValueFormatter;
-import formatter.DateFieldFormatter;
-import formatter.MoneyFieldFormatter;
 import gui.controller.utils.format.FormatterConfig;
 import gui.controller.utils.format.FormatterField;
 import model.RowData;
 import model.enums.ExportFormat;
 import service.ServiceFactory;
 import service.interfaces.FileService;
+import util.FileUtil;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
@@ -26,6 +26,8 @@ public final class FormatterService {
     private static final Set<String> moneyFields = new LinkedHashSet<>();
     private static final Set<String> dateFields = new LinkedHashSet<>();
     private static final Set<String> sbFields = new LinkedHashSet<>();
+    // erhöht bei jeder Änderung der Felder, damit kompilierte ColumnFormatPlans neu geplant werden
+    private static volatile long configVersion;
 
     private static Path getAppHome() {
         try {
@@ -49,11 +51,7 @@ public final class FormatterService {
     }
 
     private static Path roamingUserConfig() {
-        String appData = System.getenv("APPDATA"); // ex. C:\Users\...\AppData\Roaming
-        if (appData == null || appData.isBlank()) {
-            return Paths.get(System.getProperty("user.home"), ".vias", "formatter.json");
-        }
-        return Paths.get(appData, "CarlSchroeter", "formatter.json");
+        return FileUtil.userAppHome().resolve("formatter.json");
     }
 
     private static Path programDataConfig() {
@@ -124,6 +122,7 @@ public final class FormatterService {
         merged.setFields(fields);
 
         initRuntimeSetsFrom(merged);
+        configVersion++;
         ColumnValueFormatter.setAdditionalSbHeaders(sbFields);
     }
 
@@ -189,6 +188,7 @@ public final class FormatterService {
             if (originalKey != null) sbFields.add(originalKey);
             if (headerText != null) sbFields.add(headerText);
         } // "NONE" → rien n’ajouter
+        configVersion++;
 
         // sauvegarder + propager dans ColumnValueFormatter
         saveUserConfig();
@@ -251,28 +251,15 @@ public final class FormatterService {
         int n = Math.min(displayHeaders.size(), backingKeys.size());
 
         List<RowData> formattedRows = new ArrayList<>(fullResults.size());
+        ColumnFormatPlan plan = ColumnValueFormatter.plan(backingKeys.subList(0, n), fullNameMode);
         for (RowData row : fullResults) {
             // IMPORTANT: LinkedHashMap pour préserver l'ordre des colonnes
             Map<String, String> vals = new LinkedHashMap<>(n);
 
             for (int i = 0; i < n; i++) {
-                String header = displayHeaders.get(i); // clé visible attendue par le writer
-                String key = backingKeys.get(i);    // clé source dans RowData
-
-                String raw = row.getValues().getOrDefault(key, "");
-                String v = (raw == null) ? "" : raw;
-
-                if (fullNameMode) {
-                    // Applique Voll.Name uniquement pour les colonnes SB_*
-                    v = ColumnValueFormatter.displayOnly(key, v);
-                }
-                // Conserve tes formats existants
-                v = DateFieldFormatter.tryFormat(key, v);
-                v = MoneyFieldFormatter.tryFormat(key, v);
-                if (v == null) v = "";
-
-                // La clé DANS LA MAP = header (puisque le FileService n’a pas backingKeys)
-                vals.put(header, v);
+                // La clé DANS LA MAP = header (puisque le FileService n’a pas backingKeys);
+                // Voll.Name / Datum / Geld laut Plan der Quellspalte
+                vals.put(displayHeaders.get(i), plan.format(row, i));
             }
             RowData rd = new RowData();
             rd.putAll(vals);
@@ -289,6 +276,13 @@ public final class FormatterService {
     }
 
 
+    /**
+     * Stand der Spaltentypen; ändert sich mit {@link #setColumnFormat} und {@link #reloadRuntimeConfig()}.
+     */
+    public static long configVersion() {
+        return configVersion;
+    }
+
     public static boolean isMoneyField(String name) {
         return moneyFields.contains(name);
     }
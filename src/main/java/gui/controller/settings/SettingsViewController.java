@@ -1,18 +1,27 @@
 package gui.controller.settings;
 
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.control.Label;
 import javafx.scene.control.RadioButton;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.control.ToggleGroup;
+import service.cache.CacheRegistry;
+import service.cache.CacheRegistry.CacheMetrics;
 import service.theme.ThemeService;
 
 import java.net.URL;
+import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.function.Function;
 
 /**
- * Controller der Einstellungsansicht (Theme-Auswahl).
+ * Controller der Einstellungsansicht (Theme-Auswahl, Cache-Kennzahlen).
  * Liest das zuletzt gespeicherte Theme und setzt den passenden Radio-Button.
  * Beim Speichern wird das gewählte Theme angewendet und persistiert.
+ * Die Cache-Tabelle zeigt die Kennzahlen aller in {@link CacheRegistry} registrierten Caches.
  */
 public class SettingsViewController implements Initializable {
 
@@ -21,6 +30,10 @@ public class SettingsViewController implements Initializable {
     private ToggleGroup themeToggleGroup;
     @FXML
     private RadioButton primerLightRadio, primerDarkRadio, nordLightRadio, nordDarkRadio;
+    @FXML
+    private TableView<CacheMetrics> cacheTable;
+    @FXML
+    private Label cacheBudgetLabel;
 
     /**
      * Initialisiert die Ansicht, indem das gespeicherte Theme geladen und
@@ -43,6 +56,53 @@ public class SettingsViewController implements Initializable {
                 primerLightRadio.setSelected(true);
                 break;
         }
+        if (cacheTable != null) {
+            initCacheTable();
+            refreshCacheMetrics();
+        }
+    }
+
+    private void initCacheTable() {
+        cacheTable.getColumns().add(column("Cache", CacheMetrics::name));
+        cacheTable.getColumns().add(column("Einträge", m -> String.valueOf(m.entries())));
+        cacheTable.getColumns().add(column("Belegt / Budget", m -> m.weighted()
+                ? formatBytes(m.weightedSize()) + " / " + formatBytes(m.maximum())
+                : m.entries() + " / " + m.maximum() + " Einträge"));
+        cacheTable.getColumns().add(column("Trefferquote", m -> m.hits() + m.misses() == 0
+                ? "–" : String.format(Locale.GERMANY, "%.1f %%", m.hitRate() * 100)));
+        cacheTable.getColumns().add(column("Verdrängt", m -> String.valueOf(m.evictions())));
+        cacheTable.getColumns().add(column("Ø Ladezeit", m -> String.format(Locale.GERMANY, "%.1f ms", m.averageLoadMillis())));
+        cacheTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+    }
+
+    private static TableColumn<CacheMetrics, String> column(String title, Function<CacheMetrics, String> value) {
+        TableColumn<CacheMetrics, String> col = new TableColumn<>(title);
+        col.setCellValueFactory(cd -> new ReadOnlyStringWrapper(value.apply(cd.getValue())));
+        return col;
+    }
+
+    /**
+     * Liest die aktuellen Cache-Kennzahlen neu ein.
+     */
+    @FXML
+    private void refreshCacheMetrics() {
+        cacheTable.getItems().setAll(CacheRegistry.metrics());
+        cacheBudgetLabel.setText("Gesamtbudget: " + formatBytes(CacheRegistry.budgetBytes()));
+    }
+
+    /**
+     * Leert alle Caches (z. B. nach Datenkorrekturen in der Datenbank).
+     */
+    @FXML
+    private void clearCaches() {
+        CacheRegistry.invalidateAll();
+        refreshCacheMetrics();
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 0) return "–";
+        if (bytes < 1024 * 1024) return String.format(Locale.GERMANY, "%.1f KB", bytes / 1024.0);
+        return String.format(Locale.GERMANY, "%.1f MB", bytes / (1024.0 * 1024.0));
     }
 
     /**
@@ -26,6 +26,7 @@ import javafx.scene.shape.Circle;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import model.Grouping;
 import model.RowData;
 import model.contract.filters.CoverFilter;
 import model.enums.ExportFormat;
@@ -36,11 +37,14 @@ import service.contract.CoverService;
 import service.rbac.LoginService;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.format.DateTimeFormatter;
 import java.time.format.ResolverStyle;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -51,6 +55,7 @@ public class CoverDomainController {
     private static final Logger log = LoggerFactory.getLogger(CoverDomainController.class);
     // Ladevorgang
     private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+    private static final String SB_DICT_TABLE = "SACHBEA_FULL";
     // --- ÉTAT GLOBAL PARTAGÉ ENTRE TABLE & TREE ---
     private final TableStateModel tableStateModel = new TableStateModel();
     private final ColumnStateModel columnStateModel = new ColumnStateModel();
@@ -156,6 +161,8 @@ public class CoverDomainController {
     private Button exportCsvButton;
     private Button exportXlsxButton;
     private Map<String, String> sbDict = Map.of();
+    // Abgleich-Listener am (prozessweiten) CoverService; wird beim Schließen des Fensters abgemeldet
+    private BiConsumer<String, Map<String, String>> sbDictListener;
     private volatile boolean dictionariesLoaded = false;
     private String pendingKernfrage = null;
 
@@ -235,21 +242,30 @@ public class CoverDomainController {
     }
 
     private void loadSbDictOnce() {
+        // Vom Hintergrundabgleich aktualisierte Namen sofort übernehmen (neue/umbenannte Sachbearbeiter)
+        sbDictListener = (table, fresh) -> {
+            if (SB_DICT_TABLE.equals(table)) {
+                Platform.runLater(() -> applySbDictionary(fresh));
+            }
+        };
+        coverService.addDictionaryListener(sbDictListener);
         EXECUTOR.submit(() -> {
             try {
-                Map<String, String> dict = coverService.getDictionary(username, "SACHBEA_FULL");
-                Platform.runLater(() -> {
-                    ColumnValueFormatter.setSbDictionary(dict == null ? Map.of() : dict);
-
-                    tableManager.rebuildView();
-                    treeManager.rebuildView();
-                });
+                Map<String, String> dict = coverService.getDictionary(username, SB_DICT_TABLE);
+                Platform.runLater(() -> applySbDictionary(dict));
             } catch (Exception e) {
                 log.warn("SB-Dict nicht geladen", e);
             }
         });
     }
 
+    private void applySbDictionary(Map<String, String> dict) {
+        ColumnValueFormatter.setSbDictionary(dict == null ? Map.of() : dict);
+
+        tableManager.rebuildView();
+        treeManager.rebuildView();
+    }
+
     // 2) Binder le toggle « Voll. Name »
     private void initFullNameToggle() {
         installToggleWithDot(toggleFullName, "Voll. Namen");
@@ -262,6 +278,16 @@ public class CoverDomainController {
         });
     }
 
+    /**
+     * Meldet den Controller vom CoverService ab; aufzurufen, wenn das Fenster geschlossen wird.
+     */
+    public void dispose() {
+        if (sbDictListener != null) {
+            coverService.removeDictionaryListener(sbDictListener);
+            sbDictListener = null;
+        }
+    }
+
     /**
      * Appelée depuis le Dashboard après le chargement du FXML.
      */
@@ -365,6 +391,8 @@ public class CoverDomainController {
                     // ➜ mise à jour clé SB lorsque la sélection change
                     applyGroupingHeaderKeysFromSelection();
                     treeManager.onGroupingChanged();
+                    // Geladene Zeilen sofort neu gruppieren (gemeinsame Ebenen bleiben erhalten)
+                    treeManager.regroup(buildPathFromSnapshot(new ArrayList<>(groupByList.getSelectionModel().getSelectedItems())));
                     Platform.runLater(() -> {
                         boolean allSelected = groupByList.getSelectionModel().getSelectedItems().size() == groupByOptions.size();
                         treeManager.requestRefresh();
@@ -482,6 +510,16 @@ public class CoverDomainController {
     private void applyResultContext(CoverFilter filter, DataLoader loader, int total, boolean isSearch, String searchQuery) {
         Objects.requireNonNull(filter, "Filter darf nicht null sein.");
 
+        // Hinter der Obergrenze liefert die DB keine Seiten mehr: nur bis dahin blättern
+        int matches = total;
+        total = CoverService.pageableTotal(matches);
+        String truncation = matches > total
+                ? "Anzeige auf " + total + " von " + matches + " Treffern begrenzt – bitte Filter eingrenzen."
+                : null;
+        if (truncation != null) {
+            log.warn("⚠️ {}", truncation);
+        }
+
         // 1. Atomare Aktualisierung der Modelle
         resultContextModel.setFilter(filter);
         resultContextModel.setPageLoader(loader);
@@ -495,14 +533,15 @@ public class CoverDomainController {
 
         // 3. Label-Steuerung (messageLabel zeigt nur den Such-Status an)
         if (isSearch) {
-            messageLabel.setText("(" + total + " Ergebnis" + (total != 1 ? "se" : "") + " – Suche aktiv)");
+            messageLabel.setText("(" + matches + " Ergebnis" + (matches != 1 ? "se" : "") + " – Suche aktiv)"
+                    + (truncation == null ? "" : " " + truncation));
         } else {
-            showMessage(null); // Versteckt das messageLabel
+            showMessage(truncation); // null versteckt das messageLabel
         }
 
         // 4. Ladebefehl für BEIDE Manager (Table & Tree)
         List<String> groupSnapshot = new ArrayList<>(groupByList.getSelectionModel().getSelectedItems());
-        Function<RowData, List<String>> pathProvider = row -> buildPathFromSnapshot(row, groupSnapshot);
+        Function<RowData, List<String>> pathProvider = buildPathFromSnapshot(groupSnapshot);
 
         tableManager.loadDataFromServer(total, loader);
         treeManager.loadDataFromServer(total, loader, pathProvider);
@@ -541,8 +580,7 @@ public class CoverDomainController {
                     int total = coverService.count(username, filter);
                     log.info("Suche ZÄHLUNG: q='{}', Gesamt={}", q, total);
 
-                    DataLoader loader = (page, size) ->
-                            coverService.searchRaw(username, filter, page, size).getRows();
+                    DataLoader loader = coverService.getRawDataLoader(username, filter);
 
                     Platform.runLater(() -> {
                         applyResultContext(filter, loader, total, true, q);
@@ -855,8 +893,7 @@ public class CoverDomainController {
                 int total = coverService.count(username, filter);
                 log.info("KF ZÄHLUNG: Gesamt={}", total);
 
-                DataLoader loader = (page, size) ->
-                        coverService.searchRaw(username, filter, page, size).getRows();
+                DataLoader loader = coverService.getRawDataLoader(username, filter);
 
                 Platform.runLater(() -> {
                     applyResultContext(filter, loader, total, false, "");
@@ -960,10 +997,17 @@ public class CoverDomainController {
             final File finalFile = file;
             final List<String> finalDisplayHeaders = displayHeaders;
             final List<String> finalOriginalKeys = originalKeys;
+            final List<String> groupKeys = isTreeView
+                    ? List.copyOf(groupByList.getSelectionModel().getSelectedItems()) : List.of();
 
             showBusy();
 
             EXECUTOR.submit(() -> {
+                if (isTreeView && loader.canStreamSorted()) {
+                    // Gruppen per ORDER BY aus der DB, Export per Gruppenwechsel (ohne alle Seiten zu sammeln)
+                    exportGroupedSorted(loader, groupKeys, format, finalFile);
+                    return;
+                }
                 List<RowData> all = new ArrayList<>(Math.min(finalTotal, 20000));
 
                 try {
@@ -984,7 +1028,6 @@ public class CoverDomainController {
                             }
 
                             if (isTreeView) {
-                                List<String> groupKeys = groupByList.getSelectionModel().getSelectedItems();
                                 if (format == ExportFormat.CSV) {
                                     new file.writer.GroupedCsvWriter().writeGrouped(all, groupKeys, finalFile.getAbsolutePath());
 
@@ -1022,6 +1065,64 @@ public class CoverDomainController {
         }
     }
 
+    /**
+     * Gruppierter Export im Streaming: Die DB liefert die Zeilen nach den Gruppierungsspalten
+     * sortiert, der Writer erkennt die Gruppen am Wechsel des Schlüssels. Es wird nie mehr als
+     * ein Block im Speicher gehalten. Läuft im Hintergrund-Thread.
+     */
+    private void exportGroupedSorted(DataLoader loader, List<String> groupKeys, ExportFormat format, File target) {
+        try {
+            int rows;
+            String path = target.getAbsolutePath();
+            if (format == ExportFormat.CSV) {
+                try (file.writer.GroupedCsvWriter.SortedWriter writer = new file.writer.GroupedCsvWriter().openSorted(path, groupKeys)) {
+                    try {
+                        rows = loader.streamSorted(writer.sortKeys(), batch -> {
+                            try {
+                                writer.writeAll(batch);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                    } catch (Exception e) {
+                        writer.abort(); // keine abgeschnittene Datei hinterlassen
+                        throw e;
+                    }
+                }
+            } else {
+                try (file.writer.GroupedXlsxWriter.SortedWriter writer = new file.writer.GroupedXlsxWriter().openSorted(path, groupKeys)) {
+                    try {
+                        rows = loader.streamSorted(writer.sortKeys(), writer::writeAll);
+                    } catch (Exception e) {
+                        writer.abort(); // keine abgeschnittene Datei (mit Gesamtsumme) hinterlassen
+                        throw e;
+                    }
+                }
+            }
+            final int count = rows;
+            Platform.runLater(() -> {
+                hideBusy();
+                if (count == 0) {
+                    new Alert(Alert.AlertType.INFORMATION, "Keine Daten zum Exportieren.", ButtonType.OK).showAndWait();
+                } else if (count >= loader.streamLimit()) {
+                    new Alert(Alert.AlertType.WARNING, "Export auf " + count + " Zeilen begrenzt – das Ergebnis ist "
+                            + "möglicherweise unvollständig. Bitte Filter eingrenzen.\n" + target.getName(),
+                            ButtonType.OK).showAndWait();
+                } else {
+                    new Alert(Alert.AlertType.INFORMATION,
+                            "Export erfolgreich:\n" + target.getName(), ButtonType.OK).showAndWait();
+                }
+            });
+        } catch (Exception e) {
+            Throwable cause = (e instanceof UncheckedIOException u) ? u.getCause() : e;
+            log.error("Gruppierter Export fehlgeschlagen", cause);
+            Platform.runLater(() -> {
+                hideBusy();
+                new Alert(Alert.AlertType.ERROR, "Exportfehler:\n" + cause.getMessage(), ButtonType.OK).showAndWait();
+            });
+        }
+    }
+
     // =========================
     // HELPERS
     // =========================
@@ -1215,26 +1316,29 @@ public class CoverDomainController {
         };
     }
 
-    private List<String> buildPathFromSnapshot(RowData row, List<String> groupSnapshot) {
-        Map<String, String> v = row.getValues();
-        List<String> path = new ArrayList<>();
+    /**
+     * Gruppierungspfad zur Auswahl: die Labels werden einmal in Ebenen (Spalten) übersetzt,
+     * nicht pro Zeile.
+     */
+    private Grouping.Path buildPathFromSnapshot(List<String> groupSnapshot) {
+        List<Grouping.Level> levels = new ArrayList<>();
         for (String g : groupSnapshot) {
             switch (g) {
-                case "Versicherungsschein Nr" -> path.add(v.getOrDefault("Versicherungsschein_Nr", ""));
-                case "Versicherungsnehmer" -> path.add(v.getOrDefault("Versicherungsnehmer_Name", ""));
-                case "Makler" -> path.add(v.getOrDefault("Makler", ""));
-                case "Gesellschaft" -> path.add(v.getOrDefault("Gesellschaft_Name", ""));
-                case "Versicherungsart" -> path.add(v.getOrDefault("Versicherungsart_Text", ""));
-                case "Beteiligungsform" -> path.add(v.getOrDefault("Beteiligungsform_Text", ""));
-                case "Sachbearbeiter (Vertrag)" -> path.add(v.getOrDefault("SB_Vertr", ""));
-                case "Sachbearbeiter (Schaden)" -> path.add(v.getOrDefault("SB_Schad", ""));
-                case "Cover Art" -> path.add(v.getOrDefault("Vertragsparte_Text", ""));
-                case "Versicherungssparte" -> path.add("COVER");
+                case "Versicherungsschein Nr" -> levels.add(Grouping.Level.column("Versicherungsschein_Nr", ""));
+                case "Versicherungsnehmer" -> levels.add(Grouping.Level.column("Versicherungsnehmer_Name", ""));
+                case "Makler" -> levels.add(Grouping.Level.column("Makler", ""));
+                case "Gesellschaft" -> levels.add(Grouping.Level.column("Gesellschaft_Name", ""));
+                case "Versicherungsart" -> levels.add(Grouping.Level.column("Versicherungsart_Text", ""));
+                case "Beteiligungsform" -> levels.add(Grouping.Level.column("Beteiligungsform_Text", ""));
+                case "Sachbearbeiter (Vertrag)" -> levels.add(Grouping.Level.column("SB_Vertr", ""));
+                case "Sachbearbeiter (Schaden)" -> levels.add(Grouping.Level.column("SB_Schad", ""));
+                case "Cover Art" -> levels.add(Grouping.Level.column("Vertragsparte_Text", ""));
+                case "Versicherungssparte" -> levels.add(Grouping.Level.fixed("COVER"));
                 default -> {
                 }
             }
         }
-        if (path.isEmpty()) path.add("Alle");
-        return path;
+        if (levels.isEmpty()) levels.add(Grouping.Level.fixed("Alle"));
+        return new Grouping.Path(levels);
     }
 }
@@ -0,0 +1,64 @@
+package model;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Profil einer Ergebnisspalte, erzeugt von {@link ColumnProfiler}.
+ *
+ * @param column            Spaltenname
+ * @param rows              Anzahl betrachteter Zeilen
+ * @param empty             davon leer ({@code null} oder nur Leerzeichen)
+ * @param distinctEstimate  geschätzte Anzahl verschiedener nicht-leerer Werte (HyperLogLog)
+ * @param topValues         häufigste Werte, absteigend (Space-Saving; Zählungen sind Obergrenzen)
+ * @param lengthHistogram   Längenverteilung der nicht-leeren Werte, Klassen siehe {@link #lengthBucketLabel(int)}
+ */
+public record ColumnProfile(String column, long rows, long empty, long distinctEstimate,
+                            List<ValueCount> topValues, long[] lengthHistogram) {
+
+    /**
+     * Häufiger Wert mit geschätzter Anzahl; {@code error} ist die maximale Überschätzung.
+     */
+    public record ValueCount(String value, long count, long error) {
+    }
+
+    public long nonEmpty() {
+        return rows - empty;
+    }
+
+    public double emptyRatio() {
+        return rows == 0 ? 0 : empty / (double) rows;
+    }
+
+    /**
+     * {@code true}, wenn eine Gruppierung über diese Spalte mehr als {@code maxGroups} Gruppen ergäbe.
+     */
+    public boolean exceedsGroups(long maxGroups) {
+        return distinctEstimate > maxGroups;
+    }
+
+    /**
+     * {@code true}, wenn fast jeder Wert eindeutig ist (Schlüsselspalte, z. B. Rechnungsnummer):
+     * Gruppieren bringt dann nur Einzelgruppen.
+     */
+    public boolean isMostlyUnique() {
+        return nonEmpty() >= 50 && distinctEstimate >= 0.9 * nonEmpty();
+    }
+
+    /**
+     * Kurzbeschreibung für Hinweise in Dialogen, z. B. {@code "≈ 1.234 Werte, 3 % leer"}.
+     */
+    public String summary() {
+        return String.format(Locale.GERMANY, "≈ %,d Werte, %d %% leer", distinctEstimate, Math.round(emptyRatio() * 100));
+    }
+
+    /**
+     * Bezeichnung einer Histogrammklasse: 1, 2–3, 4–7, ... (Zweierpotenzen), die letzte offen.
+     */
+    public static String lengthBucketLabel(int bucket) {
+        int from = 1 << bucket;
+        if (bucket == ColumnProfiler.LENGTH_BUCKETS - 1) return from + "+";
+        int to = (from << 1) - 1;
+        return from == to ? String.valueOf(from) : from + "–" + to;
+    }
+}
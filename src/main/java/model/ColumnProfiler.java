@@ -0,0 +1,203 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Spaltenprofile (Kardinalität, häufigste Werte, Leeranteil, Längenverteilung) in einem Durchlauf.
+ * <p>
+ * Gedacht für Hinweise VOR teuren Operationen: Gruppieren nach einer Spalte mit zehntausenden
+ * Werten oder ein Pivot mit zu vielen Gruppen. Statt {@code distinct().count()} über alle Zeilen
+ * (HashSet aller Werte) nutzt jede Spalte einen {@link HyperLogLog} und eine Space-Saving-Liste
+ * fester Größe; der Speicher ist damit unabhängig von der Zeilenzahl.
+ * </p>
+ * <p>
+ * Große Listen werden in Blöcke geteilt und parallel profiliert; die Teilergebnisse werden danach
+ * zusammengeführt (HLL verlustfrei, Top-K näherungsweise).
+ * </p>
+ */
+public final class ColumnProfiler {
+
+    /**
+     * Anzahl Klassen der Längenverteilung (1, 2–3, 4–7, ..., 64+).
+     */
+    public static final int LENGTH_BUCKETS = 7;
+
+    private static final int DEFAULT_TOP_K = 10;
+    // Space-Saving hält mehr Kandidaten als angezeigt, damit die Top-K stabil sind
+    private static final int CANDIDATE_FACTOR = 4;
+    private static final int PARALLEL_CHUNK = 16_384;
+
+    private ColumnProfiler() {
+    }
+
+    /**
+     * Profiliert alle Spalten der ersten Zeile.
+     */
+    public static Map<String, ColumnProfile> profile(List<RowData> rows) {
+        if (rows == null || rows.isEmpty()) return Map.of();
+        return profile(rows, rows.get(0).getValues().keySet(), DEFAULT_TOP_K);
+    }
+
+    public static Map<String, ColumnProfile> profile(List<RowData> rows, Collection<String> columns) {
+        return profile(rows, columns, DEFAULT_TOP_K);
+    }
+
+    /**
+     * Profiliert die angegebenen Spalten.
+     *
+     * @param topK Anzahl häufigster Werte je Spalte
+     * @return Spalte → Profil, in der Reihenfolge von {@code columns}
+     */
+    public static Map<String, ColumnProfile> profile(List<RowData> rows, Collection<String> columns, int topK) {
+        List<String> cols = new ArrayList<>(columns);
+        List<RowData> data = (rows == null) ? List.of() : rows;
+        int n = data.size();
+
+        Accumulator[] acc;
+        if (n < 2 * PARALLEL_CHUNK) {
+            acc = scan(data, cols, topK, 0, n);
+        } else {
+            int chunks = (n + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+            acc = IntStream.range(0, chunks).parallel()
+                    .mapToObj(c -> scan(data, cols, topK, c * PARALLEL_CHUNK, Math.min(n, (c + 1) * PARALLEL_CHUNK)))
+                    .reduce(ColumnProfiler::merge)
+                    .orElseGet(() -> scan(data, cols, topK, 0, 0));
+        }
+
+        Map<String, ColumnProfile> out = new LinkedHashMap<>();
+        for (int c = 0; c < cols.size(); c++) {
+            out.put(cols.get(c), acc[c].toProfile(cols.get(c), topK));
+        }
+        return out;
+    }
+
+    /**
+     * Profil einer einzelnen Spalte.
+     */
+    public static ColumnProfile profile(List<RowData> rows, String column) {
+        return profile(rows, List.of(column), DEFAULT_TOP_K).get(column);
+    }
+
+    private static Accumulator[] scan(List<RowData> rows, List<String> cols, int topK, int from, int to) {
+        Accumulator[] acc = new Accumulator[cols.size()];
+        for (int c = 0; c < acc.length; c++) acc[c] = new Accumulator(topK * CANDIDATE_FACTOR);
+        for (int i = from; i < to; i++) {
+            Map<String, String> values = rows.get(i).getValues();
+            for (int c = 0; c < acc.length; c++) {
+                acc[c].accept(values.get(cols.get(c)));
+            }
+        }
+        return acc;
+    }
+
+    private static Accumulator[] merge(Accumulator[] a, Accumulator[] b) {
+        for (int c = 0; c < a.length; c++) a[c].merge(b[c]);
+        return a;
+    }
+
+    private static int lengthBucket(int length) {
+        int bucket = 31 - Integer.numberOfLeadingZeros(length); // floor(log2)
+        return Math.min(bucket, LENGTH_BUCKETS - 1);
+    }
+
+    /**
+     * Zustand einer Spalte während des Durchlaufs.
+     */
+    private static final class Accumulator {
+        private final HyperLogLog distinct = new HyperLogLog();
+        private final SpaceSaving top;
+        private final long[] lengths = new long[LENGTH_BUCKETS];
+        private long rows;
+        private long empty;
+
+        Accumulator(int capacity) {
+            this.top = new SpaceSaving(capacity);
+        }
+
+        void accept(String value) {
+            rows++;
+            if (value == null || value.isBlank()) {
+                empty++;
+                return;
+            }
+            String t = value.trim();
+            distinct.add(t);
+            top.add(t, 1);
+            lengths[lengthBucket(t.length())]++;
+        }
+
+        void merge(Accumulator other) {
+            rows += other.rows;
+            empty += other.empty;
+            distinct.merge(other.distinct);
+            top.merge(other.top);
+            for (int i = 0; i < lengths.length; i++) lengths[i] += other.lengths[i];
+        }
+
+        ColumnProfile toProfile(String column, int topK) {
+            // Die HLL-Schätzung kann die Zahl der Werte nie übersteigen
+            long estimate = Math.min(distinct.estimate(), rows - empty);
+            return new ColumnProfile(column, rows, empty, estimate, top.top(topK), lengths.clone());
+        }
+    }
+
+    /**
+     * Space-Saving (Metwally et al.): feste Anzahl Zähler; ein neuer Wert verdrängt den
+     * kleinsten Zähler und erbt dessen Stand als Fehlerschranke.
+     */
+    private static final class SpaceSaving {
+        private final int capacity;
+        private final Map<String, long[]> counters; // {count, error}
+
+        SpaceSaving(int capacity) {
+            this.capacity = capacity;
+            this.counters = new HashMap<>(capacity * 2);
+        }
+
+        void add(String value, long count) {
+            add(value, count, 0);
+        }
+
+        private void add(String value, long count, long error) {
+            long[] c = counters.get(value);
+            if (c != null) {
+                c[0] += count;
+                c[1] += error;
+                return;
+            }
+            if (counters.size() < capacity) {
+                counters.put(value, new long[]{count, error});
+                return;
+            }
+            String minKey = null;
+            long[] min = null;
+            for (Map.Entry<String, long[]> e : counters.entrySet()) {
+                if (min == null || e.getValue()[0] < min[0]) {
+                    minKey = e.getKey();
+                    min = e.getValue();
+                }
+            }
+            counters.remove(minKey);
+            counters.put(value, new long[]{min[0] + count, min[0] + error});
+        }
+
+        void merge(SpaceSaving other) {
+            other.counters.forEach((value, c) -> add(value, c[0], c[1]));
+        }
+
+        List<ColumnProfile.ValueCount> top(int k) {
+            List<ColumnProfile.ValueCount> all = new ArrayList<>(counters.size());
+            counters.forEach((value, c) -> all.add(new ColumnProfile.ValueCount(value, c[0], c[1])));
+            all.sort((a, b) -> a.count() != b.count()
+                    ? Long.compare(b.count(), a.count())
+                    : a.value().compareTo(b.value()));
+            return all.size() > k ? List.copyOf(all.subList(0, k)) : List.copyOf(all);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package model;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spaltenstatistik eines Ergebnisses, die beim Laden der Seiten nebenbei mitläuft.
+ * <p>
+ * Pro Spalte werden die Anzahl nicht-leerer Werte, die maximale Breite (Zeichen) und eine
+ * Schätzung der verschiedenen Werte geführt. Seiten werden über ihren Zeilen-Offset
+ * entdoppelt: Wird eine Seite erneut geladen (Zurückblättern, Export), zählt sie nicht doppelt.
+ * Sobald alle Zeilen eines Ergebnisses gesehen wurden ({@link #isComplete(int)}), kann z. B.
+ * "Global Bereinigen" ohne erneutes Lesen antworten.
+ * </p>
+ * <p>
+ * Leer heißt wie bei der Anzeige: {@code null} oder nur Leerzeichen (Datum-/Geldformatierung
+ * macht aus einem nicht-leeren Wert nie einen leeren). Thread-sicher.
+ * </p>
+ */
+public final class ColumnStatistics {
+
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final BitSet seenRows = new BitSet();
+    private int rowsSeen;
+
+    /**
+     * Statistik über eine vollständig vorliegende Liste (Client-Modus).
+     */
+    public static ColumnStatistics of(List<RowData> rows) {
+        ColumnStatistics stats = new ColumnStatistics();
+        stats.acceptPage(0, rows);
+        return stats;
+    }
+
+    /**
+     * Nimmt eine geladene Seite auf; bereits gesehene Zeilen-Offsets werden übersprungen.
+     *
+     * @param offset Index der ersten Zeile im Gesamtergebnis
+     */
+    public synchronized void acceptPage(int offset, List<RowData> rows) {
+        if (rows == null || rows.isEmpty() || offset < 0) return;
+        for (int i = 0; i < rows.size(); i++) {
+            int index = offset + i;
+            if (seenRows.get(index)) continue;
+            seenRows.set(index);
+            rowsSeen++;
+            accept(rows.get(i).getValues());
+        }
+    }
+
+    private void accept(Map<String, String> values) {
+        for (Map.Entry<String, String> e : values.entrySet()) {
+            Column c = columns.computeIfAbsent(e.getKey(), k -> new Column());
+            String v = e.getValue();
+            if (v == null || v.isBlank()) continue;
+            String t = v.trim();
+            c.nonEmpty++;
+            if (t.length() > c.maxWidth) c.maxWidth = t.length();
+            c.distinct.add(t);
+        }
+    }
+
+    /**
+     * Anzahl verschiedener Zeilen, die bisher eingeflossen sind.
+     */
+    public synchronized int rowsSeen() {
+        return rowsSeen;
+    }
+
+    /**
+     * {@code true}, wenn alle {@code totalCount} Zeilen des Ergebnisses gesehen wurden.
+     */
+    public synchronized boolean isComplete(int totalCount) {
+        return rowsSeen > 0 && rowsSeen >= totalCount;
+    }
+
+    public synchronized Set<String> columns() {
+        return new LinkedHashSet<>(columns.keySet());
+    }
+
+    public synchronized long nonEmpty(String column) {
+        Column c = columns.get(column);
+        return c == null ? 0 : c.nonEmpty;
+    }
+
+    public synchronized int maxWidth(String column) {
+        Column c = columns.get(column);
+        return c == null ? 0 : c.maxWidth;
+    }
+
+    /**
+     * Geschätzte Anzahl verschiedener (getrimmter) Werte.
+     */
+    public synchronized long distinctEstimate(String column) {
+        Column c = columns.get(column);
+        return c == null ? 0 : c.distinct.estimate();
+    }
+
+    /**
+     * Spalten ohne einen einzigen nicht-leeren Wert (in Spaltenreihenfolge).
+     */
+    public synchronized Set<String> emptyColumns() {
+        Set<String> out = new LinkedHashSet<>();
+        columns.forEach((name, c) -> {
+            if (c.nonEmpty == 0) out.add(name);
+        });
+        return out;
+    }
+
+    /**
+     * Leere Spalten aus serverseitig gezählten Nicht-leer-Werten (Spalte → Anzahl).
+     *
+     * @param keys nur diese Spalten berücksichtigen; {@code null} = alle aus {@code nonEmptyCounts}
+     */
+    public static Set<String> emptyColumns(Map<String, ? extends Number> nonEmptyCounts, Collection<String> keys) {
+        Set<String> out = new LinkedHashSet<>();
+        for (Map.Entry<String, ? extends Number> e : nonEmptyCounts.entrySet()) {
+            if ((keys == null || keys.contains(e.getKey())) && e.getValue() != null && e.getValue().longValue() == 0) {
+                out.add(e.getKey());
+            }
+        }
+        return out;
+    }
+
+    private static final class Column {
+        long nonEmpty;
+        int maxWidth;
+        // 1 KB pro Spalte, ~3 % Fehler – reicht für Hinweise zur Kardinalität
+        final HyperLogLog distinct = new HyperLogLog(10);
+    }
+}
@@ -0,0 +1,207 @@
+package model;
+
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Werte-Map einer {@link RowData}, die bis zum ersten Schreibzugriff auf einem geteilten,
+ * unveränderlichen Schnappschuss ({@link RowSnapshot}) liest.
+ * <p>
+ * Der erste schreibende Zugriff (auch über {@code keySet()}, {@code entrySet()}, {@code values()}
+ * oder {@code Entry.setValue}) legt eine eigene {@link LinkedHashMap} an; der Schnappschuss
+ * bleibt dabei unverändert. Lesende Aufrufer kopieren also nichts.
+ * </p>
+ */
+final class CopyOnWriteValues extends AbstractMap<String, String> {
+
+    private final Map<String, String> base;
+    private LinkedHashMap<String, String> own;
+
+    CopyOnWriteValues(Map<String, String> base) {
+        this.base = base;
+    }
+
+    private Map<String, String> read() {
+        return own != null ? own : base;
+    }
+
+    private Map<String, String> write() {
+        if (own == null) own = new LinkedHashMap<>(base);
+        return own;
+    }
+
+    // --- Lesen ---
+
+    @Override
+    public int size() {
+        return read().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return read().isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return read().containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return read().containsValue(value);
+    }
+
+    @Override
+    public String get(Object key) {
+        return read().get(key);
+    }
+
+    @Override
+    public String getOrDefault(Object key, String defaultValue) {
+        return read().getOrDefault(key, defaultValue);
+    }
+
+    // --- Schreiben ---
+
+    @Override
+    public String put(String key, String value) {
+        return write().put(key, value);
+    }
+
+    @Override
+    public String remove(Object key) {
+        if (own == null && !base.containsKey(key)) return null;
+        return write().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends String> m) {
+        if (!m.isEmpty()) write().putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        if (own == null) own = new LinkedHashMap<>();
+        else own.clear();
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super String, ? extends String> function) {
+        write().replaceAll(function);
+    }
+
+    // --- Views ---
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new ValuesIterator();
+            }
+
+            @Override
+            public int size() {
+                return CopyOnWriteValues.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                ValuesIterator it = new ValuesIterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() { return it.hasNext(); }
+                    @Override
+                    public String next() { return it.next().getKey(); }
+                    @Override
+                    public void remove() { it.remove(); }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CopyOnWriteValues.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                boolean present = containsKey(o);
+                if (present) CopyOnWriteValues.this.remove(o);
+                return present;
+            }
+        };
+    }
+
+    @Override
+    public Collection<String> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<String> iterator() {
+                ValuesIterator it = new ValuesIterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() { return it.hasNext(); }
+                    @Override
+                    public String next() { return it.next().getValue(); }
+                    @Override
+                    public void remove() { it.remove(); }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CopyOnWriteValues.this.size();
+            }
+        };
+    }
+
+    /**
+     * Iteriert über den aktuellen Stand. Läuft er noch über den Schnappschuss, wirken
+     * {@code remove()} und {@code setValue()} auf die eigene Kopie; der Schnappschuss-Iterator
+     * läuft ungestört weiter.
+     */
+    private final class ValuesIterator implements Iterator<Entry<String, String>> {
+        private final boolean overSnapshot = own == null;
+        private final Iterator<Entry<String, String>> it = read().entrySet().iterator();
+        private Entry<String, String> last;
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            Entry<String, String> e = it.next();
+            if (!overSnapshot) return last = e;
+            String key = e.getKey();
+            last = new SimpleEntry<>(key, e.getValue()) {
+                @Override
+                public String setValue(String value) {
+                    super.setValue(value);
+                    return write().put(key, value);
+                }
+            };
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) throw new IllegalStateException();
+            if (overSnapshot) write().remove(last.getKey());
+            else it.remove();
+            last = null;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Mehrstufige Gruppierung von Zeilen als Baum, Ebene für Ebene aufgebaut.
+ * <p>
+ * Jede Ebene ({@link Level}) wird einmal aufgelöst (Spaltenname statt Label-Lookup pro Zeile),
+ * und jede Gruppe erhält genau einen Pfad-Schlüssel ({@link Group#path()}) statt einer neuen
+ * Liste pro Zeile. Eine zusätzliche Ebene ({@link #refine}) teilt nur die bestehenden
+ * Blattgruppen weiter auf und liest dafür eine Spalte je Zeile; das Entfernen der letzten
+ * Ebene ({@link #coarsen()}) kommt ganz ohne Zeilenzugriff aus. {@link #regroup(List)} nutzt
+ * beides, um von einer Gruppierung zur nächsten zu kommen.
+ * </p>
+ * <p>
+ * Reihenfolge: Innerhalb einer Gruppe erscheinen Untergruppen in der Reihenfolge ihres
+ * ersten Auftretens, die Zeilen behalten ihre ursprüngliche Reihenfolge. Unveränderlich.
+ * </p>
+ */
+public final class Grouping {
+
+    private final List<Function<RowData, String>> levels;
+    private final Group root;
+
+    private Grouping(List<Function<RowData, String>> levels, Group root) {
+        this.levels = levels;
+        this.root = root;
+    }
+
+    /**
+     * Gruppierung ohne Ebenen: eine Wurzelgruppe mit allen Zeilen.
+     */
+    public static Grouping of(List<RowData> rows) {
+        List<RowData> all = (rows == null) ? List.of() : Collections.unmodifiableList(new ArrayList<>(rows));
+        return new Grouping(List.of(), new Group(null, List.of(), all, List.of()));
+    }
+
+    public static Grouping of(List<RowData> rows, List<? extends Function<RowData, String>> levels) {
+        Grouping g = of(rows);
+        for (Function<RowData, String> level : levels) {
+            g = g.refine(level);
+        }
+        return g;
+    }
+
+    /**
+     * Teilt jede Blattgruppe nach einer weiteren Ebene auf.
+     */
+    public Grouping refine(Function<RowData, String> level) {
+        List<Function<RowData, String>> next = new ArrayList<>(levels);
+        next.add(level);
+        return new Grouping(List.copyOf(next), refine(root, level));
+    }
+
+    private static Group refine(Group g, Function<RowData, String> level) {
+        if (!g.children.isEmpty()) {
+            List<Group> children = new ArrayList<>(g.children.size());
+            for (Group c : g.children) children.add(refine(c, level));
+            return new Group(g.value, g.path, g.rows, children);
+        }
+        if (g.rows.isEmpty()) return g;
+
+        Map<String, List<RowData>> split = new LinkedHashMap<>();
+        for (RowData row : g.rows) {
+            split.computeIfAbsent(level.apply(row), k -> new ArrayList<>()).add(row);
+        }
+        List<Group> children = new ArrayList<>(split.size());
+        String[] path = g.path.toArray(new String[g.path.size() + 1]);
+        split.forEach((value, rows) -> {
+            String[] p = path.clone();
+            p[p.length - 1] = value;
+            children.add(new Group(value, Collections.unmodifiableList(Arrays.asList(p)),
+                    Collections.unmodifiableList(rows), List.of()));
+        });
+        return new Group(g.value, g.path, g.rows, List.copyOf(children));
+    }
+
+    /**
+     * Entfernt die letzte Ebene (die Blattgruppen fallen in ihre Elterngruppen zurück).
+     */
+    public Grouping coarsen() {
+        if (levels.isEmpty()) return this;
+        return new Grouping(List.copyOf(levels.subList(0, levels.size() - 1)), truncate(root, levels.size() - 1));
+    }
+
+    private static Group truncate(Group g, int depth) {
+        if (depth == 0) return new Group(g.value, g.path, g.rows, List.of());
+        List<Group> children = new ArrayList<>(g.children.size());
+        for (Group c : g.children) children.add(truncate(c, depth - 1));
+        return new Group(g.value, g.path, g.rows, List.copyOf(children));
+    }
+
+    /**
+     * Gruppierung derselben Zeilen nach neuen Ebenen: Der gemeinsame Anfang der Ebenen bleibt
+     * erhalten, nur die abweichenden Ebenen werden neu aufgeteilt.
+     */
+    public Grouping regroup(List<? extends Function<RowData, String>> newLevels) {
+        int common = 0;
+        while (common < levels.size() && common < newLevels.size()
+                && levels.get(common).equals(newLevels.get(common))) {
+            common++;
+        }
+        Grouping g = this;
+        while (g.levels.size() > common) g = g.coarsen();
+        for (int i = common; i < newLevels.size(); i++) g = g.refine(newLevels.get(i));
+        return g;
+    }
+
+    public List<Function<RowData, String>> levels() {
+        return levels;
+    }
+
+    public int depth() {
+        return levels.size();
+    }
+
+    public Group root() {
+        return root;
+    }
+
+    /**
+     * Blattgruppen: Pfad → Zeilen, in Gruppierungsreihenfolge.
+     */
+    public Map<List<String>, List<RowData>> leaves() {
+        Map<List<String>, List<RowData>> out = new LinkedHashMap<>();
+        collectLeaves(root, out);
+        return out;
+    }
+
+    private static void collectLeaves(Group g, Map<List<String>, List<RowData>> out) {
+        if (g.children.isEmpty()) {
+            out.put(g.path, g.rows);
+            return;
+        }
+        for (Group c : g.children) collectLeaves(c, out);
+    }
+
+    /**
+     * Alle Zeilen, nach Gruppen geordnet.
+     */
+    public List<RowData> rows() {
+        if (levels.isEmpty()) return root.rows;
+        List<RowData> out = new ArrayList<>(root.rows.size());
+        for (List<RowData> rows : leaves().values()) out.addAll(rows);
+        return out;
+    }
+
+    /**
+     * Gruppe im Baum. Die Wurzel hat den leeren Pfad und den Wert {@code null}.
+     */
+    public static final class Group {
+        private final String value;
+        private final List<String> path;
+        private final List<RowData> rows;
+        private final List<Group> children;
+
+        private Group(String value, List<String> path, List<RowData> rows, List<Group> children) {
+            this.value = value;
+            this.path = path;
+            this.rows = rows;
+            this.children = children;
+        }
+
+        public String value() {
+            return value;
+        }
+
+        public List<String> path() {
+            return path;
+        }
+
+        /**
+         * Alle Zeilen dieser Gruppe (inklusive aller Untergruppen).
+         */
+        public List<RowData> rows() {
+            return rows;
+        }
+
+        public List<Group> children() {
+            return children;
+        }
+
+        public boolean isLeaf() {
+            return children.isEmpty();
+        }
+    }
+
+    /**
+     * Ebene nach einer Spalte (oder einem festen Wert). Gleiche Ebenen sind {@code equals},
+     * damit {@link #regroup(List)} den gemeinsamen Anfang erkennt.
+     *
+     * @param column  Spalte, aus der der Gruppenwert gelesen wird
+     * @param fixed   fester Gruppenwert für alle Zeilen, oder {@code null}
+     * @param missing Wert, wenn die Spalte in der Zeile fehlt
+     */
+    public record Level(String column, String fixed, String missing) implements Function<RowData, String> {
+
+        public static Level column(String column, String missing) {
+            return new Level(column, null, missing);
+        }
+
+        public static Level fixed(String value) {
+            return new Level(null, value, null);
+        }
+
+        @Override
+        public String apply(RowData row) {
+            return fixed != null ? fixed : row.getValues().getOrDefault(column, missing);
+        }
+    }
+
+    /**
+     * Pfad-Provider aus Ebenen, z. B. für den Baum: liefert pro Zeile die Gruppenwerte aller Ebenen.
+     * Wer die Ebenen kennt, kann über {@link #levels()} stattdessen direkt {@link Grouping} nutzen.
+     */
+    public record Path(List<Level> levels) implements Function<RowData, List<String>> {
+
+        public Path {
+            levels = List.copyOf(levels);
+        }
+
+        @Override
+        public List<String> apply(RowData row) {
+            String[] p = new String[levels.size()];
+            for (int i = 0; i < p.length; i++) p[i] = levels.get(i).apply(row);
+            return Arrays.asList(p);
+        }
+    }
+}
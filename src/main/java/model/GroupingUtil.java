@@ -1,10 +1,8 @@
 package model;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 
 public class GroupingUtil {
@@ -25,15 +23,26 @@ public class GroupingUtil {
         if (rows == null || rows.isEmpty() || groupByLabels == null || groupByLabels.isEmpty()) {
             return Map.of(List.of("Alle"), rows == null ? List.of() : rows);
         }
+        // 👉 clé = vraie liste de colonnes, une seule instance par groupe
+        return group(rows, groupByLabels).leaves();
+    }
+
+    /**
+     * Gruppiert nach den Labels der Oberfläche (Aliase werden einmal je Label aufgelöst).
+     */
+    public static Grouping group(List<RowData> rows, List<String> groupByLabels) {
+        return Grouping.of(rows, levels(groupByLabels));
+    }
 
-        return rows.stream().collect(Collectors.groupingBy(r -> {
-            List<String> key = new ArrayList<>();
-            for (String label : groupByLabels) {
-                String col = GROUPBY_ALIAS_MAP.getOrDefault(label, label);
-                key.add(r.getValues().getOrDefault(col, "-"));
-            }
-            return key; // 👉 clé = vraie liste de colonnes, pas un string concaténé
-        }, LinkedHashMap::new, Collectors.toList()));
+    /**
+     * Ebenen zu den Gruppierungs-Labels; fehlende Werte werden als "-" gruppiert.
+     */
+    public static List<Grouping.Level> levels(List<String> groupByLabels) {
+        List<Grouping.Level> levels = new ArrayList<>(groupByLabels.size());
+        for (String label : groupByLabels) {
+            levels.add(Grouping.Level.column(GROUPBY_ALIAS_MAP.getOrDefault(label, label), "-"));
+        }
+        return levels;
     }
 
 }
@@ -0,0 +1,45 @@
+package model;
+
+/**
+ * Kompensierte Summe (Kahan/Neumaier) über {@code double}-Werte.
+ * <p>
+ * Hält den Rundungsfehler der laufenden Summe in einem zweiten Akkumulator fest, sodass auch
+ * über hunderttausende Beträge kein Cent "verloren" geht – anders als bei einer naiven Summe.
+ * Konstanter Speicher, ein Durchlauf; nicht thread-sicher.
+ * </p>
+ */
+public final class KahanSum {
+
+    private double sum;
+    private double compensation;
+    private long count;
+
+    public void add(double value) {
+        double t = sum + value;
+        // Neumaier: der jeweils kleinere Summand verliert die Stellen
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - t) + value;
+        } else {
+            compensation += (value - t) + sum;
+        }
+        sum = t;
+        count++;
+    }
+
+    public double sum() {
+        return sum + compensation;
+    }
+
+    /**
+     * Anzahl addierter Werte.
+     */
+    public long count() {
+        return count;
+    }
+
+    public void reset() {
+        sum = 0;
+        compensation = 0;
+        count = 0;
+    }
+}
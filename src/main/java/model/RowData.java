@@ -20,11 +20,22 @@ public class RowData {
     /**
      * Die Map, die die Spaltennamen und ihre zugehörigen Werte speichert.
      */
-    private final Map<String, String> values = new LinkedHashMap<>();
+    private final Map<String, String> values;
     // ---- champ à ajouter dans la classe
     private java.util.function.Function<model.RowData, java.util.List<String>> groupingPathProvider =
             row -> java.util.List.of("Alle"); // fallback par défaut
 
+    public RowData() {
+        this.values = new LinkedHashMap<>();
+    }
+
+    /**
+     * Zeile über vorgegebenen Werten (z. B. copy-on-write über einem {@link RowSnapshot}).
+     */
+    RowData(Map<String, String> values) {
+        this.values = values;
+    }
+
     /**
      * Fügt einen Wert für eine bestimmte Spalte hinzu.
      * Zum Beispiel: put("Name", "John Doe"); -> fügt den Wert "John Doe" für die Spalte "Name" hinzu.
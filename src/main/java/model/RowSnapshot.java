@@ -0,0 +1,74 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unveränderlicher Schnappschuss einer {@link RowData}, der von beliebig vielen Aufrufern
+ * geteilt werden kann (z. B. als Cache-Eintrag).
+ * <p>
+ * {@link #toRow()} liefert eine {@link RowData}, die auf dem Schnappschuss liest und erst beim
+ * ersten Schreibzugriff eine eigene Kopie anlegt (copy-on-write). Aufrufer, die Zeilen anreichern
+ * oder Spalten entfernen, können den Schnappschuss daher nicht verändern.
+ * </p>
+ */
+public final class RowSnapshot {
+
+    private final Map<String, String> values;
+
+    private RowSnapshot(Map<String, String> values) {
+        this.values = values;
+    }
+
+    /**
+     * Friert den aktuellen Stand einer Zeile ein (Reihenfolge der Spalten bleibt erhalten).
+     */
+    public static RowSnapshot of(RowData row) {
+        return new RowSnapshot(Collections.unmodifiableMap(new LinkedHashMap<>(row.getValues())));
+    }
+
+    /**
+     * Friert eine Ergebnisliste ein.
+     */
+    public static List<RowSnapshot> ofAll(List<RowData> rows) {
+        if (rows == null) return List.of();
+        List<RowSnapshot> out = new ArrayList<>(rows.size());
+        for (RowData r : rows) {
+            out.add(of(r));
+        }
+        return Collections.unmodifiableList(out);
+    }
+
+    /**
+     * Liefert für jeden Schnappschuss eine eigene, veränderbare Zeile (ohne die Werte zu kopieren).
+     */
+    public static List<RowData> toRows(List<RowSnapshot> snapshots) {
+        List<RowData> out = new ArrayList<>(snapshots.size());
+        for (RowSnapshot s : snapshots) {
+            out.add(s.toRow());
+        }
+        return out;
+    }
+
+    /**
+     * Unveränderliche Sicht auf die Werte.
+     */
+    public Map<String, String> values() {
+        return values;
+    }
+
+    /**
+     * Neue Zeile mit copy-on-write-Werten über diesem Schnappschuss.
+     */
+    public RowData toRow() {
+        return new RowData(new CopyOnWriteValues(values));
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
@@ -1,10 +1,18 @@
 package model.ai.nlp;
 
+import java.util.regex.Pattern;
+
 public final class FeatureSwitch {
+    private static final Pattern LIMIT_N = Pattern.compile("\\blimit\\s+\\d+");
+
     public static boolean detectAdvancedFeatures(String text) {
-        String t = text.toLowerCase();
+        return detectAdvancedFeatures(PromptText.of(text));
+    }
+
+    public static boolean detectAdvancedFeatures(PromptText text) {
+        String t = text.lower();
         return t.contains("außer") || t.contains("ohne") || t.contains("except")
                 || t.contains("zuerst") || t.contains("first")
-                || t.matches(".*\\blimit\\s+\\d+.*");
+                || LIMIT_N.matcher(t).find();
     }
-}
\ No newline at end of file
+}
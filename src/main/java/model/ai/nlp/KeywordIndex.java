@@ -0,0 +1,153 @@
+package model.ai.nlp;
+
+import model.ai.AiColumnSpec;
+import model.ai.AiReportTemplate;
+import model.ai.register.AiKnowledgeRegistry;
+
+import java.util.*;
+
+/**
+ * Token-Trie über alle Spalten-Keywords der KI-Vorlagen und die Synonyme der {@link Ontology}.
+ * <p>
+ * Jede Phrase wird wie der Prompt tokenisiert ({@link PromptText}), dadurch sind
+ * "makler-nr", "makler_nr" und "makler nr" derselbe Pfad. Ein Knoten kennt pro Vorlage
+ * die zugehörige {@link AiColumnSpec}; kanonische Spaltenschlüssel haben Vorrang vor Keywords,
+ * bei doppelten Keywords gewinnt das zuerst registrierte.
+ * </p>
+ * <p>
+ * {@link #shared()} wird einmal aus {@link AiKnowledgeRegistry#getAllTemplates()} gebaut und von
+ * allen Planern geteilt. Auflösen und Scannen kosten damit nur noch O(Anzahl Tokens),
+ * unabhängig von der Anzahl Vorlagen und Keywords.
+ * </p>
+ */
+public final class KeywordIndex {
+
+    private final Node root = new Node();
+    private final Set<AiReportTemplate> templates = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private KeywordIndex(Collection<AiReportTemplate> templates) {
+        // 1) kanonische Schlüssel aller Vorlagen, 2) Keywords, 3) Ontologie-Synonyme
+        for (AiReportTemplate template : templates) {
+            this.templates.add(template);
+            template.getAvailableColumns().forEach((key, spec) -> add(key, template, spec));
+        }
+        for (AiReportTemplate template : templates) {
+            template.getAvailableColumns().values().forEach(spec -> {
+                for (String kw : spec.getKeywords()) {
+                    add(kw, template, spec);
+                }
+            });
+        }
+        for (String synonym : Ontology.synonyms()) {
+            add(synonym, null, null);
+        }
+    }
+
+    /**
+     * Gemeinsamer Index über alle registrierten Vorlagen.
+     */
+    public static KeywordIndex shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * Index nur für die angegebenen Vorlagen (z. B. für nicht registrierte Test-Vorlagen).
+     */
+    public static KeywordIndex of(Collection<AiReportTemplate> templates) {
+        return new KeywordIndex(templates);
+    }
+
+    /**
+     * Liefert einen Index, der die Vorlage kennt: den gemeinsamen, falls sie registriert ist.
+     */
+    public static KeywordIndex forTemplate(AiReportTemplate template) {
+        KeywordIndex shared = shared();
+        return shared.templates.contains(template) ? shared : of(List.of(template));
+    }
+
+    /**
+     * Löst ein Feld (kanonischer Schlüssel oder Keyword) für eine Vorlage auf.
+     *
+     * @return die Spalte oder {@code null}, wenn die ganze Phrase kein Keyword der Vorlage ist.
+     */
+    public AiColumnSpec resolve(AiReportTemplate template, String field) {
+        if (field == null) return null;
+        Node node = root;
+        for (String token : PromptText.of(field).tokens()) {
+            node = node.children.get(token);
+            if (node == null) return null;
+        }
+        return node.specs.get(template);
+    }
+
+    /**
+     * Prüft, ob die ganze Phrase ein bekanntes Keyword oder Synonym ist.
+     */
+    public boolean isKeyword(String phrase) {
+        List<String> tokens = PromptText.of(phrase).tokens();
+        return !tokens.isEmpty() && longestMatch(tokens, 0) == tokens.size();
+    }
+
+    /**
+     * Findet in einem Durchlauf von links nach rechts alle Feld-Erwähnungen (jeweils der längste
+     * Treffer ab einer Position). Nicht erkannte Tokens werden übersprungen.
+     */
+    public List<FieldMention> scan(PromptText text) {
+        List<String> tokens = text.tokens();
+        List<FieldMention> mentions = new ArrayList<>();
+        int i = 0;
+        while (i < tokens.size()) {
+            int end = longestMatch(tokens, i);
+            if (end > i) {
+                mentions.add(new FieldMention(String.join(" ", tokens.subList(i, end)), i, end));
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        return mentions;
+    }
+
+    /**
+     * @return Ende (exklusiv) des längsten Treffers ab {@code start}, oder {@code start}, wenn keiner.
+     */
+    private int longestMatch(List<String> tokens, int start) {
+        Node node = root;
+        int best = start;
+        for (int i = start; i < tokens.size(); i++) {
+            node = node.children.get(tokens.get(i));
+            if (node == null) break;
+            if (node.terminal) best = i + 1;
+        }
+        return best;
+    }
+
+    private void add(String phrase, AiReportTemplate template, AiColumnSpec spec) {
+        List<String> tokens = PromptText.of(phrase).tokens();
+        if (tokens.isEmpty()) return;
+        Node node = root;
+        for (String token : tokens) {
+            node = node.children.computeIfAbsent(token, t -> new Node());
+        }
+        node.terminal = true;
+        if (template != null) {
+            node.specs.putIfAbsent(template, spec);
+        }
+    }
+
+    /**
+     * Eine erkannte Feld-Erwähnung: normalisierte Phrase und Token-Bereich [start, end).
+     */
+    public record FieldMention(String phrase, int start, int end) {
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final Map<AiReportTemplate, AiColumnSpec> specs = new IdentityHashMap<>(2);
+        private boolean terminal;
+    }
+
+    private static final class Holder {
+        private static final KeywordIndex SHARED = new KeywordIndex(AiKnowledgeRegistry.getAllTemplates());
+    }
+}
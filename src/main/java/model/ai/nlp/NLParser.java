@@ -2,6 +2,7 @@ package model.ai.nlp;
 
 import model.ai.ir.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
@@ -54,13 +55,26 @@ public class NLParser {
     private static final Pattern LAND = Pattern.compile("\\bland\\s+([a-zA-Zäöüß]+)\\b", Pattern.CASE_INSENSITIVE);
     private static final Pattern STATUS = Pattern.compile("\\bstatus\\s+'?([a-zA-Z]+)'?\\b", Pattern.CASE_INSENSITIVE);
     private static final Pattern VSN = Pattern.compile("\\bvsn\\s+([a-zA-Z0-9-]+)\\b", Pattern.CASE_INSENSITIVE);
+    // Lokale Projektionen (innerhalb des Feldblocks) und Hilfsmuster – einmalig kompiliert
+    private static final Pattern ZUERST_LOCAL = Pattern.compile("(?:zuerst|first)\\s+([a-zA-Zäöüß0-9 _,-]+)");
+    private static final Pattern AUSSER_LOCAL = Pattern.compile("(?:außer|ohne|except)\\s+([a-zA-Zäöüß0-9 _,-]+)");
+    private static final Pattern FIELD_LIST_SEPARATOR = Pattern.compile("[,]|\\s+und\\s+");
+    private static final Pattern SORT_DIRECTION = Pattern.compile("\\b(asc|desc|aufsteigend|absteigend)\\b");
     private final Ontology ontology = new Ontology();
+    private final KeywordIndex keywords = KeywordIndex.shared();
 
     public QueryIR parse(String prompt) {
+        return parse(PromptText.of(prompt));
+    }
+
+    /**
+     * Wie {@link #parse(String)}, aber auf dem bereits normalisierten Prompt.
+     */
+    public QueryIR parse(PromptText prompt) {
         QueryIR ir = new QueryIR();
-        if (prompt == null || prompt.isBlank()) return ir;
+        if (prompt.isBlank()) return ir;
 
-        String mutablePrompt = " " + prompt.toLowerCase() + " ";
+        String mutablePrompt = " " + prompt.lower() + " ";
 
         if (mutablePrompt.contains(" cover ") || mutablePrompt.contains(" cover,") || mutablePrompt.contains(" cover.") ||
                 mutablePrompt.contains("vertrag") || mutablePrompt.contains("verträge") || mutablePrompt.contains("vertraege")) {
@@ -87,7 +101,7 @@ public class NLParser {
             Arrays.stream(sortBlock.split(","))
                     .map(String::trim).filter(s -> !s.isEmpty())
                     .forEach(s -> {
-                        String field = s.replaceAll("\\b(asc|desc|aufsteigend|absteigend)\\b", "").trim();
+                        String field = SORT_DIRECTION.matcher(s).replaceAll("").trim();
                         Direction dir = s.contains("desc") || s.contains("absteigend") ? Direction.DESC : Direction.ASC;
                         ir.sortOrders.add(new Sort(ontology.resolveField(field), dir));
                     });
@@ -102,10 +116,9 @@ public class NLParser {
             String fieldsBlock = prompt.substring(m.end());
 
             // Zuerst die 'zuerst'-Klausel extrahieren und den String bereinigen
-            Matcher zx = Pattern.compile("(?:zuerst|first)\\s+([a-zA-Zäöüß0-9 _,-]+)").matcher(fieldsBlock);
+            Matcher zx = ZUERST_LOCAL.matcher(fieldsBlock);
             if (zx.find()) {
-                Arrays.stream(zx.group(1).split("[,]|\\s+und\\s+"))
-                        .map(String::trim).filter(s -> !s.isEmpty())
+                splitFields(zx.group(1))
                         .forEach(f -> {
                             Projection p = new Projection(ontology.resolveField(f), false);
                             p.order = 0;
@@ -114,23 +127,16 @@ public class NLParser {
                 fieldsBlock = zx.replaceAll(" "); // Ersetzt die Klausel durch Leerzeichen
             }
 
-            if (fieldsBlock.contains("makler nr")) {
-                ir.projections.add(new Projection(ontology.resolveField("makler nr"), false));
-                fieldsBlock = fieldsBlock.replace("makler nr", "");
-            }
-
             // Dann die 'außer'-Klausel extrahieren
-            Matcher ax = Pattern.compile("(?:außer|ohne|except)\\s+([a-zA-Zäöüß0-9 _,-]+)").matcher(fieldsBlock);
+            Matcher ax = AUSSER_LOCAL.matcher(fieldsBlock);
             if (ax.find()) {
-                Arrays.stream(ax.group(1).split("[,]|\\s+und\\s+"))
-                        .map(String::trim).filter(s -> !s.isEmpty())
+                splitFields(ax.group(1))
                         .forEach(f -> ir.projections.add(new Projection(ontology.resolveField(f), true)));
                 fieldsBlock = ax.replaceAll(" ");
             }
 
             // Zum Schluss die verbleibenden Felder verarbeiten
-            Arrays.stream(fieldsBlock.split("[,]|\\s+und\\s+")).map(String::trim)
-                    .filter(s -> !s.isEmpty())
+            splitFields(fieldsBlock)
                     .forEach(f -> ir.projections.add(new Projection(ontology.resolveField(f), false)));
 
             return prompt.substring(0, m.start());
@@ -144,9 +150,7 @@ public class NLParser {
         Matcher zx = ZUERST_GLOBAL.matcher(prompt);
         if (zx.find()) {
             String fieldsList = zx.group(1).trim();
-            Arrays.stream(fieldsList.split("[,]|\\s+und\\s+"))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
+            splitFields(fieldsList)
                     .forEach(f -> {
                         Projection p = new Projection(ontology.resolveField(f), false);
                         p.order = 0;
@@ -159,9 +163,7 @@ public class NLParser {
         Matcher ax = AUSSER_GLOBAL.matcher(prompt);
         if (ax.find()) {
             String fieldsList = ax.group(1).trim();
-            Arrays.stream(fieldsList.split("[,]|\\s+und\\s+"))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
+            splitFields(fieldsList)
                     .forEach(f -> ir.projections.add(new Projection(ontology.resolveField(f), true)));
             prompt = ax.replaceAll(" ");
         }
@@ -170,6 +172,32 @@ public class NLParser {
         return prompt;
     }
 
+    /**
+     * Zerlegt eine Feldliste an Kommas/"und". Einträge ohne Trenner, die vollständig aus mehreren
+     * bekannten Keywords bestehen (z. B. "vsn makler nr"), werden über den {@link KeywordIndex}
+     * in einem Durchlauf in die einzelnen Felder aufgeteilt; alles andere bleibt unverändert.
+     */
+    private List<String> splitFields(String list) {
+        List<String> out = new ArrayList<>();
+        for (String part : FIELD_LIST_SEPARATOR.split(list)) {
+            String item = part.trim();
+            if (item.isEmpty()) continue;
+            if (ontology.isSynonym(item) || keywords.isKeyword(item)) {
+                out.add(item);
+                continue;
+            }
+            PromptText text = PromptText.of(item);
+            List<KeywordIndex.FieldMention> mentions = keywords.scan(text);
+            int covered = mentions.stream().mapToInt(m -> m.end() - m.start()).sum();
+            if (mentions.size() > 1 && covered == text.tokens().size()) {
+                mentions.forEach(m -> out.add(m.phrase()));
+            } else {
+                out.add(item);
+            }
+        }
+        return out;
+    }
+
     private String extractLimit(String prompt, QueryIR ir) {
         Matcher l = LIMIT.matcher(prompt);
         if (l.find()) {
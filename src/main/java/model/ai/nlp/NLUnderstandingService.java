@@ -1,13 +1,25 @@
 package model.ai.nlp;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import model.ai.ir.ContextType;
 import model.ai.ir.QueryIR;
+import service.cache.CacheRegistry;
 
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Pattern;
 
+/**
+ * Versteht einen Prompt (IR, Status, unbekannte Tokens, Vorschläge).
+ * <p>
+ * Der Prompt wird einmal als {@link PromptText} normalisiert und tokenisiert; Parser und
+ * Detektoren arbeiten auf derselben Instanz. Da das Ergebnis nur vom kleingeschriebenen Text
+ * abhängt, werden die letzten Ergebnisse gecacht (Hilfe-Chips schicken oft denselben Prompt).
+ * Die gecachten Ergebnisse werden von den Aufrufern nur gelesen.
+ * </p>
+ */
 public class NLUnderstandingService implements PromptUnderstandingService {
 
     private static final Set<String> STOPWORDS = new HashSet<>(Arrays.asList(
@@ -15,14 +27,31 @@ public class NLUnderstandingService implements PromptUnderstandingService {
             "und", "oder", "aber", "auch", "schnell", "mal", "dann", "zuerst", "first", "außer", "ohne",
             "limit", "order", "by", "sortiere", "ordne", "nach", "cover", "vertrag", "verträge"
     ));
-    private static final Pattern TOKENIZER = Pattern.compile("[^a-zA-Z0-9äöüßÄÖÜ]+");
+    private static final Pattern BEGINN_ZWISCHEN = Pattern.compile("\\bbeginn\\b.*\\bzwischen\\b.*\\bund\\b");
+    private static final Pattern ABLAUF_ZWISCHEN = Pattern.compile("\\bablauf\\b.*\\bzwischen\\b.*\\bund\\b");
+    private static final int RESULT_CACHE_SIZE = 128;
+
     private final NLParser parser = new NLParser();
+    private final Cache<String, UnderstandingResult> results = CacheRegistry.register("KI-Prompt-Analyse",
+            Caffeine.newBuilder()
+                    .maximumSize(RESULT_CACHE_SIZE)
+                    .recordStats()
+                    .build());
 
     @Override
     public UnderstandingResult understand(String prompt) {
+        return understand(PromptText.of(prompt));
+    }
+
+    @Override
+    public UnderstandingResult understand(PromptText prompt) {
+        return results.get(prompt.lower(), k -> analyze(prompt));
+    }
+
+    private UnderstandingResult analyze(PromptText prompt) {
         UnderstandingResult r = new UnderstandingResult();
-        String s = prompt == null ? "" : prompt.trim();
-        r.isCapabilitiesIntent = CapabilityDetector.isCapabilitiesQuery(s);
+        String lower = prompt.lower();
+        r.isCapabilitiesIntent = CapabilityDetector.isCapabilitiesQuery(prompt);
 
         if (r.isCapabilitiesIntent) {
             r.status = UnderstandingResult.Status.OK;
@@ -32,25 +61,24 @@ public class NLUnderstandingService implements PromptUnderstandingService {
         }
 
         // parse en IR (peut être partiel)
-        r.ir = parser.parse(s);
+        r.ir = parser.parse(prompt);
 
         // heuristique de "filtres forts" (à enrichir au besoin)
         boolean hasStrong =
                 (r.ir != null && r.ir.filters != null && !r.ir.filters.isEmpty())  // ex. makler id
-                        || (s.toLowerCase().contains("vsn "))                              // VSN 4711
-                        || s.toLowerCase().matches(".*\\bbeginn\\b.*\\bzwischen\\b.*\\bund\\b.*") // période
-                        || s.toLowerCase().matches(".*\\bablauf\\b.*\\bzwischen\\b.*\\bund\\b.*");
+                        || lower.contains("vsn ")                                          // VSN 4711
+                        || BEGINN_ZWISCHEN.matcher(lower).find()                           // période
+                        || ABLAUF_ZWISCHEN.matcher(lower).find();
 
         // détection de contexte ambigu/inconnu
         ContextType ctx = (r.ir != null ? r.ir.context : ContextType.UNKNOWN);
         boolean contextKnown = (ctx == ContextType.COVER || ctx == ContextType.SCHADEN);
 
         // tokens inconnus (pour suggestions UI)
-        for (String t : TOKENIZER.split(s.toLowerCase())) {
-            if (t.isBlank()) continue;
+        for (String t : prompt.tokens()) {
             if (!STOPWORDS.contains(t)) {
                 // heuristique: on laisse passer nombres et ids courtes
-                if (t.matches("\\d{1,}")) continue;
+                if (isDigits(t)) continue;
                 if (t.length() <= 2) continue;
                 r.unknownTokens.add(t);
             }
@@ -81,4 +109,11 @@ public class NLUnderstandingService implements PromptUnderstandingService {
         }
         return r;
     }
-}
\ No newline at end of file
+
+    private static boolean isDigits(String t) {
+        for (int i = 0; i < t.length(); i++) {
+            if (!Character.isDigit(t.charAt(i))) return false;
+        }
+        return true;
+    }
+}
@@ -1,7 +1,7 @@
 package model.ai.nlp;
 
-
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Definiert die Ontologie: das Wissen über Synonyme und deren Abbildung auf semantische Felder.
@@ -43,4 +43,18 @@ public class Ontology {
     public String resolveField(String token) {
         return synonymMap.getOrDefault(token.toLowerCase(), token.toLowerCase());
     }
+
+    /**
+     * Prüft, ob das Token ein bekanntes Synonym ist.
+     */
+    public boolean isSynonym(String token) {
+        return synonymMap.containsKey(token.toLowerCase());
+    }
+
+    /**
+     * Alle bekannten Synonyme (für den {@link KeywordIndex}).
+     */
+    static Set<String> synonyms() {
+        return synonymMap.keySet();
+    }
 }
\ No newline at end of file
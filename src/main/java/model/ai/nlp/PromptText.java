@@ -0,0 +1,65 @@
+package model.ai.nlp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Einmal vorverarbeiteter Prompt: getrimmter Text, Kleinschreibung und Tokens.
+ * <p>
+ * Wird von {@link NLParser}, {@link NLUnderstandingService}, {@link CapabilityDetector}
+ * und {@link FeatureSwitch} gemeinsam genutzt, damit ein Prompt nur einmal
+ * normalisiert und tokenisiert wird.
+ * </p>
+ */
+public final class PromptText {
+
+    private static final Pattern TOKENIZER = Pattern.compile("[^a-zA-Z0-9äöüßÄÖÜ]+");
+
+    private final String raw;
+    private final String lower;
+    private List<String> tokens;
+
+    private PromptText(String raw) {
+        this.raw = raw;
+        this.lower = raw.toLowerCase(Locale.ROOT);
+    }
+
+    public static PromptText of(String prompt) {
+        return new PromptText(prompt == null ? "" : prompt.trim());
+    }
+
+    /**
+     * Getrimmter Originaltext.
+     */
+    public String raw() {
+        return raw;
+    }
+
+    /**
+     * Getrimmter Text in Kleinschreibung.
+     */
+    public String lower() {
+        return lower;
+    }
+
+    public boolean isBlank() {
+        return raw.isEmpty();
+    }
+
+    /**
+     * Nicht-leere Tokens (Kleinschreibung), getrennt an allen Nicht-Wort-Zeichen.
+     */
+    public List<String> tokens() {
+        if (tokens == null) {
+            List<String> out = new ArrayList<>();
+            for (String t : TOKENIZER.split(lower)) {
+                if (!t.isEmpty()) out.add(t);
+            }
+            tokens = Collections.unmodifiableList(out);
+        }
+        return tokens;
+    }
+}
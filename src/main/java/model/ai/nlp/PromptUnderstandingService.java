@@ -8,6 +8,13 @@ import java.util.List;
 public interface PromptUnderstandingService {
     UnderstandingResult understand(String prompt);
 
+    /**
+     * Wie {@link #understand(String)} auf einem bereits vorverarbeiteten Prompt.
+     */
+    default UnderstandingResult understand(PromptText prompt) {
+        return understand(prompt.raw());
+    }
+
     class UnderstandingResult {
         public final List<String> unknownTokens = new ArrayList<>();
         public final List<String> suggestions = new ArrayList<>();
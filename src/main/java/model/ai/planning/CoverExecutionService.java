@@ -1,16 +1,53 @@
 package model.ai.planning;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import model.ai.AiReportTemplate;
+import model.ai.ir.QueryIR;
+import service.cache.CacheRegistry;
 
+import java.util.List;
+
+/**
+ * Plant Cover-Abfragen aus dem IR.
+ * <p>
+ * Der SQL-Text hängt nur von der Form des IR ab (siehe {@link CoverPlanner#shapeKey(QueryIR)}),
+ * die Werte werden als Parameter gebunden. Fertige SQL-Formen werden daher gecacht; bei einem
+ * Treffer werden nur noch die Parameter des aktuellen Prompts gesammelt.
+ * </p>
+ */
 public class CoverExecutionService implements PromptExecutionService {
     private final CoverPlanner planner;
+    private final Cache<String, PlanShape> planCache = CacheRegistry.register("KI-SQL-Pläne",
+            Caffeine.newBuilder()
+                    .maximumSize(256)
+                    .recordStats()
+                    .build());
 
     public CoverExecutionService(AiReportTemplate template) {
         this.planner = new CoverPlanner(template);
     }
 
     @Override
-    public SqlPlan plan(model.ai.ir.QueryIR ir) {
-        return planner.fromIR(ir);
+    public SqlPlan plan(QueryIR ir) {
+        String key = CoverPlanner.shapeKey(ir);
+        PlanShape shape = planCache.getIfPresent(key);
+        if (shape == null) {
+            SqlPlan plan = planner.fromIR(ir);
+            planCache.put(key, new PlanShape(plan.sql, List.copyOf(plan.headers)));
+            return plan;
+        }
+
+        SqlPlan plan = new SqlPlan();
+        plan.sql = shape.sql();
+        plan.headers.addAll(shape.headers());
+        plan.params.addAll(planner.bindParams(ir));
+        return plan;
+    }
+
+    /**
+     * Gecachter Teil eines Plans (ohne Parameter).
+     */
+    private record PlanShape(String sql, List<String> headers) {
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package model.ai.planning;
 import model.ai.AiColumnSpec;
 import model.ai.AiReportTemplate;
 import model.ai.ir.*;
+import model.ai.nlp.KeywordIndex;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -25,30 +26,27 @@ import java.util.stream.Collectors;
  */
 public class CoverPlanner {
 
+    // Eingabeformate für Datumsangaben im Prompt und das DB-Format (einmalig erzeugt, thread-sicher)
+    private static final DateTimeFormatter[] DATE_INPUT_FORMATS = {
+            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
+            DateTimeFormatter.ofPattern("d.M.yyyy"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("d/M/yyyy")
+    };
+    private static final DateTimeFormatter DB_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
     private final AiReportTemplate template;
-    private final Map<String, AiColumnSpec> columnLibrary;
+    private final KeywordIndex keywords;
 
     /**
-     * Erstellt einen Planner mit der angegebenen Report-Vorlage und baut eine
-     * durchsuchbare Spaltenbibliothek aus deren Definitionen auf.
+     * Erstellt einen Planner mit der angegebenen Report-Vorlage. Spalten werden über den
+     * gemeinsamen {@link KeywordIndex} (kanonische Schlüssel und Keywords) aufgelöst.
      *
      * @param template Reportvorlage mit SQL-Template und verfügbaren Spalten
      */
     public CoverPlanner(AiReportTemplate template) {
         this.template = template;
-        this.columnLibrary = new HashMap<>();
-        // Erstelle eine durchsuchbare Bibliothek, die Keywords auf Specs abbildet
-        template.getAvailableColumns().forEach((key, spec) -> {
-            String canonical = key.toLowerCase(); // z.B. "vsn", "makler_nr", "land"
-
-            // 1) kanonischer Key
-            this.columnLibrary.put(canonical, spec);
-
-            // 2) alle Keywords
-            for (String kw : spec.getKeywords()) {
-                this.columnLibrary.put(kw.toLowerCase(), spec);
-            }
-        });
+        this.keywords = KeywordIndex.forTemplate(template);
     }
 
     /**
@@ -59,19 +57,11 @@ public class CoverPlanner {
      * @return formatierte Zeichenkette oder null bei Fehlschlag
      */
     private String parseAndFormatDate(String dateStr) {
-        DateTimeFormatter[] inputFormatters = {
-                DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-                DateTimeFormatter.ofPattern("d.M.yyyy"),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                DateTimeFormatter.ofPattern("d/M/yyyy")
-        };
-        // Das DB-Format
-        DateTimeFormatter dbFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
-        for (DateTimeFormatter formatter : inputFormatters) {
+        for (DateTimeFormatter formatter : DATE_INPUT_FORMATS) {
             try {
                 // Versuche, das Datum zu parsen
                 LocalDate date = LocalDate.parse(dateStr, formatter);
-                return date.format(dbFormatter);
+                return date.format(DB_DATE_FORMAT);
             } catch (DateTimeParseException e) {
                 // Ignoriere Fehler
             }
@@ -99,44 +89,8 @@ public class CoverPlanner {
         List<String> conditions = new ArrayList<>();
         for (FilterGroup group : ir.filters) {
             for (Predicate p : group.predicates) {
-                if ("makler_nr".equalsIgnoreCase(p.field) && p.op == Op.EQUALS) {
-                    conditions.add("RTRIM(LTRIM(LAL.LU_VMT)) = ?");
-                    plan.params.add(p.value.toString().trim().toUpperCase());
-                } else if ("makler name".equalsIgnoreCase(p.field) && p.op == Op.LIKE) {
-                    conditions.add("UPPER(RTRIM(LTRIM(MAK.LU_NAM))) LIKE UPPER(?)");
-                    plan.params.add(p.value.toString());
-                } else if ("vertragsstatus".equalsIgnoreCase(p.field) && p.op == Op.EQUALS) {
-                    conditions.add("RTRIM(LTRIM(LAL.LU_STA)) = ?");
-                    plan.params.add(p.value.toString().trim().toUpperCase());
-                } else if ("land".equalsIgnoreCase(p.field) && p.op == Op.EQUALS) {
-                    conditions.add("(RTRIM(LTRIM(V05.LU_LANDNAME)) = ? OR RTRIM(LTRIM(LUM.LU_NAT)) = ?)");
-                    plan.params.add(p.value.toString().trim().toUpperCase());
-                    plan.params.add(p.value.toString().trim().toUpperCase());
-                } else if ("beginn".equalsIgnoreCase(p.field) && p.op == Op.BETWEEN) {
-                    if (p.value instanceof List<?> dates && dates.size() == 2) {
-                        conditions.add("LAL.LU_BEG BETWEEN ? AND ?");
-                        plan.params.add(parseAndFormatDate(dates.get(0).toString()));
-                        plan.params.add(parseAndFormatDate(dates.get(1).toString()));
-                    }
-                } else if ("beginn".equalsIgnoreCase(p.field) && p.op == Op.GREATER_THAN_OR_EQUAL) {
-                    conditions.add("LAL.LU_BEG >= ?");
-                    plan.params.add(parseAndFormatDate(p.value.toString()));
-                } else if ("beginn".equalsIgnoreCase(p.field) && p.op == Op.LESS_THAN_OR_EQUAL) {
-                    conditions.add("LAL.LU_BEG <= ?");
-                    plan.params.add(parseAndFormatDate(p.value.toString()));
-                } else if ("ablauf".equalsIgnoreCase(p.field) && p.op == Op.BETWEEN) {
-                    if (p.value instanceof List<?> dates && dates.size() == 2) {
-                        conditions.add("LAL.LU_ABL BETWEEN ? AND ?");
-                        plan.params.add(parseAndFormatDate(dates.get(0).toString()));
-                        plan.params.add(parseAndFormatDate(dates.get(1).toString()));
-                    }
-                } else if ("ablauf".equalsIgnoreCase(p.field) && p.op == Op.GREATER_THAN_OR_EQUAL) {
-                    conditions.add("LAL.LU_ABL >= ?");
-                    plan.params.add(parseAndFormatDate(p.value.toString()));
-                } else if ("ablauf".equalsIgnoreCase(p.field) && p.op == Op.LESS_THAN_OR_EQUAL) {
-                    conditions.add("LAL.LU_ABL <= ?");
-                    plan.params.add(parseAndFormatDate(p.value.toString()));
-                }
+                String condition = condition(p, plan.params);
+                if (condition != null) conditions.add(condition);
             }
         }
         if (conditions.isEmpty()) {
@@ -179,6 +133,105 @@ public class CoverPlanner {
     }
 
 
+    /**
+     * Übersetzt ein Predicate in eine WHERE-Bedingung mit Platzhaltern und hängt die
+     * zugehörigen Werte an {@code params} an.
+     *
+     * @return Bedingung oder {@code null}, wenn das Predicate nicht unterstützt wird
+     */
+    private String condition(Predicate p, List<Object> params) {
+        if ("makler_nr".equalsIgnoreCase(p.field) && p.op == Op.EQUALS) {
+            params.add(p.value.toString().trim().toUpperCase());
+            return "RTRIM(LTRIM(LAL.LU_VMT)) = ?";
+        } else if ("makler name".equalsIgnoreCase(p.field) && p.op == Op.LIKE) {
+            params.add(p.value.toString());
+            return "UPPER(RTRIM(LTRIM(MAK.LU_NAM))) LIKE UPPER(?)";
+        } else if ("vertragsstatus".equalsIgnoreCase(p.field) && p.op == Op.EQUALS) {
+            params.add(p.value.toString().trim().toUpperCase());
+            return "RTRIM(LTRIM(LAL.LU_STA)) = ?";
+        } else if ("land".equalsIgnoreCase(p.field) && p.op == Op.EQUALS) {
+            params.add(p.value.toString().trim().toUpperCase());
+            params.add(p.value.toString().trim().toUpperCase());
+            return "(RTRIM(LTRIM(V05.LU_LANDNAME)) = ? OR RTRIM(LTRIM(LUM.LU_NAT)) = ?)";
+        } else if ("beginn".equalsIgnoreCase(p.field) && p.op == Op.BETWEEN) {
+            if (p.value instanceof List<?> dates && dates.size() == 2) {
+                params.add(parseAndFormatDate(dates.get(0).toString()));
+                params.add(parseAndFormatDate(dates.get(1).toString()));
+                return "LAL.LU_BEG BETWEEN ? AND ?";
+            }
+        } else if ("beginn".equalsIgnoreCase(p.field) && p.op == Op.GREATER_THAN_OR_EQUAL) {
+            params.add(parseAndFormatDate(p.value.toString()));
+            return "LAL.LU_BEG >= ?";
+        } else if ("beginn".equalsIgnoreCase(p.field) && p.op == Op.LESS_THAN_OR_EQUAL) {
+            params.add(parseAndFormatDate(p.value.toString()));
+            return "LAL.LU_BEG <= ?";
+        } else if ("ablauf".equalsIgnoreCase(p.field) && p.op == Op.BETWEEN) {
+            if (p.value instanceof List<?> dates && dates.size() == 2) {
+                params.add(parseAndFormatDate(dates.get(0).toString()));
+                params.add(parseAndFormatDate(dates.get(1).toString()));
+                return "LAL.LU_ABL BETWEEN ? AND ?";
+            }
+        } else if ("ablauf".equalsIgnoreCase(p.field) && p.op == Op.GREATER_THAN_OR_EQUAL) {
+            params.add(parseAndFormatDate(p.value.toString()));
+            return "LAL.LU_ABL >= ?";
+        } else if ("ablauf".equalsIgnoreCase(p.field) && p.op == Op.LESS_THAN_OR_EQUAL) {
+            params.add(parseAndFormatDate(p.value.toString()));
+            return "LAL.LU_ABL <= ?";
+        }
+        return null;
+    }
+
+    /**
+     * Sammelt nur die Parameter eines IR (gleiche Reihenfolge wie {@link #fromIR(QueryIR)}).
+     * Wird verwendet, wenn das SQL zur IR-Form bereits im Plan-Cache liegt.
+     *
+     * @param ir Zwischenrepräsentation der Anfrage
+     * @return Parameter für das PreparedStatement
+     */
+    public List<Object> bindParams(QueryIR ir) {
+        List<Object> params = new ArrayList<>();
+        for (FilterGroup group : ir.filters) {
+            for (Predicate p : group.predicates) {
+                condition(p, params);
+            }
+        }
+        if (ir.limit != null && ir.limit > 0) {
+            params.add(ir.limit);
+        }
+        return params;
+    }
+
+    /**
+     * Normalisierte Form eines IR: alles, was den SQL-Text bestimmt (Felder, Operatoren,
+     * Wertestruktur, Projektionen, Sortierung, Limit vorhanden), aber keine Literalwerte.
+     * Zwei Prompts, die sich nur in Werten unterscheiden, liefern denselben Schlüssel.
+     *
+     * @param ir Zwischenrepräsentation der Anfrage
+     * @return Schlüssel für den Plan-Cache
+     */
+    public static String shapeKey(QueryIR ir) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ctx=").append(ir.context).append("|f=");
+        for (FilterGroup group : ir.filters) {
+            sb.append('[');
+            for (Predicate p : group.predicates) {
+                sb.append(p.field == null ? "" : p.field.toLowerCase()).append(':').append(p.op).append(':');
+                sb.append(p.value instanceof List<?> l ? "L" + l.size() : "S").append(';');
+            }
+            sb.append(']');
+        }
+        sb.append("|p=");
+        for (Projection pr : ir.projections) {
+            sb.append(pr.field).append(pr.exclude ? "-" : "+").append(pr.order).append(';');
+        }
+        sb.append("|s=");
+        for (Sort so : ir.sortOrders) {
+            sb.append(so.field).append(' ').append(so.direction).append(';');
+        }
+        sb.append("|l=").append(ir.limit != null && ir.limit > 0);
+        return sb.toString();
+    }
+
     // Korrektur: Logik für Whitelist- und Blacklist-Projektionen
 
     /**
@@ -204,7 +257,7 @@ public class CoverPlanner {
             // Logik für Blacklist (bestehender Code)
             Set<AiColumnSpec> excludedSpecs = projections.stream()
                     .filter(p -> p.exclude)
-                    .map(p -> columnLibrary.get(p.field))
+                    .map(p -> keywords.resolve(template, p.field))
                     .filter(Objects::nonNull)
                     .collect(Collectors.toSet());
             List<AiColumnSpec> result = new ArrayList<>();
@@ -218,7 +271,7 @@ public class CoverPlanner {
             // NEU: Logik für Whitelist (nur explizit angeforderte Spalten)
             Map<String, AiColumnSpec> requestedSpecs = projections.stream()
                     .filter(p -> !p.exclude)
-                    .map(p -> columnLibrary.get(p.field))
+                    .map(p -> keywords.resolve(template, p.field))
                     .filter(Objects::nonNull)
                     .collect(Collectors.toMap(
                             AiColumnSpec::getSqlDefinition,
@@ -230,7 +283,7 @@ public class CoverPlanner {
             // 'zuerst'-Spalten an den Anfang stellen
             List<AiColumnSpec> orderedSpecs = projections.stream()
                     .filter(p -> p.order == 0)
-                    .map(p -> columnLibrary.get(p.field))
+                    .map(p -> keywords.resolve(template, p.field))
                     .filter(Objects::nonNull)
                     .toList();
 
@@ -1,6 +1,7 @@
 package model.contract.filters;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -67,6 +68,35 @@ public class CoverFilter {
         setIsWithVersion(isWithVersion);
     }
 
+    /**
+     * Kopie eines Filters (Listen werden mitkopiert), z. B. als unveränderlicher Stand für
+     * Hintergrund-Ladevorgänge, während die UI den Originalfilter weiter verändert.
+     */
+    public CoverFilter(CoverFilter other) {
+        this.fromDate = other.fromDate;
+        this.toDate = other.toDate;
+        this.abDate = other.abDate;
+        this.bisDate = other.bisDate;
+        this.status = other.status;
+        this.broker = other.broker;
+        this.textSearch = other.textSearch;
+        this.contractStatus = other.contractStatus;
+        this.contractStatusList = copy(other.contractStatusList);
+        this.bearbeitungsstandIds = copy(other.bearbeitungsstandIds);
+        this.mode = other.mode;
+        this.kuendigVerkDatum = other.kuendigVerkDatum;
+        this.kuendigVerkInitiator = other.kuendigVerkInitiator;
+        this.stornoGrundIds = copy(other.stornoGrundIds);
+        this.groupBy = copy(other.groupBy);
+        this.withVersion = other.withVersion;
+        this.isWithVersion = other.isWithVersion;
+        this.searchTerm = other.searchTerm;
+    }
+
+    private static List<String> copy(List<String> list) {
+        return list == null ? null : new ArrayList<>(list);
+    }
+
     // -------------------- Getter/Setter --------------------
 
     public String getFromDate() {
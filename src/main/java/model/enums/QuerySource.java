@@ -0,0 +1,48 @@
+package model.enums;
+
+/**
+ * Herkunft einer Abfrage mit ihren Grenzen für Zeilenanzahl und Laufzeit.
+ * <p>
+ * {@code previewRows} ist die Anzahl Zeilen, die ohne Rückfrage geladen werden (Vorschau);
+ * {@code maxRows} die harte Obergrenze auch beim vollständigen Laden. Der Timeout gilt
+ * pro Statement in Sekunden.
+ * </p>
+ * <p>
+ * Die Grenzen sind überschreibbar per {@code -Dvias.query.<key>.previewRows=...},
+ * {@code .maxRows} bzw. {@code .timeoutSeconds} (z. B. {@code -Dvias.query.cover.maxRows=250000}).
+ * </p>
+ */
+public enum QuerySource {
+    AI("KI-Assistent", "ai", 2_000, 50_000, 120),
+    DB_EXPORT("DB-Export", "dbExport", 10_000, 500_000, 600),
+    COVER("Cover", "cover", 1_000, 100_000, 300);
+
+    private final String displayName;
+    private final int previewRows;
+    private final int maxRows;
+    private final int timeoutSeconds;
+
+    QuerySource(String displayName, String key, int previewRows, int maxRows, int timeoutSeconds) {
+        String prefix = "vias.query." + key + ".";
+        this.displayName = displayName;
+        this.maxRows = Math.max(1, Integer.getInteger(prefix + "maxRows", maxRows));
+        this.previewRows = Math.max(1, Math.min(this.maxRows, Integer.getInteger(prefix + "previewRows", previewRows)));
+        this.timeoutSeconds = Math.max(1, Integer.getInteger(prefix + "timeoutSeconds", timeoutSeconds));
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public int getPreviewRows() {
+        return previewRows;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+}
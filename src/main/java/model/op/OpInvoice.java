@@ -0,0 +1,33 @@
+package model.op;
+
+import java.time.LocalDate;
+
+/**
+ * Auf Rechnung (Rg-NR + Policen-Nr) verdichtete OP-Position für den Kundenexport.
+ * <p>
+ * Die Summen werden direkt aus den {@link OpLine}-Werten gebildet; Schreiber formatieren sie
+ * erst beim Export (XLSX als numerische Zellen, PDF als Text).
+ * </p>
+ *
+ * @param rgDatumRaw     Rechnungsdatum roh, falls {@link #rgDatum()} nicht lesbar war
+ * @param faelligkeitRaw Fälligkeit roh, falls {@link #faelligkeit()} nicht lesbar war
+ */
+public record OpInvoice(String rgNr, String policenNr, String zeichnungsjahr, String versicherungsnehmer,
+                        LocalDate rgDatum, String rgDatumRaw, LocalDate faelligkeit, String faelligkeitRaw,
+                        String waehrung, double abrechnungsbetrag, double zahlbetrag, double saldo) {
+
+    // Posten bis einschließlich dieses Jahres gelten als alt und werden rot markiert
+    private static final int LETZTES_ALTES_JAHR = 2024;
+
+    /**
+     * Alte Rechnung (Rechnungs- oder Fälligkeitsdatum bis {@value #LETZTES_ALTES_JAHR}, ohne Datum
+     * das Zeichnungsjahr) mit positivem Saldo.
+     */
+    public boolean isHighlighted() {
+        boolean old = (rgDatum != null && rgDatum.getYear() <= LETZTES_ALTES_JAHR)
+                || (faelligkeit != null && faelligkeit.getYear() <= LETZTES_ALTES_JAHR)
+                || (rgDatum == null && faelligkeit == null && zeichnungsjahr != null
+                && zeichnungsjahr.matches("\\d{4}") && Integer.parseInt(zeichnungsjahr) <= LETZTES_ALTES_JAHR);
+        return old && saldo > 0.0;
+    }
+}
@@ -0,0 +1,80 @@
+package model.op;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Eine Zeile der OP-Hauptliste (offene Posten) mit typisierten Werten.
+ * <p>
+ * Beträge und Prozentsätze liegen als {@code double}, Rechnungs- und Fälligkeitsdatum als
+ * {@link LocalDate} vor; sie werden genau einmal beim Laden aus der Datenbank gelesen
+ * (siehe {@code OpListeFormatter#parse}). Formatiert wird erst an der Ausgabegrenze
+ * (Tabellenansicht, XLSX/PDF-Export). Die Textfelder sind bereits getrimmt.
+ * </p>
+ *
+ * @param rnr          Rechnungsnummer wie in der DB ({@code LU_RNR})
+ * @param rgNr         aufgelöste Rechnungsnummer (RNR, sonst RNR_Makler, sonst RNR_R)
+ * @param name         Versicherungsnehmer wie in der DB ({@code LU_NAM})
+ * @param rdt          Rechnungsdatum roh (yyyyMMdd)
+ * @param bdt          Buchungsdatum roh (yyyyMMdd)
+ * @param flg          Fälligkeit roh (yyyyMMdd)
+ * @param rgDatum      Rechnungsdatum (sonst Buchungsdatum), {@code null} wenn nicht lesbar
+ * @param faelligkeit  Fälligkeit, {@code null} wenn nicht lesbar
+ * @param mahnstufe    "QM", "ZE" oder leer
+ * @param statCodes    Statistik-Codes 1-6 (leere Einträge bleiben erhalten)
+ */
+public record OpLine(String makler, String rnr, String rgNr, String policenNr, String vsnMakler,
+                     String zeichnungsjahr, String name, String rdt, String bdt, String flg,
+                     String laenderKz, String va, String waehrung,
+                     double net100, double vst, double vstBetrag, double praemie, double obt,
+                     double spakz, double net, double wProvision, double restbetrag,
+                     LocalDate rgDatum, LocalDate faelligkeit,
+                     String ink, String mahnstufe, String bemerkung, List<String> statCodes, String abw) {
+
+    // LU_SPAKZ = 999 bedeutet "keine Courtage"
+    private static final double SPAKZ_OHNE_COURTAGE = 999.00;
+
+    public OpLine {
+        statCodes = List.copyOf(statCodes);
+    }
+
+    /**
+     * Rechnungsdatum roh: RDT, sonst BDT.
+     */
+    public String rgDatumRaw() {
+        return !rdt.isEmpty() ? rdt : bdt;
+    }
+
+    /**
+     * Steuerbetrag hochgerechnet auf 100 % (bei Anteil zwischen 0 und 100 %).
+     */
+    public double steuerbetrag100() {
+        return isTeilanteil() && vstBetrag != 0 ? vstBetrag / (obt / 100.0) : vstBetrag;
+    }
+
+    /**
+     * Bruttoprämie hochgerechnet auf 100 % (bei Anteil zwischen 0 und 100 %).
+     */
+    public double bruttoPraemie100() {
+        return isTeilanteil() && praemie != 0 ? praemie / (obt / 100.0) : praemie;
+    }
+
+    public double courtageProzent() {
+        return spakz == SPAKZ_OHNE_COURTAGE ? 0.0 : spakz * 0.1;
+    }
+
+    /**
+     * Bereits gezahlt: Prämie abzüglich Restbetrag.
+     */
+    public double zahlbetrag() {
+        return praemie - restbetrag;
+    }
+
+    public double zahlerwartung() {
+        return restbetrag - wProvision;
+    }
+
+    private boolean isTeilanteil() {
+        return obt > 0 && obt < 100;
+    }
+}
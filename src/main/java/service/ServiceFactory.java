@@ -9,6 +9,8 @@ import service.audit.repository.AuditRepository;
 import service.audit.repository.AuditRepositoryImpl;
 import service.cache.CachedDatabaseService;
 import service.cache.CoverCacheService;
+import service.cache.DashboardStatsService;
+import service.cache.SingleFlightDatabaseService;
 import service.contract.CoverService;
 import service.contract.rbac.CoverAccessGuard;
 import service.contract.repository.CoverDetailsRepository;
@@ -85,10 +87,12 @@ public final class ServiceFactory {
     private static volatile AuditService AUDIT_SERVICE;
 
     private static volatile OpRepository OP_REPOSITORY;
+    private static volatile DashboardStatsService DASHBOARD_STATS;
 
     static {
         DatabaseService impl = new DatabaseServiceImpl(getFileService());
-        databaseService = new CachedDatabaseService(impl);
+        // Kette: Cache -> Single-Flight (gleichzeitige identische Abfragen) -> JDBC
+        databaseService = new CachedDatabaseService(new SingleFlightDatabaseService(impl));
     }
 
     /**
@@ -324,6 +328,27 @@ public final class ServiceFactory {
         return COVER_SERVICE;
     }
 
+    /**
+     * Liefert den {@link DashboardStatsService} für die Dashboard-Kennzahlen.
+     *
+     * <p>Hält den letzten Stand im Speicher und auf der Platte, damit das Dashboard
+     * sofort Werte anzeigen kann.</p>
+     *
+     * <p><b>Thread-Safe:</b> Singleton mit Double-Check Locking.</p>
+     *
+     * @return die Singleton-Instanz des DashboardStatsService
+     */
+    public static DashboardStatsService getDashboardStatsService() {
+        if (DASHBOARD_STATS == null) {
+            synchronized (ServiceFactory.class) {
+                if (DASHBOARD_STATS == null) {
+                    DASHBOARD_STATS = new DashboardStatsService(getDatabaseService());
+                }
+            }
+        }
+        return DASHBOARD_STATS;
+    }
+
     /**
      * Alias für {@link #getContractService()}.
      *
@@ -487,6 +512,11 @@ class HybridAiService implements AiService {
         return localService.generateQuery(description);
     }
 
+    @Override
+    public model.ai.planning.SqlPlan generatePlan(String description) {
+        return localService.generatePlan(description);
+    }
+
     @Override
     public String optimizeQuery(String originalQuery) {
         return localService.optimizeQuery(originalQuery);
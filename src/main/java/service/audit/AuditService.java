@@ -1,5 +1,6 @@
 package service.audit;
 
+import config.ApplicationConfig;
 import model.RowData;
 import model.audit.AuditDocumentRecord;
 import model.audit.CoverAuditRecord;
@@ -8,15 +9,23 @@ import model.enums.ExportFormat;
 import model.op.kunde.ExecutionResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import service.audit.checkpoint.AuditCheckpoint;
+import service.audit.copy.DocumentCopyEngine;
+import service.audit.copy.DocumentCopyEngine.CopyJob;
+import service.audit.copy.DocumentCopyEngine.CopyStats;
+import service.audit.match.NameMatchIndex;
 import service.audit.repository.AuditRepository;
 import service.interfaces.FileService;
 import service.interfaces.ProgressReporter;
 import util.FileUtil;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.text.Normalizer;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -39,10 +48,16 @@ public class AuditService {
 
     private final FileService fileService;
     private final AuditRepository auditRepository;
+    private final DocumentCopyEngine copyEngine;
 
     public AuditService(FileService fileService, AuditRepository auditRepository) {
+        this(fileService, auditRepository, new DocumentCopyEngine(ApplicationConfig.AUDIT_COPY_THREADS));
+    }
+
+    public AuditService(FileService fileService, AuditRepository auditRepository, DocumentCopyEngine copyEngine) {
         this.fileService = fileService;
         this.auditRepository = auditRepository;
+        this.copyEngine = copyEngine;
     }
 
     /**
@@ -78,17 +93,6 @@ public class AuditService {
         return s;
     }
 
-    /**
-     * Normalise un nom pour comparaison robuste (minuscules, espaces, accents).
-     */
-    private static String normalizeName(String s) {
-        if (s == null) return "";
-        String t = s.trim().toLowerCase();
-        t = Normalizer.normalize(t, Normalizer.Form.NFD).replaceAll("\\p{M}+", ""); // enlève accents
-        t = t.replaceAll("\\s+", " "); // espaces multiples -> simple
-        return t;
-    }
-
     private static String joinFullName(String vor, String nach) {
         String v = (vor == null) ? "" : vor.trim();
         String n = (nach == null) ? "" : nach.trim();
@@ -118,6 +122,19 @@ public class AuditService {
         return m.find() ? (m.group(1) + m.group(2)) : text.replaceAll("\\D+", "");
     }
 
+    /**
+     * Hinweistext für eine SB-Abweichung; im unscharfen Modus mit Tippfehler-Vorschlag.
+     */
+    private static String mismatchHint(NameMatchIndex index, String key, String sbExcel, Set<String> viasSet) {
+        Optional<String> typo = index.closeMatch(key, sbExcel);
+        if (typo.isPresent()) {
+            return "Tippfehler? (VIAS: " + typo.get() + ")";
+        }
+        String hint = viasSet.size() > 1 ? "Mehrere VIAS-SB" : "Abweichung";
+        Optional<String> similar = index.suggest(sbExcel);
+        return similar.map(sb -> hint + " – ähnlicher VIAS-SB: " + sb).orElse(hint);
+    }
+
     private static String plannedBaseFolder(String sb, String typeDir, String key) {
         String sbDir = FileUtil.sanitizeFileName(sb);
         String keyDir = FileUtil.sanitizeFileName(key);
@@ -148,8 +165,10 @@ public class AuditService {
         reporter.updateProgress(0, 100);
         reporter.updateMessage("Starte Audit-Prozess: " + auditType.getOrdnerName());
 
-        try {
+        try (AuditCheckpoint checkpoint = AuditCheckpoint.open(ensureReportsDir(),
+                "audit_" + auditType.name(), inputFingerprint(auditType))) {
             int totalCopied = 0;
+            int totalFailed = 0;
             // Speichert das Ende des vorherigen Prozesses. Startet bei 0.
             int currentProgress = 0;
 
@@ -159,19 +178,25 @@ public class AuditService {
                 int endProgress = (auditType == AuditType.BEIDE) ? 50 : 100;
 
                 reporter.updateProgress(currentProgress, 100);
-                reporter.updateMessage("Lese Policennummern aus: " + VERTRAG_PATH);
 
-                List<String> policeNrs = readKeysFromExcel(VERTRAG_PATH, "Policennummer");
-
-                if (policeNrs.isEmpty()) {
-                    logger.warn("Keine Policennummern für den Vertrags-Audit gefunden.");
-                } else {
+                // Excel + DB nur, wenn der Checkpoint diese Phase noch nicht enthält
+                List<CoverAuditRecord> coverRecords = fetchWithCheckpoint(checkpoint, AuditType.VERTRAG, reporter, () -> {
+                    reporter.updateMessage("Lese Policennummern aus: " + VERTRAG_PATH);
+                    List<String> policeNrs = readKeysFromExcel(VERTRAG_PATH, "Policennummer");
+                    if (policeNrs.isEmpty()) {
+                        logger.warn("Keine Policennummern für den Vertrags-Audit gefunden.");
+                        return List.of();
+                    }
                     reporter.updateMessage("Hole Vertragsdokumente für " + policeNrs.size() + " Policen...");
-                    List<CoverAuditRecord> coverRecords = auditRepository.fetchCoverDocumentsByPolicyNr(policeNrs);
+                    return auditRepository.fetchCoverDocumentsByPolicyNr(policeNrs);
+                });
 
+                if (!coverRecords.isEmpty()) {
                     reporter.updateMessage(String.format("Kopiere %d Vertragsdokumente...", coverRecords.size()));
                     // Führt Kopierlogik von 0% bis 50% (oder 100%) durch
-                    totalCopied += processDocumentCopy(coverRecords, reporter, currentProgress, endProgress);
+                    CopyStats stats = processDocumentCopy(coverRecords, reporter, currentProgress, endProgress, checkpoint);
+                    totalCopied += stats.available();
+                    totalFailed += stats.failed();
                 }
 
                 // Stellt sicher, dass der Fortschritt nach dem Ende dieser Phase auf 50% (oder 100%) ist.
@@ -184,22 +209,31 @@ public class AuditService {
                 int startProgress = (auditType == AuditType.SCHADEN) ? 0 : currentProgress;
 
                 reporter.updateProgress(startProgress, 100);
-                reporter.updateMessage("Lese Schaden-Nummern aus: " + SCHADEN_PATH);
-
-                List<String> schadenNrs = readKeysFromExcel(SCHADEN_PATH, "Schaden Nr. CS");
 
-                if (schadenNrs.isEmpty()) {
-                    logger.warn("Keine Schaden-Nummern für den Schaden-Audit gefunden.");
-                } else {
+                List<VsnAuditRecord> schadenRecords = fetchWithCheckpoint(checkpoint, AuditType.SCHADEN, reporter, () -> {
+                    reporter.updateMessage("Lese Schaden-Nummern aus: " + SCHADEN_PATH);
+                    List<String> schadenNrs = readKeysFromExcel(SCHADEN_PATH, "Schaden Nr. CS");
+                    if (schadenNrs.isEmpty()) {
+                        logger.warn("Keine Schaden-Nummern für den Schaden-Audit gefunden.");
+                        return List.of();
+                    }
                     reporter.updateMessage("Hole Schaden-Dokumente für " + schadenNrs.size() + " Schäden...");
-                    List<VsnAuditRecord> schadenRecords = auditRepository.fetchSchadenDocumentsByVsnNr(schadenNrs);
+                    return auditRepository.fetchSchadenDocumentsByVsnNr(schadenNrs);
+                });
 
+                if (!schadenRecords.isEmpty()) {
                     reporter.updateMessage(String.format("Kopiere %d Schadendokumente...", schadenRecords.size()));
                     // Führt Kopierlogik von 0% (oder 50%) bis 100% durch
-                    totalCopied += processDocumentCopy(schadenRecords, reporter, startProgress, 100);
+                    CopyStats stats = processDocumentCopy(schadenRecords, reporter, startProgress, 100, checkpoint);
+                    totalCopied += stats.available();
+                    totalFailed += stats.failed();
                 }
             }
 
+            // Ohne Fehler ist der Lauf abgeschlossen; sonst bleibt das Journal für einen erneuten Versuch bestehen
+            if (totalFailed == 0) {
+                checkpoint.complete();
+            }
 
             if (totalCopied == 0) {
                 return new ExecutionResult(ExecutionResult.Status.SUCCESS, "Keine Dokumente gefunden oder kopiert.");
@@ -218,6 +252,60 @@ public class AuditService {
         }
     }
 
+    /**
+     * Liefert die Datensätze einer Phase aus dem Checkpoint oder holt sie (Excel + DB) und schreibt sie ins Journal.
+     */
+    private <T extends AuditDocumentRecord> List<T> fetchWithCheckpoint(AuditCheckpoint checkpoint, AuditType phase,
+                                                                        ProgressReporter reporter,
+                                                                        RecordFetch<T> fetch) throws Exception {
+        List<T> resumed = checkpoint.fetchedRecords(phase.name());
+        if (resumed != null) {
+            logger.info("Checkpoint: {} Datensätze ({}) aus vorherigem Lauf übernommen.", resumed.size(), phase);
+            reporter.updateMessage(String.format("Setze vorherigen Lauf fort (%d %s-Datensätze)...",
+                    resumed.size(), phase.getOrdnerName()));
+            return resumed;
+        }
+        List<T> fetched = fetch.get();
+        checkpoint.recordFetched(phase.name(), fetched);
+        return fetched;
+    }
+
+    /**
+     * Kennung der Input-Dateien (Größe + Änderungszeit), damit ein Checkpoint nach Änderung der Excel-Liste verworfen wird.
+     */
+    private static String inputFingerprint(AuditType auditType) {
+        return switch (auditType) {
+            case VERTRAG -> fileFingerprint(VERTRAG_PATH);
+            case SCHADEN -> fileFingerprint(SCHADEN_PATH);
+            case BEIDE -> fileFingerprint(VERTRAG_PATH) + "|" + fileFingerprint(SCHADEN_PATH);
+        };
+    }
+
+    private static String fileFingerprint(String path) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(Path.of(path), BasicFileAttributes.class);
+            return attrs.size() + ":" + attrs.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return "n/a";
+        }
+    }
+
+    /**
+     * Kennung einer manuell eingegebenen Schlüsselliste (SHA-256), damit nur ein Journal derselben Liste fortgesetzt wird.
+     */
+    private static String keysFingerprint(List<String> keys) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            for (String key : keys) {
+                sha256.update(key.getBytes(StandardCharsets.UTF_8));
+                sha256.update((byte) 0); // Trenner: ["ab", "c"] ≠ ["a", "bc"]
+            }
+            return keys.size() + ":" + HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
+    }
+
     /**
      * Liest die Schlüssel aus der angegebenen Spalte der XLSX-Datei.
      *
@@ -246,22 +334,41 @@ public class AuditService {
     /**
      * Führt die Hauptlogik des Kopierens und Organisierens der Dokumente durch,
      * mit skalierter Fortschrittsberichterstattung.
+     * <p>
+     * Die Zielnamen werden zuerst sequenziell in Eingabereihenfolge vergeben
+     * (deterministisch), danach kopiert die {@link DocumentCopyEngine} parallel.
+     * </p>
      *
      * @param records       Liste der zu kopierenden AuditDocumentRecords.
      * @param reporter      ProgressReporter.
      * @param startProgress Startwert für den Fortschritt (z.B. 0 oder 50).
      * @param endProgress   Endwert für den Fortschritt (z.B. 50 oder 100).
-     * @return Die Anzahl der erfolgreich kopierten Dokumente.
+     * @param checkpoint    Journal des Laufs; bereits vermerkte Dokumente, deren Zieldatei noch existiert,
+     *                      werden nicht erneut angefasst.
+     * @return Statistik; {@link CopyStats#available()} zählt auch Dokumente aus einem vorherigen Lauf.
      */
-    // AuditService.processDocumentCopy(...)
-    private int processDocumentCopy(List<? extends AuditDocumentRecord> records,
-                                    ProgressReporter reporter, int startProgress, int endProgress) throws InterruptedException {
+    private CopyStats processDocumentCopy(List<? extends AuditDocumentRecord> records,
+                                          ProgressReporter reporter, int startProgress, int endProgress,
+                                          AuditCheckpoint checkpoint) throws InterruptedException {
+
+        List<CopyJob> jobs = planCopyJobs(records);
+        List<CopyJob> pending = jobs.stream().filter(j -> !checkpoint.isCopied(j)).toList();
+        int alreadyDone = jobs.size() - pending.size();
+        if (alreadyDone > 0) {
+            logger.info("Checkpoint: {} von {} Dokumenten bereits kopiert.", alreadyDone, jobs.size());
+        }
 
-        final int totalRecords = records.size();
-        int copiedCount = 0;
-        final int progressRange = endProgress - startProgress;
+        CopyStats stats = copyEngine.execute(pending, reporter, startProgress, endProgress, checkpoint::markCopied);
+        return new CopyStats(stats.copied(), stats.skipped() + alreadyDone, stats.failed());
+    }
 
-        Map<String, Set<String>> usedBaseNamesByPath = new HashMap<>();
+    /**
+     * Plant Zielordner und eindeutige Dateinamen für alle Dokumente.
+     * Der Zielpfad wird pro Dokument nur einmal berechnet; Ordner werden hier nicht angelegt.
+     */
+    private List<CopyJob> planCopyJobs(List<? extends AuditDocumentRecord> records) {
+        List<String> targetPaths = new ArrayList<>(records.size());
+        List<String> baseNames = new ArrayList<>(records.size());
 
         // ---------- PRÉ-SCAN: compter les baseName par dossier ----------
         Map<String, Integer> countsByPathAndBase = new HashMap<>();
@@ -275,6 +382,8 @@ public class AuditService {
                 auditType = AuditType.SCHADEN.getOrdnerName();
                 schluessel = vsn.getVsnNummer();
             } else {
+                targetPaths.add(null);
+                baseNames.add(null);
                 continue;
             }
 
@@ -282,16 +391,18 @@ public class AuditService {
                     r.getVorname(), r.getNachname(), auditType, schluessel, r.getBeschreibung()
             );
             String baseName = FileUtil.sanitizeFileName(r.getBetreff());
-            String key = plannedPath + "|" + baseName;
-            countsByPathAndBase.merge(key, 1, Integer::sum);
+            targetPaths.add(plannedPath);
+            baseNames.add(baseName);
+            countsByPathAndBase.merge(plannedPath + "|" + baseName, 1, Integer::sum);
         }
         // ----------------------------------------------------------------
 
-        for (int i = 0; i < totalRecords; i++) {
-            if (Thread.currentThread().isInterrupted()) {
-                logger.warn("Prozess wurde abgebrochen.");
-                throw new InterruptedException("Audit-Prozess wurde abgebrochen.");
-            }
+        Map<String, Set<String>> usedBaseNamesByPath = new HashMap<>();
+        List<CopyJob> jobs = new ArrayList<>(records.size());
+
+        for (int i = 0; i < records.size(); i++) {
+            String targetPath = targetPaths.get(i);
+            if (targetPath == null) continue;
 
             AuditDocumentRecord record = records.get(i);
             String betreff = record.getBetreff();
@@ -299,63 +410,30 @@ public class AuditService {
                 betreff = betreff.substring(0, MAX_DISPLAY_LENGTH) + "...";
             }
 
-            int currentProgress = startProgress + (int) ((double) i / totalRecords * progressRange);
-            reporter.updateProgress(currentProgress, 100);
-            reporter.updateMessage(String.format("Kopiere Dokument %d/%d (%s)...", i + 1, totalRecords, betreff));
-
-            try {
-                String schluessel;
-                String auditType;
-                if (record instanceof CoverAuditRecord cover) {
-                    schluessel = cover.getPoliceNr();
-                    auditType = AuditType.VERTRAG.getOrdnerName();
-                } else if (record instanceof VsnAuditRecord vsn) {
-                    schluessel = vsn.getVsnNummer();
-                    auditType = AuditType.SCHADEN.getOrdnerName();
-                } else {
-                    continue;
-                }
+            String sourcePath = record.getFilePath();
+            if (sourcePath == null || sourcePath.isEmpty()) {
+                logger.warn("Dokument ohne physischen Pfad (Parameter leer) übersprungen: {}, {}", targetPath, betreff);
+                continue;
+            }
 
-                String sourcePath = record.getFilePath();
-                if (sourcePath == null || sourcePath.isEmpty()) {
-                    logger.warn("Dokument ohne physischen Pfad (Parameter leer) übersprungen: {}, {}", schluessel, betreff);
-                    continue;
-                }
+            Set<String> existingBaseNames = usedBaseNamesByPath.computeIfAbsent(targetPath, k -> new HashSet<>());
+            String extension = FileUtil.getFileExtension(sourcePath);
 
-                // Crée (au besoin) le dossier final
-                String targetPath = FileUtil.buildAndEnsureTargetPath(
-                        record.getVorname(), record.getNachname(), auditType, schluessel, record.getBeschreibung()
-                );
-
-                Set<String> existingBaseNames = usedBaseNamesByPath.computeIfAbsent(targetPath, k -> new HashSet<>());
-                String extension = FileUtil.getFileExtension(sourcePath);
-
-                // Décider si on doit dater "aussi le premier"
-                String baseName = FileUtil.sanitizeFileName(record.getBetreff());
-                String key = FileUtil.buildTargetPathString(
-                        record.getVorname(), record.getNachname(), auditType, schluessel, record.getBeschreibung()
-                ) + "|" + baseName;
-                boolean stampAlways = countsByPathAndBase.getOrDefault(key, 1) > 1;
-
-                String newFileName = FileUtil.generateUniqueFileName(
-                        record.getBetreff(),
-                        record.getBezugsdatum(),
-                        record.getUhrzeit(),
-                        extension,
-                        existingBaseNames,
-                        stampAlways // <-- force le renommage du premier si doublons
-                );
-
-                FileUtil.copyFile(sourcePath, targetPath, newFileName);
-                copiedCount++;
-
-            } catch (IOException e) {
-                logger.error("❌ I/O-Fehler beim Kopieren von Dokument {}: {}", record.getBetreff(), e.getMessage());
-            } catch (Exception e) {
-                logger.error("❌ Unerwarteter Fehler beim Verarbeiten des Dokuments {}: {}", record.getBetreff(), e.getMessage());
-            }
+            // Décider si on doit dater "aussi le premier"
+            boolean stampAlways = countsByPathAndBase.getOrDefault(targetPath + "|" + baseNames.get(i), 1) > 1;
+
+            String newFileName = FileUtil.generateUniqueFileName(
+                    record.getBetreff(),
+                    record.getBezugsdatum(),
+                    record.getUhrzeit(),
+                    extension,
+                    existingBaseNames,
+                    stampAlways // <-- force le renommage du premier si doublons
+            );
+
+            jobs.add(new CopyJob(sourcePath, targetPath, newFileName, betreff));
         }
-        return copiedCount;
+        return jobs;
     }
 
     // AuditService.java
@@ -378,11 +456,19 @@ public class AuditService {
                         "Keine gültigen Schaden-Nummern angegeben.");
             }
 
-            reporter.updateMessage("Hole Schaden-Dokumente für " + cleaned.size() + " Nummern...");
-            List<VsnAuditRecord> schadenRecords = auditRepository.fetchSchadenDocumentsByVsnNr(cleaned);
-
-            reporter.updateMessage(String.format("Kopiere %d Schadendokumente...", schadenRecords.size()));
-            int copied = processDocumentCopy(schadenRecords, reporter, 0, 100);
+            int copied;
+            try (AuditCheckpoint checkpoint = AuditCheckpoint.open(ensureReportsDir(),
+                    "manual_schaden", keysFingerprint(cleaned))) {
+                List<VsnAuditRecord> schadenRecords = fetchWithCheckpoint(checkpoint, AuditType.SCHADEN, reporter, () -> {
+                    reporter.updateMessage("Hole Schaden-Dokumente für " + cleaned.size() + " Nummern...");
+                    return auditRepository.fetchSchadenDocumentsByVsnNr(cleaned);
+                });
+
+                reporter.updateMessage(String.format("Kopiere %d Schadendokumente...", schadenRecords.size()));
+                CopyStats stats = processDocumentCopy(schadenRecords, reporter, 0, 100, checkpoint);
+                copied = stats.available();
+                if (stats.failed() == 0) checkpoint.complete();
+            }
 
             reporter.updateProgress(100, 100);
             String msg = String.format("Manueller Schaden-Audit fertig. %d Dokumente kopiert.", copied);
@@ -418,13 +504,21 @@ public class AuditService {
                         "Keine gültigen Policennummern angegeben.");
             }
 
-            // 2) Daten aus DB holen
-            reporter.updateMessage("Hole Vertragsdokumente für " + cleaned.size() + " Policen...");
-            List<CoverAuditRecord> coverRecords = auditRepository.fetchCoverDocumentsByPolicyNr(cleaned);
-
-            // 3) Kopieren/Organisieren (0 -> 100%)
-            reporter.updateMessage(String.format("Kopiere %d Vertragsdokumente...", coverRecords.size()));
-            int copied = processDocumentCopy(coverRecords, reporter, 0, 100);
+            int copied;
+            try (AuditCheckpoint checkpoint = AuditCheckpoint.open(ensureReportsDir(),
+                    "manual_vertrag", keysFingerprint(cleaned))) {
+                // 2) Daten aus DB holen (oder aus dem Checkpoint eines abgebrochenen Laufs)
+                List<CoverAuditRecord> coverRecords = fetchWithCheckpoint(checkpoint, AuditType.VERTRAG, reporter, () -> {
+                    reporter.updateMessage("Hole Vertragsdokumente für " + cleaned.size() + " Policen...");
+                    return auditRepository.fetchCoverDocumentsByPolicyNr(cleaned);
+                });
+
+                // 3) Kopieren/Organisieren (0 -> 100%)
+                reporter.updateMessage(String.format("Kopiere %d Vertragsdokumente...", coverRecords.size()));
+                CopyStats stats = processDocumentCopy(coverRecords, reporter, 0, 100, checkpoint);
+                copied = stats.available();
+                if (stats.failed() == 0) checkpoint.complete();
+            }
 
             // 4) Ergebnis
             reporter.updateProgress(100, 100);
@@ -444,6 +538,14 @@ public class AuditService {
      * Sortie: ...\AUDIT\_reports\sb_mismatch_vertrag_YYYYMMDD_HHmmss.xlsx
      */
     public ExecutionResult checkSbMismatchVertrag(ProgressReporter reporter) {
+        return checkSbMismatchVertrag(reporter, false);
+    }
+
+    /**
+     * Wie {@link #checkSbMismatchVertrag(ProgressReporter)}; mit {@code fuzzy} werden Abweichungen
+     * zusätzlich auf Tippfehler geprüft (Hinweis mit dem ähnlichsten VIAS-SB).
+     */
+    public ExecutionResult checkSbMismatchVertrag(ProgressReporter reporter, boolean fuzzy) {
         try {
             if (reporter != null) {
                 reporter.updateProgress(0, 100);
@@ -474,10 +576,13 @@ public class AuditService {
             // 2) VIAS: fetch documents -> SB réel par police
             List<CoverAuditRecord> cover = auditRepository.fetchCoverDocumentsByPolicyNr(new ArrayList<>(excelSbByPolicy.keySet()));
             Map<String, Set<String>> viasSbsByPolicy = new HashMap<>();
+            NameMatchIndex index = new NameMatchIndex(fuzzy ? ApplicationConfig.AUDIT_FUZZY_MAX_DISTANCE : 0);
             for (CoverAuditRecord c : cover) {
                 String pol = c.getPoliceNr();
                 String sbVias = joinFullName(c.getVorname(), c.getNachname());
-                viasSbsByPolicy.computeIfAbsent(pol, k -> new LinkedHashSet<>()).add(sbVias);
+                if (viasSbsByPolicy.computeIfAbsent(pol, k -> new LinkedHashSet<>()).add(sbVias)) {
+                    index.add(pol, sbVias);
+                }
             }
 
             // 3) Construire lignes mismatch
@@ -491,7 +596,7 @@ public class AuditService {
                 String sbExcel = entry.getValue();
 
                 Set<String> viasSet = viasSbsByPolicy.getOrDefault(pol, Collections.emptySet());
-                boolean match = viasSet.stream().anyMatch(v -> normalizeName(v).equals(normalizeName(sbExcel)));
+                boolean match = index.matches(pol, sbExcel);
 
                 if (!match) {
                     RowData rd = new RowData();
@@ -509,7 +614,7 @@ public class AuditService {
 
                     rd.put("Ordner (Excel)", excelFolder);
                     rd.put("Ordner (VIAS)", viasFolders);
-                    rd.put("Hinweis", viasSet.size() > 1 ? "Mehrere VIAS-SB" : "Abweichung");
+                    rd.put("Hinweis", mismatchHint(index, pol, sbExcel, viasSet));
 
                     out.add(rd);
                 }
@@ -549,6 +654,14 @@ public class AuditService {
      * NB: Excel donne LU_SNR (ex: 2404343) — on convertit en LU_SNR_TEXT pour l'affichage/chemin.
      */
     public ExecutionResult checkSbMismatchSchaden(ProgressReporter reporter) {
+        return checkSbMismatchSchaden(reporter, false);
+    }
+
+    /**
+     * Wie {@link #checkSbMismatchSchaden(ProgressReporter)}; mit {@code fuzzy} werden Abweichungen
+     * zusätzlich auf Tippfehler geprüft (Hinweis mit dem ähnlichsten VIAS-SB).
+     */
+    public ExecutionResult checkSbMismatchSchaden(ProgressReporter reporter, boolean fuzzy) {
         try {
             if (reporter != null) {
                 reporter.updateProgress(0, 100);
@@ -581,13 +694,16 @@ public class AuditService {
             List<VsnAuditRecord> vsn = auditRepository.fetchSchadenDocumentsByVsnNr(new ArrayList<>(excelSbByLuSnr.keySet()));
             Map<String, Set<String>> viasSbsByLuSnr = new HashMap<>();
             Map<String, String> textByLuSnr = new HashMap<>(); // pour affichage chemin
+            NameMatchIndex index = new NameMatchIndex(fuzzy ? ApplicationConfig.AUDIT_FUZZY_MAX_DISTANCE : 0);
 
             for (VsnAuditRecord v : vsn) {
                 String luSnrText = v.getVsnNummer();          // ex: CS-2024-04343
                 String luSnr = textToLuSnr(luSnrText);    // -> 2404343
                 String sbVias = joinFullName(v.getVorname(), v.getNachname());
 
-                viasSbsByLuSnr.computeIfAbsent(luSnr, k -> new LinkedHashSet<>()).add(sbVias);
+                if (viasSbsByLuSnr.computeIfAbsent(luSnr, k -> new LinkedHashSet<>()).add(sbVias)) {
+                    index.add(luSnr, sbVias);
+                }
                 textByLuSnr.put(luSnr, luSnrText);
             }
 
@@ -603,7 +719,7 @@ public class AuditService {
                 String luSnrText = textByLuSnr.getOrDefault(luSnr, toSvaLuSnrText(luSnr));
 
                 Set<String> viasSet = viasSbsByLuSnr.getOrDefault(luSnr, Collections.emptySet());
-                boolean match = viasSet.stream().anyMatch(v -> normalizeName(v).equals(normalizeName(sbExcel)));
+                boolean match = index.matches(luSnr, sbExcel);
 
                 if (!match) {
                     RowData rd = new RowData();
@@ -622,7 +738,7 @@ public class AuditService {
 
                     rd.put("Ordner (Excel)", excelFolder);
                     rd.put("Ordner (VIAS)", viasFolders);
-                    rd.put("Hinweis", viasSet.size() > 1 ? "Mehrere VIAS-SB" : "Abweichung");
+                    rd.put("Hinweis", mismatchHint(index, luSnr, sbExcel, viasSet));
 
                     out.add(rd);
                 }
@@ -659,6 +775,14 @@ public class AuditService {
 
 // ------------------ 2) SB-Abgleich SCHADEN ------------------
 
+    /**
+     * Abruf der Audit-Datensätze einer Phase (Excel lesen und/oder DB-Abfrage).
+     */
+    @FunctionalInterface
+    private interface RecordFetch<T extends AuditDocumentRecord> {
+        List<T> get() throws Exception;
+    }
+
     // Enum zur Steuerung, welchen Prozess wir durchführen (für die GUI)
     public enum AuditType {
         VERTRAG("Verträge"),
@@ -0,0 +1,284 @@
+package service.audit.checkpoint;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import model.audit.AuditDocumentRecord;
+import model.audit.CoverAuditRecord;
+import model.audit.VsnAuditRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import service.audit.copy.DocumentCopyEngine.CopyJob;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Checkpoint-Journal für Audit-Läufe.
+ * <p>
+ * Append-only Datei (eine JSON-Zeile pro Eintrag) im Berichtsordner. Sie hält fest,
+ * welche Datensätze pro Phase (Vertrag/Schaden) bereits aus VIAS geholt wurden und
+ * welche Dokumente schon kopiert sind. Ein abgebrochener Lauf kann damit ohne erneutes
+ * Lesen der Excel-Datei und ohne DB-Abfragen fortgesetzt werden; kopiert wird nur,
+ * was noch fehlt. Nach einem fehlerfreien Lauf wird das Journal gelöscht.
+ * </p>
+ * <p>
+ * Der Fingerprint (z. B. Änderungszeit der Input-Datei oder Hash der manuellen
+ * Eingaben) steht in der ersten Zeile; passt er nicht mehr, wird neu begonnen.
+ * </p>
+ */
+public final class AuditCheckpoint implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditCheckpoint.class);
+    private static final Gson gson = new Gson();
+
+    private static final String HEAD = "HEAD";
+    private static final String RESET = "RESET";
+    private static final String RECORD = "REC";
+    private static final String FETCHED = "FETCHED";
+    private static final String COPIED = "COPIED";
+
+    private final Path file;
+    private final Map<String, List<AuditDocumentRecord>> pendingByPhase = new HashMap<>();
+    private final Map<String, List<AuditDocumentRecord>> fetchedByPhase = new HashMap<>();
+    private final Set<String> copied = new HashSet<>();
+    private final BufferedWriter writer;
+
+    private AuditCheckpoint(Path file, String fingerprint) throws IOException {
+        this.file = file;
+        boolean resumed = Files.exists(file) && load(fingerprint);
+        if (!resumed) {
+            Files.deleteIfExists(file);
+            pendingByPhase.clear();
+            fetchedByPhase.clear();
+            copied.clear();
+        } else {
+            truncatePartialLine(file);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (resumed) {
+            logger.info("Audit-Checkpoint fortgesetzt: {} ({} Phasen geladen, {} Dokumente bereits kopiert)",
+                    file, fetchedByPhase.size(), copied.size());
+        } else {
+            append(new Entry(HEAD, fingerprint));
+        }
+    }
+
+    /**
+     * Öffnet (oder erstellt) das Journal für einen Lauf.
+     *
+     * @param dir         Zielordner (Berichtsordner).
+     * @param runId       Eindeutige Bezeichnung des Laufs (z. B. "audit_VERTRAG").
+     * @param fingerprint Kennung der Eingabe; bei Abweichung wird das alte Journal verworfen.
+     */
+    public static AuditCheckpoint open(Path dir, String runId, String fingerprint) throws IOException {
+        Files.createDirectories(dir);
+        return new AuditCheckpoint(dir.resolve(runId + ".checkpoint"), fingerprint);
+    }
+
+    private static String copyKey(CopyJob job) {
+        return job.targetDirectory() + "|" + job.fileName();
+    }
+
+    private static String str(LocalDateTime t) {
+        return t == null ? null : t.toString();
+    }
+
+    private static LocalDateTime time(String s) {
+        return s == null ? null : LocalDateTime.parse(s);
+    }
+
+    /**
+     * Liest das bestehende Journal ein. Unvollständige letzte Zeilen (Abbruch beim Schreiben) werden ignoriert.
+     *
+     * @return {@code true}, wenn das Journal zum Fingerprint passt.
+     */
+    private boolean load(String fingerprint) {
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            if (lines.isEmpty()) return false;
+
+            Entry head = gson.fromJson(lines.get(0), Entry.class);
+            if (head == null || !HEAD.equals(head.t) || !Objects.equals(fingerprint, head.key)) {
+                logger.info("Audit-Checkpoint {} gehört zu einer anderen Eingabe – starte neu.", file);
+                return false;
+            }
+
+            for (int i = 1; i < lines.size(); i++) {
+                Entry e;
+                try {
+                    e = gson.fromJson(lines.get(i), Entry.class);
+                } catch (JsonSyntaxException ex) {
+                    logger.warn("Unvollständige Checkpoint-Zeile {} ignoriert.", i + 1);
+                    continue;
+                }
+                if (e == null || e.t == null) continue;
+                switch (e.t) {
+                    case RESET -> pendingByPhase.remove(e.phase);
+                    case RECORD -> pendingByPhase.computeIfAbsent(e.phase, k -> new ArrayList<>()).add(e.toRecord());
+                    case FETCHED -> fetchedByPhase.put(e.phase,
+                            pendingByPhase.getOrDefault(e.phase, new ArrayList<>()));
+                    case COPIED -> copied.add(e.key);
+                    default -> {
+                    }
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            logger.warn("Audit-Checkpoint {} nicht lesbar – starte neu: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Schneidet eine beim Abbruch halb geschriebene letzte Zeile ab, damit der nächste Eintrag
+     * in einer eigenen Zeile beginnt und nicht an das Fragment angehängt wird.
+     */
+    private static void truncatePartialLine(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int keep = bytes.length;
+        while (keep > 0 && bytes[keep - 1] != '\n') keep--;
+        if (keep == bytes.length) return;
+        logger.warn("Unvollständige letzte Checkpoint-Zeile in {} abgeschnitten ({} Bytes).",
+                file, bytes.length - keep);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(keep);
+        }
+    }
+
+    /**
+     * Liefert die bereits vollständig geholten Datensätze einer Phase.
+     *
+     * @return Datensätze in der ursprünglichen Reihenfolge oder {@code null}, wenn die Phase noch nicht geholt wurde.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends AuditDocumentRecord> List<T> fetchedRecords(String phase) {
+        return (List<T>) fetchedByPhase.get(phase);
+    }
+
+    /**
+     * Schreibt alle geholten Datensätze einer Phase und schließt sie mit einer FETCHED-Markierung ab.
+     */
+    public synchronized void recordFetched(String phase, List<? extends AuditDocumentRecord> records) throws IOException {
+        // Reste eines abgebrochenen Schreibvorgangs dieser Phase verwerfen
+        Entry reset = new Entry(RESET, null);
+        reset.phase = phase;
+        writer.write(gson.toJson(reset));
+        writer.newLine();
+        for (AuditDocumentRecord r : records) {
+            writer.write(gson.toJson(Entry.of(phase, r)));
+            writer.newLine();
+        }
+        Entry done = new Entry(FETCHED, null);
+        done.phase = phase;
+        append(done);
+        fetchedByPhase.put(phase, new ArrayList<>(records));
+    }
+
+    /**
+     * Ob das Dokument laut Journal kopiert wurde und die Zieldatei noch vorhanden ist
+     * (sonst wird es erneut kopiert).
+     */
+    public synchronized boolean isCopied(CopyJob job) {
+        return copied.contains(copyKey(job)) && Files.exists(Path.of(job.targetDirectory(), job.fileName()));
+    }
+
+    /**
+     * Vermerkt ein kopiertes (oder bereits aktuelles) Dokument. Thread-sicher, wird aus den Kopier-Workern aufgerufen.
+     */
+    public synchronized void markCopied(CopyJob job) {
+        String key = copyKey(job);
+        if (!copied.add(key)) return;
+        try {
+            append(new Entry(COPIED, key));
+        } catch (IOException e) {
+            logger.warn("Checkpoint-Eintrag konnte nicht geschrieben werden: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Schließt den Lauf erfolgreich ab und entfernt das Journal.
+     */
+    public synchronized void complete() {
+        try {
+            close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Audit-Checkpoint {} konnte nicht gelöscht werden: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private void append(Entry e) throws IOException {
+        writer.write(gson.toJson(e));
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * Eine Journalzeile (bewusst flach gehalten, damit Gson ohne Adapter auskommt).
+     */
+    private static final class Entry {
+        String t;
+        String key;
+        String phase;
+        String type;
+        String nachname;
+        String vorname;
+        String beschreibung;
+        String parameter;
+        String extension;
+        String betreff;
+        String bezugsdatum;
+        String uhrzeit;
+        String dateiName;
+
+        Entry(String t, String key) {
+            this.t = t;
+            this.key = key;
+        }
+
+        static Entry of(String phase, AuditDocumentRecord r) {
+            Entry e = new Entry(RECORD, null);
+            e.phase = phase;
+            if (r instanceof CoverAuditRecord c) {
+                e.type = "COVER";
+                e.key = c.getPoliceNr();
+            } else if (r instanceof VsnAuditRecord v) {
+                e.type = "VSN";
+                e.key = v.getVsnNummer();
+            }
+            e.nachname = r.getNachname();
+            e.vorname = r.getVorname();
+            e.beschreibung = r.getBeschreibung();
+            e.parameter = r.getParameter();
+            e.extension = r.getExtension();
+            e.betreff = r.getBetreff();
+            e.bezugsdatum = str(r.getBezugsdatum());
+            e.uhrzeit = str(r.getUhrzeit());
+            e.dateiName = r.getDateiName();
+            return e;
+        }
+
+        AuditDocumentRecord toRecord() {
+            if ("VSN".equals(type)) {
+                return new VsnAuditRecord(key, nachname, vorname, beschreibung, parameter, extension, betreff,
+                        time(bezugsdatum), time(uhrzeit), dateiName);
+            }
+            return new CoverAuditRecord(key, nachname, vorname, beschreibung, parameter, extension, betreff,
+                    time(bezugsdatum), time(uhrzeit), dateiName);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package service.audit.copy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import service.interfaces.ProgressReporter;
+import util.FileUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Paralleler Kopiervorgang für Audit-Dokumente.
+ * <p>
+ * Jede Datei ist ein eigener Task auf einem begrenzten Thread-Pool – auch ein Audit mit nur
+ * einem Zielordner kopiert also parallel. Jeder Zielordner wird genau einmal angelegt,
+ * beim ersten Task, der ihn braucht.
+ * Die Dateinamen sind beim Aufruf bereits vergeben (deterministisch, siehe AuditService),
+ * die Engine ändert daran nichts. Ziele mit gleicher Größe und gleichem
+ * Änderungszeitpunkt werden übersprungen (Wiederaufnahme nach Abbruch).
+ * </p>
+ */
+public class DocumentCopyEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentCopyEngine.class);
+
+    private final int threads;
+
+    public DocumentCopyEngine(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Führt alle Kopier-Jobs aus.
+     *
+     * @param jobs          Geplante Jobs (Zielordner + endgültiger Dateiname).
+     * @param reporter      ProgressReporter (darf aus Worker-Threads aufgerufen werden).
+     * @param startProgress Startwert für den Fortschritt.
+     * @param endProgress   Endwert für den Fortschritt.
+     * @return Statistik über kopierte, übersprungene und fehlgeschlagene Dokumente.
+     * @throws InterruptedException wenn der aufrufende Thread abgebrochen wird.
+     */
+    public CopyStats execute(List<CopyJob> jobs, ProgressReporter reporter,
+                             int startProgress, int endProgress) throws InterruptedException {
+        return execute(jobs, reporter, startProgress, endProgress, job -> {
+        });
+    }
+
+    /**
+     * Wie {@link #execute(List, ProgressReporter, int, int)}, meldet zusätzlich jedes Dokument,
+     * das danach am Ziel vorliegt (kopiert oder bereits aktuell).
+     *
+     * @param onAvailable Callback aus den Worker-Threads (muss thread-sicher sein). Fehler im
+     *                    Callback werden nur protokolliert und ändern die Statistik nicht.
+     */
+    public CopyStats execute(List<CopyJob> jobs, ProgressReporter reporter,
+                             int startProgress, int endProgress,
+                             Consumer<CopyJob> onAvailable) throws InterruptedException {
+        if (jobs.isEmpty()) return new CopyStats(0, 0, 0);
+
+        final int total = jobs.size();
+        final int progressRange = endProgress - startProgress;
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger copied = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        // Zielordner: genau ein Anlageversuch pro Ordner, egal wie viele Worker ihn gleichzeitig brauchen
+        Map<String, Boolean> directories = new ConcurrentHashMap<>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, total), r -> {
+            Thread t = new Thread(r, "audit-copy");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(total);
+            for (CopyJob job : jobs) {
+                futures.add(pool.submit(() -> {
+                    if (Thread.currentThread().isInterrupted()) return;
+                    Path dir = Path.of(job.targetDirectory());
+                    if (!directories.computeIfAbsent(job.targetDirectory(), k -> createDirectory(dir))) {
+                        failed.incrementAndGet();
+                    } else {
+                        copy(job, dir, copied, skipped, failed, onAvailable);
+                    }
+
+                    int n = done.incrementAndGet();
+                    reporter.updateProgress(startProgress + (int) ((double) n / total * progressRange), 100);
+                    reporter.updateMessage(String.format("Kopiere Dokument %d/%d (%s)...", n, total, job.displayName()));
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    logger.error("❌ Kopier-Worker fehlgeschlagen", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Prozess wurde abgebrochen.");
+            pool.shutdownNow();
+            throw new InterruptedException("Audit-Prozess wurde abgebrochen.");
+        } finally {
+            pool.shutdown();
+        }
+
+        logger.info("Kopieren abgeschlossen: {} kopiert, {} bereits aktuell, {} Fehler ({} Ordner)",
+                copied.get(), skipped.get(), failed.get(), directories.size());
+        return new CopyStats(copied.get(), skipped.get(), failed.get());
+    }
+
+    private static boolean createDirectory(Path dir) {
+        try {
+            Files.createDirectories(dir);
+            return true;
+        } catch (IOException e) {
+            logger.error("❌ Konnte Zielverzeichnis nicht erstellen: {}", dir, e);
+            return false;
+        }
+    }
+
+    private static void copy(CopyJob job, Path dir, AtomicInteger copied, AtomicInteger skipped,
+                             AtomicInteger failed, Consumer<CopyJob> onAvailable) {
+        boolean changed;
+        try {
+            changed = FileUtil.copyFileIfChanged(Path.of(job.sourcePath()), dir.resolve(job.fileName()));
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            logger.error("❌ I/O-Fehler beim Kopieren von Dokument {}: {}", job.displayName(), e.getMessage());
+            return;
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.error("❌ Unerwarteter Fehler beim Verarbeiten des Dokuments {}: {}", job.displayName(), e.getMessage());
+            return;
+        }
+        (changed ? copied : skipped).incrementAndGet();
+
+        // Das Dokument liegt am Ziel – ein Fehler in der Rückmeldung (z. B. Journal) ist kein Kopierfehler
+        try {
+            onAvailable.accept(job);
+        } catch (Exception e) {
+            logger.warn("⚠️ Rückmeldung für Dokument {} fehlgeschlagen: {}", job.displayName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Ein geplanter Kopier-Job.
+     *
+     * @param sourcePath      Physischer Pfad der Quelldatei.
+     * @param targetDirectory Zielordner.
+     * @param fileName        Endgültiger, eindeutiger Dateiname (inkl. Extension).
+     * @param displayName     Kurzbezeichnung für Fortschritt und Log.
+     */
+    public record CopyJob(String sourcePath, String targetDirectory, String fileName, String displayName) {
+    }
+
+    /**
+     * Ergebnis eines Kopierlaufs.
+     */
+    public record CopyStats(int copied, int skipped, int failed) {
+
+        /**
+         * Anzahl der Dokumente, die nach dem Lauf am Ziel vorliegen.
+         */
+        public int available() {
+            return copied + skipped;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package service.audit.match;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Index für den SB-Namensabgleich (Excel vs. VIAS).
+ * <p>
+ * Pro Schlüssel (Policennummer bzw. LU_SNR) werden die normalisierten VIAS-Namen einmalig
+ * als Set abgelegt; der exakte Abgleich ist damit ein {@code contains} statt eines Streams
+ * über alle Namen. Die Normalisierung wird pro Rohwert nur einmal berechnet.
+ * </p>
+ * <p>
+ * Optional (unscharfer Modus) wird zusätzlich ein Trigramm-Index über alle bekannten
+ * VIAS-Namen aufgebaut. Damit lassen sich Tippfehler in der Excel-Liste erkennen, ohne jeden
+ * Excel-Namen gegen jeden VIAS-Namen zu vergleichen: nur Kandidaten mit gemeinsamen Trigrammen
+ * werden per Editierdistanz geprüft.
+ * </p>
+ */
+public final class NameMatchIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final Map<String, String> normalized = new HashMap<>();
+    private final Map<String, Set<String>> namesByKey = new HashMap<>();
+    private final Map<String, String> displayByNormalized = new HashMap<>();
+    private final Map<String, Set<String>> namesByTrigram = new HashMap<>();
+    private final int maxDistance;
+
+    /**
+     * @param maxDistance maximale Editierdistanz für den unscharfen Abgleich; {@code 0} = nur exakt.
+     */
+    public NameMatchIndex(int maxDistance) {
+        this.maxDistance = Math.max(0, maxDistance);
+    }
+
+    /**
+     * Normalise un nom pour comparaison robuste (minuscules, espaces, accents).
+     */
+    public static String normalizeName(String s) {
+        if (s == null) return "";
+        String t = s.trim().toLowerCase();
+        t = MARKS.matcher(Normalizer.normalize(t, Normalizer.Form.NFD)).replaceAll(""); // enlève accents
+        t = SPACES.matcher(t).replaceAll(" "); // espaces multiples -> simple
+        return t;
+    }
+
+    private static Set<String> trigrams(String s) {
+        String padded = "  " + s + " ";
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            out.add(padded.substring(i, i + 3));
+        }
+        return out;
+    }
+
+    /**
+     * Levenshtein-Distanz mit Abbruch, sobald {@code limit} sicher überschritten ist.
+     */
+    static int editDistance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) return limit + 1;
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > limit) return limit + 1;
+            int[] tmp = prev;
+            prev = cur;
+            cur = tmp;
+        }
+        return prev[b.length()];
+    }
+
+    /**
+     * Normalisierung mit Memoisierung (gleiche Rohwerte werden nur einmal normalisiert).
+     */
+    public String normalize(String raw) {
+        return normalized.computeIfAbsent(raw == null ? "" : raw, NameMatchIndex::normalizeName);
+    }
+
+    /**
+     * Registriert einen VIAS-Namen für einen Schlüssel.
+     */
+    public void add(String key, String viasName) {
+        String n = normalize(viasName);
+        namesByKey.computeIfAbsent(key, k -> new HashSet<>()).add(n);
+        if (displayByNormalized.putIfAbsent(n, viasName) == null && maxDistance > 0) {
+            for (String g : trigrams(n)) {
+                namesByTrigram.computeIfAbsent(g, k -> new HashSet<>()).add(n);
+            }
+        }
+    }
+
+    /**
+     * Exakter Abgleich (nach Normalisierung) gegen die VIAS-Namen des Schlüssels.
+     */
+    public boolean matches(String key, String excelName) {
+        Set<String> names = namesByKey.get(key);
+        return names != null && names.contains(normalize(excelName));
+    }
+
+    /**
+     * Sucht unter den VIAS-Namen des Schlüssels einen Namen mit kleiner Editierdistanz (Tippfehler).
+     *
+     * @return der VIAS-Name in Originalschreibweise, falls vorhanden.
+     */
+    public Optional<String> closeMatch(String key, String excelName) {
+        if (maxDistance == 0) return Optional.empty();
+        Set<String> names = namesByKey.get(key);
+        if (names == null || names.isEmpty()) return Optional.empty();
+        return best(normalize(excelName), names);
+    }
+
+    /**
+     * Sucht über alle bekannten VIAS-Namen den ähnlichsten (Trigramm-Kandidaten + Editierdistanz).
+     *
+     * @return der VIAS-Name in Originalschreibweise, falls einer innerhalb der maximalen Distanz liegt.
+     */
+    public Optional<String> suggest(String excelName) {
+        if (maxDistance == 0) return Optional.empty();
+        String n = normalize(excelName);
+        Set<String> grams = trigrams(n);
+
+        // Ein Tippfehler zerstört höchstens 3 Trigramme; Kandidaten brauchen also genügend Treffer
+        int minShared = Math.max(1, grams.size() - 3 * maxDistance);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String g : grams) {
+            for (String cand : namesByTrigram.getOrDefault(g, Set.of())) {
+                shared.merge(cand, 1, Integer::sum);
+            }
+        }
+        List<String> candidates = new ArrayList<>();
+        shared.forEach((cand, count) -> {
+            if (count >= minShared) candidates.add(cand);
+        });
+        return best(n, candidates);
+    }
+
+    private Optional<String> best(String n, Collection<String> candidates) {
+        String bestName = null;
+        int bestDist = maxDistance + 1;
+        for (String cand : candidates) {
+            int d = editDistance(n, cand, maxDistance);
+            if (d < bestDist || (d == bestDist && bestName != null && cand.compareTo(bestName) < 0)) {
+                bestDist = d;
+                bestName = cand;
+            }
+        }
+        return (bestName == null || bestDist > maxDistance)
+                ? Optional.empty()
+                : Optional.of(displayByNormalized.getOrDefault(bestName, bestName));
+    }
+}
@@ -10,16 +10,25 @@ import service.interfaces.ProgressReporter;
 public class SbMismatchSchadenTask extends Task<ExecutionResult> implements ProgressReporter {
     private static final Logger log = LoggerFactory.getLogger(SbMismatchSchadenTask.class);
     private final AuditService service;
+    private final boolean fuzzy;
 
     public SbMismatchSchadenTask(AuditService service) {
+        this(service, false);
+    }
+
+    /**
+     * @param fuzzy zusätzlich Tippfehler erkennen (unscharfer Namensabgleich)
+     */
+    public SbMismatchSchadenTask(AuditService service, boolean fuzzy) {
         this.service = service;
+        this.fuzzy = fuzzy;
     }
 
     @Override
     protected ExecutionResult call() {
         try {
             updateMessage("Prüfe SB-Abweichungen (Schaden)...");
-            ExecutionResult result = service.checkSbMismatchSchaden(this);
+            ExecutionResult result = service.checkSbMismatchSchaden(this, fuzzy);
             updateMessage(result.getMessage());
             if (result.isSuccess()) updateProgress(100, 100);
             return result;
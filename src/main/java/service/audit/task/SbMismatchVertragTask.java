@@ -10,16 +10,25 @@ import service.interfaces.ProgressReporter;
 public class SbMismatchVertragTask extends Task<ExecutionResult> implements ProgressReporter {
     private static final Logger log = LoggerFactory.getLogger(SbMismatchVertragTask.class);
     private final AuditService service;
+    private final boolean fuzzy;
 
     public SbMismatchVertragTask(AuditService service) {
+        this(service, false);
+    }
+
+    /**
+     * @param fuzzy zusätzlich Tippfehler erkennen (unscharfer Namensabgleich)
+     */
+    public SbMismatchVertragTask(AuditService service, boolean fuzzy) {
         this.service = service;
+        this.fuzzy = fuzzy;
     }
 
     @Override
     protected ExecutionResult call() {
         try {
             updateMessage("Prüfe SB-Abweichungen (Verträge)...");
-            ExecutionResult result = service.checkSbMismatchVertrag(this);
+            ExecutionResult result = service.checkSbMismatchVertrag(this, fuzzy);
             updateMessage(result.getMessage());
             if (result.isSuccess()) updateProgress(100, 100);
             return result;
@@ -0,0 +1,98 @@
+package service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import config.ApplicationConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Zentrale Stelle für Speicherbudget und Kennzahlen aller Caffeine-Caches.
+ * <p>
+ * Das Gesamtbudget ({@link ApplicationConfig#CACHE_MEMORY_BUDGET_MB}) wird anteilig auf die
+ * Cache-Regionen verteilt; jede Region begrenzt sich über einen {@link Weigher} auf ihren Anteil
+ * in geschätzten Bytes (siehe {@link CacheWeights}) statt über eine Eintragsanzahl.
+ * Alle Regionen zeichnen Statistiken auf und werden hier unter ihrem Namen registriert,
+ * damit die Einstellungsansicht Trefferquote, Verdrängungen, Ladezeit und Gewicht anzeigen kann.
+ * </p>
+ */
+public final class CacheRegistry {
+
+    private static final Map<String, Cache<?, ?>> CACHES = new ConcurrentSkipListMap<>();
+
+    private CacheRegistry() {
+    }
+
+    /**
+     * Gesamtbudget aller gewichteten Caches in Bytes.
+     */
+    public static long budgetBytes() {
+        return ApplicationConfig.CACHE_MEMORY_BUDGET_MB * 1024L * 1024L;
+    }
+
+    /**
+     * Baut eine nach Speicher gewichtete Region mit Statistik.
+     *
+     * @param share   Anteil am Gesamtbudget (0..1)
+     * @param weigher Schätzung des Gewichts eines Eintrags in Bytes
+     */
+    public static <K, V> Caffeine<K, V> weighted(double share, Weigher<K, V> weigher) {
+        return Caffeine.newBuilder()
+                .recordStats()
+                .maximumWeight((long) (budgetBytes() * share))
+                .weigher(weigher);
+    }
+
+    /**
+     * Registriert einen Cache für die Kennzahlen. Ein späterer Cache mit gleichem Namen ersetzt den früheren.
+     */
+    public static <K, V> Cache<K, V> register(String name, Cache<K, V> cache) {
+        CACHES.put(name, cache);
+        return cache;
+    }
+
+    /**
+     * Aktuelle Kennzahlen aller registrierten Caches, nach Name sortiert.
+     */
+    public static List<CacheMetrics> metrics() {
+        List<CacheMetrics> out = new ArrayList<>(CACHES.size());
+        CACHES.forEach((name, cache) -> out.add(CacheMetrics.of(name, cache)));
+        return out;
+    }
+
+    /**
+     * Leert alle registrierten Caches.
+     */
+    public static void invalidateAll() {
+        CACHES.values().forEach(Cache::invalidateAll);
+    }
+
+    /**
+     * Kennzahlen eines Caches.
+     *
+     * @param weightedSize aktuelles Gewicht in Bytes, {@code -1} bei Größenbegrenzung nach Anzahl
+     * @param maximum      Budget in Bytes bzw. maximale Anzahl Einträge
+     */
+    public record CacheMetrics(String name, long entries, long weightedSize, long maximum, boolean weighted,
+                               double hitRate, long hits, long misses, long evictions,
+                               double averageLoadMillis) {
+
+        static CacheMetrics of(String name, Cache<?, ?> cache) {
+            cache.cleanUp(); // ausstehende Verdrängungen abschließen, damit das Gewicht stimmt
+            CacheStats stats = cache.stats();
+            Policy.Eviction<?, ?> eviction = cache.policy().eviction().orElse(null);
+            boolean weighted = eviction != null && eviction.isWeighted();
+            long weight = weighted ? eviction.weightedSize().orElse(-1L) : -1L;
+            long maximum = eviction != null ? eviction.getMaximum() : -1L;
+            return new CacheMetrics(name, cache.estimatedSize(), weight, maximum, weighted,
+                    stats.hitRate(), stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                    stats.averageLoadPenalty() / 1_000_000.0);
+        }
+    }
+}
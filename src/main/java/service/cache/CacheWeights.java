@@ -0,0 +1,112 @@
+package service.cache;
+
+import model.RowSnapshot;
+import model.contract.CoverRecord;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grobe Schätzung des belegten Heaps von Cache-Einträgen (in Bytes), als Gewicht für Caffeine.
+ * <p>
+ * Es geht um die Größenordnung, nicht um exakte Werte: Ein Ergebnis mit 100.000 Zeilen soll
+ * entsprechend schwer wiegen, ein Dictionary mit drei Einträgen entsprechend leicht. Große Listen
+ * werden daher nur stichprobenartig vermessen und hochgerechnet (Compact Strings, 64-Bit-JVM mit
+ * komprimierten Referenzen).
+ * </p>
+ */
+public final class CacheWeights {
+
+    // Anzahl vermessener Elemente pro Liste/Map; der Rest wird hochgerechnet
+    private static final int SAMPLE = 32;
+
+    private static final int LIST_OVERHEAD = 40;
+    private static final int STRING_OVERHEAD = 40;   // String + byte[]-Header
+    private static final int MAP_OVERHEAD = 64;      // LinkedHashMap + Tabelle (ohne Einträge)
+    private static final int ENTRY_OVERHEAD = 40;    // LinkedHashMap.Entry
+    private static final int ROW_OVERHEAD = 32;      // RowSnapshot + unmodifiableMap-Hülle
+    // CoverRecord: ~20 String-Felder mit kurzen Werten
+    private static final int COVER_RECORD_BYTES = 1_100;
+
+    private CacheWeights() {
+    }
+
+    /**
+     * Gewicht eines gecachten Abfrageergebnisses.
+     */
+    public static int rows(List<RowSnapshot> rows) {
+        if (rows == null) return LIST_OVERHEAD;
+        int n = rows.size();
+        if (n == 0) return LIST_OVERHEAD;
+        int step = Math.max(1, n / SAMPLE);
+        long sampled = 0;
+        int count = 0;
+        for (int i = 0; i < n; i += step) {
+            sampled += ROW_OVERHEAD + map(rows.get(i).values());
+            count++;
+        }
+        return clamp(LIST_OVERHEAD + 4L * n + sampled * n / count);
+    }
+
+    /**
+     * Gewicht einer Seite von Cover-Datensätzen.
+     */
+    public static int coverRecords(List<CoverRecord> records) {
+        if (records == null) return LIST_OVERHEAD;
+        return clamp(LIST_OVERHEAD + (long) records.size() * (4 + COVER_RECORD_BYTES));
+    }
+
+    /**
+     * Gewicht eines Dictionaries (Schlüssel -> Bezeichnung).
+     */
+    public static int dictionary(Map<String, String> dict) {
+        if (dict == null) return MAP_OVERHEAD;
+        int n = dict.size();
+        if (n <= SAMPLE) return clamp(map(dict));
+        long sampled = 0;
+        int count = 0;
+        Iterator<Map.Entry<String, String>> it = dict.entrySet().iterator();
+        while (it.hasNext() && count < SAMPLE) {
+            Map.Entry<String, String> e = it.next();
+            sampled += ENTRY_OVERHEAD + string(e.getKey()) + string(e.getValue());
+            count++;
+        }
+        return clamp(MAP_OVERHEAD + 4L * n + sampled * n / count);
+    }
+
+    /**
+     * Gewicht einer Liste von Strings (z. B. Vorschläge).
+     */
+    public static int strings(List<String> values) {
+        if (values == null) return LIST_OVERHEAD;
+        long sum = LIST_OVERHEAD;
+        for (String s : values) {
+            sum += 4 + string(s);
+        }
+        return clamp(sum);
+    }
+
+    /**
+     * Gewicht kleiner Werte fester Größe (Zähler, KPIs).
+     */
+    public static int small() {
+        return 64;
+    }
+
+    private static long map(Map<String, String> values) {
+        long sum = MAP_OVERHEAD;
+        for (Map.Entry<String, String> e : values.entrySet()) {
+            sum += ENTRY_OVERHEAD + string(e.getKey()) + string(e.getValue());
+        }
+        return sum;
+    }
+
+    private static long string(String s) {
+        return s == null ? 0 : STRING_OVERHEAD + s.length();
+    }
+
+    private static int clamp(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes));
+    }
+}
@@ -6,8 +6,10 @@ import dto.AbRow;
 import dto.LaRow;
 import dto.LmpRow;
 import model.RowData;
+import model.RowSnapshot;
 import model.enums.ExportFormat;
 import model.enums.QueryRepository;
+import model.enums.QuerySource;
 import service.interfaces.DatabaseService;
 
 import java.time.Duration;
@@ -17,50 +19,60 @@ import java.util.function.Consumer;
 /**
  * Decorator-Service, der Caching-Funktionalität zu einem DatabaseService hinzufügt.
  * Verwendet Caffeine für eine performante, thread-sichere Cache-Implementierung.
+ * <p>
+ * Gecacht werden unveränderliche {@link RowSnapshot}s. Jeder Treffer liefert neue Zeilen mit
+ * copy-on-write-Werten über diesen Schnappschüssen: Lesen kopiert nichts, und Aufrufer, die
+ * Zeilen anreichern oder Spalten entfernen, können den Cache nicht verändern.
+ * </p>
  */
 public class CachedDatabaseService implements DatabaseService {
 
+    // Anteil am gemeinsamen Cache-Budget (Abfrageergebnisse sind die größten Einträge)
+    private static final double BUDGET_SHARE = 0.5;
+
     private final DatabaseService delegate;
-    private final Cache<CacheKey, List<RowData>> cache;
+    private final Cache<CacheKey, List<RowSnapshot>> cache;
 
     public CachedDatabaseService(DatabaseService delegate) {
-        this(delegate, 64, Duration.ofMinutes(10));
+        this(delegate, (long) (CacheRegistry.budgetBytes() * BUDGET_SHARE), Duration.ofMinutes(10));
     }
 
-    public CachedDatabaseService(DatabaseService delegate, int maxEntries, Duration ttl) {
+    /**
+     * @param maxBytes geschätzter Heap-Bedarf aller Einträge zusammen (siehe {@link CacheWeights#rows(List)})
+     */
+    public CachedDatabaseService(DatabaseService delegate, long maxBytes, Duration ttl) {
         this.delegate = delegate;
-        this.cache = Caffeine.newBuilder()
-                .maximumSize(maxEntries)
+        this.cache = CacheRegistry.register("DB-Abfragen", Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((CacheKey k, List<RowSnapshot> rows) -> CacheWeights.rows(rows))
                 .expireAfterWrite(ttl)
-                .build();
+                .recordStats()
+                .build());
     }
 
     // --- Methoden mit Caching-Logik ---
 
     // --- Hilfsmethoden für den Cache ---
-    private static List<RowData> deepCopy(List<RowData> src) {
-        if (src == null) return new ArrayList<>();
-        List<RowData> copy = new ArrayList<>(src.size());
-        for (RowData r : src) {
-            Map<String, String> newMap = new LinkedHashMap<>(r.getValues());
-            RowData newRow = new RowData();
-            newRow.getValues().putAll(newMap);
-            copy.add(newRow);
-        }
-        return copy;
+    private List<RowData> cached(CacheKey key, String what, Loader loader) {
+        List<RowSnapshot> snapshots = cache.get(key, k -> {
+            try {
+                return RowSnapshot.ofAll(loader.load());
+            } catch (Exception e) {
+                throw new RuntimeException("Fehler beim Ausführen der gecachten " + what, e);
+            }
+        });
+        return RowSnapshot.toRows(snapshots);
+    }
+
+    @FunctionalInterface
+    private interface Loader {
+        List<RowData> load() throws Exception;
     }
 
     @Override
     public List<RowData> executeQuery(QueryRepository query, List<String> parameters) throws Exception {
         CacheKey key = new CacheKey(query, parameters);
-        return cache.get(key, k -> {
-            try {
-                List<RowData> data = delegate.executeQuery(query, parameters);
-                return deepCopy(data);
-            } catch (Exception e) {
-                throw new RuntimeException("Fehler beim Ausführen der gecachten Abfrage", e);
-            }
-        });
+        return cached(key, "Abfrage", () -> delegate.executeQuery(query, parameters));
     }
 
     // --- Methoden, die an den Delegaten weitergeleitet werden ---
@@ -68,14 +80,7 @@ public class CachedDatabaseService implements DatabaseService {
     @Override
     public List<RowData> executeRawQuery(String sql) throws Exception {
         CacheKey key = new CacheKey(null, List.of(sql)); // Einfacher Schlüssel
-        return cache.get(key, k -> {
-            try {
-                List<RowData> data = delegate.executeRawQuery(sql);
-                return deepCopy(data);
-            } catch (Exception e) {
-                throw new RuntimeException("Fehler beim Ausführen der gecachten rohen Abfrage", e);
-            }
-        });
+        return cached(key, "rohen Abfrage", () -> delegate.executeRawQuery(sql));
     }
 
     @Override
@@ -111,23 +116,30 @@ public class CachedDatabaseService implements DatabaseService {
 
     @Override
     public List<RowData> executeRawQuery(String sql, String... params) throws Exception {
+        // Nicht gecacht: Audit- und Kunden-Lookups müssen aktuelle Daten liefern.
+        // Wiederverwendet werden nur die vorbereiteten Statements (siehe DatabaseServiceImpl).
         return delegate.executeRawQuery(sql, params);
     }
 
+    @Override
+    public int streamRawQuery(String sql, List<String> parameters, QuerySource source, int maxRows,
+                              int batchSize, Consumer<List<RowData>> onBatch,
+                              util.QueryCancelHandle cancelHandle) throws Exception {
+        // Gestreamte Ergebnisse werden bewusst nicht gecacht (beliebig groß)
+        return delegate.streamRawQuery(sql, parameters, source, maxRows, batchSize, onBatch, cancelHandle);
+    }
+
+    @Override
+    public long countRawQuery(String sql, List<String> parameters, QuerySource source) {
+        return delegate.countRawQuery(sql, parameters, source);
+    }
 
     @Override
     public List<RowData> executeHartrodtQuery() throws Exception {
         // Ein einfacher Cache-Schlüssel ohne Parameter
         CacheKey key = new CacheKey(QueryRepository.OFFENE_SCHAEDEN_TOP_25, List.of("Hartrodt"));
 
-        return cache.get(key, k -> {
-            try {
-                List<RowData> data = delegate.executeHartrodtQuery();
-                return deepCopy(data);
-            } catch (Exception e) {
-                throw new RuntimeException("Fehler beim Ausführen der gecachten Hartrodt-Abfrage", e);
-            }
-        });
+        return cached(key, "Hartrodt-Abfrage", () -> delegate.executeHartrodtQuery());
     }
 
     @Override
@@ -135,14 +147,7 @@ public class CachedDatabaseService implements DatabaseService {
         // Erstelle einen Cache-Schlüssel mit der Policennummer als Parameter
         CacheKey key = new CacheKey(QueryRepository.SCHADEN_REPORT_BY_MAKLER, List.of(policyNr));
 
-        return cache.get(key, k -> {
-            try {
-                List<RowData> data = delegate.executeOpListeQuery(policyNr);
-                return deepCopy(data);
-            } catch (Exception e) {
-                throw new RuntimeException("Fehler beim Ausführen der gecachten Op-Liste-Abfrage", e);
-            }
-        });
+        return cached(key, "Op-Liste-Abfrage", () -> delegate.executeOpListeQuery(policyNr));
     }
 
     @Override
@@ -168,6 +173,8 @@ public class CachedDatabaseService implements DatabaseService {
     @Override
     public void invalidateCache() {
         cache.invalidateAll();
+        // auch die darunterliegenden Schichten (z. B. vorbereitete Statements) verwerfen
+        delegate.invalidateCache();
     }
 
     private static final class CacheKey {
@@ -3,12 +3,20 @@ package service.cache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import model.contract.CoverRecord;
+import model.contract.CoverStats;
 import model.contract.filters.CoverFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 /**
  * CoverCacheService
@@ -19,38 +27,68 @@ import java.util.Objects;
  */
 public class CoverCacheService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CoverCacheService.class);
+
     // Konfiguration der Cache-TTL (Time-to-Live)
     private static final Duration TTL_DICTS = Duration.ofHours(1);
     private static final Duration TTL_PAGES = Duration.ofMinutes(20);
     private static final Duration TTL_COUNTS = Duration.ofMinutes(3);
     private static final Duration TTL_VSN_SUGGESTIONS = Duration.ofMinutes(5);
+    private static final Duration TTL_STATS = Duration.ofMinutes(30);
+    // Ab diesem Alter werden KPIs noch ausgeliefert, aber im Hintergrund neu geladen
+    private static final Duration REFRESH_STATS_AFTER = Duration.ofMinutes(2);
+
+    // Ein Hintergrund-Thread reicht: KPI-Abfragen sollen die DB nicht parallel belasten
+    private static final ExecutorService STATS_REFRESHER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "cover-stats-refresh");
+        t.setDaemon(true);
+        return t;
+    });
 
     // Cache-Instanzen für verschiedene Datenregionen
     private final Cache<String, Map<String, String>> dictCache;
     private final Cache<String, List<CoverRecord>> pageCache;
     private final Cache<String, Integer> countCache;
     private final Cache<String, List<String>> vsnSuggestCache;
+    private final Cache<String, StatsEntry> statsCache;
+    private final Set<String> statsRefreshing = ConcurrentHashMap.newKeySet();
+    private final DictionaryDiskCache dictDisk;
 
     /**
      * Konstruktor
-     * Initialisiert die Cache-Instanzen mit ihren jeweiligen TTLs.
+     * Initialisiert die Cache-Instanzen mit ihren jeweiligen TTLs und Anteilen am Speicherbudget
+     * ({@link CacheRegistry}).
      */
     public CoverCacheService() {
-        this.dictCache = Caffeine.newBuilder()
+        this(DictionaryDiskCache.defaultLocation());
+    }
+
+    /**
+     * @param dictDisk persistenter Second-Level-Cache für Dictionaries
+     */
+    public CoverCacheService(DictionaryDiskCache dictDisk) {
+        this.dictDisk = Objects.requireNonNull(dictDisk, "dictDisk");
+        // Anteile am gemeinsamen Budget: Seiten sind groß, Zähler und KPIs winzig
+        this.dictCache = CacheRegistry.register("Cover-Dictionaries", CacheRegistry
+                .weighted(0.10, (String k, Map<String, String> v) -> CacheWeights.dictionary(v))
                 .expireAfterWrite(TTL_DICTS)
-                .build();
-        this.pageCache = Caffeine.newBuilder()
+                .build());
+        this.pageCache = CacheRegistry.register("Cover-Seiten", CacheRegistry
+                .weighted(0.30, (String k, List<CoverRecord> v) -> CacheWeights.coverRecords(v))
                 .expireAfterWrite(TTL_PAGES)
-                .maximumSize(300)
-                .build();
-        this.countCache = Caffeine.newBuilder()
+                .build());
+        this.countCache = CacheRegistry.register("Cover-Zähler", CacheRegistry
+                .weighted(0.01, (String k, Integer v) -> CacheWeights.small())
                 .expireAfterWrite(TTL_COUNTS)
-                .maximumSize(500)
-                .build();
-        this.vsnSuggestCache = Caffeine.newBuilder()
+                .build());
+        this.vsnSuggestCache = CacheRegistry.register("Cover-VSN-Vorschläge", CacheRegistry
+                .weighted(0.04, (String k, List<String> v) -> CacheWeights.strings(v))
                 .expireAfterWrite(TTL_VSN_SUGGESTIONS)
-                .maximumSize(1000)
-                .build();
+                .build());
+        this.statsCache = CacheRegistry.register("Cover-KPIs", CacheRegistry
+                .weighted(0.01, (String k, StatsEntry v) -> CacheWeights.small())
+                .expireAfterWrite(TTL_STATS)
+                .build());
     }
 
     /**
@@ -77,6 +115,17 @@ public class CoverCacheService {
         return "count|" + fh;
     }
 
+    /**
+     * Erzeugt einen stabilen Schlüssel für KPIs basierend auf dem normalisierten Filter.
+     *
+     * @param filter Filterobjekt.
+     * @return stabiler Cache-Key.
+     */
+    public String buildStatsKey(CoverFilter filter) {
+        String fh = hashFilterNormalized(filter);
+        return "stats|" + fh;
+    }
+
     /**
      * Erzeugt einen stabilen Schlüssel für Dictionaries (Tabellenname).
      *
@@ -147,6 +196,26 @@ public class CoverCacheService {
         dictCache.put(dictKey, map);
     }
 
+    /**
+     * Lädt ein Dictionary aus dem persistenten Cache (Stand des letzten Abgleichs mit der DB).
+     *
+     * @param dictTable Tabellenname, z. B. "MAKLERV".
+     * @return Map oder null, wenn keine gültige Datei vorhanden ist.
+     */
+    public Map<String, String> getDictionaryFromDisk(String dictTable) {
+        return dictDisk.load(dictTable);
+    }
+
+    /**
+     * Schreibt ein frisch geladenes Dictionary in den persistenten Cache.
+     *
+     * @param dictTable Tabellenname.
+     * @param map       Key-Value-Paare.
+     */
+    public void persistDictionary(String dictTable, Map<String, String> map) {
+        dictDisk.save(dictTable, map);
+    }
+
     /**
      * Liefert VSN-Vorschläge aus Cache oder lädt frische via Loader.
      *
@@ -164,6 +233,39 @@ public class CoverCacheService {
         });
     }
 
+    /**
+     * Liefert KPIs aus dem Cache (stale-while-revalidate).
+     * <p>
+     * Bei Miss wird synchron geladen (parallele Aufrufer mit gleichem Schlüssel warten auf
+     * dieselbe Abfrage). Ist der Eintrag älter als {@code REFRESH_STATS_AFTER}, wird der
+     * alte Wert sofort geliefert und im Hintergrund neu geladen.
+     * </p>
+     *
+     * @param key    Cache-Key von {@link #buildStatsKey(CoverFilter)}.
+     * @param loader Supplier, der die KPIs aus der DB lädt.
+     * @return CoverStats (ggf. leicht veraltet).
+     */
+    public CoverStats getStats(String key, Supplier<CoverStats> loader) {
+        StatsEntry entry = statsCache.get(key, k -> new StatsEntry(loader.get(), System.nanoTime()));
+        if (System.nanoTime() - entry.loadedAt() > REFRESH_STATS_AFTER.toNanos()) {
+            refreshStatsAsync(key, loader);
+        }
+        return entry.stats();
+    }
+
+    private void refreshStatsAsync(String key, Supplier<CoverStats> loader) {
+        if (!statsRefreshing.add(key)) return; // läuft bereits
+        STATS_REFRESHER.execute(() -> {
+            try {
+                statsCache.put(key, new StatsEntry(loader.get(), System.nanoTime()));
+            } catch (Exception e) {
+                logger.warn("KPI-Aktualisierung im Hintergrund fehlgeschlagen ({}): {}", key, e.getMessage());
+            } finally {
+                statsRefreshing.remove(key);
+            }
+        });
+    }
+
     /**
      * Leert alle Cache-Regionen.
      */
@@ -172,6 +274,7 @@ public class CoverCacheService {
         pageCache.invalidateAll();
         countCache.invalidateAll();
         vsnSuggestCache.invalidateAll();
+        statsCache.invalidateAll();
     }
 
     /**
@@ -262,6 +365,9 @@ public class CoverCacheService {
     }
 
 
+    private record StatsEntry(CoverStats stats, long loadedAt) {
+    }
+
     private String norm(String s) {
         return s == null ? "" : s.trim().toLowerCase();
     }
@@ -0,0 +1,186 @@
+package service.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import service.interfaces.DatabaseService;
+import util.FileUtil;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Dashboard-Kennzahlen nach dem Prinzip stale-while-revalidate.
+ * <p>
+ * {@link #current()} liefert sofort den letzten bekannten Stand (aus dem Speicher oder, nach einem
+ * Kaltstart, aus der Snapshot-Datei). Aktualisiert wird im Hintergrund: auf Anforderung über
+ * {@link #refreshAsync()} und periodisch, solange mindestens ein Listener registriert ist.
+ * Es läuft höchstens eine Aktualisierung gleichzeitig.
+ * </p>
+ * <p>
+ * Jeder erfolgreiche Stand wird als Properties-Datei gespeichert
+ * ({@code %APPDATA%/CarlSchroeter/dashboard-stats.properties} bzw. {@code ~/.vias/...}).
+ * </p>
+ */
+public class DashboardStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStatsService.class);
+
+    // Periodische Aktualisierung, solange das Dashboard geöffnet ist
+    private static final Duration REFRESH_INTERVAL = Duration.ofMinutes(5);
+    private static final String LOADED_AT_KEY = "_loadedAt";
+
+    private final DatabaseService databaseService;
+    private final Path snapshotFile;
+    private final CopyOnWriteArrayList<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "dashboard-stats-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Snapshot current;
+    private ScheduledFuture<?> periodic;
+
+    public DashboardStatsService(DatabaseService databaseService) {
+        this(databaseService, defaultSnapshotFile());
+    }
+
+    /**
+     * @param snapshotFile Datei für den letzten Stand ({@code null} = nicht persistieren)
+     */
+    public DashboardStatsService(DatabaseService databaseService, Path snapshotFile) {
+        this.databaseService = databaseService;
+        this.snapshotFile = snapshotFile;
+        this.current = loadSnapshot(snapshotFile);
+    }
+
+    /**
+     * Letzter bekannter Stand oder {@code null}, wenn noch nie geladen wurde.
+     */
+    public Snapshot current() {
+        return current;
+    }
+
+    /**
+     * Registriert einen Listener für neue Stände und startet die periodische Aktualisierung.
+     * Der Listener wird im Hintergrund-Thread aufgerufen.
+     */
+    public synchronized void subscribe(Consumer<Snapshot> listener) {
+        listeners.addIfAbsent(listener);
+        if (periodic == null) {
+            long period = REFRESH_INTERVAL.toMillis();
+            periodic = scheduler.scheduleWithFixedDelay(this::refresh, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Meldet einen Listener ab; ohne Listener ruht die periodische Aktualisierung.
+     */
+    public synchronized void unsubscribe(Consumer<Snapshot> listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty() && periodic != null) {
+            periodic.cancel(false);
+            periodic = null;
+        }
+    }
+
+    /**
+     * Stößt eine Aktualisierung im Hintergrund an. Läuft bereits eine, passiert nichts.
+     */
+    public void refreshAsync() {
+        scheduler.execute(this::refresh);
+    }
+
+    /**
+     * Lädt die Kennzahlen synchron neu, benachrichtigt die Listener und speichert den Snapshot.
+     *
+     * @return der neue Stand, oder der bisherige, wenn bereits geladen wird oder das Laden fehlschlägt
+     */
+    Snapshot refresh() {
+        if (!refreshing.compareAndSet(false, true)) return current;
+        try {
+            Map<String, Integer> values = databaseService.getDashboardStatistics();
+            Snapshot snapshot = new Snapshot(Collections.unmodifiableMap(new LinkedHashMap<>(values)), Instant.now(), null);
+            current = snapshot;
+            saveSnapshot(snapshot);
+            listeners.forEach(l -> l.accept(snapshot));
+            return snapshot;
+        } catch (Exception e) {
+            logger.warn("⚠️ Dashboard-Kennzahlen konnten nicht aktualisiert werden: {}", e.getMessage());
+            Snapshot failed = new Snapshot(current != null ? current.values() : Map.of(),
+                    current != null ? current.loadedAt() : null, e);
+            listeners.forEach(l -> l.accept(failed));
+            return current;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private void saveSnapshot(Snapshot snapshot) {
+        if (snapshotFile == null) return;
+        Properties props = new Properties();
+        snapshot.values().forEach((k, v) -> props.setProperty(k, String.valueOf(v)));
+        props.setProperty(LOADED_AT_KEY, String.valueOf(snapshot.loadedAt().toEpochMilli()));
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            // erst in eine temporäre Datei schreiben, damit ein Abbruch keinen halben Snapshot hinterlässt
+            Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                props.store(w, "Dashboard-Kennzahlen");
+            }
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            logger.warn("⚠️ Dashboard-Snapshot konnte nicht gespeichert werden: {}", e.getMessage());
+        }
+    }
+
+    private static Snapshot loadSnapshot(Path file) {
+        if (file == null || !Files.exists(file)) return null;
+        Properties props = new Properties();
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(r);
+            Instant loadedAt = Instant.ofEpochMilli(Long.parseLong(props.getProperty(LOADED_AT_KEY)));
+            Map<String, Integer> values = new LinkedHashMap<>();
+            for (String key : props.stringPropertyNames()) {
+                if (!LOADED_AT_KEY.equals(key)) values.put(key, Integer.parseInt(props.getProperty(key)));
+            }
+            return new Snapshot(Collections.unmodifiableMap(values), loadedAt, null);
+        } catch (Exception e) {
+            logger.warn("⚠️ Dashboard-Snapshot {} ist ungültig und wird ignoriert: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Path defaultSnapshotFile() {
+        return FileUtil.userAppHome().resolve("dashboard-stats.properties");
+    }
+
+    /**
+     * Stand der Kennzahlen.
+     *
+     * @param values   Titel der Kachel -> Wert
+     * @param loadedAt Zeitpunkt der Abfrage ({@code null}, wenn nie geladen)
+     * @param error    Fehler der letzten Aktualisierung, sonst {@code null}
+     */
+    public record Snapshot(Map<String, Integer> values, Instant loadedAt, Exception error) {
+    }
+}
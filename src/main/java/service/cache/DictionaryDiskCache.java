@@ -0,0 +1,111 @@
+package service.cache;
+
+import config.ApplicationConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.FileUtil;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Persistenter Second-Level-Cache für Dictionaries (MAKLERV, MAP_ALLE_*, SACHBEA_FULL, ...).
+ * <p>
+ * Jedes Dictionary liegt als kompakte Binärdatei im Benutzer-Anwendungsverzeichnis
+ * ({@link FileUtil#userAppHome()}{@code /dict-cache/<NAME>.bin}), damit beim Start sofort Werte
+ * vorhanden sind und die Datenbank nur noch im Hintergrund abgeglichen wird.
+ * </p>
+ * <p>
+ * Aufbau: Magic, Formatversion, Anwendungsversion, Name, Zeitstempel, Anzahl und dann die
+ * Schlüssel/Wert-Paare (modified UTF-8). Dateien mit anderer Format- oder Anwendungsversion
+ * werden ignoriert und beim nächsten Laden aus der Datenbank überschrieben.
+ * </p>
+ */
+public class DictionaryDiskCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryDiskCache.class);
+
+    private static final int MAGIC = 0x56444331; // "VDC1"
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path dir;
+
+    public DictionaryDiskCache(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Cache im Standardverzeichnis {@code <userAppHome>/dict-cache}.
+     */
+    public static DictionaryDiskCache defaultLocation() {
+        return new DictionaryDiskCache(FileUtil.userAppHome().resolve("dict-cache"));
+    }
+
+    /**
+     * Lädt ein Dictionary von der Platte.
+     *
+     * @return die Einträge in gespeicherter Reihenfolge, oder {@code null}, wenn keine gültige Datei existiert.
+     */
+    public Map<String, String> load(String name) {
+        Path file = fileFor(name);
+        if (!Files.isRegularFile(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                    || !ApplicationConfig.APP_VERSION.equals(in.readUTF())
+                    || !normalize(name).equals(in.readUTF())) {
+                logger.info("Dictionary-Cache {} hat eine andere Version und wird neu aufgebaut.", file.getFileName());
+                return null;
+            }
+            in.readLong(); // Zeitpunkt der Speicherung (nur zur Diagnose)
+            int size = in.readInt();
+            Map<String, String> dict = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+            for (int i = 0; i < size; i++) {
+                dict.put(in.readUTF(), in.readUTF());
+            }
+            return dict;
+        } catch (Exception e) {
+            logger.warn("⚠️ Dictionary-Cache {} ist unlesbar und wird ignoriert: {}", file.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Speichert ein Dictionary (atomar über eine temporäre Datei). Fehler werden nur protokolliert.
+     */
+    public void save(String name, Map<String, String> dict) {
+        if (dict == null) return;
+        Path file = fileFor(name);
+        try {
+            Files.createDirectories(dir);
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(ApplicationConfig.APP_VERSION);
+                out.writeUTF(normalize(name));
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(dict.size());
+                for (Map.Entry<String, String> e : dict.entrySet()) {
+                    out.writeUTF(e.getKey() == null ? "" : e.getKey());
+                    out.writeUTF(e.getValue() == null ? "" : e.getValue());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            logger.warn("⚠️ Dictionary-Cache {} konnte nicht gespeichert werden: {}", file.getFileName(), e.getMessage());
+        }
+    }
+
+    private Path fileFor(String name) {
+        return dir.resolve(normalize(name).replaceAll("[^A-Z0-9_]", "_") + ".bin");
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toUpperCase(Locale.ROOT);
+    }
+}
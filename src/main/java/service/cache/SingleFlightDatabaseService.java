@@ -0,0 +1,256 @@
+package service.cache;
+
+import dto.AbRow;
+import dto.LaRow;
+import dto.LmpRow;
+import model.RowData;
+import model.RowSnapshot;
+import model.enums.ExportFormat;
+import model.enums.QueryRepository;
+import model.enums.QuerySource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import service.interfaces.DatabaseService;
+import util.QueryCancelHandle;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Decorator, der identische, gleichzeitig laufende Abfragen zusammenfasst (single-flight).
+ * <p>
+ * Kommt eine Abfrage mit derselben Methode, demselben SQL und denselben Parametern an, während
+ * die erste noch läuft, wartet sie auf deren Ergebnis statt die Datenbank erneut zu belasten.
+ * Unabhängig davon, ob das Ergebnis danach gecacht wird: Sitzt dieser Decorator unter
+ * {@link CachedDatabaseService}, fasst er auch die nicht gecachten Methoden und gleichzeitige
+ * Cache-Misses zusammen.
+ * </p>
+ * <p>
+ * Das Ergebnis wird einmal unveränderlich eingefroren (Zeilen als {@link RowSnapshot}); jeder
+ * Aufrufer – auch der erste – erhält daraus eine eigene Kopie, damit sich die Aufrufer nicht
+ * gegenseitig die Daten verändern. Fehler werden an alle
+ * Wartenden weitergereicht. Exporte und gestreamte Abfragen werden nicht zusammengefasst:
+ * sie schreiben Dateien bzw. liefern Zeilen an aufruferspezifische Consumer.
+ * </p>
+ */
+public class SingleFlightDatabaseService implements DatabaseService {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleFlightDatabaseService.class);
+
+    private final DatabaseService delegate;
+    private final ConcurrentHashMap<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlightDatabaseService(DatabaseService delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Anzahl aktuell laufender (zusammengefasster) Abfragen.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    @Override
+    public List<RowData> executeQuery(QueryRepository query, List<String> parameters) throws Exception {
+        return flight(new FlightKey("query", query, parameters), ROWS,
+                () -> delegate.executeQuery(query, parameters));
+    }
+
+    @Override
+    public List<RowData> executeRawQuery(String sql) throws Exception {
+        return flight(new FlightKey("raw", sql, List.of()), ROWS,
+                () -> delegate.executeRawQuery(sql));
+    }
+
+    @Override
+    public List<RowData> executeRawQuery(String sql, String... params) throws Exception {
+        List<String> keyParams = params == null ? List.of() : Arrays.asList(params.clone());
+        return flight(new FlightKey("raw", sql, keyParams), ROWS,
+                () -> delegate.executeRawQuery(sql, params));
+    }
+
+    @Override
+    public Map<String, Integer> getDashboardStatistics() throws Exception {
+        return flight(new FlightKey("dashboard", null, List.of()),
+                new Share<Map<String, Integer>, Map<String, Integer>>(
+                        m -> Collections.unmodifiableMap(new LinkedHashMap<>(m)), LinkedHashMap::new),
+                delegate::getDashboardStatistics);
+    }
+
+    @Override
+    public Map<String, RowData> getSchadenDetailsByMaklerSnrBulk(List<String> snrMaklerList) throws Exception {
+        return flight(new FlightKey("schadenBulk", null, snrMaklerList == null ? List.of() : snrMaklerList),
+                ROW_MAP,
+                () -> delegate.getSchadenDetailsByMaklerSnrBulk(snrMaklerList));
+    }
+
+    @Override
+    public List<RowData> executeHartrodtQuery() throws Exception {
+        return flight(new FlightKey("hartrodt", null, List.of()), ROWS,
+                delegate::executeHartrodtQuery);
+    }
+
+    @Override
+    public List<RowData> executeOpListeQuery(String policyNr) throws Exception {
+        return flight(new FlightKey("opListe", null, Collections.singletonList(policyNr)),
+                ROWS,
+                () -> delegate.executeOpListeQuery(policyNr));
+    }
+
+    @Override
+    public List<AbRow> fetchAbrechnungMinimal() throws Exception {
+        return flight(new FlightKey("abrechnungMin", null, List.of()), list(),
+                delegate::fetchAbrechnungMinimal);
+    }
+
+    @Override
+    public List<LaRow> fetchLuAlleMinimal() throws Exception {
+        return flight(new FlightKey("luAlleMin", null, List.of()), list(),
+                delegate::fetchLuAlleMinimal);
+    }
+
+    @Override
+    public List<LmpRow> fetchLuMaskepMinimal() throws Exception {
+        return flight(new FlightKey("luMaskepMin", null, List.of()), list(),
+                delegate::fetchLuMaskepMinimal);
+    }
+
+    @Override
+    public long countRawQuery(String sql, List<String> parameters, QuerySource source) {
+        try {
+            return flight(new FlightKey("count:" + source, sql, parameters == null ? List.of() : parameters),
+                    new Share<Long, Long>(UnaryOperator.identity(), UnaryOperator.identity()),
+                    () -> delegate.countRawQuery(sql, parameters, source));
+        } catch (Exception e) {
+            // countRawQuery liefert bei Fehlern -1 statt zu werfen
+            return -1;
+        }
+    }
+
+    // --- Nicht zusammengefasst: Seiteneffekte bzw. aufruferspezifische Consumer ---
+
+    @Override
+    public void executeQuery(String sql, Consumer<RowData> processor) {
+        delegate.executeQuery(sql, processor);
+    }
+
+    @Override
+    public int streamRawQuery(String sql, List<String> parameters, QuerySource source, int maxRows,
+                              int batchSize, Consumer<List<RowData>> onBatch,
+                              QueryCancelHandle cancelHandle) throws Exception {
+        return delegate.streamRawQuery(sql, parameters, source, maxRows, batchSize, onBatch, cancelHandle);
+    }
+
+    @Override
+    public void exportToFile(String sql, String outputPath, ExportFormat format) {
+        delegate.exportToFile(sql, outputPath, format);
+    }
+
+    @Override
+    public void exportToFile(QueryRepository query, List<String> parameters, String outputPath, ExportFormat format) throws Exception {
+        delegate.exportToFile(query, parameters, outputPath, format);
+    }
+
+    @Override
+    public void exportRawQueryToFile(String sql, String outputPath, ExportFormat format) throws Exception {
+        delegate.exportRawQueryToFile(sql, outputPath, format);
+    }
+
+    @Override
+    public void invalidateCache() {
+        delegate.invalidateCache();
+    }
+
+    // --- Single-flight ---
+
+    /**
+     * Führt {@code loader} aus oder hängt sich an eine laufende Ausführung mit gleichem Schlüssel an.
+     * Geteilt wird nur der eingefrorene Stand; jeder Aufrufer taut sich eine eigene Kopie auf.
+     *
+     * @param share friert das Ergebnis ein bzw. erzeugt daraus die Kopie eines Aufrufers
+     */
+    @SuppressWarnings("unchecked")
+    private <T, S> T flight(FlightKey key, Share<T, S> share, Loader<T> loader) throws Exception {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+
+        if (running != null) {
+            log.debug("🔗 Abfrage läuft bereits, warte auf Ergebnis: {}", key);
+            try {
+                return share.thaw((S) running.get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception ex) throw ex;
+                if (cause instanceof Error err) throw err;
+                throw e;
+            }
+        }
+
+        S frozen;
+        try {
+            T result = loader.load();
+            frozen = result == null ? null : share.freeze.apply(result);
+            mine.complete(frozen);
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+        return share.thaw(frozen);
+    }
+
+    private static final Share<List<RowData>, List<RowSnapshot>> ROWS =
+            new Share<>(RowSnapshot::ofAll, RowSnapshot::toRows);
+
+    private static final Share<Map<String, RowData>, Map<String, RowSnapshot>> ROW_MAP =
+            new Share<>(SingleFlightDatabaseService::freezeRowMap, SingleFlightDatabaseService::thawRowMap);
+
+    /**
+     * DTO-Records sind unveränderlich: eine flache Kopie der Liste reicht.
+     */
+    private static <E> Share<List<E>, List<E>> list() {
+        return new Share<>(l -> Collections.unmodifiableList(new ArrayList<>(l)), ArrayList::new);
+    }
+
+    private static Map<String, RowSnapshot> freezeRowMap(Map<String, RowData> src) {
+        Map<String, RowSnapshot> frozen = new HashMap<>(src.size() * 2);
+        src.forEach((k, r) -> frozen.put(k, RowSnapshot.of(r)));
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    private static Map<String, RowData> thawRowMap(Map<String, RowSnapshot> src) {
+        Map<String, RowData> copy = new HashMap<>(src.size() * 2);
+        src.forEach((k, r) -> copy.put(k, r.toRow()));
+        return copy;
+    }
+
+    /**
+     * Einfrieren des Ergebnisses (einmal, im ausführenden Thread) und Auftauen pro Aufrufer.
+     */
+    private record Share<T, S>(Function<T, S> freeze, Function<S, T> thaw) {
+        T thaw(S frozen) {
+            return frozen == null ? null : thaw.apply(frozen);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    /**
+     * Schlüssel einer Abfrage: Methode, SQL bzw. Query und Parameter (dürfen {@code null} enthalten).
+     */
+    private record FlightKey(String op, Object query, List<String> params) {
+        private FlightKey {
+            params = Collections.unmodifiableList(new ArrayList<>(params));
+        }
+    }
+}
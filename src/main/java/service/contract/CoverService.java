@@ -8,6 +8,7 @@ import model.contract.CoverDetails;
 import model.contract.CoverRecord;
 import model.contract.CoverStats;
 import model.contract.filters.CoverFilter;
+import model.enums.QuerySource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import service.cache.CoverCacheService;
@@ -15,10 +16,16 @@ import service.contract.rbac.CoverAccessGuard;
 import service.contract.repository.CoverDetailsRepository;
 import service.contract.repository.CoverRepository;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * CoverService
@@ -31,16 +38,39 @@ import java.util.Objects;
  * <li>Laden von Detaildaten (ein Vertrag per VSN)</li>
  * <li>Bereitstellung eines DataLoader für effiziente Exporte</li>
  * <li>Aggregierte Kennzahlen (KPIs)</li>
+ * <li>Dictionaries mit persistentem Cache und Abgleich im Hintergrund</li>
  * </ul>
  */
 public class CoverService {
     private static final Logger logger = LoggerFactory.getLogger(CoverService.class);
+    // Zeilen je Block beim sortierten Streaming (Export)
+    private static final int STREAM_BATCH_SIZE = 1_000;
+
+    // Beim Start vorgeladene Dictionaries (SACHBEA_FULL für die SB-Namen im Formatter)
+    private static final String[] PRELOADED_DICTS = {
+            "MAKLERV",
+            "MAP_ALLE_OPZ",
+            "MAP_ALLE_STA",
+            "MAP_ALLE_BETSTAT",
+            "MAP_ALLE_GBEREICH",
+            "MAP_ALLE_COVERRIS",
+            "SACHBEA_FULL"
+    };
+
+    // Ein Thread reicht: die Dictionaries werden nacheinander mit der DB abgeglichen
+    private static final ExecutorService DICT_REVALIDATOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "dict-revalidate");
+        t.setDaemon(true);
+        return t;
+    });
 
     private final CoverAccessGuard accessGuard;
     private final CoverCacheService coverCache;
     private final CoverRepository coverRepository;
     private final CoverDetailsRepository detailsRepository;
     private final CoverFormatter coverFormatter;
+    private final Set<String> dictsRevalidating = ConcurrentHashMap.newKeySet();
+    private final List<BiConsumer<String, Map<String, String>>> dictListeners = new CopyOnWriteArrayList<>();
 
     public CoverService(CoverAccessGuard accessGuard,
                         CoverCacheService coverCache,
@@ -74,13 +104,10 @@ public class CoverService {
         List<RowData> rows = coverRepository.fetchPageRaw(filter, p, s);
 
         if (filter.getGroupBy() != null && !filter.getGroupBy().isEmpty()) {
-            var grouped = GroupingUtil.groupRows(rows, filter.getGroupBy());
-            List<RowData> groupedRows = new ArrayList<>();
-            grouped.values().forEach(groupedRows::addAll);
-            rows = groupedRows;
+            rows = GroupingUtil.group(rows, filter.getGroupBy()).rows();
         }
 
-        return new CoverPageRaw(rows, total);
+        return new CoverPageRaw(rows, pageableTotal(total), total > maxRows());
     }
 
     /*
@@ -113,9 +140,27 @@ public class CoverService {
             coverCache.putCount(countKey, total);
         }
 
-        return new CoverPage(rows, total);
+        return new CoverPage(rows, pageableTotal(total), total > maxRows());
     }
 
+    /**
+     * Obergrenze der Ergebnisliste (Paging und Export), siehe {@link QuerySource#COVER}.
+     * Seiten hinter dieser Grenze liefert die DB nicht mehr.
+     */
+    public static int maxRows() {
+        return QuerySource.COVER.getMaxRows();
+    }
+
+    /**
+     * Anzahl blätterbarer Zeilen: die Trefferzahl, höchstens {@link #maxRows()}.
+     */
+    public static int pageableTotal(int total) {
+        return Math.min(total, maxRows());
+    }
+
+    /**
+     * Tatsächliche Trefferzahl (kann über {@link #maxRows()} liegen, siehe {@link #pageableTotal(int)}).
+     */
     public int count(String username, CoverFilter filter) {
         //accessGuard.checkView(username);
         String countKey = coverCache.buildCountKey(filter);
@@ -139,7 +184,10 @@ public class CoverService {
      */
     public CoverStats getStats(String username, CoverFilter filter) {
         //accessGuard.checkView(username);
-        return coverRepository.fetchStats(filter);
+        // Der Filter ist veränderlich (UI): Schlüssel und (Hintergrund-)Refresh arbeiten auf einer Kopie
+        CoverFilter snapshot = new CoverFilter(filter);
+        String statsKey = coverCache.buildStatsKey(snapshot);
+        return coverCache.getStats(statsKey, () -> coverRepository.fetchStats(snapshot));
     }
 
     // =====================================================================================
@@ -159,39 +207,130 @@ public class CoverService {
     }
 
     public DataLoader getRawDataLoader(String username, CoverFilter filter) {
-        return (pageIndex, rowsPerPage) -> searchRaw(username, filter, pageIndex, rowsPerPage).getRows();
+        return new DataLoader() {
+            @Override
+            public List<RowData> loadPage(int pageIndex, int rowsPerPage) {
+                return searchRaw(username, filter, pageIndex, rowsPerPage).getRows();
+            }
+
+            @Override
+            public Map<String, Integer> nonEmptyCounts() {
+                return CoverService.this.nonEmptyCounts(username, filter);
+            }
+
+            @Override
+            public int streamSorted(List<String> orderBy, Consumer<List<RowData>> onBatch) throws Exception {
+                //accessGuard.checkView(username);
+                return coverRepository.streamSorted(filter, orderBy, STREAM_BATCH_SIZE, onBatch);
+            }
+
+            @Override
+            public boolean canStreamSorted() {
+                return true;
+            }
+
+            @Override
+            public int streamLimit() {
+                return maxRows();
+            }
+        };
     }
 
+    /**
+     * Nicht-leere Werte je Spalte für den Filter (eine Aggregat-Abfrage, siehe
+     * {@link CoverRepository#fetchNonEmptyCounts(CoverFilter)}).
+     */
+    public Map<String, Integer> nonEmptyCounts(String username, CoverFilter filter) {
+        //accessGuard.checkView(username);
+        return coverRepository.fetchNonEmptyCounts(filter);
+    }
+
+    /**
+     * Liefert ein Dictionary: aus dem Speicher, sonst aus dem persistenten Cache (danach Abgleich
+     * mit der DB im Hintergrund), sonst direkt aus der DB.
+     */
     public Map<String, String> getDictionary(String username, String table) {
         //accessGuard.checkView(username);
         String key = coverCache.buildDictKey(table);
         Map<String, String> dict = coverCache.getDictionary(key);
         if (dict == null) {
-            dict = coverRepository.fetchDictionary(table);
-            coverCache.putDictionary(key, dict);
+            dict = coverCache.getDictionaryFromDisk(table);
+            if (dict != null) {
+                coverCache.putDictionary(key, dict);
+                revalidateDictAsync(table);
+            } else {
+                dict = loadDictionary(table);
+            }
         }
         return dict;
     }
 
+    /**
+     * Lädt die Dictionaries beim Start aus dem persistenten Cache (ohne DB-Zugriff) und gleicht
+     * sie im Hintergrund mit der DB ab. Fehlt eine Datei, wird das Dictionary nur im Hintergrund geladen.
+     */
     public void preloadDicts(String username) {
         //accessGuard.checkView(username);
-        String[] tables = new String[]{
-                "MAKLERV",
-                "MAP_ALLE_OPZ",
-                "MAP_ALLE_STA",
-                "MAP_ALLE_BETSTAT",
-                "MAP_ALLE_GBEREICH",
-                "MAP_ALLE_COVERRIS"
-        };
-        for (String t : tables) {
+        for (String t : PRELOADED_DICTS) {
             String key = coverCache.buildDictKey(t);
             if (coverCache.getDictionary(key) == null) {
-                var dict = coverRepository.fetchDictionary(t);
-                coverCache.putDictionary(key, dict);
+                Map<String, String> fromDisk = coverCache.getDictionaryFromDisk(t);
+                if (fromDisk != null) {
+                    coverCache.putDictionary(key, fromDisk);
+                }
+                revalidateDictAsync(t);
             }
         }
     }
 
+    private Map<String, String> loadDictionary(String table) {
+        Map<String, String> dict = coverRepository.fetchDictionary(table);
+        coverCache.putDictionary(coverCache.buildDictKey(table), dict);
+        if (dict != null && !dict.isEmpty()) {
+            coverCache.persistDictionary(table, dict);
+        }
+        return dict;
+    }
+
+    /**
+     * Meldet Dictionaries, die der Hintergrundabgleich gegenüber dem gespeicherten Stand geändert hat
+     * (Tabellenname, neuer Stand). Der Listener wird im Hintergrund-Thread aufgerufen.
+     */
+    public void addDictionaryListener(BiConsumer<String, Map<String, String>> listener) {
+        dictListeners.add(listener);
+    }
+
+    public void removeDictionaryListener(BiConsumer<String, Map<String, String>> listener) {
+        dictListeners.remove(listener);
+    }
+
+    private void revalidateDictAsync(String table) {
+        if (!dictsRevalidating.add(table)) return; // läuft bereits
+        DICT_REVALIDATOR.execute(() -> {
+            try {
+                Map<String, String> fresh = coverRepository.fetchDictionary(table);
+                if (fresh == null || fresh.isEmpty()) {
+                    // leeres Ergebnis = eher DB-Problem: vorhandenen Stand behalten
+                    logger.warn("Dictionary {} aus der DB ist leer, behalte gespeicherten Stand.", table);
+                    return;
+                }
+                String key = coverCache.buildDictKey(table);
+                boolean changed = !fresh.equals(coverCache.getDictionary(key));
+                if (changed) {
+                    coverCache.putDictionary(key, fresh);
+                }
+                coverCache.persistDictionary(table, fresh);
+                if (changed) {
+                    dictListeners.forEach(l -> l.accept(table, fresh));
+                }
+            } catch (Exception e) {
+                logger.warn("Dictionary {} konnte im Hintergrund nicht abgeglichen werden: {}", table, e.getMessage());
+            } finally {
+                dictsRevalidating.remove(table);
+            }
+        });
+    }
+
     // =====================================================================================
     // DTOs für Paged-Ergebnisse
     // =====================================================================================
@@ -199,10 +338,20 @@ public class CoverService {
     public static final class CoverPage {
         private final List<CoverRecord> rows;
         private final int total;
+        private final boolean truncated;
 
         public CoverPage(List<CoverRecord> rows, int total) {
+            this(rows, total, false);
+        }
+
+        /**
+         * @param total     blätterbare Zeilen
+         * @param truncated {@code true}, wenn die Trefferzahl über der Obergrenze liegt
+         */
+        public CoverPage(List<CoverRecord> rows, int total, boolean truncated) {
             this.rows = rows;
             this.total = total;
+            this.truncated = truncated;
         }
 
         public List<CoverRecord> getRows() {
@@ -212,15 +361,29 @@ public class CoverService {
         public int getTotal() {
             return total;
         }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
     }
 
     public static final class CoverPageRaw {
         private final List<RowData> rows;
         private final int total;
+        private final boolean truncated;
 
         public CoverPageRaw(List<RowData> rows, int total) {
+            this(rows, total, false);
+        }
+
+        /**
+         * @param total     blätterbare Zeilen
+         * @param truncated {@code true}, wenn die Trefferzahl über der Obergrenze liegt
+         */
+        public CoverPageRaw(List<RowData> rows, int total, boolean truncated) {
             this.rows = rows;
             this.total = total;
+            this.truncated = truncated;
         }
 
         public List<RowData> getRows() {
@@ -230,5 +393,9 @@ public class CoverService {
         public int getTotal() {
             return total;
         }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
     }
 }
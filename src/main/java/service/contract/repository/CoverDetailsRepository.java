@@ -34,19 +34,16 @@ public class CoverDetailsRepository {
      * @return CoverDetails oder null, wenn nicht gefunden.
      */
     public CoverDetails fetchDetailsByVsn(String vsn) {
-        String sql = buildDetailsSqlByVsn(vsn);
-        List<RowData> rows = executeQuery(sql);
+        List<RowData> rows = executeQuery(DETAILS_BY_VSN_SQL, vsn == null ? "" : vsn.trim());
         if (rows.isEmpty()) return null;
         return mapToDetails(rows.get(0));
     }
 
     // =====================================================================================
     // SQL (alle Quellfelder mit LU_-Präfix; VIAS-freundliche Alias-Ausgabe)
+    // Konstante Form mit gebundener VSN → ein einziges vorbereitetes Statement für alle Abrufe
     // =====================================================================================
-    private String buildDetailsSqlByVsn(String vsn) {
-        String v = escape(vsn);
-
-        return ""
+    private static final String DETAILS_BY_VSN_SQL = ""
                 + "SELECT \n"
                 // Block 0 – Versicherungsnehmer
                 + "  LUM.LU_NAM                          AS Versicherungsnehmer_Name,\n"
@@ -142,8 +139,7 @@ public class CoverDetailsRepository {
                 + "LEFT JOIN MAP_ALLE_OPZ         AS MAO ON COVER.LU_OPZ        = MAO.TAB_ID\n"
                 + "LEFT JOIN MAP_ALLE_STA         AS MAS ON COVER.LU_STA        = MAS.TAB_ID\n"
                 + "LEFT JOIN MAP_ALLE_GBEREICH    AS MAG ON COVER.LU_GBEREICH   = MAG.TAB_ID\n"
-                + "WHERE COVER.Sparte LIKE '%COVER' AND COVER.LU_VSN = '" + v + "'\n";
-    }
+                + "WHERE COVER.Sparte LIKE '%COVER' AND COVER.LU_VSN = ?\n";
 
     // =====================================================================================
     // Mapping (RowData → CoverDetails) — Keys = Aliasnamen
@@ -248,15 +244,15 @@ public class CoverDetailsRepository {
     // DB-Ausführung (Reflexion wie vereinbart)
     // =====================================================================================
     @SuppressWarnings("unchecked")
-    private List<RowData> executeQuery(String sql) {
+    private List<RowData> executeQuery(String sql, String... params) {
         try {
-            return databaseService.executeRawQuery(sql);
+            return databaseService.executeRawQuery(sql, params);
         } catch (NoSuchMethodError | NoSuchMethodException e) {
             try {
                 for (String methodName : new String[]{"executeRawQuery", "executeQuery", "query", "runQuery", "execute"}) {
                     try {
-                        Method m = databaseService.getClass().getMethod(methodName, String.class);
-                        Object result = m.invoke(databaseService, sql);
+                        Method m = databaseService.getClass().getMethod(methodName, String.class, String[].class);
+                        Object result = m.invoke(databaseService, sql, params);
                         if (result instanceof List<?>) {
                             return (List<RowData>) result;
                         }
@@ -273,8 +269,4 @@ public class CoverDetailsRepository {
             throw new IllegalStateException("Datenbankabfrage fehlgeschlagen: " + msg + " | SQL=" + sql, e);
         }
     }
-
-    private String escape(String s) {
-        return s == null ? "" : s.replace("'", "''").trim();
-    }
 }
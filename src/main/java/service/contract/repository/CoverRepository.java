@@ -5,13 +5,14 @@ import model.RowData;
 import model.contract.CoverRecord;
 import model.contract.CoverStats;
 import model.contract.filters.CoverFilter;
+import model.enums.QuerySource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import service.interfaces.DatabaseService;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * CoverRepository
@@ -46,6 +47,114 @@ public class CoverRepository {
             "COVER.LU_SACHBEA_DOK",
             "COVER.LU_SACHBEA_BUH"
     );
+    private static final String VSN_LIKE_SQL = "SELECT DISTINCT COVER.LU_VSN AS VSN FROM LU_ALLE AS COVER "
+            + "WHERE COVER.Sparte LIKE '%COVER' "
+            + "AND COVER.LU_VSN IS NOT NULL AND COVER.LU_VSN <> '' "
+            + "AND COVER.LU_VSN LIKE ? ORDER BY COVER.LU_VSN";
+
+    /**
+     * Spalten der Ergebnisliste als (Ausdruck, Alias) in Anzeigereihenfolge; die Aliase sind die
+     * Schlüssel der {@link RowData}. Wird auch für die serverseitige Spaltenstatistik genutzt.
+     */
+    private static final List<String[]> LIST_COLUMNS = List.of(
+            // Muss zuerst sein
+            col("COVER.LU_VSN", "Versicherungsschein_Nr"),
+            col("LUM.LU_NAM", "Versicherungsnehmer_Name"),
+            col("COVER.LU_RIS_ID", "Versicherungsart_Code"),
+            col("COVER.LU_RIS", "Versicherungsart_Text"),
+            col("COVER.LU_GES_Text", "Gesellschaft_Name"),
+            col("COVER.LU_VMT", "MaklerNr"),
+            col("VMT.LU_VNA", "Makler"),
+            col("COVER.LU_VMT2", "Altmakler"),
+            col("COVER.LU_ART", "Vertragsparte_Code"),
+            col("COVER.LU_ART_Text", "Vertragsparte_Text"),
+            col("COVER.LU_BAUST_RIS", "Baustein_Typ_Code"),
+            col("MCR.TAB_VALUE", "Baustein_Typ_Text"),
+
+            // Block 0 – Versicherungsnehmer
+            col("LUM.LU_VOR", "Versicherungsnehmer_Vorname"),
+            col("LUM.LU_NA2", "Versicherungsnehmer_Name2"),
+            col("LUM.LU_NA3", "Versicherungsnehmer_Name3"),
+            col("LUM.LU_STRASSE", "Versicherungsnehmer_Strasse"),
+            col("LUM.LU_PLZ", "Versicherungsnehmer_PLZ"),
+            col("LUM.LU_ORT", "Versicherungsnehmer_Ort"),
+            col("LUM.LU_NAT", "Versicherungsnehmer_Nation"),
+
+            // Block 1 – Basis/Art/Risiko
+            col("COVER.LU_VSN_VR", "VSN_Versicherer"),
+            col("COVER.LU_VSN_MAKLER", "VSN_Makler"),
+
+            // Block 2 – Laufzeit/Status
+            col("COVER.LU_NEUVERTRAG_JN", "Beginn_Neuvertrag_JN"),
+            col("COVER.LU_BEG", "Beginn_Datum"),
+            col("COVER.LU_BEGUHR", "Beginn_Uhrzeit"),
+            col("COVER.LU_ABL", "Ablauf_Datum"),
+            col("COVER.LU_ABLUHR", "Ablauf_Uhrzeit"),
+            col("COVER.LU_HFL", "Hauptfaelligkeit"),
+            col("COVER.LU_LFZ", "Laufzeit_Jahre"),
+            col("COVER.LU_VERTRAG_ART", "Laufender_Vertrag"),
+            col("COVER.LU_A99_JN", "Buchung_nach_Ablaufdatum"),
+            col("COVER.LU_VERS_GRUND", "Versionierungsgrund"),
+            col("COVER.LU_FLG", "Version_von"),
+            col("COVER.LU_FLZ", "Version_bis"),
+            col("COVER.LU_STATUS", "Version_Status"),
+
+            // Block 3 – Zusatzinfo
+            col("COVER.LU_VUF_KDR", "Fuehrender_Versicherer"),
+            col("COVER.LU_FUF_ANTEIL", "Anteil_VR_Prozent"),
+            col("COVER.LU_VUF_BEM", "Bemerkung_VR"),
+            col("COVER.LU_VUA_KDR", "Assekuradeur"),
+            col("COVER.LU_VUA_ANTEIL", "Anteil_Assek_Prozent"),
+            col("COVER.LU_VUA_BEM", "Bemerkung_Assek"),
+
+            // Block 4 – Vorgang & Partner
+            col("COVER.LU_VORGANG_ID", "Vorgang_ID"),
+            col("COVER.LU_GES", "Gesellschaft_Code"),
+            col("COVER.LU_SPAKZ", "Courtagesatz"),
+            col("COVER.LU_AGT", "Prov_Vereinbarung"),
+
+            // Block 5 – Status/Pool/Fronting/Bearbeitungsstand
+            col("COVER.LU_BET_STAT", "Beteiligungsform_Code"),
+            col("MABT.TAB_VALUE", "Beteiligungsform_Text"),
+            col("COVER.LU_POOLNR", "Pool_Nr"),
+            col("COVER.LU_OPZ", "Vertragsstatus_Code"),
+            col("MAO.TAB_VALUE", "Vertragsstatus_Text"),
+            col("COVER.LU_STA", "Vertragsstand_Code"),
+            col("MASTA.TAB_VALUE", "Vertragsstand_Text"),
+            col("COVER.LU_FRONTING_JN", "Fronting"),
+            col("COVER.LU_BASTAND", "Bearbeitungsstand"),
+            col("COVER.LU_GBEREICH", "OP_Gruppe_Code"),
+            col("MAGB.MTEXT", "OP_Gruppe_Text"),
+            col("COVER.LU_KUEFRIV_DAT", "Kuendigungsfristverkuerzung_zum"),
+            col("COVER.LU_KUEFRIV_DURCH", "Veranlasst_durch"),
+
+            // Zuständigkeiten
+            col("COVER.LU_SACHBEA_VT", "SB_Vertr"),
+            col("COVER.LU_SACHBEA_SC", "SB_Schad"),
+            col("COVER.LU_SACHBEA_RG", "SB_Rechnung"),
+            col("COVER.LU_SACHBEA_GL", "GL_Prokurist"),
+            col("COVER.LU_SACHBEA_DOK", "SB_Doku"),
+            col("COVER.LU_SACHBEA_BUH", "SB_BuHa"),
+
+            // Block 6 – Änderung/Storno
+            col("COVER.LU_EDA", "Letzte_Aenderung"),
+            col("COVER.LU_EGR", "Grund"),
+            col("COVER.LU_SACHBEA_EGR", "Grund_durch"),
+            col("COVER.LU_DST", "Storno_zum"),
+            col("COVER.LU_AGR", "Storno_Grund"),
+            col("COVER.LU_SACHBEA_AGR", "Storno_durch"),
+
+            // Block 7 – Wiedervorlagen
+            col("COVER.LU_WVL1", "Wiedervorlage_Datum_1"),
+            col("COVER.LU_WVG1", "Wiedervorlage_Grund_1"),
+            col("COVER.LU_SACHBEA_WVG1", "Wiedervorlage_durch_1"),
+            col("COVER.LU_WVG1_PRIO", "Wiedervorlage_Prio_1"),
+            col("COVER.LU_WVL2", "Wiedervorlage_Datum_2"),
+            col("COVER.LU_WVG2", "Wiedervorlage_Grund_2"),
+            col("COVER.LU_SACHBEA_WVG2", "Wiedervorlage_durch_2"),
+            col("COVER.LU_WVG2_PRIO", "Wiedervorlage_Prio_2")
+    );
+
     private final DatabaseService databaseService;
     private final CoverFormatter coverFormatter;
 
@@ -72,8 +181,9 @@ public class CoverRepository {
         int s = Math.max(1, size);
         int limit = p * s;
 
-        String sql = buildPagedListSql(filter, limit);
-        List<RowData> allUpToRequested = executeQuery(sql);
+        List<String> params = new ArrayList<>();
+        String sql = buildPagedListSql(filter, limit, params);
+        List<RowData> allUpToRequested = executeQuery(sql, params);
 
         int fromIdx = (p - 1) * s;
         int toIdx = Math.min(allUpToRequested.size(), fromIdx + s);
@@ -94,8 +204,9 @@ public class CoverRepository {
         int s = Math.max(1, size);
         int limit = (p + 1) * s;
 
-        String sql = buildPagedListSql(filter, limit);
-        List<RowData> allUpToRequested = executeQuery(sql);
+        List<String> params = new ArrayList<>();
+        String sql = buildPagedListSql(filter, limit, params);
+        List<RowData> allUpToRequested = executeQuery(sql, params);
 
         int fromIdx = p * s;
         int toIdx = Math.min(allUpToRequested.size(), fromIdx + s);
@@ -106,34 +217,46 @@ public class CoverRepository {
         return new ArrayList<>(allUpToRequested.subList(fromIdx, toIdx));
     }
 
+    /**
+     * Streamt die komplette Ergebnisliste blockweise, zuerst sortiert nach {@code orderAliases}.
+     * So kommen die Zeilen bereits nach Gruppen geordnet an und können per Gruppenwechsel
+     * exportiert werden, ohne alle Seiten zu sammeln.
+     *
+     * @param orderAliases Aliase der Ergebnisliste (z. B. "Makler", "Gesellschaft_Name")
+     * @return Anzahl gelieferter Zeilen
+     */
+    public int streamSorted(CoverFilter filter, List<String> orderAliases, int batchSize,
+                            Consumer<List<RowData>> onBatch) throws Exception {
+        int maxRows = QuerySource.COVER.getMaxRows();
+        List<String> params = new ArrayList<>();
+        String sql = buildListSql(filter, maxRows, orderAliases, params);
+        return databaseService.streamRawQuery(sql, params, QuerySource.COVER, maxRows, batchSize, onBatch, null);
+    }
+
     public int fetchCount(CoverFilter filter) {
-        String sql = buildCountSql(filter);
-        List<RowData> rows = executeQuery(sql);
-        if (rows.isEmpty()) return 0;
-        String firstVal = rows.get(0).getValues().values().stream().findFirst().orElse("0");
-        try {
-            return Integer.parseInt(firstVal.replaceAll("[^\\d]", ""));
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+        List<String> params = new ArrayList<>();
+        String sql = buildCountSql(filter, params);
+        return countFromSql(sql, params);
     }
 
+    /**
+     * Lädt alle KPIs in EINEM Durchlauf über den gefilterten Join (bedingte Aggregation),
+     * statt je Kennzahl eine eigene COUNT-Abfrage abzusetzen.
+     */
     public CoverStats fetchStats(CoverFilter filter) {
-        int total = fetchCount(filter);
-        String today = LocalDate.now().toString();
+        List<String> params = new ArrayList<>();
+        // DB hält LU_ABL als YYYYMMDD → Stichtag im selben Format binden
+        params.add(fmtDateYYYYMMDD(LocalDate.now()));
+        String sql = buildStatsSql(filter, params);
 
-        // Aktiv
-        String activeSql = buildCountSql(filter) + " AND (COVER.LU_ABL IS NULL OR COVER.LU_ABL >= '" + escape(today) + "')";
-        int active = countFromSql(activeSql);
-        int ended = Math.max(0, total - active);
+        List<RowData> rows = executeQuery(sql, params);
+        Map<String, String> m = rows.isEmpty() ? Map.of() : rows.get(0).getValues();
 
-        // Beendet / Storno
-        String cancelledSql = buildCountSql(filter) + " AND COVER.LU_STA = 'S'";
-        int cancelled = countFromSql(cancelledSql);
-
-        // Kündigungsfristverkürzung
-        String shortSql = buildCountSql(filter) + " AND COVER.LU_BASTAND = '6'";
-        int shortened = countFromSql(shortSql);
+        int total = intValue(firstNonBlankCI(m, "total"));
+        int active = intValue(firstNonBlankCI(m, "active"));
+        int ended = Math.max(0, total - active);
+        int cancelled = intValue(firstNonBlankCI(m, "cancelled"));
+        int shortened = intValue(firstNonBlankCI(m, "shortened"));
 
         CoverStats stats = new CoverStats();
         stats.setTotalContracts(total);
@@ -142,7 +265,7 @@ public class CoverRepository {
         stats.setCancelledContracts(cancelled);
         stats.setShortenedNoticeContracts(shortened);
 
-        // TODO: ergänzen mit SUM-Abfragen (Prämien, Schäden)
+        // TODO: Prämien/Schäden liegen nicht in LU_ALLE – bei Bedarf als weitere SUM-Spalten in buildStatsSql ergänzen
         stats.setAverageDurationYears(0.0);
         stats.setTotalCoverageAmount(0.0);
         stats.setTotalPremiumPaid(0.0);
@@ -153,6 +276,32 @@ public class CoverRepository {
         return stats;
     }
 
+    /**
+     * Zählt je Spalte der Ergebnisliste die nicht-leeren Werte über das GESAMTE gefilterte Ergebnis,
+     * in einer einzigen Aggregat-Abfrage (statt alle Seiten zu laden).
+     *
+     * @return Alias → Anzahl nicht-leerer Werte, in Spaltenreihenfolge
+     */
+    public Map<String, Integer> fetchNonEmptyCounts(CoverFilter filter) {
+        List<String> params = new ArrayList<>();
+        String sql = buildNonEmptyCountSql(filter, params);
+        List<RowData> rows = executeQuery(sql, params);
+        Map<String, String> m = rows.isEmpty() ? Map.of() : rows.get(0).getValues();
+
+        Map<String, Integer> out = new LinkedHashMap<>();
+        for (String[] c : LIST_COLUMNS) {
+            out.put(c[1], intValue(firstNonBlankCI(m, c[1])));
+        }
+        return out;
+    }
+
+    private static String listColumnExpr(String alias) {
+        for (String[] c : LIST_COLUMNS) {
+            if (c[1].equals(alias)) return c[0];
+        }
+        return null;
+    }
+
     public Map<String, String> fetchDictionary(String dictName) {
         String upper = (dictName == null) ? "" : dictName.trim().toUpperCase(Locale.ROOT);
 
@@ -221,108 +370,27 @@ public class CoverRepository {
     // SQL-Build
     // =====================================================================================
 
-    private String buildPagedListSql(CoverFilter filter, int limit) {
+    /**
+     * TOP lässt sich in Pervasive nicht binden; das Limit wird daher auf die nächste Zweierpotenz
+     * aufgerundet, damit nur wenige SQL-Formen (und damit wenige vorbereitete Statements) entstehen.
+     * Der Aufrufer schneidet die gewünschte Seite ohnehin per subList aus.
+     */
+    private String buildPagedListSql(CoverFilter filter, int limit, List<String> params) {
+        return buildListSql(filter, limit, List.of(), params);
+    }
+
+    /**
+     * Wie {@link #buildPagedListSql}, sortiert aber zuerst nach den Spalten {@code orderAliases}
+     * (Aliase aus der Ergebnisliste), danach wie gewohnt. Unbekannte Aliase werden ignoriert.
+     */
+    private String buildListSql(CoverFilter filter, int limit, List<String> orderAliases, List<String> params) {
         StringBuilder sql = new StringBuilder();
-        sql.append("SELECT TOP ").append(limit).append("\n");
-
-        //Muss zuerst sein
-        sql.append("  COVER.LU_VSN AS Versicherungsschein_Nr,\n");
-        sql.append("  LUM.LU_NAM AS Versicherungsnehmer_Name,\n");
-        sql.append("  COVER.LU_RIS_ID AS Versicherungsart_Code,\n");
-        sql.append("  COVER.LU_RIS AS Versicherungsart_Text,\n");
-        sql.append("  COVER.LU_GES_Text AS Gesellschaft_Name,\n");
-        sql.append("  COVER.LU_VMT AS MaklerNr,\n");
-        sql.append("  VMT.LU_VNA AS Makler,\n");
-        sql.append("  COVER.LU_VMT2 AS Altmakler,\n");
-        sql.append("  COVER.LU_ART AS Vertragsparte_Code,\n");
-        sql.append("  COVER.LU_ART_Text AS Vertragsparte_Text,\n");
-        sql.append("  COVER.LU_BAUST_RIS AS Baustein_Typ_Code,\n");
-        sql.append("  MCR.TAB_VALUE AS Baustein_Typ_Text,\n");
-
-
-        // Block 0 – Versicherungsnehmer
-        sql.append("  LUM.LU_VOR AS Versicherungsnehmer_Vorname,\n");
-        sql.append("  LUM.LU_NA2 AS Versicherungsnehmer_Name2,\n");
-        sql.append("  LUM.LU_NA3 AS Versicherungsnehmer_Name3,\n");
-        sql.append("  LUM.LU_STRASSE AS Versicherungsnehmer_Strasse,\n");
-        sql.append("  LUM.LU_PLZ AS Versicherungsnehmer_PLZ,\n");
-        sql.append("  LUM.LU_ORT AS Versicherungsnehmer_Ort,\n");
-        sql.append("  LUM.LU_NAT AS Versicherungsnehmer_Nation,\n");
-
-        // Block 1 – Basis/Art/Risiko
-        sql.append("  COVER.LU_VSN_VR AS VSN_Versicherer,\n");
-        sql.append("  COVER.LU_VSN_MAKLER AS VSN_Makler,\n");
-
-
-        // Block 2 – Laufzeit/Status
-        sql.append("  COVER.LU_NEUVERTRAG_JN AS Beginn_Neuvertrag_JN,\n");
-        sql.append("  COVER.LU_BEG AS Beginn_Datum,\n");
-        sql.append("  COVER.LU_BEGUHR AS Beginn_Uhrzeit,\n");
-        sql.append("  COVER.LU_ABL AS Ablauf_Datum,\n");
-        sql.append("  COVER.LU_ABLUHR AS Ablauf_Uhrzeit,\n");
-        sql.append("  COVER.LU_HFL AS Hauptfaelligkeit,\n");
-        sql.append("  COVER.LU_LFZ AS Laufzeit_Jahre,\n");
-        sql.append("  COVER.LU_VERTRAG_ART AS Laufender_Vertrag,\n");
-        sql.append("  COVER.LU_A99_JN AS Buchung_nach_Ablaufdatum,\n");
-        sql.append("  COVER.LU_VERS_GRUND AS Versionierungsgrund,\n");
-        sql.append("  COVER.LU_FLG AS Version_von,\n");
-        sql.append("  COVER.LU_FLZ AS Version_bis,\n");
-        sql.append("  COVER.LU_STATUS AS Version_Status,\n");
-
-        // Block 3 – Zusatzinfo
-        sql.append("  COVER.LU_VUF_KDR AS Fuehrender_Versicherer,\n");
-        sql.append("  COVER.LU_FUF_ANTEIL AS Anteil_VR_Prozent,\n");
-        sql.append("  COVER.LU_VUF_BEM AS Bemerkung_VR,\n");
-        sql.append("  COVER.LU_VUA_KDR AS Assekuradeur,\n");
-        sql.append("  COVER.LU_VUA_ANTEIL AS Anteil_Assek_Prozent,\n");
-        sql.append("  COVER.LU_VUA_BEM AS Bemerkung_Assek,\n");
-
-        // Block 4 – Vorgang & Partner
-        sql.append("  COVER.LU_VORGANG_ID AS Vorgang_ID,\n");
-        sql.append("  COVER.LU_GES AS Gesellschaft_Code,\n");
-        sql.append("  COVER.LU_SPAKZ AS Courtagesatz,\n");
-        sql.append("  COVER.LU_AGT AS Prov_Vereinbarung,\n");
-
-        // Block 5 – Status/Pool/Fronting/Bearbeitungsstand
-        sql.append("  COVER.LU_BET_STAT AS Beteiligungsform_Code,\n");
-        sql.append("  MABT.TAB_VALUE AS Beteiligungsform_Text,\n");
-        sql.append("  COVER.LU_POOLNR AS Pool_Nr,\n");
-        sql.append("  COVER.LU_OPZ AS Vertragsstatus_Code,\n");
-        sql.append("  MAO.TAB_VALUE AS Vertragsstatus_Text,\n");
-        sql.append("  COVER.LU_STA AS Vertragsstand_Code,\n");
-        sql.append("  MASTA.TAB_VALUE AS Vertragsstand_Text,\n");
-        sql.append("  COVER.LU_FRONTING_JN AS Fronting,\n");
-        sql.append("  COVER.LU_BASTAND AS Bearbeitungsstand,\n");
-        sql.append("  COVER.LU_GBEREICH AS OP_Gruppe_Code,\n");
-        sql.append("  MAGB.MTEXT AS OP_Gruppe_Text,\n");
-        sql.append("  COVER.LU_KUEFRIV_DAT AS Kuendigungsfristverkuerzung_zum,\n");
-        sql.append("  COVER.LU_KUEFRIV_DURCH AS Veranlasst_durch,\n");
-
-        // Zuständigkeiten
-        sql.append("  COVER.LU_SACHBEA_VT AS SB_Vertr,\n");
-        sql.append("  COVER.LU_SACHBEA_SC AS SB_Schad,\n");
-        sql.append("  COVER.LU_SACHBEA_RG AS SB_Rechnung,\n");
-        sql.append("  COVER.LU_SACHBEA_GL AS GL_Prokurist,\n");
-        sql.append("  COVER.LU_SACHBEA_DOK AS SB_Doku,\n");
-        sql.append("  COVER.LU_SACHBEA_BUH AS SB_BuHa,\n");
-
-        // Block 6 – Änderung/Storno
-        sql.append("  COVER.LU_EDA AS Letzte_Aenderung,\n");
-        sql.append("  COVER.LU_EGR AS Grund,\n");
-        sql.append("  COVER.LU_SACHBEA_EGR AS Grund_durch,\n");
-        sql.append("  COVER.LU_DST AS Storno_zum,\n");
-        sql.append("  COVER.LU_AGR AS Storno_Grund,\n");
-        sql.append("  COVER.LU_SACHBEA_AGR AS Storno_durch,\n");
-
-        // Block 7 – Wiedervorlagen
-        sql.append("  COVER.LU_WVL1 AS Wiedervorlage_Datum_1,\n");
-        sql.append("  COVER.LU_WVG1 AS Wiedervorlage_Grund_1,\n");
-        sql.append("  COVER.LU_SACHBEA_WVG1 AS Wiedervorlage_durch_1,\n");
-        sql.append("  COVER.LU_WVG1_PRIO AS Wiedervorlage_Prio_1,\n");
-        sql.append("  COVER.LU_WVL2 AS Wiedervorlage_Datum_2,\n");
-        sql.append("  COVER.LU_WVG2 AS Wiedervorlage_Grund_2,\n");
-        sql.append("  COVER.LU_SACHBEA_WVG2 AS Wiedervorlage_durch_2,\n");
-        sql.append("  COVER.LU_WVG2_PRIO AS Wiedervorlage_Prio_2\n");
+        sql.append("SELECT TOP ").append(Math.min(limitBucket(limit), QuerySource.COVER.getMaxRows())).append("\n");
+
+        for (int i = 0; i < LIST_COLUMNS.size(); i++) {
+            String[] c = LIST_COLUMNS.get(i);
+            sql.append("  ").append(c[0]).append(" AS ").append(c[1]).append(i + 1 < LIST_COLUMNS.size() ? ",\n" : "\n");
+        }
 
         // FROM + JOINs
         sql.append("FROM LU_ALLE AS COVER\n");
@@ -334,10 +402,19 @@ public class CoverRepository {
         sql.append("LEFT JOIN MAP_ALLE_STA AS MASTA ON COVER.LU_STA = MASTA.TAB_ID\n");
         sql.append("LEFT JOIN MAP_ALLE_GBEREICH AS MAGB ON COVER.LU_GBEREICH = MAGB.TAB_ID\n");
 
-        String where = buildWhere(filter);
+        String where = buildWhere(filter, params);
         sql.append("WHERE COVER.Sparte LIKE '%COVER' ").append(where).append("\n");
 
-        sql.append("ORDER BY COVER.LU_BEG DESC, COVER.LU_VSN");
+        sql.append("ORDER BY ");
+        for (String alias : orderAliases) {
+            String expr = listColumnExpr(alias);
+            if (expr == null) {
+                log.warn("⚠️ Unbekannte Sortierspalte '{}' – ignoriert", alias);
+                continue;
+            }
+            sql.append(expr).append(", ");
+        }
+        sql.append("COVER.LU_BEG DESC, COVER.LU_VSN");
 
         return sql.toString();
     }
@@ -354,10 +431,43 @@ public class CoverRepository {
      * }
      */
 
-    private String buildCountSql(CoverFilter filter) {
+    private String buildCountSql(CoverFilter filter, List<String> params) {
+        return "SELECT COUNT(1) AS total\n" + buildFromWhere(filter, params);
+    }
+
+    /**
+     * KPI-Abfrage: alle Zähler per SUM(CASE …) in einem Scan.
+     * Erwartet den Stichtag (YYYYMMDD) bereits als ersten Parameter in {@code params}.
+     */
+    private String buildStatsSql(CoverFilter filter, List<String> params) {
+        return "SELECT COUNT(1) AS total,\n"
+                + "  SUM(CASE WHEN COVER.LU_ABL IS NULL OR COVER.LU_ABL >= ? THEN 1 ELSE 0 END) AS active,\n"
+                + "  SUM(CASE WHEN COVER.LU_STA = 'S' THEN 1 ELSE 0 END) AS cancelled,\n"
+                + "  SUM(CASE WHEN COVER.LU_BASTAND = '6' THEN 1 ELSE 0 END) AS shortened\n"
+                + buildFromWhere(filter, params);
+    }
+
+    /**
+     * Nicht-leer-Zähler aller Listenspalten per bedingter Aggregation in einem Scan
+     * (leer = NULL oder nur Leerzeichen, wie in der Anzeige).
+     */
+    private String buildNonEmptyCountSql(CoverFilter filter, List<String> params) {
+        StringBuilder sql = new StringBuilder("SELECT\n");
+        for (int i = 0; i < LIST_COLUMNS.size(); i++) {
+            String[] c = LIST_COLUMNS.get(i);
+            sql.append("  SUM(CASE WHEN RTRIM(").append(c[0]).append(") <> '' THEN 1 ELSE 0 END) AS ").append(c[1])
+                    .append(i + 1 < LIST_COLUMNS.size() ? ",\n" : "\n");
+        }
+        return sql.append(buildFromWhere(filter, params)).toString();
+    }
+
+    private static String[] col(String expression, String alias) {
+        return new String[]{expression, alias};
+    }
+
+    private String buildFromWhere(CoverFilter filter, List<String> params) {
         StringBuilder sql = new StringBuilder();
 
-        sql.append("SELECT COUNT(1) AS total\n");
         sql.append("FROM LU_ALLE AS COVER\n");
         sql.append("LEFT JOIN LU_MASKEP AS LUM ON COVER.PPointer = LUM.PPointer\n");
         sql.append("LEFT JOIN VERMITTLER AS VMT ON COVER.LU_VMT = VMT.LU_VMT \n");
@@ -367,7 +477,7 @@ public class CoverRepository {
         sql.append("LEFT JOIN MAP_ALLE_STA AS MASTA ON COVER.LU_STA = MASTA.TAB_ID\n");
         sql.append("LEFT JOIN MAP_ALLE_GBEREICH AS MAGB ON COVER.LU_GBEREICH = MAGB.TAB_ID\n");
 
-        String where = buildWhere(filter);
+        String where = buildWhere(filter, params);
         sql.append("WHERE COVER.Sparte LIKE '%COVER' ").append(where);
 
         return sql.toString();
@@ -377,18 +487,25 @@ public class CoverRepository {
     // =====================================================
     // NEUE Version der buildWhere-Methode
     // =====================================================
-    private String buildWhere(CoverFilter filter) {
+
+    /**
+     * Baut die WHERE-Bedingungen mit {@code ?}-Platzhaltern; die Werte werden in
+     * Platzhalter-Reihenfolge an {@code params} angehängt. Der SQL-Text hängt damit nur
+     * davon ab, WELCHE Filter gesetzt sind, nicht von deren Werten.
+     */
+    private String buildWhere(CoverFilter filter, List<String> params) {
         if (filter == null) return "";
         StringBuilder sb = new StringBuilder();
 
         if (filter.getSearchTerm() != null) {
-            String term = escapeLike(filter.getSearchTerm()).toUpperCase(Locale.ROOT);
+            String term = "%" + value(filter.getSearchTerm()).toUpperCase(Locale.ROOT) + "%";
             sb.append(" AND (");
 
             boolean first = true;
             for (String col : GLOBAL_SEARCH_COLUMNS) {
                 if (!first) sb.append(" OR ");
-                sb.append("UPPER(").append(col).append(") LIKE '%").append(term).append("%'");
+                sb.append("UPPER(").append(col).append(") LIKE ?");
+                params.add(term);
                 first = false;
             }
 
@@ -398,52 +515,50 @@ public class CoverRepository {
 
         // 1) Vertragsstand (LU_STA)
         if (filter.getContractStatusList() != null && !filter.getContractStatusList().isEmpty()) {
-            String inClause = filter.getContractStatusList().stream()
-                    .map(id -> "'" + escape(id) + "'")
-                    .collect(Collectors.joining(","));
-            sb.append(" AND COVER.LU_STA IN (").append(inClause).append(")");
+            sb.append(" AND COVER.LU_STA IN (").append(placeholders(filter.getContractStatusList(), params)).append(")");
         } else if (nz(filter.getStatus())) {
-            sb.append(" AND COVER.LU_STA = '").append(escape(filter.getStatus())).append("'");
+            sb.append(" AND COVER.LU_STA = ?");
+            params.add(value(filter.getStatus()));
         }
 
         // 2) Vertragsstatus (LU_OPZ)
         if (nz(filter.getContractStatus())) {
-            sb.append(" AND COVER.LU_OPZ = '").append(escape(filter.getContractStatus())).append("'");
+            sb.append(" AND COVER.LU_OPZ = ?");
+            params.add(value(filter.getContractStatus()));
         }
 
         // 3) Makler
         if (nz(filter.getBroker())) {
-            sb.append(" AND COVER.LU_VMT = '").append(escape(filter.getBroker())).append("'");
+            sb.append(" AND COVER.LU_VMT = ?");
+            params.add(value(filter.getBroker()));
         }
 
         // 4) Textsuche
         if (nz(filter.getTextSearch())) {
-            String t = "%" + escapeLike(filter.getTextSearch()) + "%";
-            sb.append(" AND (LUM.LU_NAM LIKE '").append(t).append("' OR COVER.LU_VSN LIKE '").append(t).append("')");
+            String t = "%" + value(filter.getTextSearch()) + "%";
+            sb.append(" AND (LUM.LU_NAM LIKE ? OR COVER.LU_VSN LIKE ?)");
+            params.add(t);
+            params.add(t);
         }
 
         // 5) Bearbeitungsstand (LU_BASTAND)
         if (filter.getBearbeitungsstandIds() != null && !filter.getBearbeitungsstandIds().isEmpty()) {
-            String inClause = filter.getBearbeitungsstandIds().stream()
-                    .map(id -> "'" + escape(id) + "'")
-                    .collect(Collectors.joining(","));
-            sb.append(" AND COVER.LU_BASTAND IN (").append(inClause).append(")");
+            sb.append(" AND COVER.LU_BASTAND IN (").append(placeholders(filter.getBearbeitungsstandIds(), params)).append(")");
         }
 
         // 6) Stornogründe (LU_AGR)
         if (filter.getStornoGrundIds() != null && !filter.getStornoGrundIds().isEmpty()) {
-            String inClause = filter.getStornoGrundIds().stream()
-                    .map(value -> "'" + escape(value) + "'")
-                    .collect(Collectors.joining(","));
-            sb.append(" AND COVER.LU_AGR IN (").append(inClause).append(")");
+            sb.append(" AND COVER.LU_AGR IN (").append(placeholders(filter.getStornoGrundIds(), params)).append(")");
         }
 
         // 7) Kündigungsfristverkürzung
         if (filter.getKuendigVerkDatum() != null) {
-            sb.append(" AND COVER.LU_KUEFRIV_DAT = '").append(filter.getKuendigVerkDatum()).append("'");
+            sb.append(" AND COVER.LU_KUEFRIV_DAT = ?");
+            params.add(String.valueOf(filter.getKuendigVerkDatum()));
         }
         if (nz(filter.getKuendigVerkInitiator())) {
-            sb.append(" AND COVER.LU_KUEFRIV_DURCH = '").append(escape(filter.getKuendigVerkInitiator())).append("'");
+            sb.append(" AND COVER.LU_KUEFRIV_DURCH = ?");
+            params.add(value(filter.getKuendigVerkInitiator()));
         }
 
 
@@ -462,10 +577,12 @@ public class CoverRepository {
             String dateColumn = decideDateColumn(filter);
 
             if (ab != null) {
-                sb.append(" AND ").append(dateColumn).append(" >= '").append(fmtDateYYYYMMDD(ab)).append("'");
+                sb.append(" AND ").append(dateColumn).append(" >= ?");
+                params.add(fmtDateYYYYMMDD(ab));
             }
             if (bis != null) {
-                sb.append(" AND ").append(dateColumn).append(" <= '").append(fmtDateYYYYMMDD(bis)).append("'");
+                sb.append(" AND ").append(dateColumn).append(" <= ?");
+                params.add(fmtDateYYYYMMDD(bis));
             }
         }
 
@@ -554,10 +671,29 @@ public class CoverRepository {
         }
     }
 
-    private int countFromSql(String sql) {
-        List<RowData> rows = executeQuery(sql);
+    /**
+     * Parametrisierte Ausführung: gleiche SQL-Form → wiederverwendetes PreparedStatement.
+     */
+    private List<RowData> executeQuery(String sql, List<String> params) {
+        try {
+            if (databaseService == null) {
+                throw new IllegalStateException("DatabaseService ist null – keine DB-Verbindung vorhanden.");
+            }
+            return databaseService.executeRawQuery(sql, params.toArray(new String[0]));
+        } catch (Exception ex) {
+            log.error("SQL fehlgeschlagen.\nSQL:\n{}\nParameter: {}", sql, params, ex);
+            throw new IllegalStateException("Datenbankabfrage fehlgeschlagen: " + ex.getMessage(), ex);
+        }
+    }
+
+    private int countFromSql(String sql, List<String> params) {
+        List<RowData> rows = executeQuery(sql, params);
         if (rows.isEmpty()) return 0;
-        String v = rows.get(0).getValues().values().stream().findFirst().orElse("0");
+        return intValue(rows.get(0).getValues().values().stream().findFirst().orElse("0"));
+    }
+
+    private int intValue(String v) {
+        if (v == null) return 0;
         try {
             return Integer.parseInt(v.replaceAll("[^\\d]", ""));
         } catch (NumberFormatException e) {
@@ -609,13 +745,7 @@ public class CoverRepository {
     }
 
     private List<String> runVsnLike(String likePattern, int limit) {
-        String like = likePattern.replace("'", "''");
-        String sql = "SELECT DISTINCT COVER.LU_VSN AS VSN FROM LU_ALLE AS COVER "
-                + "WHERE COVER.Sparte LIKE '%COVER' "
-                + "AND COVER.LU_VSN IS NOT NULL AND COVER.LU_VSN <> '' "
-                + "AND COVER.LU_VSN LIKE '" + like + "' ORDER BY COVER.LU_VSN";
-
-        List<RowData> rows = executeQuery(sql);
+        List<RowData> rows = executeQuery(VSN_LIKE_SQL, List.of(likePattern));
         List<String> list = new ArrayList<>(Math.min(limit, rows.size()));
         for (RowData r : rows) {
             String vsn = String.valueOf(r.getValues().getOrDefault("VSN", "")).trim();
@@ -640,20 +770,34 @@ public class CoverRepository {
     }
 
     /**
-     * SQL-Escaping für Literale (einfaches Hochkomma verdoppeln).
+     * Gebundener Wert (getrimmt, wie zuvor beim Literal-Escaping). Hochkommas müssen dank
+     * Parameterbindung nicht mehr maskiert werden; '%' und '_' im Suchtext wirken in LIKE
+     * weiterhin als Platzhalter (bisheriges Verhalten).
      */
-    private String escape(String s) {
-        return (s == null) ? "" : s.replace("'", "''").trim();
+    private String value(String s) {
+        return (s == null) ? "" : s.trim();
+    }
+
+    /**
+     * Erzeugt "?,?,?" für eine IN-Liste und hängt die Werte an {@code params} an.
+     */
+    private String placeholders(Collection<String> values, List<String> params) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (String v : values) {
+            joiner.add("?");
+            params.add(value(v));
+        }
+        return joiner.toString();
     }
 
     /**
-     * LIKE-Escaping: zuerst normales Escape, dann einfache Sonderzeichen maskieren.
+     * Rundet das TOP-Limit auf die nächste Zweierpotenz (mind. 64); gedeckelt wird beim Einsetzen
+     * über {@link QuerySource#COVER}.
      */
-    private String escapeLike(String s) {
-        // Minimal ausreichend, weil wir '%' und '_' nur im Pattern anhängen.
-        // Wenn du echte LIKE-Maskierung brauchst, erweitern:
-        // return escape(s).replace("[", "[[]").replace("%", "[%]").replace("_", "[_]");
-        return escape(s);
+    static int limitBucket(int limit) {
+        int bucket = 64;
+        while (bucket < limit && bucket < (1 << 30)) bucket <<= 1;
+        return bucket;
     }
 
 }
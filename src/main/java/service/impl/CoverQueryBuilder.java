@@ -26,6 +26,15 @@ public class CoverQueryBuilder implements AiQueryBuilder {
 
     private static final Logger logger = LoggerFactory.getLogger(CoverQueryBuilder.class);
 
+    // Eingabeformate für Datumsangaben im Prompt und das DB-Format (einmalig erzeugt, thread-sicher)
+    private static final DateTimeFormatter[] DATE_INPUT_FORMATS = {
+            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
+            DateTimeFormatter.ofPattern("d.M.yyyy"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("d/M/yyyy")
+    };
+    private static final DateTimeFormatter DB_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
     // Patterns für Vertragsbeginn
     private static final Pattern BEGINN_AFTER_PATTERN = Pattern.compile(
             "(?:beginn|anfang)\\s*(?:nach|seit|ab)(?:\\s+dem)?\\s+(\\d{1,2}[./]\\d{1,2}[./]\\d{2,4})",
@@ -130,19 +139,11 @@ public class CoverQueryBuilder implements AiQueryBuilder {
      * Gibt null zurück, wenn das Datum nicht erkannt wird.
      */
     private String parseAndFormatDate(String dateStr) {
-        DateTimeFormatter[] inputFormatters = {
-                DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-                DateTimeFormatter.ofPattern("d.M.yyyy"),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                DateTimeFormatter.ofPattern("d/M/yyyy")
-        };
-        // Das DB-Format
-        DateTimeFormatter dbFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
-        for (DateTimeFormatter formatter : inputFormatters) {
+        for (DateTimeFormatter formatter : DATE_INPUT_FORMATS) {
             try {
                 // Versuche, das Datum zu parsen
                 LocalDate date = LocalDate.parse(dateStr, formatter);
-                return date.format(dbFormatter);
+                return date.format(DB_DATE_FORMAT);
             } catch (DateTimeParseException e) {
                 // Ignoriere Fehler
             }
@@ -1,16 +1,23 @@
 package service.impl;
 
+import config.ApplicationConfig;
 import config.DatabaseConfig;
 import model.RowData;
 import model.enums.ExportFormat;
 import model.enums.QueryRepository;
+import model.enums.QuerySource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import service.interfaces.DatabaseService;
 import service.interfaces.FileService;
+import util.QueryCancelHandle;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
 /**
@@ -21,7 +28,33 @@ import java.util.function.Consumer;
 public class DatabaseServiceImpl implements DatabaseService {
 
     private static final Logger log = LoggerFactory.getLogger(DatabaseServiceImpl.class);
+
+    // Statement-Cache für parametrisierte Abfragen (eine Verbindung pro Worker, je 64 Statements)
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final int STATEMENT_CACHE_MAX_PARAMS = 200;
+    private static final long STATEMENT_CACHE_WAIT_MILLIS = 200;
+
+    // Dashboard-Kacheln: Titel -> COUNT-Abfrage
+    private static final Map<String, String> DASHBOARD_SQL = new LinkedHashMap<>();
+
+    static {
+        // Annahme: 'A' steht für einen aktiven Status, LU_FLZ leer = keine Fälligkeitsänderung
+        DASHBOARD_SQL.put("Aktive Verträge", "SELECT COUNT(*) FROM LU_ALLE WHERE Sparte LIKE '%COVER' AND LU_STA = 'A' AND  LU_FLZ = '' ");
+        // Annahme: Status 'O' bedeutet, dass ein Schaden offen ist.
+        DASHBOARD_SQL.put("Offene Schäden", "SELECT COUNT(*) FROM LU_SVA WHERE Sparte = 'SVA' AND LU_SVSTATUS = 'O'");
+        DASHBOARD_SQL.put("Anzahl Makler", "SELECT COUNT(LU_VMT) FROM VERMITTLER");
+    }
+
+    private static final ExecutorService DASHBOARD_POOL = Executors.newFixedThreadPool(DASHBOARD_SQL.size(), r -> {
+        Thread t = new Thread(r, "dashboard-count");
+        t.setDaemon(true);
+        return t;
+    });
+
     private final FileService fileService;
+    private final PreparedStatementCache statementCache = new PreparedStatementCache(
+            ApplicationConfig.DB_STATEMENT_CACHE_CONNECTIONS, STATEMENT_CACHE_SIZE, STATEMENT_CACHE_MAX_PARAMS,
+            STATEMENT_CACHE_WAIT_MILLIS);
 
     public DatabaseServiceImpl(FileService fileService) {
         this.fileService = fileService;
@@ -85,19 +118,19 @@ public class DatabaseServiceImpl implements DatabaseService {
     // --- NEUE Implementierung für das Dashboard ---
     @Override
     public Map<String, Integer> getDashboardStatistics() throws Exception {
-        Map<String, Integer> stats = new LinkedHashMap<>(); // LinkedHashMap, um die Reihenfolge beizubehalten
-
-        // Annahme: 'G' steht für einen gültigen/aktiven Status in Ihrer Datenbank. Passen Sie dies bei Bedarf an.
-        String activeCoversSql = "SELECT COUNT(*) FROM LU_ALLE WHERE Sparte LIKE '%COVER' AND LU_STA = 'A' AND  LU_FLZ = '' ";
-        stats.put("Aktive Verträge", executeCountQuery(activeCoversSql));
-
-        // Annahme: Ein Status ungleich 'E' (Erledigt) bedeutet, dass ein Schaden offen ist.
-        String openDamagesSql = "SELECT COUNT(*) FROM LU_SVA WHERE Sparte = 'SVA' AND LU_SVSTATUS = 'O'";
-        stats.put("Offene Schäden", executeCountQuery(openDamagesSql));
-
-        String totalBrokersSql = "SELECT COUNT(LU_VMT) FROM VERMITTLER";
-        stats.put("Anzahl Makler", executeCountQuery(totalBrokersSql));
-
+        // Die drei Zählungen sind unabhängig und laufen parallel (je eine eigene Verbindung)
+        Map<String, Future<Integer>> pending = new LinkedHashMap<>(); // LinkedHashMap, um die Reihenfolge beizubehalten
+        DASHBOARD_SQL.forEach((tile, sql) -> pending.put(tile, DASHBOARD_POOL.submit(() -> executeCountQuery(sql))));
+
+        Map<String, Integer> stats = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Future<Integer>> e : pending.entrySet()) {
+                stats.put(e.getKey(), e.getValue().get());
+            }
+        } catch (ExecutionException e) {
+            pending.values().forEach(f -> f.cancel(true));
+            throw e.getCause() instanceof Exception ex ? ex : e;
+        }
         return stats;
     }
 
@@ -307,13 +340,133 @@ public class DatabaseServiceImpl implements DatabaseService {
 
     @Override
     public List<RowData> executeRawQuery(String sql, String... params) throws Exception {
-        return executeRawQueryWithParameters(sql,
-                (params == null) ? List.of() : Arrays.asList(params));
+        return executeRawQueryWithParameters(sql, (params == null) ? List.of() : Arrays.asList(params));
+    }
+
+    /**
+     * Liest das Ergebnis über ein eigenes forward-only Statement und reicht es in Blöcken weiter,
+     * damit die Oberfläche die ersten Zeilen anzeigen kann, während der Rest noch geladen wird.
+     * Die Zeilenanzahl wird zusätzlich serverseitig per {@code TOP n} begrenzt (siehe {@link QueryGuard}).
+     */
+    @Override
+    public int streamRawQuery(String sql, List<String> parameters, QuerySource source, int maxRows,
+                              int batchSize, Consumer<List<RowData>> onBatch,
+                              QueryCancelHandle cancelHandle) throws Exception {
+        List<String> params = (parameters == null) ? List.of() : parameters;
+        String finalSql = expandInClause(sql, params);
+        if (finalSql == null) {
+            return 0;
+        }
+        int cap = Math.max(1, Math.min(maxRows, source.getMaxRows()));
+        finalSql = QueryGuard.limitSql(finalSql, cap);
+        int blockSize = Math.max(1, batchSize);
+        int total = 0;
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = tunedReadOnlyStatement(conn, finalSql)) {
+            stmt.setMaxRows(cap);
+            stmt.setQueryTimeout(source.getTimeoutSeconds());
+            setStatementParameters(stmt, params);
+            if (cancelHandle != null) cancelHandle.attach(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columnCount = meta.getColumnCount();
+                String[] labels = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    labels[i] = meta.getColumnLabel(i + 1);
+                }
+
+                List<RowData> batch = new ArrayList<>(blockSize);
+                while (!isCancelled(cancelHandle) && rs.next()) {
+                    RowData row = new RowData();
+                    for (int i = 0; i < columnCount; i++) {
+                        row.put(labels[i], rs.getString(i + 1));
+                    }
+                    batch.add(row);
+                    if (batch.size() >= blockSize) {
+                        total += batch.size();
+                        onBatch.accept(batch);
+                        batch = new ArrayList<>(blockSize);
+                    }
+                }
+                if (!batch.isEmpty() && !isCancelled(cancelHandle)) {
+                    total += batch.size();
+                    onBatch.accept(batch);
+                }
+            } catch (SQLException e) {
+                // Abbruch per Statement.cancel() meldet der Treiber als SQLException
+                if (!isCancelled(cancelHandle)) throw e;
+            } finally {
+                if (cancelHandle != null) cancelHandle.detach();
+            }
+        }
+        if (isCancelled(cancelHandle)) {
+            log.info("⏹️ Abfrage abgebrochen nach {} Zeilen.", total);
+        } else if (total >= cap) {
+            log.info("✂️ {}-Abfrage auf {} Zeilen begrenzt.", source.getDisplayName(), cap);
+        }
+        return total;
+    }
+
+    @Override
+    public long countRawQuery(String sql, List<String> parameters, QuerySource source) {
+        List<String> params = (parameters == null) ? List.of() : parameters;
+        String finalSql = expandInClause(sql, params);
+        if (finalSql == null) {
+            return 0;
+        }
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(QueryGuard.countSql(finalSql))) {
+            stmt.setQueryTimeout(source.getTimeoutSeconds());
+            setStatementParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (Exception e) {
+            // z. B. Abfragen, die der Server nicht als abgeleitete Tabelle akzeptiert
+            log.warn("⚠️ Zeilenanzahl nicht ermittelbar: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Erweitert {@code IN (%s)} auf die Anzahl der Parameter; {@code null}, wenn dafür keine Parameter da sind.
+     */
+    private static String expandInClause(String sql, List<String> params) {
+        if (!sql.contains("IN (%s)")) {
+            return sql;
+        }
+        if (params.isEmpty()) {
+            return null;
+        }
+        return sql.replace("%s", String.join(",", Collections.nCopies(params.size(), "?")));
+    }
+
+    private static boolean isCancelled(QueryCancelHandle handle) {
+        return handle != null && handle.isCancelled();
     }
 
     @Override
     public void invalidateCache() {
-        //TO DO
+        // Vorbereitete Statements verwerfen (z. B. nach Schemaänderungen oder Verbindungsproblemen)
+        statementCache.close();
+    }
+
+    /**
+     * Liest alle Zeilen eines ResultSets (Spaltenlabel → Wert als String).
+     */
+    private static List<RowData> readRows(ResultSet rs) throws SQLException {
+        List<RowData> results = new ArrayList<>();
+        ResultSetMetaData meta = rs.getMetaData();
+        int columnCount = meta.getColumnCount();
+        while (rs.next()) {
+            RowData row = new RowData();
+            for (int i = 1; i <= columnCount; i++) {
+                row.put(meta.getColumnLabel(i), rs.getString(i));
+            }
+            results.add(row);
+        }
+        return results;
     }
 
     /**
@@ -333,6 +486,16 @@ public class DatabaseServiceImpl implements DatabaseService {
 
     // --- JDBC Tuning (nur für große Leseabfragen) ---
     private PreparedStatement tunedReadOnlyStatement(Connection conn, String sql) throws SQLException {
+        PreparedStatement stmt = readOnlyStatement(conn, sql);
+        conn.setAutoCommit(false);
+        conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return stmt;
+    }
+
+    /**
+     * Forward-only Lese-Statement mit Fetch-Größe und Timeout; auch für die gecachten Statements.
+     */
+    static PreparedStatement readOnlyStatement(Connection conn, String sql) throws SQLException {
         PreparedStatement stmt = conn.prepareStatement(
                 sql,
                 ResultSet.TYPE_FORWARD_ONLY,
@@ -340,49 +503,37 @@ public class DatabaseServiceImpl implements DatabaseService {
         );
         stmt.setFetchSize(1000);     // 500–2000 je nach Treiber/Netz testen
         stmt.setQueryTimeout(600);   // 120s sicherheitshalber
-        conn.setAutoCommit(false);
-        conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
         return stmt;
     }
 
 
     /**
      * Zentrale Methode zur Ausführung von Abfragen (mit oder ohne Parameter).
+     * Parametrisierte Abfragen verwenden vorbereitete Statements aus dem {@link PreparedStatementCache};
+     * ist dort kein Slot frei (oder gibt es keine Parameter), läuft die Abfrage auf eigener Verbindung.
      */
     private List<RowData> executeRawQueryWithParameters(String sql, List<String> parameters) throws Exception {
-        List<RowData> results = new ArrayList<>();
-        String finalSql = sql;
-        //Prüfen, ob eine dynamische IN-Klausel werden muss
-        if (sql.contains("IN (%s)")) {
-            // Wenn keine Parameter vorhanden sind, kann eine IN-Klausel nicht funktionieren.
-            // Wir geben eine leere Liste zurück, um Fehler zu vermeiden.
-            if (parameters == null || parameters.isEmpty()) {
-                return results;
+        List<String> params = (parameters == null) ? List.of() : parameters;
+        String finalSql = expandInClause(sql, params);
+        if (finalSql == null) {
+            // IN-Klausel ohne Parameter kann nicht funktionieren
+            return new ArrayList<>();
+        }
+
+        if (!params.isEmpty()) {
+            Optional<List<RowData>> cached = statementCache.tryQuery(finalSql, params, DatabaseServiceImpl::readRows);
+            if (cached.isPresent()) {
+                return cached.get();
             }
-            //Erstelle einbe Kette von Fragezeichen z.B. "?, ?, ?"
-            String placeholders = String.join(",", Collections.nCopies(parameters.size(), "?"));
-            // Ersetze die Platzhalter in der SQL-Abfrage
-            finalSql = sql.replace("%s", placeholders);
         }
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = tunedReadOnlyStatement(conn, finalSql)) {
-
-            setStatementParameters(stmt, parameters); // Setzt die Parameter
-
+            setStatementParameters(stmt, params);
             try (ResultSet rs = stmt.executeQuery()) {
-                ResultSetMetaData meta = rs.getMetaData();
-                int columnCount = meta.getColumnCount();
-                while (rs.next()) {
-                    RowData row = new RowData();
-                    for (int i = 1; i <= columnCount; i++) {
-                        row.put(meta.getColumnLabel(i), rs.getString(i));
-                    }
-                    results.add(row);
-                }
+                return readRows(rs);
             }
         }
-        return results;
     }
 
     private void setStatementParameters(PreparedStatement stmt, List<String> parameters) throws SQLException {
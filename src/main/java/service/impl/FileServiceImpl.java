@@ -5,9 +5,11 @@ import file.handler.FileHandlerFactory;
 import file.handler.PdfFileHandler;
 import file.handler.XlsxFileHandler;
 import file.pivot.PivotProcessor;
+import formatter.op.OpListeFormatter;
 import model.PivotConfig;
 import model.RowData;
 import model.enums.ExportFormat;
+import model.op.OpInvoice;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import service.interfaces.FileService;
@@ -28,6 +30,7 @@ public class FileServiceImpl implements FileService {
     private static final Logger logger = LoggerFactory.getLogger(FileServiceImpl.class);
 
     private final PivotProcessor pivotProcessor;
+    private final OpListeFormatter opFormatter = new OpListeFormatter();
 
     /**
      * Konstruktor ohne Abhängigkeiten.
@@ -74,6 +77,25 @@ public class FileServiceImpl implements FileService {
         logger.info("📝 Datei mit Headern geschrieben: {} ({} Header)", outputPath, headers.size());
     }
 
+    @Override
+    public void writeOpInvoices(List<OpInvoice> invoices, List<String> headers, String outputPath, ExportFormat format) {
+        FileHandler handler = FileHandlerFactory.getHandler(format);
+
+        if (handler == null) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+
+        if (handler instanceof XlsxFileHandler) {
+            // Beträge und Daten als typisierte Zellen, ohne Umweg über Text
+            ((XlsxFileHandler) handler).writeOpInvoices(invoices, headers, outputPath);
+        } else {
+            writeFileWithHeaders(opFormatter.formatForExport(invoices), headers, outputPath, format);
+            return;
+        }
+
+        logger.info("📝 OP-Liste geschrieben: {} ({} Rechnungen)", outputPath, invoices.size());
+    }
+
     @Override
     public void writeFileWithPivot(List<RowData> data, PivotConfig config, String outputPath, ExportFormat format) {
         if (data == null || data.isEmpty()) {
@@ -4,6 +4,7 @@ import model.ai.AiReportTemplate;
 import model.ai.nlp.CapabilityService;
 import model.ai.nlp.FeatureSwitch;
 import model.ai.nlp.NLUnderstandingService;
+import model.ai.nlp.PromptText;
 import model.ai.nlp.PromptUnderstandingService;
 import model.ai.planning.CoverExecutionService;
 import model.ai.planning.LegacyCoverExecutionAdapter;
@@ -39,14 +40,25 @@ public class LocalAiServiceImpl implements AiService {
 
     @Override
     public String generateQuery(String prompt) {
+        return generatePlan(prompt).sql;
+    }
+
+    /**
+     * Wie {@link #generateQuery(String)}, liefert aber zusätzlich die vom Planer gesammelten
+     * Parameter. Hinweise/Hilfetexte kommen als Plan ohne Parameter zurück.
+     */
+    @Override
+    public SqlPlan generatePlan(String prompt) {
         logger.info("🧠 KI-Engine analysiert: \"{}\"", prompt);
 
         // 1. VERSTEHEN: Die Anfrage wird in eine strukturierte Form (IR) umgewandelt.
-        PromptUnderstandingService.UnderstandingResult res = understandingService.understand(prompt);
+        // Der Prompt wird nur einmal normalisiert/tokenisiert und von allen Schritten geteilt.
+        PromptText text = PromptText.of(prompt);
+        PromptUnderstandingService.UnderstandingResult res = understandingService.understand(text);
 
         // 2. FÄHIGKEITEN?: Prüfen, ob der Benutzer "was kannst du?" gefragt hat.
         if (res.isCapabilitiesIntent) {
-            return CapabilityService.renderCapabilities();
+            return textPlan(CapabilityService.renderCapabilities());
         }
 
         // 3. FEHLERBEHANDLUNG: Prüfen, ob die Anfrage klar genug war.
@@ -58,16 +70,16 @@ public class LocalAiServiceImpl implements AiService {
                 String legacySql = legacyCoverBuilder.generateQuery(prompt);
                 if (legacySql != null && !legacySql.isBlank() && !legacySql.startsWith("--")) {
                     logger.info("-> Fallback auf Legacy-Engine war erfolgreich.");
-                    return legacySql;
+                    return textPlan(legacySql);
                 }
             }
             // Wenn auch Legacy nicht helfen kann, gib den formatierten Hilfskommentar zurück
             logger.warn("-> Fallback fehlgeschlagen. Generiere Hilfetext.");
-            return buildHelpfulComment(res);
+            return textPlan(buildHelpfulComment(res));
         }
 
         // 4. ROUTING: Entscheiden, ob der neue oder der alte Motor verwendet wird.
-        boolean useAdvancedEngine = FeatureSwitch.detectAdvancedFeatures(prompt);
+        boolean useAdvancedEngine = FeatureSwitch.detectAdvancedFeatures(text);
         SqlPlan plan;
 
         if (useAdvancedEngine) {
@@ -81,14 +93,14 @@ public class LocalAiServiceImpl implements AiService {
             } else if (legacySchadenBuilder.canHandle(prompt)) {
                 plan = new LegacyCoverExecutionAdapter(legacySchadenBuilder).planFromLegacy(prompt);
             } else {
-                return buildHelpfulComment(res); // Sicherheitsnetz
+                return textPlan(buildHelpfulComment(res)); // Sicherheitsnetz
             }
         }
 
         // 5. FINALES ERGEBNIS: Gib das SQL zurück oder eine Fehlermeldung, wenn der Plan leer ist.
         if (plan == null || plan.sql == null || plan.sql.isBlank()) {
             logger.error("Der Planer hat ein leeres SQL-Ergebnis zurückgegeben, obwohl die Anfrage OK war.");
-            return buildHelpfulComment(res);
+            return textPlan(buildHelpfulComment(res));
         }
 
         logger.info("🚀 Generierter SQL-Plan:\n{}", plan.sql);
@@ -96,7 +108,13 @@ public class LocalAiServiceImpl implements AiService {
             logger.info("Parameter für PreparedStatement: {}", plan.params);
         }
 
-        return plan.sql;
+        return plan;
+    }
+
+    private static SqlPlan textPlan(String sql) {
+        SqlPlan plan = new SqlPlan();
+        plan.sql = sql;
+        return plan;
     }
 
     /**
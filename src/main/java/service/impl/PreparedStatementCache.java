@@ -0,0 +1,205 @@
+package service.impl;
+
+import config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache für vorbereitete Statements auf wenigen langlebigen Verbindungen.
+ * <p>
+ * Jede Verbindung ("Slot") hält eine LRU-Map {@code SQL-Text → PreparedStatement}. Da die Werte
+ * als Parameter gebunden werden, ist der SQL-Text nur noch von der Form der Abfrage abhängig
+ * (welche Filter gesetzt sind, Anzahl der IN-Werte). Wiederholte Suchen mit anderen Werten
+ * verwenden damit das bereits vom Pervasive-Server geparste und geplante Statement.
+ * </p>
+ * <p>
+ * Ein Slot wird immer nur von einem Thread benutzt. Sind alle Slots belegt, wartet der Aufrufer
+ * höchstens {@code maxWaitMillis} und weicht dann auf eine eigene Verbindung ohne Cache aus –
+ * parallele Lader stauen sich also nicht hinter dem Cache. Schlägt ein wiederverwendetes Statement fehl (z. B. Verbindung nach Leerlauf getrennt),
+ * wird der Slot neu aufgebaut und die Abfrage einmal wiederholt.
+ * </p>
+ */
+final class PreparedStatementCache implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PreparedStatementCache.class);
+
+    private final BlockingQueue<Slot> idle;
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger generation = new AtomicInteger();
+    private final int maxConnections;
+    private final int maxStatements;
+    private final int maxCachedParams;
+    private final long maxWaitMillis;
+
+    /**
+     * @param maxConnections  Anzahl der Verbindungen mit eigenem Statement-Cache.
+     * @param maxStatements   Maximale Anzahl gecachter Statements pro Verbindung (LRU).
+     * @param maxCachedParams Statements mit mehr Parametern (große IN-Listen) werden nicht gecacht.
+     * @param maxWaitMillis   Maximale Wartezeit auf einen freien Slot.
+     */
+    PreparedStatementCache(int maxConnections, int maxStatements, int maxCachedParams, long maxWaitMillis) {
+        this.maxConnections = Math.max(1, maxConnections);
+        this.maxStatements = Math.max(1, maxStatements);
+        this.maxCachedParams = maxCachedParams;
+        this.maxWaitMillis = Math.max(0, maxWaitMillis);
+        this.idle = new ArrayBlockingQueue<>(this.maxConnections);
+    }
+
+    /**
+     * Führt eine Abfrage mit gebundenen String-Parametern aus.
+     *
+     * @param sql    SQL mit {@code ?}-Platzhaltern.
+     * @param params Werte in Platzhalter-Reihenfolge.
+     * @param reader Liest das ResultSet aus (das ResultSet wird danach geschlossen).
+     * @return Ergebnis des Readers; leer, wenn innerhalb der Wartezeit kein Slot frei wurde.
+     */
+    <T> Optional<T> tryQuery(String sql, List<String> params, ResultSetReader<T> reader) throws SQLException {
+        Slot slot = borrow();
+        if (slot == null) {
+            return Optional.empty();
+        }
+        try {
+            synchronized (slot) {
+                boolean cacheable = params.size() <= maxCachedParams;
+                boolean reused = cacheable && slot.statements.containsKey(sql);
+                try {
+                    return Optional.of(slot.run(sql, params, reader, cacheable));
+                } catch (SQLException e) {
+                    slot.reset();
+                    if (!reused) throw e;
+                    log.warn("Gecachtes Statement fehlgeschlagen ({}), Verbindung wird neu aufgebaut.", e.getMessage());
+                    return Optional.of(slot.run(sql, params, reader, cacheable));
+                }
+            }
+        } finally {
+            idle.offer(slot);
+        }
+    }
+
+    /**
+     * Schließt alle Statements und Verbindungen; sie werden bei Bedarf neu geöffnet.
+     */
+    @Override
+    public void close() {
+        // Gerade benutzte Slots werden beim nächsten Ausleihen zurückgesetzt
+        generation.incrementAndGet();
+        for (Slot slot : idle) {
+            synchronized (slot) {
+                slot.reset();
+            }
+        }
+    }
+
+    /**
+     * @return freier Slot oder {@code null}, wenn innerhalb von {@code maxWaitMillis} keiner frei wurde.
+     */
+    private Slot borrow() throws SQLException {
+        Slot slot = idle.poll();
+        if (slot == null) {
+            if (created.incrementAndGet() <= maxConnections) {
+                slot = new Slot();
+            } else {
+                created.decrementAndGet();
+                try {
+                    slot = idle.poll(maxWaitMillis, TimeUnit.MILLISECONDS);
+                    if (slot == null) return null;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Warten auf eine freie Datenbankverbindung wurde abgebrochen.", e);
+                }
+            }
+        }
+        synchronized (slot) {
+            if (slot.generation != generation.get()) {
+                slot.reset();
+                slot.generation = generation.get();
+            }
+        }
+        return slot;
+    }
+
+    @FunctionalInterface
+    interface ResultSetReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Eine Verbindung samt ihren vorbereiteten Statements.
+     */
+    private final class Slot {
+        private final Map<String, PreparedStatement> statements =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                        if (size() <= maxStatements) return false;
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                };
+        private Connection connection;
+        private int generation = PreparedStatementCache.this.generation.get();
+
+        <T> T run(String sql, List<String> params, ResultSetReader<T> reader, boolean cacheable) throws SQLException {
+            PreparedStatement stmt = cacheable ? statements.get(sql) : null;
+            if (stmt == null) {
+                stmt = prepare(sql);
+                if (cacheable) statements.put(sql, stmt);
+            }
+            try {
+                stmt.clearParameters();
+                for (int i = 0; i < params.size(); i++) {
+                    stmt.setString(i + 1, params.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return reader.read(rs);
+                }
+            } finally {
+                if (!cacheable) closeQuietly(stmt);
+            }
+        }
+
+        private PreparedStatement prepare(String sql) throws SQLException {
+            if (connection == null || connection.isClosed()) {
+                try {
+                    connection = DatabaseConfig.getConnection();
+                } catch (ClassNotFoundException e) {
+                    throw new SQLException("JDBC-Treiber nicht gefunden: " + e.getMessage(), e);
+                }
+                // Kurze Lesezugriffe: kein offener Transaktionskontext zwischen den Abfragen
+                connection.setAutoCommit(true);
+            }
+            return DatabaseServiceImpl.readOnlyStatement(connection, sql);
+        }
+
+        void reset() {
+            statements.values().forEach(PreparedStatementCache::closeQuietly);
+            statements.clear();
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // Verbindung ist ohnehin unbrauchbar
+                }
+                connection = null;
+            }
+        }
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException ignored) {
+            // nichts zu tun
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package service.impl;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SQL-Umformungen für die Begrenzung von Ad-hoc-Abfragen (KI, DB-Export).
+ * <p>
+ * {@link #limitSql(String, int)} setzt ein serverseitiges {@code TOP n} in einfache
+ * SELECT-Abfragen ein, damit der Server nicht mehr Zeilen als nötig liefert;
+ * {@link #countSql(String)} erzeugt die passende COUNT-Abfrage für die Gesamtanzahl.
+ * Abfragen, die sich nicht sicher umformen lassen, bleiben unverändert – die Obergrenze
+ * greift dann über {@link java.sql.Statement#setMaxRows(int)}.
+ * </p>
+ */
+public final class QueryGuard {
+
+    private static final Pattern SELECT_HEAD =
+            Pattern.compile("^\\s*SELECT\\s+(DISTINCT\\s+)?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern HAS_ROW_LIMIT =
+            Pattern.compile("\\b(TOP|LIMIT|UNION)\\b", Pattern.CASE_INSENSITIVE);
+    // ORDER BY am Ende (ohne Klammern und ohne folgendes LIMIT) ist in abgeleiteten Tabellen nicht erlaubt
+    private static final Pattern TRAILING_ORDER_BY =
+            Pattern.compile("\\s+ORDER\\s+BY\\s+(?:(?!\\bLIMIT\\b)[^()])*$",
+                    Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private QueryGuard() {
+    }
+
+    /**
+     * Setzt {@code TOP maxRows} in eine einfache SELECT-Abfrage ein.
+     * Abfragen mit eigenem TOP/LIMIT oder UNION werden nicht verändert.
+     */
+    public static String limitSql(String sql, int maxRows) {
+        String body = stripTerminator(sql);
+        if (maxRows <= 0 || HAS_ROW_LIMIT.matcher(body).find()) {
+            return body;
+        }
+        Matcher m = SELECT_HEAD.matcher(body);
+        if (!m.find()) {
+            return body;
+        }
+        return m.group() + "TOP " + maxRows + " " + body.substring(m.end());
+    }
+
+    /**
+     * Liefert {@code SELECT COUNT(*)} über die Abfrage als abgeleitete Tabelle
+     * (ein abschließendes ORDER BY wird entfernt). Die Parameter bleiben dieselben.
+     */
+    public static String countSql(String sql) {
+        String body = TRAILING_ORDER_BY.matcher(stripTerminator(sql)).replaceFirst("");
+        return "SELECT COUNT(*) FROM (" + body + ") AS guard_count";
+    }
+
+    private static String stripTerminator(String sql) {
+        String s = sql.strip();
+        while (s.endsWith(";")) {
+            s = s.substring(0, s.length() - 1).strip();
+        }
+        return s;
+    }
+}
@@ -1,5 +1,7 @@
 package service.interfaces;
 
+import model.ai.planning.SqlPlan;
+
 /**
  * Service für KI-Funktionen (Future).
  *
@@ -13,6 +15,16 @@ public interface AiService {
      */
     String generateQuery(String description);
 
+    /**
+     * Generiert einen SQL-Plan (SQL mit Platzhaltern + gebundene Parameter) aus Beschreibung.
+     * Standard: SQL aus {@link #generateQuery(String)} ohne Parameter.
+     */
+    default SqlPlan generatePlan(String description) {
+        SqlPlan plan = new SqlPlan();
+        plan.sql = generateQuery(description);
+        return plan;
+    }
+
     /**
      * Optimiert bestehende Query.
      */
@@ -133,18 +133,54 @@ public interface DatabaseService {
     List<dto.LmpRow> fetchLuMaskepMinimal() throws Exception;
 
     /**
-     * Führt eine rohe SQL-Abfrage mit einem Parameter aus.
+     * Führt eine rohe SQL-Abfrage mit gebundenen Parametern aus.
      * <p>
-     * Hinweis: Dies ist eine einfache Überladung für den Anwendungsfall LIKE '%pattern%'.
-     * Eine sichere Implementierung sollte später auf PreparedStatements basieren.
+     * Die Werte werden per PreparedStatement gebunden; Statements gleicher SQL-Form
+     * werden von der Implementierung wiederverwendet. {@code IN (%s)} wird auf die
+     * Anzahl der Parameter erweitert.
      *
-     * @param sql     SQL-String mit Platzhalter (z. B. "... LIKE ?")
-     * @param pattern Wert für den Platzhalter
+     * @param sql     SQL-String mit Platzhaltern (z. B. "... LIKE ?")
+     * @param pattern Werte für die Platzhalter (in Reihenfolge)
      * @return Ergebnisliste von RowData
      * @throws Exception wenn die Abfrage fehlschlägt
      */
     List<RowData> executeRawQuery(String sql, String... pattern) throws Exception;
 
+    /**
+     * Führt eine Abfrage aus und liefert die Ergebnisse blockweise, statt sie vollständig
+     * im Speicher zu sammeln. Ergebnisse werden dabei nicht gecacht.
+     * <p>
+     * Der Consumer wird im ausführenden Thread aufgerufen; UI-Aufrufer müssen selbst auf den
+     * FX-Thread wechseln. Über {@code cancelHandle} kann die Abfrage abgebrochen werden
+     * ({@link java.sql.Statement#cancel()}); bereits gelieferte Blöcke bleiben gültig.
+     * Es werden höchstens {@code maxRows} Zeilen geliefert (serverseitig per {@code TOP n},
+     * sonst über {@link java.sql.Statement#setMaxRows(int)}); der Timeout kommt aus {@code source}.
+     *
+     * @param sql          SQL-String, optional mit Platzhaltern bzw. {@code IN (%s)}.
+     * @param parameters   Werte für die Platzhalter (in Reihenfolge), darf leer sein.
+     * @param source       Herkunft der Abfrage (Timeout).
+     * @param maxRows      Obergrenze der gelieferten Zeilen.
+     * @param batchSize    Anzahl Zeilen pro Block.
+     * @param onBatch      Empfänger der Blöcke.
+     * @param cancelHandle Abbruch-Handle oder {@code null}.
+     * @return Anzahl der gelieferten Zeilen; {@code == maxRows} bedeutet: evtl. abgeschnitten.
+     * @throws Exception bei einem Datenbankfehler (nicht bei einem Abbruch).
+     */
+    int streamRawQuery(String sql, List<String> parameters, model.enums.QuerySource source, int maxRows,
+                       int batchSize, Consumer<List<RowData>> onBatch,
+                       util.QueryCancelHandle cancelHandle) throws Exception;
+
+    /**
+     * Ermittelt die Gesamtanzahl Zeilen einer Abfrage per {@code SELECT COUNT(*)} über die
+     * Abfrage als abgeleitete Tabelle (z. B. für "erste N von M Zeilen").
+     *
+     * @param sql        SQL-String wie bei {@link #streamRawQuery}.
+     * @param parameters Werte für die Platzhalter.
+     * @param source     Herkunft der Abfrage (Timeout).
+     * @return Anzahl Zeilen oder {@code -1}, wenn sich die Abfrage nicht zählen lässt.
+     */
+    long countRawQuery(String sql, List<String> parameters, model.enums.QuerySource source);
+
 
     void invalidateCache();
 }
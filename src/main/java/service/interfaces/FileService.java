@@ -3,6 +3,7 @@ package service.interfaces;
 import model.PivotConfig;
 import model.RowData;
 import model.enums.ExportFormat;
+import model.op.OpInvoice;
 
 import java.util.List;
 
@@ -29,6 +30,11 @@ public interface FileService {
      */
     void writeFileWithHeaders(List<RowData> data, List<String> headers, String outputPath, ExportFormat format);
 
+    /**
+     * Schreibt verdichtete OP-Rechnungen (Kundenexport) mit den gegebenen Headern.
+     */
+    void writeOpInvoices(List<OpInvoice> invoices, List<String> headers, String outputPath, ExportFormat format);
+
 
     /**
      * Schreibt Daten mit Pivot-Transformation.
@@ -1,8 +1,9 @@
 package service.op;
 
 import formatter.op.OpListeFormatter;
-import model.RowData;
 import model.enums.ExportFormat;
+import model.op.OpInvoice;
+import model.op.OpLine;
 import model.op.kunde.ExecutionResult;
 import model.op.kunde.IKundeStrategy;
 import model.op.kunde.Kunde;
@@ -30,7 +31,7 @@ import java.util.Objects;
  *   <li>Auswahl der Kundenstrategie (Hartrodt, Gateway, Saco, FiveStar, ...)</li>
  *   <li>Laden der Policen gruppiert nach Land/VSN</li>
  *   <li>Laden/Cache der OP-Hauptliste (OpRepository)</li>
- *   <li>Filtern, Anreichern, Formatieren und Export pro Police</li>
+ *   <li>Filtern, Verdichten und Export pro Police</li>
  *   <li>Fortschritts- und Statusmeldungen via {@link ProgressReporter}</li>
  * </ul>
  * </p>
@@ -97,7 +98,7 @@ public class OPListenService {
             if (opRepository.isCacheEmpty()) {
                 reporter.updateMessage("Lade OP-Hauptliste aus der Datenbank…");
                 log.info("Lade OP-Hauptliste aus der DB…");
-                opRepository.loadAndCacheMainList();
+                opRepository.loadLines();
             } else {
                 reporter.updateMessage("Verwende OP-Hauptliste aus Cache.");
                 log.info("Verwende OP-Hauptliste aus Cache.");
@@ -139,23 +140,14 @@ public class OPListenService {
                     String name = sample.getName();
 
                     reporter.updateMessage("Filtere Daten für Police " + vsn + " (" + land + ")…");
-                    List<RowData> rows = opRepository.findByPolicyFromCache(vsn);
-                    if (rows == null || rows.isEmpty()) {
+                    List<OpLine> lines = opRepository.findLinesByPolicy(vsn);
+                    if (lines.isEmpty()) {
                         reporter.updateMessage("⚠ Keine Daten für Police " + vsn + " (" + land + ").");
                         continue;
                     }
 
-                    // Anreichern
-                    for (RowData r : rows) {
-                        r.put("Land", (land != null && !land.isBlank()) ? land : "UNBEKANNT");
-                        String cleaned = OpListeFormatter.getCleanedName(name);
-                        r.put("Firma/Name", (cleaned != null && !cleaned.isBlank()) ? cleaned : "UNBEKANNT");
-                        r.put("Versicherungsnehmer", cleaned);
-                        r.put("Ort", (ort != null) ? ort : "");
-                    }
-
-                    // Verdichten für Kundenexport
-                    List<RowData> exportList = formatter.formatForExport(rows, language);
+                    // Verdichten für Kundenexport (Versicherungsnehmer aus den Kundendaten)
+                    List<OpInvoice> invoices = formatter.aggregate(lines, OpListeFormatter.getCleanedName(name));
 
                     // Dateiname & Zielpfad
                     String fileName = strategy.buildFileName(vsn, land, ort, format.getExtension());
@@ -164,7 +156,7 @@ public class OPListenService {
 
                     // Header & Export
                     List<String> headers = OpListeFormatter.getHeadersForExport("Kunde", language);
-                    fileService.writeFileWithHeaders(exportList, headers, target.toString(), format);
+                    fileService.writeOpInvoices(invoices, headers, target.toString(), format);
 
                     exported++;
                     long pct = 10 + (processed * 80L / Math.max(policyCount, 1));
@@ -2,14 +2,17 @@ package service.op.repository;
 
 import formatter.op.OpListeFormatter;
 import model.RowData;
+import model.op.OpLine;
 import service.interfaces.DatabaseService;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 public class OpRepository {
 
@@ -18,9 +21,11 @@ public class OpRepository {
     private final DatabaseService db;
     private final OpListeFormatter formatter;
 
-    // Cache
-    private List<RowData> mainCache = Collections.emptyList();
-    private Instant cacheLoadedAt = null;
+    // Cache : typisierte Zeilen + Index nach Police; Anzeigezeilen erst bei Bedarf
+    private volatile List<OpLine> lines = Collections.emptyList();
+    private volatile Map<String, List<OpLine>> linesByPolicy = Collections.emptyMap();
+    private volatile List<RowData> mainCache = null;
+    private volatile Instant cacheLoadedAt = null;
 
     private Duration cacheTtl = Duration.ofHours(24);
 
@@ -37,13 +42,13 @@ public class OpRepository {
     }
 
     public boolean isCacheEmpty() {
-        boolean empty = (mainCache == null || mainCache.isEmpty());
+        boolean empty = lines.isEmpty();
         boolean stale = isCacheStale();
         log.info("isCacheEmpty? {} (stale={}, repoId={}, size={})",
                 (empty || stale),
                 stale,
                 System.identityHashCode(this),
-                (mainCache == null ? 0 : mainCache.size()));
+                lines.size());
         return empty || stale;
     }
 
@@ -52,19 +57,43 @@ public class OpRepository {
         return Instant.now().isAfter(cacheLoadedAt.plus(cacheTtl));
     }
 
+    /**
+     * Anzeigezeilen der Hauptliste; werden beim ersten Zugriff nach dem Laden einmal aus den
+     * {@link OpLine}s formatiert.
+     */
     public List<RowData> getMainCache() {
-        return (mainCache == null) ? Collections.emptyList() : mainCache;
+        List<RowData> rows = mainCache;
+        if (rows == null) {
+            synchronized (this) {
+                rows = mainCache;
+                if (rows == null) {
+                    rows = formatter.toRows(lines);
+                    mainCache = rows;
+                }
+            }
+        }
+        return rows;
     }
 
 
     public void invalidateCache() {
-        mainCache = Collections.emptyList();
+        lines = Collections.emptyList();
+        linesByPolicy = Collections.emptyMap();
+        mainCache = null;
         cacheLoadedAt = null;
         log.info("OP cache invalidated (repoId={})", System.identityHashCode(this));
     }
 
 
     public List<RowData> loadAndCacheMainList() throws Exception {
+        loadLines();
+        return getMainCache();
+    }
+
+    /**
+     * Lädt die Hauptliste aus der DB und legt sie typisiert im Cache ab (ohne Anzeigeformatierung).
+     */
+    public List<OpLine> loadLines() throws Exception {
         final String sql = """
                 SELECT A.LU_VMT, A.LU_RNR, A.LU_RNR_Makler, A.LU_RNR_R, A.LU_VSN, LA.LU_VSN_Makler, A.LU_ZJ,
                        LMP.LU_NAM, A.LU_RDT, A.LU_BDT, A.LU_FLG, A.LU_Waehrung, A.LU_VSTLD, A.LU_SD_WART,
@@ -89,12 +118,23 @@ public class OpRepository {
         List<RowData> rawData = db.executeRawQuery(sql);
         if (rawData == null) rawData = Collections.emptyList();
 
-        mainCache = formatter.format(rawData);
-        cacheLoadedAt = Instant.now();
+        List<OpLine> parsed = Collections.unmodifiableList(formatter.parse(rawData));
+        Map<String, List<OpLine>> byPolicy = new HashMap<>();
+        for (OpLine line : parsed) {
+            byPolicy.computeIfAbsent(line.policenNr(), k -> new ArrayList<>()).add(line);
+        }
+        byPolicy.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+        synchronized (this) {
+            lines = parsed;
+            linesByPolicy = byPolicy;
+            mainCache = null;
+            cacheLoadedAt = Instant.now();
+        }
 
-        log.info("OP cache filled: size={}, repoId={}, at={}", mainCache.size(),
+        log.info("OP cache filled: size={}, policies={}, repoId={}, at={}", parsed.size(), byPolicy.size(),
                 System.identityHashCode(this), cacheLoadedAt);
-        return mainCache;
+        return parsed;
     }
 
 
@@ -102,17 +142,18 @@ public class OpRepository {
         if (isCacheEmpty()) {
             return loadAndCacheMainList();
         }
-        log.info("Serving OP main list from cache: size={}, repoId={}", mainCache.size(),
+        List<RowData> rows = getMainCache();
+        log.info("Serving OP main list from cache: size={}, repoId={}", rows.size(),
                 System.identityHashCode(this));
-        return mainCache;
+        return rows;
     }
 
 
-    public List<RowData> findByPolicyFromCache(String vsn) {
-        if (mainCache == null || mainCache.isEmpty()) return List.of();
+    /**
+     * Zeilen einer Police aus dem Cache (unveränderlich, ohne Kopie).
+     */
+    public List<OpLine> findLinesByPolicy(String vsn) {
         String key = (vsn == null) ? "" : vsn.trim();
-        return mainCache.stream()
-                .filter(r -> key.equals(r.getValues().get("Policen-Nr")))
-                .collect(Collectors.toList());
+        return linesByPolicy.getOrDefault(key, List.of());
     }
 }
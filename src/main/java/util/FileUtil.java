@@ -9,9 +9,11 @@ import service.impl.FileServiceImpl;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -26,6 +28,18 @@ public class FileUtil {
     private static final DateTimeFormatter FILE_DATETIME_FMT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
 
 
+    /**
+     * Benutzerbezogenes Anwendungsverzeichnis für Konfiguration und lokale Caches:
+     * {@code %APPDATA%\CarlSchroeter} unter Windows, sonst {@code ~/.vias}.
+     */
+    public static Path userAppHome() {
+        String appData = System.getenv("APPDATA"); // ex. C:\Users\...\AppData\Roaming
+        if (appData == null || appData.isBlank()) {
+            return Paths.get(System.getProperty("user.home"), ".vias");
+        }
+        return Paths.get(appData, "CarlSchroeter");
+    }
+
     /**
      * Erstellt Ausgabeverzeichnis falls nicht vorhanden.
      */
@@ -252,4 +266,45 @@ public class FileUtil {
 
         Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
     }
+
+    /**
+     * Kopiert eine Datei nur, wenn das Ziel fehlt oder sich von der Quelle unterscheidet
+     * (Größe oder Änderungszeitpunkt). Der Zeitstempel der Quelle wird übernommen,
+     * damit ein erneuter Lauf bereits kopierte Dateien überspringen kann.
+     *
+     * @param source Quelldatei.
+     * @param target Zieldatei (inkl. Dateiname); der Ordner muss existieren.
+     * @return {@code true}, wenn kopiert wurde; {@code false}, wenn das Ziel bereits aktuell ist.
+     * @throws IOException Wenn die Quelle fehlt oder die Kopie fehlschlägt.
+     */
+    public static boolean copyFileIfChanged(Path source, Path target) throws IOException {
+        BasicFileAttributes src;
+        try {
+            // Ein einziger Roundtrip statt exists() + isRegularFile()
+            src = Files.readAttributes(source, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new IOException("Quelldatei nicht gefunden oder nicht zugreifbar: " + source, e);
+        }
+        if (!src.isRegularFile()) {
+            throw new IOException("Quelldatei nicht gefunden oder nicht zugreifbar: " + source);
+        }
+
+        if (isSameFile(src, target)) {
+            return false;
+        }
+
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        return true;
+    }
+
+    private static boolean isSameFile(BasicFileAttributes src, Path target) throws IOException {
+        try {
+            BasicFileAttributes dst = Files.readAttributes(target, BasicFileAttributes.class);
+            return dst.isRegularFile()
+                    && dst.size() == src.size()
+                    && dst.lastModifiedTime().equals(src.lastModifiedTime());
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
 }
\ No newline at end of file
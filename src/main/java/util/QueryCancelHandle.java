@@ -0,0 +1,65 @@
+package util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Abbruch-Handle für eine laufende Datenbankabfrage.
+ * <p>
+ * Der ausführende Thread meldet sein Statement per {@link #attach(Statement)} an;
+ * {@link #cancel()} kann danach aus einem beliebigen Thread (z. B. FX-Thread über einen
+ * Abbrechen-Button) aufgerufen werden und ruft {@link Statement#cancel()} auf.
+ * Wird abgebrochen, bevor das Statement angemeldet ist, wird es beim Anmelden sofort abgebrochen.
+ * </p>
+ */
+public final class QueryCancelHandle {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCancelHandle.class);
+
+    private volatile Statement statement;
+    private volatile boolean cancelled;
+
+    /**
+     * Meldet das ausführende Statement an.
+     */
+    public void attach(Statement stmt) {
+        this.statement = stmt;
+        if (cancelled) {
+            cancelQuietly(stmt);
+        }
+    }
+
+    /**
+     * Meldet das Statement wieder ab (nach Ende der Abfrage).
+     */
+    public void detach() {
+        this.statement = null;
+    }
+
+    /**
+     * Bricht die Abfrage ab. Mehrfache Aufrufe sind unkritisch.
+     */
+    public void cancel() {
+        cancelled = true;
+        Statement stmt = statement;
+        if (stmt != null) {
+            cancelQuietly(stmt);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private static void cancelQuietly(Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            // Treiber unterstützt den Abbruch evtl. nicht: das Lesen endet dann beim nächsten Batch
+            log.warn("⚠️ Statement.cancel() fehlgeschlagen: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.Test;
+import service.audit.checkpoint.AuditCheckpoint;
+import service.audit.copy.DocumentCopyEngine.CopyJob;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditCheckpointTest {
+
+    /**
+     * Job mit bereits vorhandener Zieldatei (wie nach dem Kopieren).
+     */
+    private static CopyJob copied(Path target, String name) throws Exception {
+        Files.createDirectories(target);
+        Files.writeString(target.resolve(name), name);
+        return new CopyJob("src/" + name, target.toString(), name, name);
+    }
+
+    private static void deleteAll(Path root) throws Exception {
+        try (var paths = Files.walk(root)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+        }
+    }
+
+    @Test
+    void partialLastLineFromCrashIsCutBeforeAppending() throws Exception {
+        Path dir = Files.createTempDirectory("checkpoint");
+        Path file = dir.resolve("audit_TEST.checkpoint");
+        Path target = dir.resolve("ziel");
+        try {
+            CopyJob a = copied(target, "a.pdf");
+            CopyJob b = copied(target, "b.pdf");
+            try (AuditCheckpoint cp = AuditCheckpoint.open(dir, "audit_TEST", "fp")) {
+                cp.markCopied(a);
+            }
+            // Abbruch mitten im Schreiben
+            Files.writeString(file, "{\"t\":\"COPIED\",\"key\":\"zi", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+            try (AuditCheckpoint cp = AuditCheckpoint.open(dir, "audit_TEST", "fp")) {
+                assertTrue(cp.isCopied(a));
+                cp.markCopied(b);
+            }
+
+            try (AuditCheckpoint cp = AuditCheckpoint.open(dir, "audit_TEST", "fp")) {
+                assertTrue(cp.isCopied(a));
+                assertTrue(cp.isCopied(b));
+            }
+            assertEquals(3, Files.readAllLines(file).size());
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    void journaledDocumentWithMissingTargetIsCopiedAgain() throws Exception {
+        Path dir = Files.createTempDirectory("checkpoint");
+        Path target = dir.resolve("ziel");
+        try {
+            CopyJob a = copied(target, "a.pdf");
+            try (AuditCheckpoint cp = AuditCheckpoint.open(dir, "audit_TEST", "fp")) {
+                cp.markCopied(a);
+            }
+            // Zieldatei wurde zwischen den Läufen gelöscht
+            Files.delete(target.resolve("a.pdf"));
+
+            try (AuditCheckpoint cp = AuditCheckpoint.open(dir, "audit_TEST", "fp")) {
+                assertFalse(cp.isCopied(a));
+            }
+        } finally {
+            deleteAll(dir);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import model.RowData;
+import model.RowSnapshot;
+import org.junit.jupiter.api.Test;
+import service.cache.CacheRegistry;
+import service.cache.CacheWeights;
+import service.cache.CachedDatabaseService;
+import service.interfaces.DatabaseService;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheWeightsTest {
+
+    private static List<RowData> rows(int n) {
+        List<RowData> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            RowData r = new RowData();
+            r.put("Makler", "1001" + i);
+            r.put("Firma", "Firma " + i);
+            out.add(r);
+        }
+        return out;
+    }
+
+    @Test
+    void weightGrowsWithRowCount() {
+        int small = CacheWeights.rows(RowSnapshot.ofAll(rows(3)));
+        int large = CacheWeights.rows(RowSnapshot.ofAll(rows(30_000)));
+
+        assertTrue(small > 0 && small < 2_000, "3 Zeilen sollten leicht sein: " + small);
+        assertTrue(large > 5_000_000, "30.000 Zeilen sollten mehrere MB wiegen: " + large);
+        assertTrue(CacheWeights.dictionary(Map.of("A", "Alpha")) < CacheWeights.rows(RowSnapshot.ofAll(rows(100))));
+    }
+
+    @Test
+    void bigResultsAreEvictedByBudgetNotByEntryCount() throws Exception {
+        DatabaseService db = (DatabaseService) Proxy.newProxyInstance(
+                DatabaseService.class.getClassLoader(),
+                new Class<?>[]{DatabaseService.class},
+                (proxy, method, args) -> rows(Integer.parseInt(((String) args[0]).substring(7))));
+        // Budget für etwa 20.000 Zeilen
+        long budget = CacheWeights.rows(RowSnapshot.ofAll(rows(20_000)));
+        CachedDatabaseService cached = new CachedDatabaseService(db, budget, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 20; i++) {
+            cached.executeRawQuery("SELECT " + (i + 1));     // viele kleine Ergebnisse
+        }
+        cached.executeRawQuery("SELECT 15000");
+        cached.executeRawQuery("SELECT 15001");
+
+        CacheRegistry.CacheMetrics m = CacheRegistry.metrics().stream()
+                .filter(x -> x.name().equals("DB-Abfragen")).findFirst().orElseThrow();
+        assertTrue(m.weighted());
+        assertEquals(budget, m.maximum());
+        assertTrue(m.weightedSize() <= budget, "Gewicht darf das Budget nicht überschreiten: " + m.weightedSize());
+        assertTrue(m.evictions() > 0, "Zwei große Ergebnisse passen nicht gleichzeitig ins Budget.");
+        assertEquals(22, m.misses());
+    }
+}
@@ -0,0 +1,35 @@
+import org.junit.jupiter.api.Test;
+import service.cache.CachedDatabaseService;
+import service.cache.SingleFlightDatabaseService;
+import service.interfaces.DatabaseService;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedDatabaseServiceTest {
+
+    @Test
+    void invalidateCacheReachesTheInnermostService() {
+        AtomicInteger invalidations = new AtomicInteger();
+        DatabaseService impl = (DatabaseService) Proxy.newProxyInstance(
+                DatabaseService.class.getClassLoader(),
+                new Class<?>[]{DatabaseService.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("invalidateCache")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    invalidations.incrementAndGet();
+                    return null;
+                });
+
+        // Aufbau wie in der ServiceFactory
+        DatabaseService service = new CachedDatabaseService(new SingleFlightDatabaseService(impl),
+                1_000_000, Duration.ofMinutes(1));
+        service.invalidateCache();
+
+        assertEquals(1, invalidations.get());
+    }
+}
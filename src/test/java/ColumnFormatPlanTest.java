@@ -0,0 +1,59 @@
+import formatter.ColumnFormatPlan;
+import formatter.ColumnValueFormatter;
+import gui.controller.service.FormatterService;
+import model.RowData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnFormatPlanTest {
+
+    private static final List<String> COLUMNS = List.of("Restreserve", "Anteil CS", "Ablauf_Datum", "Name", "SB_Vertr");
+
+    private static RowData row() {
+        RowData r = new RowData();
+        r.put("Restreserve", "1234,5");
+        r.put("Anteil CS", "10.125");
+        r.put("Ablauf_Datum", "20240131");
+        r.put("Name", "  Muster  ");
+        r.put("SB_Vertr", " NKI ");
+        return r;
+    }
+
+    @Test
+    void planMatchesPerCellFormatting() {
+        FormatterService.reloadRuntimeConfig();
+        RowData row = row();
+        ColumnFormatPlan plan = ColumnValueFormatter.plan(COLUMNS);
+
+        String[] formatted = plan.formatRow(row);
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            assertEquals(ColumnValueFormatter.format(row, COLUMNS.get(i)), formatted[i], COLUMNS.get(i));
+        }
+        assertEquals("1.234,50 €", formatted[0]);
+        assertEquals("10,12", formatted[1]);
+        assertEquals("31.01.2024", formatted[2]);
+        assertEquals("Muster", formatted[3]);
+        assertEquals("", plan.format(new RowData(), 0));
+    }
+
+    @Test
+    void planIsReusedUntilConfigurationChanges() {
+        ColumnFormatPlan first = ColumnValueFormatter.plan(COLUMNS);
+        assertSame(first, ColumnValueFormatter.plan(List.copyOf(COLUMNS)));
+        assertFalse(first.isStale());
+
+        ColumnValueFormatter.setSbDictionary(Map.of("NKI", "Nina Kirsch"));
+        assertTrue(first.isStale());
+        ColumnFormatPlan second = ColumnValueFormatter.plan(COLUMNS);
+        assertNotSame(first, second, "neue Konfiguration → neuer Plan");
+
+        ColumnValueFormatter.setAdditionalSbHeaders(Set.of());
+        assertTrue(second.isStale());
+        assertNotSame(second, ColumnValueFormatter.plan(List.of("Name")));
+    }
+}
@@ -0,0 +1,104 @@
+import model.ColumnProfile;
+import model.ColumnProfiler;
+import model.HyperLogLog;
+import model.RowData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnProfilerTest {
+
+    private static List<RowData> rows(int n) {
+        List<RowData> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            RowData r = new RowData();
+            r.put("RgNr", "RG" + i);
+            // "A" in jeder zweiten Zeile, sonst C, E, G, I, K
+            r.put("Makler", i % 2 == 0 ? "A" : String.valueOf((char) ('B' + (i % 10))));
+            r.put("Bemerkung", i % 4 == 0 ? "" : "x".repeat(1 + i % 70));
+            rows.add(r);
+        }
+        return rows;
+    }
+
+    @Test
+    void hyperLogLogEstimatesWithinErrorBounds() {
+        for (int n : new int[]{10, 1_000, 100_000}) {
+            HyperLogLog hll = new HyperLogLog();
+            for (int i = 0; i < n; i++) {
+                hll.add("VSN-" + i);
+                hll.add("VSN-" + i); // Duplikate zählen nicht
+            }
+            long estimate = hll.estimate();
+            assertTrue(Math.abs(estimate - n) <= Math.max(1, n * 0.05), n + " → " + estimate);
+        }
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void hyperLogLogMergeEqualsSinglePass() {
+        HyperLogLog all = new HyperLogLog();
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            all.add("K" + i);
+            (i < 12_000 ? left : right).add("K" + i);
+        }
+        left.merge(right);
+        assertEquals(all.estimate(), left.estimate());
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new HyperLogLog(10)));
+    }
+
+    @Test
+    void profileReportsCardinalityTopValuesAndEmptyRatio() {
+        Map<String, ColumnProfile> profiles = ColumnProfiler.profile(rows(1_000));
+
+        ColumnProfile makler = profiles.get("Makler");
+        assertEquals(1_000, makler.rows());
+        assertEquals(0, makler.empty());
+        assertEquals(6, makler.distinctEstimate()); // A + C, E, G, I, K
+        assertEquals("A", makler.topValues().get(0).value());
+        assertEquals(500, makler.topValues().get(0).count());
+        assertFalse(makler.isMostlyUnique());
+
+        ColumnProfile rgNr = profiles.get("RgNr");
+        assertTrue(rgNr.isMostlyUnique());
+        assertTrue(rgNr.exceedsGroups(900));
+
+        ColumnProfile bemerkung = profiles.get("Bemerkung");
+        assertEquals(250, bemerkung.empty());
+        assertEquals(0.25, bemerkung.emptyRatio(), 1e-9);
+        long histogramTotal = 0;
+        for (long c : bemerkung.lengthHistogram()) histogramTotal += c;
+        assertEquals(bemerkung.nonEmpty(), histogramTotal);
+        assertTrue(bemerkung.lengthHistogram()[ColumnProfiler.LENGTH_BUCKETS - 1] > 0); // Längen ≥ 64
+    }
+
+    @Test
+    void parallelPassMatchesCountsOfSequentialData() {
+        List<RowData> rows = rows(100_000);
+        ColumnProfile makler = ColumnProfiler.profile(rows, "Makler");
+
+        assertEquals(100_000, makler.rows());
+        assertEquals(6, makler.distinctEstimate());
+        // wenige Werte: Space-Saving zählt exakt, auch nach dem Zusammenführen der Blöcke
+        assertEquals(50_000, makler.topValues().get(0).count());
+        assertEquals(0, makler.topValues().get(0).error());
+
+        long rgNr = ColumnProfiler.profile(rows, "RgNr").distinctEstimate();
+        assertTrue(Math.abs(rgNr - 100_000) < 5_000, "RgNr → " + rgNr);
+    }
+
+    @Test
+    void summaryAndBucketLabels() {
+        ColumnProfile p = ColumnProfiler.profile(rows(1_000), "Bemerkung");
+        assertTrue(p.summary().endsWith("25 % leer"), p.summary());
+        assertEquals("1", ColumnProfile.lengthBucketLabel(0));
+        assertEquals("4–7", ColumnProfile.lengthBucketLabel(2));
+        assertEquals("64+", ColumnProfile.lengthBucketLabel(ColumnProfiler.LENGTH_BUCKETS - 1));
+    }
+}
@@ -0,0 +1,76 @@
+import model.ColumnStatistics;
+import model.RowData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnStatisticsTest {
+
+    private static RowData row(String vsn, String name, String leer) {
+        RowData r = new RowData();
+        r.put("VSN", vsn);
+        r.put("Name", name);
+        r.put("Leer", leer);
+        return r;
+    }
+
+    private static List<RowData> page(int from, int count) {
+        List<RowData> rows = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            rows.add(row("V" + i, i % 2 == 0 ? "Muster" : "  ", i % 3 == 0 ? null : " "));
+        }
+        return rows;
+    }
+
+    @Test
+    void reloadedPagesAreNotCountedTwice() {
+        ColumnStatistics stats = new ColumnStatistics();
+        stats.acceptPage(0, page(0, 10));
+        stats.acceptPage(10, page(10, 10));
+        stats.acceptPage(0, page(0, 10)); // Zurückblättern
+
+        assertEquals(20, stats.rowsSeen());
+        assertEquals(20, stats.nonEmpty("VSN"));
+        assertEquals(10, stats.nonEmpty("Name"));
+        assertFalse(stats.isComplete(25));
+        stats.acceptPage(20, page(20, 5));
+        assertTrue(stats.isComplete(25));
+    }
+
+    @Test
+    void emptyColumnsMatchFullScan() {
+        ColumnStatistics stats = ColumnStatistics.of(page(0, 50));
+        assertEquals(Set.of("Leer"), stats.emptyColumns());
+        assertEquals(List.of("VSN", "Name", "Leer"), new ArrayList<>(stats.columns()));
+        assertFalse(new ColumnStatistics().isComplete(0));
+    }
+
+    @Test
+    void widthAndDistinctEstimate() {
+        ColumnStatistics stats = ColumnStatistics.of(page(0, 1000));
+        assertEquals(4, stats.maxWidth("VSN")); // "V999"
+        assertEquals(6, stats.maxWidth("Name"));
+        assertEquals(1, stats.distinctEstimate("Name"));
+        assertEquals(0, stats.distinctEstimate("Leer"));
+
+        long estimate = stats.distinctEstimate("VSN");
+        assertTrue(estimate > 900 && estimate < 1100, "Schätzung " + estimate);
+    }
+
+    @Test
+    void emptyColumnsFromServerCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("VSN", 120);
+        counts.put("Leer", 0);
+        counts.put("Intern", 0);
+
+        assertEquals(Set.of("Leer", "Intern"), ColumnStatistics.emptyColumns(counts, null));
+        assertEquals(Set.of("Leer"), ColumnStatistics.emptyColumns(counts, Set.of("VSN", "Leer")));
+    }
+}
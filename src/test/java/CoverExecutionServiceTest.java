@@ -0,0 +1,63 @@
+import model.ai.AiReportTemplate;
+import model.ai.ir.QueryIR;
+import model.ai.nlp.NLParser;
+import model.ai.planning.CoverExecutionService;
+import model.ai.planning.CoverPlanner;
+import model.ai.planning.SqlPlan;
+import model.ai.provider.impl.CoverKnowledgeProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoverExecutionServiceTest {
+
+    private NLParser parser;
+    private CoverExecutionService service;
+
+    @BeforeEach
+    void setUp() {
+        parser = new NLParser();
+        AiReportTemplate template = new CoverKnowledgeProvider().getReportTemplates().get(0);
+        service = new CoverExecutionService(template);
+    }
+
+    @Test
+    void promptsDifferingOnlyInValuesShareOneSqlShape() {
+        QueryIR first = parser.parse("Verträge für Makler 100120 limit 500");
+        QueryIR second = parser.parse("Verträge für Makler 200300 limit 20");
+
+        assertEquals(CoverPlanner.shapeKey(first), CoverPlanner.shapeKey(second));
+
+        SqlPlan a = service.plan(first);
+        SqlPlan b = service.plan(second);
+        assertEquals(a.sql, b.sql, "Gleiche IR-Form sollte dasselbe SQL liefern.");
+        assertEquals("100120", a.params.get(0));
+        assertEquals("200300", b.params.get(0));
+        assertEquals(20, b.params.get(1), "Limit wird als Parameter des aktuellen Prompts gebunden.");
+    }
+
+    @Test
+    void cachedPlanMatchesFreshPlan() {
+        AiReportTemplate template = new CoverKnowledgeProvider().getReportTemplates().get(0);
+        CoverPlanner planner = new CoverPlanner(template);
+
+        service.plan(parser.parse("Verträge für Makler 100120 mit Feldern Firma, Land"));
+        QueryIR ir = parser.parse("Verträge für Makler 999999 mit Feldern Firma, Land");
+
+        SqlPlan cached = service.plan(ir);
+        SqlPlan fresh = planner.fromIR(ir);
+        assertEquals(fresh.sql, cached.sql);
+        assertEquals(fresh.headers, cached.headers);
+        assertEquals(fresh.params, cached.params);
+    }
+
+    @Test
+    void differentFilterShapeGetsOwnPlan() {
+        QueryIR withLimit = parser.parse("Verträge für Makler 100120 limit 500");
+        QueryIR withoutLimit = parser.parse("Verträge für Makler 100120");
+
+        assertNotEquals(CoverPlanner.shapeKey(withLimit), CoverPlanner.shapeKey(withoutLimit));
+        assertNotEquals(service.plan(withLimit).sql, service.plan(withoutLimit).sql);
+    }
+}
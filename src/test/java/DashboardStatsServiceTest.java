@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+import service.cache.DashboardStatsService;
+import service.interfaces.DatabaseService;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardStatsServiceTest {
+
+    private static DatabaseService countingDb(AtomicInteger calls) {
+        return (DatabaseService) Proxy.newProxyInstance(
+                DatabaseService.class.getClassLoader(),
+                new Class<?>[]{DatabaseService.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("getDashboardStatistics")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    int n = calls.incrementAndGet();
+                    Map<String, Integer> stats = new LinkedHashMap<>();
+                    stats.put("Aktive Verträge", 10 * n);
+                    stats.put("Offene Schäden", 2);
+                    stats.put("Anzahl Makler", 7);
+                    return stats;
+                });
+    }
+
+    private static DashboardStatsService.Snapshot refreshAndWait(DashboardStatsService service) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        DashboardStatsService.Snapshot[] result = new DashboardStatsService.Snapshot[1];
+        service.subscribe(s -> {
+            result[0] = s;
+            done.countDown();
+        });
+        service.refreshAsync();
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Aktualisierung sollte abschließen.");
+        return result[0];
+    }
+
+    @Test
+    void coldStartShowsPersistedSnapshot() throws Exception {
+        Path file = Files.createTempDirectory("dashboard").resolve("dashboard-stats.properties");
+        AtomicInteger calls = new AtomicInteger();
+
+        DashboardStatsService first = new DashboardStatsService(countingDb(calls), file);
+        assertNull(first.current(), "Ohne Snapshot gibt es keinen Stand.");
+        DashboardStatsService.Snapshot loaded = refreshAndWait(first);
+        assertEquals(Integer.valueOf(10), loaded.values().get("Aktive Verträge"));
+
+        DashboardStatsService second = new DashboardStatsService(countingDb(calls), file);
+        DashboardStatsService.Snapshot cold = second.current();
+        assertNotNull(cold, "Nach Neustart sollte der gespeicherte Stand sofort verfügbar sein.");
+        assertEquals(loaded.values(), cold.values());
+        assertEquals(loaded.loadedAt().toEpochMilli(), cold.loadedAt().toEpochMilli());
+        assertEquals(1, calls.get(), "Der Kaltstart darf keine Abfrage auslösen.");
+    }
+
+    @Test
+    void refreshReplacesCurrentValues() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        DashboardStatsService service = new DashboardStatsService(countingDb(calls), null);
+
+        refreshAndWait(service);
+        DashboardStatsService.Snapshot second = refreshAndWait(service);
+
+        assertEquals(Integer.valueOf(20), second.values().get("Aktive Verträge"));
+        assertSame(second, service.current());
+    }
+}
@@ -0,0 +1,43 @@
+import org.junit.jupiter.api.Test;
+import service.cache.DictionaryDiskCache;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictionaryDiskCacheTest {
+
+    @Test
+    void roundTripKeepsOrderAndUmlauts() throws Exception {
+        DictionaryDiskCache cache = new DictionaryDiskCache(Files.createTempDirectory("dict"));
+        Map<String, String> dict = new LinkedHashMap<>();
+        dict.put("200", "Müller & Söhne");
+        dict.put("100", "Großmakler GmbH");
+        dict.put("", "");
+
+        cache.save("maklerv", dict);
+        Map<String, String> loaded = cache.load("MAKLERV");
+
+        assertEquals(dict, loaded);
+        assertEquals(List.of("200", "100", ""), new ArrayList<>(loaded.keySet()));
+    }
+
+    @Test
+    void missingOrCorruptFilesAreIgnored() throws Exception {
+        Path dir = Files.createTempDirectory("dict");
+        DictionaryDiskCache cache = new DictionaryDiskCache(dir);
+
+        assertNull(cache.load("MAP_ALLE_STA"));
+
+        Files.write(dir.resolve("MAP_ALLE_STA.bin"), new byte[]{1, 2, 3});
+        assertNull(cache.load("MAP_ALLE_STA"), "Unlesbare Datei sollte wie ein Miss behandelt werden.");
+
+        cache.save("MAP_ALLE_STA", Map.of("A", "Aktiv"));
+        assertEquals(Map.of("A", "Aktiv"), cache.load("MAP_ALLE_STA"));
+    }
+}
@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.Test;
+import service.audit.copy.DocumentCopyEngine;
+import service.audit.copy.DocumentCopyEngine.CopyJob;
+import service.interfaces.ProgressReporter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentCopyEngineTest {
+
+    private static final ProgressReporter SILENT = new ProgressReporter() {
+        @Override
+        public void updateMessage(String message) {
+        }
+
+        @Override
+        public void updateProgress(long workDone, long max) {
+        }
+    };
+
+    @Test
+    void filesOfOneDirectoryAreCopiedInParallel() throws Exception {
+        Path root = Files.createTempDirectory("copy-engine");
+        try {
+            Path target = root.resolve("ziel").resolve("unter");
+            List<CopyJob> jobs = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Path src = Files.writeString(root.resolve("src" + i + ".pdf"), "Dokument " + i);
+                jobs.add(new CopyJob(src.toString(), target.toString(), "doc" + i + ".pdf", "doc" + i));
+            }
+
+            // Jeweils zwei Worker müssen sich gleichzeitig treffen – mit nur einem Thread pro Ordner liefe das in den Timeout
+            CyclicBarrier pair = new CyclicBarrier(2);
+            AtomicInteger missed = new AtomicInteger();
+            DocumentCopyEngine.CopyStats stats = new DocumentCopyEngine(4).execute(jobs, SILENT, 0, 100, job -> {
+                try {
+                    pair.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    missed.incrementAndGet();
+                }
+            });
+
+            assertEquals(0, missed.get(), "Kopien eines Ordners liefen nicht parallel.");
+            assertEquals(8, stats.copied());
+            assertEquals(0, stats.failed());
+            assertEquals("Dokument 7", Files.readString(target.resolve("doc7.pdf")));
+        } finally {
+            try (var paths = Files.walk(root)) {
+                for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    @Test
+    void failingCallbackDoesNotCountACopiedDocumentAsFailed() throws Exception {
+        Path root = Files.createTempDirectory("copy-engine");
+        try {
+            Path src = Files.writeString(root.resolve("src.pdf"), "Dokument");
+            List<CopyJob> jobs = List.of(new CopyJob(src.toString(), root.resolve("ziel").toString(), "doc.pdf", "doc"));
+
+            DocumentCopyEngine.CopyStats stats = new DocumentCopyEngine(2).execute(jobs, SILENT, 0, 100, job -> {
+                throw new IllegalStateException("Journal nicht beschreibbar");
+            });
+
+            assertEquals(1, stats.copied());
+            assertEquals(0, stats.failed());
+            assertEquals(jobs.size(), stats.available() + stats.failed());
+        } finally {
+            try (var paths = Files.walk(root)) {
+                for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import formatter.FormatEngine;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vergleicht die FormatEngine mit den bisherigen JDK-Formatierern.
+ */
+class FormatEngineTest {
+
+    private static DecimalFormat reference(String pattern) {
+        return new DecimalFormat(pattern, DecimalFormatSymbols.getInstance(Locale.GERMANY));
+    }
+
+    @Test
+    void moneyMatchesDecimalFormat() {
+        DecimalFormat ref = reference("#,##0.00");
+        Random rnd = new Random(42);
+        double[] fixed = {0, 1, -1, 0.005, 0.015, 0.125, 0.135, 1.005, 2.675, 999.995, 1234.5,
+                -1234.567, 1_000_000, 12_345_678.9, 0.1 + 0.2};
+        for (double v : fixed) {
+            assertEquals(ref.format(v), FormatEngine.MONEY_DE.format(v), "Wert " + v);
+        }
+        for (int i = 0; i < 20_000; i++) {
+            double v = Math.round((rnd.nextDouble() - 0.3) * 1e8) / 1000.0;
+            assertEquals(ref.format(v), FormatEngine.MONEY_DE.format(v), "Wert " + v);
+        }
+    }
+
+    @Test
+    void percentTrimsTrailingZeros() {
+        DecimalFormat ref = reference("#,##0.##");
+        FormatEngine.Decimal percent = FormatEngine.decimal(Locale.GERMANY, 0, 2);
+        for (double v : new double[]{0, 19, 7.5, 33.333, 100, 0.1, 1234.56}) {
+            assertEquals(ref.format(v), percent.format(v), "Wert " + v);
+        }
+    }
+
+    @Test
+    void parsedMoneyMatchesBigDecimalPath() {
+        NumberFormat ref = NumberFormat.getNumberInstance(Locale.GERMANY);
+        ref.setMinimumFractionDigits(2);
+        ref.setMaximumFractionDigits(2);
+        String[] inputs = {"1234.5", "1234,567", "-12,50", "EUR 99", "0.125", "0.135", "12345678901234.99",
+                "1.", ".5", "000123", "123456789012345678901,2345"};
+        for (String in : inputs) {
+            String clean = in.replace(",", ".").replaceAll("[^\\d.\\-]", "");
+            StringBuilder sb = new StringBuilder();
+            assertTrue(FormatEngine.appendParsed(sb, in, FormatEngine.MONEY_DE), in);
+            assertEquals(ref.format(new BigDecimal(clean)), sb.toString(), in);
+        }
+        for (String bad : new String[]{"", "abc", "1.234,56", "12-3", "-", "."}) {
+            StringBuilder sb = new StringBuilder();
+            assertFalse(FormatEngine.appendParsed(sb, bad, FormatEngine.MONEY_DE), bad);
+            assertEquals("", sb.toString());
+        }
+    }
+
+    @Test
+    void parseDecimalFollowsAppendParsedRules() {
+        assertEquals(1234.5, FormatEngine.parseDecimal("1234,5"), 0.0);
+        assertEquals(-0.07, FormatEngine.parseDecimal(" -0.07 € "), 0.0);
+        assertEquals(12.0, FormatEngine.parseDecimal("12"), 0.0);
+        assertTrue(Double.isNaN(FormatEngine.parseDecimal("1.234,56"))); // zwei Trenner
+        assertTrue(Double.isNaN(FormatEngine.parseDecimal("abc")));
+        assertTrue(Double.isNaN(FormatEngine.parseDecimal(null)));
+        assertEquals(1e-20, FormatEngine.parseDecimal("0.00000000000000000001"), 1e-30);
+    }
+
+    @Test
+    void dbDatesAreReformattedWithoutParsingExceptions() {
+        DateTimeFormatter out = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+        LocalDate d = LocalDate.of(1999, 12, 31);
+        for (int i = 0; i < 4000; i++, d = d.plusDays(3)) {
+            String raw = d.format(DateTimeFormatter.BASIC_ISO_DATE);
+            assertEquals(d.format(out), FormatEngine.formatDate(raw));
+        }
+        assertEquals("29.02.2024", FormatEngine.formatDate("20240229"));
+        assertEquals("20230229", FormatEngine.formatDate("20230229"));
+        assertEquals("20241301", FormatEngine.formatDate("20241301"));
+        assertEquals("2024-01-01", FormatEngine.formatDate("2024-01-01"));
+        assertEquals(" 20240101", FormatEngine.formatDate(" 20240101"));
+    }
+
+    @Test
+    void sharedFormatterIsThreadSafe() throws Exception {
+        DecimalFormat ref = reference("#,##0.00");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int seed = t;
+                results.add(pool.submit(() -> {
+                    Random rnd = new Random(seed);
+                    DecimalFormat local = (DecimalFormat) ref.clone();
+                    int mismatches = 0;
+                    for (int i = 0; i < 20_000; i++) {
+                        double v = Math.round(rnd.nextDouble() * 1e9) / 100.0;
+                        if (!local.format(v).equals(FormatEngine.MONEY_DE.format(v))) mismatches++;
+                    }
+                    return mismatches;
+                }));
+            }
+            for (Future<Integer> f : results) {
+                assertEquals(Integer.valueOf(0), f.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+import file.writer.GroupedCsvWriter;
+import file.writer.GroupedXlsxWriter;
+import gui.controller.service.FormatterService;
+import model.KahanSum;
+import model.RowData;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupedWriterTest {
+
+    private static RowData row(String vsn, String makler, String ges) {
+        RowData r = new RowData();
+        r.put("Versicherungsschein_Nr", vsn);
+        r.put("Makler", makler);
+        r.put("Gesellschaft_Name", ges);
+        return r;
+    }
+
+    /**
+     * Nach Makler, Gesellschaft sortiert – so wie sie per ORDER BY aus der DB kommen.
+     */
+    private static List<RowData> sortedRows() {
+        String[] makler = {"M1", "M2", "M3"};
+        String[] ges = {"Allianz", "HDI", "R+V, AG"};
+        List<RowData> rows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            rows.add(row("VSN" + i, makler[i % 3], ges[i % 3 == 0 ? 0 : i % 2 + 1]));
+        }
+        rows.sort(Comparator.comparing((RowData r) -> r.getValues().get("Makler"))
+                .thenComparing(r -> r.getValues().get("Gesellschaft_Name")));
+        return rows;
+    }
+
+    @Test
+    void sortedCsvMatchesMapBasedExport() throws Exception {
+        List<RowData> rows = sortedRows();
+        List<String> groups = List.of("Makler", "Gesellschaft"); // UI-Labels
+        Path expected = Files.createTempFile("grouped-map", ".csv");
+        Path actual = Files.createTempFile("grouped-sorted", ".csv");
+        try {
+            new GroupedCsvWriter().writeGrouped(rows, groups, expected.toString());
+            try (GroupedCsvWriter.SortedWriter w = new GroupedCsvWriter().openSorted(actual.toString(), groups)) {
+                assertEquals(List.of("Makler", "Gesellschaft_Name"), w.sortKeys());
+                // blockweise wie aus streamRawQuery
+                for (int i = 0; i < rows.size(); i += 7) {
+                    w.writeAll(rows.subList(i, Math.min(rows.size(), i + 7)));
+                }
+                assertEquals(5, w.groups());
+            }
+            String csv = Files.readString(actual, StandardCharsets.UTF_8);
+            assertEquals(Files.readString(expected, StandardCharsets.UTF_8), csv);
+            assertTrue(csv.contains("# Gruppe: M1 / Allianz /"), csv);
+            assertTrue(csv.contains("\"R+V, AG\""), csv);
+        } finally {
+            Files.deleteIfExists(expected);
+            Files.deleteIfExists(actual);
+        }
+    }
+
+    @Test
+    void sortedXlsxWritesGroupRowsWithOutline() throws Exception {
+        List<RowData> rows = sortedRows();
+        Path file = Files.createTempFile("grouped-sorted", ".xlsx");
+        try {
+            try (GroupedXlsxWriter.SortedWriter w = new GroupedXlsxWriter().openSorted(file.toString(),
+                    List.of("Makler", "Gesellschaft"))) {
+                w.writeAll(rows);
+                assertEquals(3 + 5, w.groups()); // 3 Makler + 5 Makler/Gesellschaft
+            }
+            try (XSSFWorkbook wb = new XSSFWorkbook(new FileInputStream(file.toFile()))) {
+                Sheet sheet = wb.getSheetAt(0);
+                assertEquals(1 + 8 + rows.size(), sheet.getPhysicalNumberOfRows());
+
+                Row m1 = sheet.getRow(1);
+                assertEquals("M1", m1.getCell(1).getStringCellValue());
+                assertEquals(0, m1.getOutlineLevel());
+                assertFalse(m1.getZeroHeight());
+
+                Row allianz = sheet.getRow(2);
+                assertEquals("Allianz", allianz.getCell(2).getStringCellValue());
+                assertEquals(1, allianz.getOutlineLevel());
+
+                Row data = sheet.getRow(3);
+                assertEquals(rows.get(0).getValues().get("Versicherungsschein_Nr"), data.getCell(0).getStringCellValue());
+                assertEquals(2, data.getOutlineLevel());
+                assertTrue(data.getZeroHeight()); // standardmäßig zugeklappt
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void xlsxRejectsUnknownGroupColumn() throws Exception {
+        Path file = Files.createTempFile("grouped-invalid", ".xlsx");
+        try (GroupedXlsxWriter.SortedWriter w = new GroupedXlsxWriter().openSorted(file.toString(), List.of("Gibtsnicht"))) {
+            assertThrows(IllegalStateException.class, () -> w.write(row("VSN1", "M1", "HDI")));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void subtotalsPerGroupAndGrandTotalAsStaticValues() throws Exception {
+        FormatterService.reloadRuntimeConfig(); // "Restreserve" ist als MONEY konfiguriert
+        List<RowData> rows = sortedRows();
+        for (RowData r : rows) r.put("Restreserve", "0,10");
+        Path file = Files.createTempFile("grouped-totals", ".xlsx");
+        try {
+            new GroupedXlsxWriter().writeGrouped(rows, List.of("Makler"), file.toString());
+
+            Map<String, Row> totals = new LinkedHashMap<>();
+            try (XSSFWorkbook wb = new XSSFWorkbook(new FileInputStream(file.toFile()))) {
+                Sheet sheet = wb.getSheetAt(0);
+                for (Row row : sheet) {
+                    for (Cell cell : row) {
+                        if (cell.getCellType() == CellType.STRING
+                                && (cell.getStringCellValue().startsWith("Summe ") || cell.getStringCellValue().equals("Gesamtsumme"))) {
+                            totals.put(cell.getStringCellValue(), row);
+                        }
+                    }
+                }
+                assertEquals(List.of("Summe M1", "Summe M2", "Summe M3", "Gesamtsumme"), List.copyOf(totals.keySet()));
+                assertEquals(1 + 3 + rows.size() + 4, sheet.getPhysicalNumberOfRows());
+
+                Cell m1 = totals.get("Summe M1").getCell(3);
+                assertEquals(CellType.NUMERIC, m1.getCellType()); // fester Wert, keine Formel
+                assertEquals(1.4, m1.getNumericCellValue(), 1e-12);
+                assertEquals(1.3, totals.get("Summe M2").getCell(3).getNumericCellValue(), 1e-12);
+                assertEquals(4.0, totals.get("Gesamtsumme").getCell(3).getNumericCellValue(), 0.0);
+                // Summenzeile auf der Ebene der Gruppe, direkt nach deren letzter Datenzeile
+                assertEquals(0, totals.get("Summe M1").getOutlineLevel());
+                assertEquals(1, sheet.getRow(totals.get("Summe M1").getRowNum() - 1).getOutlineLevel());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void abortedSortedExportLeavesNoFile() throws Exception {
+        List<RowData> rows = sortedRows();
+        List<String> groups = List.of("Makler");
+        Path dir = Files.createTempDirectory("grouped-abort");
+        Path csv = dir.resolve("abbruch.csv");
+        Path xlsx = dir.resolve("abbruch.xlsx");
+        try {
+            // wie im Controller: Fehler beim Laden mitten im Export
+            try (GroupedCsvWriter.SortedWriter w = new GroupedCsvWriter().openSorted(csv.toString(), groups)) {
+                w.writeAll(rows.subList(0, 10));
+                w.abort();
+            }
+            try (GroupedXlsxWriter.SortedWriter w = new GroupedXlsxWriter().openSorted(xlsx.toString(), groups)) {
+                w.writeAll(rows.subList(0, 10));
+                w.abort();
+            }
+            assertFalse(Files.exists(csv));
+            assertFalse(Files.exists(xlsx));
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(xlsx);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void kahanSumKeepsCents() {
+        KahanSum sum = new KahanSum();
+        double naive = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            sum.add(0.01);
+            naive += 0.01;
+        }
+        assertEquals(10_000.0, sum.sum(), 0.0);
+        assertNotEquals(10_000.0, naive);
+        assertEquals(1_000_000, sum.count());
+    }
+}
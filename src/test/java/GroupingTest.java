@@ -0,0 +1,96 @@
+import model.Grouping;
+import model.GroupingUtil;
+import model.RowData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupingTest {
+
+    private static final Grouping.Level MAKLER = Grouping.Level.column("Makler", "-");
+    private static final Grouping.Level GESELLSCHAFT = Grouping.Level.column("Gesellschaft_Name", "-");
+    private static final Grouping.Level SB = Grouping.Level.column("SB_Vertr", "-");
+
+    private static RowData row(String makler, String ges, String sb) {
+        RowData r = new RowData();
+        r.put("Makler", makler);
+        r.put("Gesellschaft_Name", ges);
+        if (sb != null) r.put("SB_Vertr", sb);
+        return r;
+    }
+
+    private static List<RowData> rows() {
+        List<RowData> rows = new ArrayList<>();
+        String[] makler = {"M1", "M2", "M3"};
+        String[] ges = {"Allianz", "HDI"};
+        for (int i = 0; i < 60; i++) {
+            rows.add(row(makler[i % 3], ges[i % 2], i % 5 == 0 ? null : "SB" + (i % 4)));
+        }
+        return rows;
+    }
+
+    @Test
+    void refineMatchesFreshGrouping() {
+        List<RowData> rows = rows();
+        Grouping fresh = Grouping.of(rows, List.of(MAKLER, GESELLSCHAFT, SB));
+        Grouping refined = Grouping.of(rows, List.of(MAKLER)).refine(GESELLSCHAFT).refine(SB);
+
+        assertEquals(fresh.leaves(), refined.leaves());
+        assertEquals(3, fresh.depth());
+        assertEquals(rows.size(), fresh.rows().size());
+        assertTrue(fresh.leaves().containsKey(List.of("M1", "Allianz", "-"))); // fehlende Spalte → "-"
+    }
+
+    @Test
+    void coarsenAndRegroupKeepCommonLevels() {
+        List<RowData> rows = rows();
+        Grouping three = Grouping.of(rows, List.of(MAKLER, GESELLSCHAFT, SB));
+
+        assertEquals(Grouping.of(rows, List.of(MAKLER, GESELLSCHAFT)).leaves(), three.coarsen().leaves());
+        assertEquals(Grouping.of(rows, List.of(MAKLER, SB)).leaves(), three.regroup(List.of(MAKLER, SB)).leaves());
+        assertEquals(Grouping.of(rows).rows(), three.regroup(List.of()).rows());
+        assertEquals(0, three.regroup(List.of()).depth());
+        assertSame(three, three.regroup(List.of(MAKLER, GESELLSCHAFT, SB)));
+    }
+
+    @Test
+    void groupsAreHierarchicalInFirstSeenOrder() {
+        List<RowData> rows = List.of(
+                row("B", "x", "1"), row("A", "y", "1"), row("B", "y", "1"), row("A", "x", "1"), row("B", "x", "2"));
+        Grouping g = Grouping.of(rows, List.of(MAKLER, GESELLSCHAFT));
+
+        assertEquals(List.of(List.of("B", "x"), List.of("B", "y"), List.of("A", "y"), List.of("A", "x")),
+                new ArrayList<>(g.leaves().keySet()));
+        assertEquals(List.of(rows.get(0), rows.get(4), rows.get(2), rows.get(1), rows.get(3)), g.rows());
+
+        Grouping.Group b = g.root().children().get(0);
+        assertEquals("B", b.value());
+        assertEquals(3, b.rows().size());
+        // ein Schlüssel je Gruppe: die Map-Schlüssel sind die Pfade der Gruppen
+        for (Grouping.Group child : b.children()) {
+            assertTrue(g.leaves().keySet().stream().anyMatch(k -> k == child.path()));
+        }
+    }
+
+    @Test
+    void groupingUtilResolvesAliases() {
+        List<RowData> rows = rows();
+        Map<List<String>, List<RowData>> grouped = GroupingUtil.groupRows(rows, List.of("Makler", "Gesellschaft"));
+
+        assertEquals(6, grouped.size());
+        assertEquals(10, grouped.get(List.of("M1", "Allianz")).size());
+        assertEquals(Map.of(List.of("Alle"), rows), GroupingUtil.groupRows(rows, List.of()));
+        assertEquals(GroupingUtil.levels(List.of("Gesellschaft")), List.of(GESELLSCHAFT));
+    }
+
+    @Test
+    void pathProviderAppliesAllLevels() {
+        Grouping.Path path = new Grouping.Path(List.of(MAKLER, Grouping.Level.fixed("COVER")));
+        assertEquals(List.of("M1", "COVER"), path.apply(row("M1", "HDI", null)));
+        assertEquals(path, new Grouping.Path(List.of(MAKLER, Grouping.Level.fixed("COVER"))));
+    }
+}
@@ -0,0 +1,44 @@
+import model.ai.AiReportTemplate;
+import model.ai.ir.QueryIR;
+import model.ai.nlp.KeywordIndex;
+import model.ai.nlp.NLParser;
+import model.ai.nlp.PromptText;
+import model.ai.provider.impl.CoverKnowledgeProvider;
+import model.ai.provider.impl.SchadenKnowledgeProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordIndexTest {
+
+    private final KeywordIndex index = KeywordIndex.shared();
+    private final AiReportTemplate cover = new CoverKnowledgeProvider().getReportTemplates().get(0);
+    private final AiReportTemplate schaden = new SchadenKnowledgeProvider().getReportTemplates().get(0);
+
+    @Test
+    void resolvesKeywordsPerTemplateIgnoringSeparators() {
+        assertEquals("Makler-Nr", index.resolve(cover, "makler_nr").getColumnAlias());
+        assertEquals("Makler-Nr", index.resolve(cover, "Makler-Nr").getColumnAlias());
+        assertEquals("VSN", index.resolve(cover, "vsn").getColumnAlias());
+        assertEquals("VS-Nr", index.resolve(schaden, "vsn").getColumnAlias());
+        assertNull(index.resolve(cover, "schadentag"), "Schaden-Keyword gehört nicht zur Cover-Vorlage.");
+        assertSame(index, KeywordIndex.forTemplate(cover));
+    }
+
+    @Test
+    void scanPrefersLongestMatchLeftToRight() {
+        List<KeywordIndex.FieldMention> mentions =
+                index.scan(PromptText.of("firma makler nr und makler name, land code"));
+        assertEquals(List.of("firma", "makler nr", "makler name", "land code"),
+                mentions.stream().map(KeywordIndex.FieldMention::phrase).toList());
+    }
+
+    @Test
+    void parserSplitsFieldListsWithoutSeparators() {
+        QueryIR ir = new NLParser().parse("Verträge mit Feldern firma makler nr, sb gl");
+        assertEquals(List.of("firma", "makler_nr", "sb gl"),
+                ir.projections.stream().map(p -> p.field).toList());
+    }
+}
@@ -0,0 +1,54 @@
+import model.ai.nlp.NLUnderstandingService;
+import model.ai.nlp.PromptText;
+import model.ai.nlp.PromptUnderstandingService.UnderstandingResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NLUnderstandingServiceTest {
+
+    private static final List<String> PROMPTS = List.of(
+            "COVER für Makler Name Gründemann",
+            "COVER mit VSN 12345678",
+            "Verträge für Makler 100120 außer Firma, Land",
+            "COVER für Makler Name Gründemann order by Firma asc, Land desc",
+            "Verträge mit Status A und aus Land DEU",
+            "Verträge mit Beginn zwischen 01.01.2024 und 31.12.2024",
+            "alle cover",
+            "was kannst du?"
+    );
+
+    @Test
+    void repeatedPromptIsServedFromCache() {
+        NLUnderstandingService service = new NLUnderstandingService();
+        UnderstandingResult first = service.understand("Verträge für Makler 100120");
+        UnderstandingResult again = service.understand("  verträge für makler 100120 ");
+        assertSame(first, again, "Gleicher normalisierter Prompt sollte aus dem Cache kommen.");
+    }
+
+    @Test
+    void cachedResultsMatchFreshAnalysis() {
+        NLUnderstandingService warm = new NLUnderstandingService();
+        PROMPTS.forEach(warm::understand);
+
+        for (String prompt : PROMPTS) {
+            UnderstandingResult cached = warm.understand(prompt);
+            UnderstandingResult fresh = new NLUnderstandingService().understand(prompt);
+            assertEquals(fresh.status, cached.status, prompt);
+            assertEquals(fresh.isCapabilitiesIntent, cached.isCapabilitiesIntent, prompt);
+            assertEquals(fresh.unknownTokens, cached.unknownTokens, prompt);
+            assertEquals(fresh.ir.context, cached.ir.context, prompt);
+            assertEquals(fresh.ir.filters.size(), cached.ir.filters.size(), prompt);
+        }
+    }
+
+    @Test
+    void promptTextTokenizesOnce() {
+        PromptText text = PromptText.of("  Verträge für Makler 100120, außer Land ");
+        assertEquals("verträge für makler 100120, außer land", text.lower());
+        assertEquals(List.of("verträge", "für", "makler", "100120", "außer", "land"), text.tokens());
+        assertSame(text.tokens(), text.tokens());
+    }
+}
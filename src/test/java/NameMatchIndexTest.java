@@ -0,0 +1,40 @@
+import org.junit.jupiter.api.Test;
+import service.audit.match.NameMatchIndex;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameMatchIndexTest {
+
+    @Test
+    void exactMatchIgnoresCaseAccentsAndSpaces() {
+        NameMatchIndex index = new NameMatchIndex(0);
+        index.add("W1040174", "Jürgen  Müller");
+
+        assertTrue(index.matches("W1040174", " jurgen muller "), "Akzente/Leerzeichen sollten ignoriert werden.");
+        assertFalse(index.matches("W1040175", "Jürgen Müller"), "Anderer Schlüssel darf nicht matchen.");
+        assertFalse(index.closeMatch("W1040174", "Jurgen Muler").isPresent(), "Exakter Modus liefert keine Vorschläge.");
+    }
+
+    @Test
+    void fuzzyModeFlagsTyposPerKey() {
+        NameMatchIndex index = new NameMatchIndex(2);
+        index.add("W1040174", "Jürgen Müller");
+        index.add("W1040174", "Anna Schmidt");
+
+        Optional<String> typo = index.closeMatch("W1040174", "Jurgen Muler");
+        assertEquals(Optional.of("Jürgen Müller"), typo);
+        assertFalse(index.closeMatch("W1040174", "Peter Wagner").isPresent());
+    }
+
+    @Test
+    void suggestFindsSimilarNameAcrossKeys() {
+        NameMatchIndex index = new NameMatchIndex(2);
+        index.add("2404343", "Stephane Dongmo");
+        index.add("2408474", "Christian Becker");
+
+        assertEquals(Optional.of("Christian Becker"), index.suggest("Christain Becker"));
+        assertFalse(index.suggest("Maria Lopez").isPresent());
+    }
+}
@@ -0,0 +1,82 @@
+import formatter.op.OpListeFormatter;
+import model.RowData;
+import model.op.OpInvoice;
+import model.op.OpLine;
+import org.junit.jupiter.api.Test;
+
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpListeFormatterTest {
+
+    private static RowData raw(String rnr, String vsn, String rdt, String praemie, String rest) {
+        RowData r = new RowData();
+        r.put("A.LU_RNR", rnr);
+        r.put("A.LU_VSN", vsn);
+        r.put("A.LU_ZJ", "2023");
+        r.put("LMP.LU_NAM", "Muster (GmbH)");
+        r.put("A.LU_RDT", rdt);
+        r.put("A.LU_FLG", "");
+        r.put("LU_Praemie", praemie);
+        r.put("LU_Restbetrag", rest);
+        r.put("LU_OBT", "50");
+        r.put("LU_VSTBetrag", "19.00");
+        r.put("LU_SPAKZ", "999");
+        return r;
+    }
+
+    @Test
+    void parseReadsPrimitivesOnce() {
+        OpListeFormatter f = new OpListeFormatter();
+        OpLine line = f.parse(List.of(raw("R1", "P1", "20240315", "1.234,50", "234,50"))).get(0);
+
+        assertEquals(1234.50, line.praemie(), 1e-9);
+        assertEquals(1000.00, line.zahlbetrag(), 1e-9);
+        assertEquals(38.00, line.steuerbetrag100(), 1e-9);
+        assertEquals(0.0, line.courtageProzent(), 1e-9);
+        assertEquals(LocalDate.of(2024, 3, 15), line.rgDatum());
+        assertNull(line.faelligkeit());
+    }
+
+    @Test
+    void displayRowFormatsAtBoundary() {
+        OpListeFormatter f = new OpListeFormatter();
+        RowData row = f.format(List.of(raw("R1", "P1", "20240315", "1234.5", "234.5"))).get(0);
+
+        // Format der Standard-Locale, wie im Formatter
+        DecimalFormat money = new DecimalFormat("#,##0.00");
+        assertEquals(money.format(1234.5), row.getValues().get("Abrechnungsbetrag"));
+        assertEquals(money.format(1000), row.getValues().get("Zahlbetrag/Teilzahlungen"));
+        assertEquals("20240315", row.getValues().get("Rg-Datum"));
+        assertEquals("Muster GmbH", row.getValues().get("Versicherungsnehmer"));
+        assertEquals("1234.5", row.getValues().get("LU_Praemie"));
+    }
+
+    @Test
+    void aggregatesPerInvoiceOnPrimitives() {
+        OpListeFormatter f = new OpListeFormatter();
+        List<OpLine> lines = f.parse(List.of(
+                raw("R1", "P1", "20240315", "100.10", "50.05"),
+                raw("R1", "P1", "20240315", "200.20", "0"),
+                raw("R2", "P1", "20250101", "10", "-5")));
+
+        List<OpInvoice> invoices = f.aggregate(lines, "Kunde AG");
+
+        assertEquals(2, invoices.size());
+        OpInvoice first = invoices.get(0);
+        assertEquals("R1", first.rgNr());
+        assertEquals("Kunde AG", first.versicherungsnehmer());
+        assertEquals(300.30, first.abrechnungsbetrag(), 1e-9);
+        assertEquals(250.25, first.zahlbetrag(), 1e-9);
+        assertEquals(50.05, first.saldo(), 1e-9);
+        assertTrue(first.isHighlighted());
+        assertFalse(invoices.get(1).isHighlighted());
+
+        RowData text = f.formatForExport(invoices).get(0);
+        assertEquals("15.03.2024", text.getValues().get("Rg-Datum"));
+        assertEquals("", text.getValues().get("Fälligkeit"));
+    }
+}
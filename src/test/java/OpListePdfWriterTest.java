@@ -0,0 +1,132 @@
+import file.writer.PdfTextMetrics;
+import file.writer.PdfWriter;
+import file.writer.op.OpListePdfWriter;
+import model.RowData;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpListePdfWriterTest {
+
+    private static final List<String> HEADERS = List.of("Rg-NR", "Versicherungsnehmer", "SALDO", "Rg-Datum");
+
+    /**
+     * Legt {@code fitTextToCell} für den Test offen.
+     */
+    private static final class Probe extends PdfWriter {
+        String fit(String text, PDFont font, float size, float width) throws IOException {
+            return fitTextToCell(text, font, size, width);
+        }
+    }
+
+    /**
+     * Bisherige Kürzung: eine Breitenmessung pro Versuch.
+     */
+    private static String fitByMeasuring(String text, PDFont font, float fontSize, float cellWidth) throws IOException {
+        String original = text.trim();
+        if (original.isEmpty()) return "";
+        float maxWidth = cellWidth - 2f;
+        String candidate = original;
+        while (!candidate.isEmpty()) {
+            if (font.getStringWidth(candidate) / 1000f * fontSize <= maxWidth) break;
+            if (candidate.length() <= 4) {
+                candidate = candidate.substring(0, 1);
+                break;
+            }
+            candidate = candidate.substring(0, candidate.length() - 2);
+        }
+        if (!candidate.equals(original) && candidate.length() >= 3) {
+            candidate = candidate.substring(0, candidate.length() - 3) + "...";
+        }
+        return candidate;
+    }
+
+    @Test
+    void fitTextToCellMatchesPerCandidateMeasurement() throws IOException {
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        Probe probe = new Probe();
+        List<String> texts = List.of("RG4711", "Müller Spedition GmbH & Co. KG, Hamburg", "Wi", "WWWWWW",
+                "  Versicherungsnehmer  ", "1.234.567,89", "ÄÖÜ äöü ß €");
+        for (String text : texts) {
+            for (float width : new float[]{3f, 8f, 15f, 40f, 68.5f, 300f}) {
+                assertEquals(fitByMeasuring(text, font, 5.5f, width), probe.fit(text, font, 5.5f, width),
+                        text + " @ " + width);
+            }
+        }
+        assertEquals("", probe.fit(null, font, 5.5f, 40f));
+
+        String text = "Carl Schröter";
+        assertEquals(font.getStringWidth(text), PdfTextMetrics.width(font, text));
+        assertEquals(font.getStringWidth(text), PdfTextMetrics.prefixWidths(font, text)[text.length()]);
+    }
+
+    @Test
+    void streamsRowsOntoPagesAndSumsMoneyColumns() throws IOException {
+        Path file = Files.createTempFile("opliste", ".pdf");
+        try {
+            try (OpListePdfWriter.RowSink sink = new OpListePdfWriter().open(file.toString(), HEADERS)) {
+                for (int i = 0; i < 200; i++) {
+                    RowData row = new RowData();
+                    row.put("Rg-NR", "RG" + i);
+                    row.put("Versicherungsnehmer", "Kunde " + i);
+                    row.put("SALDO", "0,10");
+                    row.put("Rg-Datum", "15.01.2025");
+                    sink.write(row);
+                }
+                assertEquals(200, sink.rows());
+            }
+
+            try (PDDocument pdf = Loader.loadPDF(file.toFile())) {
+                assertTrue(pdf.isEncrypted());
+                assertTrue(pdf.getNumberOfPages() > 1);
+                String text = new PDFTextStripper().getText(pdf);
+                assertTrue(text.contains("RG0"));
+                assertTrue(text.contains("RG199"));
+                assertTrue(text.contains("20,00 €"), "Summe SALDO");
+                assertTrue(text.contains("Seite 1 / " + pdf.getNumberOfPages()));
+
+                // Logo nur einmal eingebettet, alle Seiten verweisen auf dasselbe XObject
+                PDResources first = pdf.getPage(0).getResources();
+                PDResources last = pdf.getPage(pdf.getNumberOfPages() - 1).getResources();
+                COSName logo = first.getXObjectNames().iterator().next();
+                assertSame(first.getXObject(logo).getCOSObject(),
+                        last.getXObject(last.getXObjectNames().iterator().next()).getCOSObject());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void failedRowDiscardsTheDocumentInsteadOfSavingIt() throws IOException {
+        Path dir = Files.createTempDirectory("opliste");
+        Path file = dir.resolve("abbruch.pdf");
+        try {
+            RowData ok = new RowData();
+            ok.put("Rg-NR", "RG1");
+            ok.put("SALDO", "10,00");
+            RowData broken = new RowData();
+            broken.put("Rg-NR", "\u4E2D\u6587"); // nicht in WinAnsi kodierbar
+
+            assertThrows(IllegalArgumentException.class, () -> new OpListePdfWriter()
+                    .writeCustomData(List.of(ok, broken), HEADERS, file.toString()));
+            assertFalse(Files.exists(file));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+}
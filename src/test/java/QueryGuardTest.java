@@ -0,0 +1,32 @@
+import org.junit.jupiter.api.Test;
+import service.impl.QueryGuard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryGuardTest {
+
+    @Test
+    void injectsTopIntoSimpleSelect() {
+        assertEquals("SELECT TOP 2000 LU_VSN FROM LU_ALLE WHERE LU_VMT = ?",
+                QueryGuard.limitSql("SELECT LU_VSN FROM LU_ALLE WHERE LU_VMT = ?;", 2000));
+        assertEquals("select distinct TOP 10 LU_VMT FROM LU_ALLE",
+                QueryGuard.limitSql("select distinct LU_VMT FROM LU_ALLE", 10));
+    }
+
+    @Test
+    void keepsQueriesWithOwnLimitOrUnion() {
+        String withLimit = "SELECT LU_VSN FROM LU_ALLE ORDER BY LU_VSN LIMIT ?";
+        assertEquals(withLimit, QueryGuard.limitSql(withLimit, 2000));
+        String withTop = "SELECT TOP 5 LU_VSN FROM LU_ALLE";
+        assertEquals(withTop, QueryGuard.limitSql(withTop, 2000));
+        String union = "SELECT A FROM X UNION SELECT A FROM Y";
+        assertEquals(union, QueryGuard.limitSql(union, 2000));
+    }
+
+    @Test
+    void countSqlDropsTrailingOrderByButKeepsLimit() {
+        assertEquals("SELECT COUNT(*) FROM (SELECT LU_VSN FROM LU_ALLE WHERE LU_VMT = ?) AS guard_count",
+                QueryGuard.countSql("SELECT LU_VSN FROM LU_ALLE WHERE LU_VMT = ? ORDER BY LU_VSN DESC;"));
+        assertTrue(QueryGuard.countSql("SELECT A FROM X ORDER BY A LIMIT ?").contains("ORDER BY A LIMIT ?"));
+    }
+}
@@ -0,0 +1,79 @@
+import model.RowData;
+import model.RowSnapshot;
+import org.junit.jupiter.api.Test;
+import service.cache.CachedDatabaseService;
+import service.interfaces.DatabaseService;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowSnapshotTest {
+
+    private static RowData row(String... kv) {
+        RowData r = new RowData();
+        for (int i = 0; i < kv.length; i += 2) r.put(kv[i], kv[i + 1]);
+        return r;
+    }
+
+    @Test
+    void writesThroughAnyViewLeaveSnapshotUntouched() {
+        RowSnapshot snapshot = RowSnapshot.of(row("Makler", "100120", "Land", "DE", "Firma", "ACME"));
+
+        RowData a = snapshot.toRow();
+        a.put("Land", "Deutschland");
+        a.getValues().remove("Firma");
+
+        RowData b = snapshot.toRow();
+        b.getValues().keySet().removeIf("Makler"::equals);
+
+        RowData c = snapshot.toRow();
+        for (Iterator<Map.Entry<String, String>> it = c.getValues().entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, String> e = it.next();
+            if (e.getKey().equals("Land")) e.setValue("AT");
+            if (e.getKey().equals("Firma")) it.remove();
+        }
+
+        assertEquals(Map.of("Makler", "100120", "Land", "Deutschland"), a.getValues());
+        assertEquals(Map.of("Land", "DE", "Firma", "ACME"), b.getValues());
+        assertEquals(Map.of("Makler", "100120", "Land", "AT"), c.getValues());
+        assertEquals(List.of("Makler", "Land", "Firma"), new ArrayList<>(snapshot.values().keySet()));
+        assertEquals("DE", snapshot.values().get("Land"));
+    }
+
+    @Test
+    void readsKeepColumnOrder() {
+        RowData r = RowSnapshot.of(row("b", "2", "a", "1", "c", "3")).toRow();
+
+        assertArrayEquals(new String[]{"2", "1", "3"}, r.getOrderedValues());
+        assertEquals(List.of("b", "a", "c"), new ArrayList<>(r.getValues().keySet()));
+    }
+
+    @Test
+    void callersCannotPoisonCachedResults() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        DatabaseService db = (DatabaseService) Proxy.newProxyInstance(
+                DatabaseService.class.getClassLoader(),
+                new Class<?>[]{DatabaseService.class},
+                (proxy, method, args) -> {
+                    calls.incrementAndGet();
+                    return new ArrayList<>(List.of(row("Makler", "100120", "Land", "DE")));
+                });
+        CachedDatabaseService cached = new CachedDatabaseService(db);
+
+        List<RowData> first = cached.executeRawQuery("SELECT 1");
+        first.get(0).put("Land", "Deutschland");
+        first.get(0).getValues().remove("Makler");
+        first.clear();
+
+        List<RowData> second = cached.executeRawQuery("SELECT 1");
+        assertEquals(1, calls.get(), "Zweiter Aufruf sollte ein Cache-Treffer sein.");
+        assertEquals(1, second.size());
+        assertEquals(Map.of("Makler", "100120", "Land", "DE"), second.get(0).getValues());
+    }
+}
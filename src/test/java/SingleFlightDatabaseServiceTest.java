@@ -0,0 +1,103 @@
+import model.RowData;
+import org.junit.jupiter.api.Test;
+import service.cache.SingleFlightDatabaseService;
+import service.interfaces.DatabaseService;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightDatabaseServiceTest {
+
+    /**
+     * Stub, dessen executeRawQuery(sql, params...) blockiert, bis {@code release} geöffnet wird.
+     */
+    private static DatabaseService blockingDb(AtomicInteger calls, CountDownLatch started, CountDownLatch release,
+                                              boolean fail) {
+        return (DatabaseService) Proxy.newProxyInstance(
+                DatabaseService.class.getClassLoader(),
+                new Class<?>[]{DatabaseService.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("executeRawQuery") || args.length != 2) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    calls.incrementAndGet();
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    if (fail) throw new IllegalStateException("DB weg");
+                    RowData row = new RowData();
+                    row.put("Makler", ((String[]) args[1])[0]);
+                    return new java.util.ArrayList<>(List.of(row));
+                });
+    }
+
+    @Test
+    void identicalConcurrentQueriesShareOneExecution() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlightDatabaseService service = new SingleFlightDatabaseService(blockingDb(calls, started, release, false));
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<RowData>> first = pool.submit(() -> service.executeRawQuery("SELECT ?", "100120"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<List<RowData>> second = pool.submit(() -> service.executeRawQuery("SELECT ?", "100120"));
+            // dem zweiten Aufrufer Zeit geben, sich an die laufende Abfrage anzuhängen
+            Thread.sleep(100);
+            release.countDown();
+
+            List<RowData> a = first.get(5, TimeUnit.SECONDS);
+            List<RowData> b = second.get(5, TimeUnit.SECONDS);
+            assertEquals(1, calls.get(), "Identische Abfragen sollten nur einmal ausgeführt werden.");
+            assertEquals(a.get(0).getValues(), b.get(0).getValues());
+            assertNotSame(a.get(0), b.get(0), "Wartende Aufrufer erhalten eine eigene Kopie.");
+            // auch der erste Aufrufer arbeitet auf einer eigenen Kopie
+            a.get(0).put("Makler", "geändert");
+            assertEquals("100120", b.get(0).getValues().get("Makler"));
+            assertEquals(0, service.inFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void differentParametersRunSeparately() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(0);
+        SingleFlightDatabaseService service = new SingleFlightDatabaseService(
+                blockingDb(calls, new CountDownLatch(2), release, false));
+
+        assertEquals("1", service.executeRawQuery("SELECT ?", "1").get(0).getValues().get("Makler"));
+        assertEquals("2", service.executeRawQuery("SELECT ?", "2").get(0).getValues().get("Makler"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void failureIsPropagatedToWaitingCallers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlightDatabaseService service = new SingleFlightDatabaseService(blockingDb(calls, started, release, true));
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<RowData>> first = pool.submit(() -> service.executeRawQuery("SELECT ?", "x"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<List<RowData>> second = pool.submit(() -> service.executeRawQuery("SELECT ?", "x"));
+            // dem zweiten Aufrufer Zeit geben, sich an die laufende Abfrage anzuhängen
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException e1 = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            ExecutionException e2 = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e1.getCause());
+            assertInstanceOf(IllegalStateException.class, e2.getCause());
+            assertEquals(1, calls.get());
+            assertEquals(0, service.inFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import file.writer.SplitXlsxWriter;
+import model.RowData;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SplitXlsxWriterTest {
+
+    private static final List<String> HEADERS = List.of("Rg-NR", "Makler", "SALDO", "Rg-Datum");
+
+    private static List<RowData> rows(int n) {
+        List<RowData> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            RowData r = new RowData();
+            r.put("Rg-NR", "RG" + i);
+            r.put("Makler", i < n / 2 ? "M1" : "M2");
+            r.put("SALDO", i + ",50");
+            r.put("Rg-Datum", "20250115");
+            rows.add(r);
+        }
+        return rows;
+    }
+
+    @Test
+    void partitionByCountAndByKey() {
+        List<RowData> rows = rows(35);
+        List<SplitXlsxWriter.Part> byCount = SplitXlsxWriter.partition(rows, 10, null);
+        assertEquals(List.of(10, 10, 10, 5), byCount.stream().map(SplitXlsxWriter.Part::size).toList());
+        assertEquals("Teil4", byCount.get(3).name());
+
+        // M1: 17 Zeilen → zwei Teile, M2: 18 Zeilen → zwei Teile
+        List<SplitXlsxWriter.Part> byKey = SplitXlsxWriter.partition(rows, 10, "Makler");
+        assertEquals(List.of("M1 (1)", "M1 (2)", "M2 (1)", "M2 (2)"),
+                byKey.stream().map(SplitXlsxWriter.Part::name).toList());
+        assertEquals(17, byKey.get(2).from());
+
+        assertEquals(List.of(new SplitXlsxWriter.Part("Export", 0, 0)), SplitXlsxWriter.partition(List.of(), 10, null));
+        assertEquals(1, SplitXlsxWriter.partition(rows(3), Integer.MAX_VALUE, null).size()); // gekappt, kein Überlauf
+    }
+
+    @Test
+    void sheetsAreWrittenInParallelAndKeepRowOrder() throws Exception {
+        List<RowData> rows = rows(2_500);
+        Path file = Files.createTempFile("split", ".xlsx");
+        try {
+            List<Path> written = new SplitXlsxWriter(SplitXlsxWriter.Mode.SHEETS, 1_000, null)
+                    .write(rows, HEADERS, file.toString());
+            assertEquals(List.of(file), written);
+
+            try (XSSFWorkbook wb = new XSSFWorkbook(new FileInputStream(file.toFile()))) {
+                assertEquals(3, wb.getNumberOfSheets());
+                int expected = 0;
+                for (Sheet sheet : wb) {
+                    assertEquals("Rg-NR", sheet.getRow(0).getCell(0).getStringCellValue());
+                    for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+                        assertEquals("RG" + expected++, sheet.getRow(r).getCell(0).getStringCellValue());
+                    }
+                }
+                assertEquals(rows.size(), expected);
+
+                Sheet last = wb.getSheet("Teil3");
+                assertEquals(CellType.NUMERIC, last.getRow(1).getCell(2).getCellType()); // SALDO als Zahl
+                assertEquals(2_000.5, last.getRow(1).getCell(2).getNumericCellValue(), 1e-9);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void filesModeWritesOneWorkbookPerKey() throws Exception {
+        Path dir = Files.createTempDirectory("split-files");
+        Path target = dir.resolve("Export.xlsx");
+        try {
+            List<Path> files = new SplitXlsxWriter(SplitXlsxWriter.Mode.FILES, 100, "Makler")
+                    .write(rows(40), HEADERS, target.toString());
+            assertEquals(List.of(dir.resolve("Export_M1.xlsx"), dir.resolve("Export_M2.xlsx")), files);
+            for (Path f : files) {
+                try (XSSFWorkbook wb = new XSSFWorkbook(new FileInputStream(f.toFile()))) {
+                    assertEquals(20, wb.getSheetAt(0).getLastRowNum());
+                }
+            }
+            assertFalse(Files.exists(target));
+        } finally {
+            try (var stream = Files.list(dir)) {
+                for (Path p : stream.toList()) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+}